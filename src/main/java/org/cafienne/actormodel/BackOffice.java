@@ -17,18 +17,13 @@
 
 package org.cafienne.actormodel;
 
-import akka.actor.Cancellable;
+import akka.actor.ActorRef;
 import org.cafienne.actormodel.command.ModelCommand;
 import org.cafienne.actormodel.exception.AuthorizationException;
 import org.cafienne.actormodel.exception.CommandException;
 import org.cafienne.actormodel.exception.InvalidCommandException;
 import org.cafienne.actormodel.message.IncomingActorMessage;
 import org.cafienne.actormodel.response.*;
-import org.cafienne.infrastructure.Cafienne;
-import scala.concurrent.duration.Duration;
-import scala.concurrent.duration.FiniteDuration;
-
-import java.util.concurrent.TimeUnit;
 
 /**
  * Place that handles valid incoming traffic ({@link IncomingActorMessage})
@@ -45,13 +40,11 @@ class BackOffice {
 
     void handleVisitor(IncomingActorMessage message) {
         // Steps:
-        // 1. Remove self cleaner
-        // 2. Handle message
+        // 1. Handle message
         //  a. ModelCommand --> handle the command
         //  b. ModelResponse --> handle the response
-        // 3. Tell the staging area we're done (storing events and sending replies)
-        // 4. Set a new self cleaner (basically resets the timer)
-        clearSelfCleaner();
+        // 2. Tell the staging area we're done (storing events and sending replies)
+        // 3. Register the activity, so that the passivation sweeper knows we're not idle
 
         StagingArea stagingArea = reception.warehouse.prepareNextShipment(message);
         if (message.isCommand()) {
@@ -78,7 +71,7 @@ class BackOffice {
 
         stagingArea.store();
 
-        enableSelfCleaner();
+        registerActivity();
     }
 
     private void handleResponse(ModelResponse msg) {
@@ -100,24 +93,54 @@ class BackOffice {
     }
 
     /**
-     * SelfCleaner provides a mechanism to have the ModelActor remove itself from memory after a specific idle period.
+     * Timestamp (in nanos) of the last message handled. The {@link PassivationSweeper} uses it to determine whether the ModelActor is idle.
+     */
+    private volatile long lastActivity = System.nanoTime();
+    /**
+     * Whether we are registered with the sweeper. Only accessed from within the actor.
      */
-    private Cancellable selfCleaner = null;
+    private boolean registered = false;
+    private ActorRef self;
+
+    private void registerActivity() {
+        lastActivity = System.nanoTime();
+        if (!registered && actor.hasAutoShutdown()) {
+            registered = true;
+            self = actor.self();
+            actor.caseSystem.passivationSweeper().register(this);
+        }
+    }
+
+    long idleSince(long now) {
+        return now - lastActivity;
+    }
 
-    private void clearSelfCleaner() {
-        // Receiving message should reset the self-cleaning timer
-        if (selfCleaner != null) {
-            selfCleaner.cancel();
-            selfCleaner = null;
+    /**
+     * Invoked by the sweeper (from outside the actor); the actual check is done inside the actor
+     */
+    void requestIdleCheck() {
+        self.tell(PassivationSweeper.IdleCheck.INSTANCE, self);
+    }
+
+    /**
+     * The sweeper has removed our registration. Remove the ModelActor from memory if it is still idle,
+     * or otherwise register again (messages may have come in after the sweeper checked).
+     */
+    void checkIdle() {
+        registered = false;
+        PassivationSweeper sweeper = actor.caseSystem.passivationSweeper();
+        if (idleSince(System.nanoTime()) >= sweeper.getIdlePeriod()) {
+            actor.takeABreak();
+        } else {
+            registered = true;
+            sweeper.register(this);
         }
     }
 
-    private void enableSelfCleaner() {
-        if (actor.hasAutoShutdown()) {
-            // Now set the new selfCleaner
-            long idlePeriod = Cafienne.config().actor().idlePeriod();
-            FiniteDuration duration = Duration.create(idlePeriod, TimeUnit.MILLISECONDS);
-            selfCleaner = actor.getScheduler().schedule(duration, actor::takeABreak);
+    void close() {
+        if (registered) {
+            registered = false;
+            actor.caseSystem.passivationSweeper().remove(this);
         }
     }
 }
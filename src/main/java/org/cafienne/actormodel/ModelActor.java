@@ -17,12 +17,15 @@
 
 package org.cafienne.actormodel;
 
+import akka.actor.ActorRef;
 import akka.actor.PoisonPill;
+import akka.cluster.sharding.ShardRegion;
 import akka.persistence.AbstractPersistentActor;
 import akka.persistence.SnapshotOffer;
 import akka.persistence.SnapshotProtocol;
 import org.cafienne.actormodel.command.BootstrapMessage;
 import org.cafienne.actormodel.command.ModelCommand;
+import org.cafienne.actormodel.command.TerminateModelActor;
 import org.cafienne.actormodel.event.ModelEvent;
 import org.cafienne.actormodel.exception.CommandException;
 import org.cafienne.actormodel.identity.UserIdentity;
@@ -30,6 +33,7 @@ import org.cafienne.actormodel.message.IncomingActorMessage;
 import org.cafienne.actormodel.response.CommandFailure;
 import org.cafienne.actormodel.response.CommandFailureListener;
 import org.cafienne.actormodel.response.CommandResponseListener;
+import org.cafienne.actormodel.response.ActorTerminated;
 import org.cafienne.actormodel.response.ModelResponse;
 import org.cafienne.cmmn.actorapi.command.CaseCommand;
 import org.cafienne.cmmn.instance.debug.DebugInfoAppender;
@@ -42,8 +46,11 @@ import org.cafienne.system.health.HealthMonitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public abstract class ModelActor extends AbstractPersistentActor {
@@ -57,6 +64,14 @@ public abstract class ModelActor extends AbstractPersistentActor {
      * The identifier of the model. Is expected to be unique. However, in practice it is derived from the Actor's path.
      */
     private final String id;
+    /**
+     * Flag indicating that the actor runs as an entity in Akka Cluster Sharding
+     */
+    private final boolean shardedEntity;
+    /**
+     * Sender of a request to remove the actor from memory, to be informed when the actor has stopped
+     */
+    private ActorRef terminationRequester;
     /**
      * Front door knows ModelActor state, and determines whether visitors can pass.
      */
@@ -108,7 +123,9 @@ public abstract class ModelActor extends AbstractPersistentActor {
 
     protected ModelActor(CaseSystem caseSystem) {
         this.caseSystem = caseSystem;
-        this.id = self().path().name();
+        // Sharded entities are created by a Shard inside the sharding guardian, and have a url encoded name
+        this.shardedEntity = getContext().getParent().path().toStringWithoutAddress().startsWith("/system/sharding/");
+        this.id = shardedEntity ? URLDecoder.decode(self().path().name(), StandardCharsets.UTF_8) : self().path().name();
         this.scheduler = new CaseScheduler(this);
     }
 
@@ -213,17 +230,58 @@ public abstract class ModelActor extends AbstractPersistentActor {
 
     @Override
     public final Receive createReceive() {
-        return receiveBuilder().match(Object.class, reception::handleMessage).build();
+        return receiveBuilder()
+                .match(TerminateModelActor.class, this::handleTerminationRequest)
+                .match(Object.class, reception::handleMessage).build();
+    }
+
+    /**
+     * In the local router termination requests are handled by the router itself,
+     * but sharded entities receive the request and must remove themselves from memory.
+     *
+     * @param request
+     */
+    private void handleTerminationRequest(TerminateModelActor request) {
+        if (request.needsResponse) {
+            terminationRequester = sender();
+        }
+        takeABreak("Removing " + this + " from memory upon request");
+    }
+
+    @Override
+    public void postStop() throws Exception {
+        super.postStop();
+        reception.close();
+        if (terminationRequester != null) {
+            terminationRequester.tell(new ActorTerminated(getId()), self());
+        }
     }
 
     /**
-     * Hook for handling snapshots.
+     * Hook for handling snapshots. The actor must restore its state from the snapshot;
+     * only the events stored after the snapshot are replayed after this method is invoked.
      *
      * @param snapshot
      */
     protected void handleSnapshot(SnapshotOffer snapshot) {
     }
 
+    /**
+     * Hook invoked after an event from the journal has been replayed during recovery.
+     *
+     * @param event
+     */
+    protected void eventRecovered(ModelEvent event) {
+    }
+
+    /**
+     * Hook invoked after all events resulting from an incoming message have been persisted.
+     *
+     * @param events
+     */
+    protected void eventsPersisted(List<ModelEvent> events) {
+    }
+
     protected void handleSnapshotProtocolMessage(SnapshotProtocol.Response message) {
     }
 
@@ -238,13 +296,25 @@ public abstract class ModelActor extends AbstractPersistentActor {
     void takeABreak(String msg) {
         getLogger().debug(msg);
 //        System.out.println(msg);
-        self().tell(PoisonPill.getInstance(), self());
+        if (shardedEntity) {
+            // Passivate through the shard, so that messages arriving in the mean time are buffered and delivered to a new incarnation
+            getContext().getParent().tell(new ShardRegion.Passivate(PoisonPill.getInstance()), self());
+        } else {
+            self().tell(PoisonPill.getInstance(), self());
+        }
     }
 
     protected void handleBootstrapMessage(BootstrapMessage message) {
         this.tenant = message.tenant();
     }
 
+    /**
+     * Restores the tenant when recovering from a snapshot, since then the bootstrap message is not replayed.
+     */
+    void setTenant(String tenant) {
+        this.tenant = tenant;
+    }
+
     /**
      * Adds an event to the current message handling context
      *
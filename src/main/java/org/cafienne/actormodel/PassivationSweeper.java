@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.actormodel;
+
+import akka.actor.ActorSystem;
+import akka.actor.NoSerializationVerificationNeeded;
+import org.cafienne.infrastructure.Cafienne;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Removes idle ModelActors from memory.
+ * Instead of each actor running its own idle timer, the actors register with the sweeper
+ * and keep track of the moment of their last activity. The sweeper periodically checks all registered actors,
+ * and asks the ones that have been idle for longer than the idle period to verify and take a break.
+ */
+public class PassivationSweeper {
+    private final Set<BackOffice> actors = ConcurrentHashMap.newKeySet();
+    private final long idlePeriod;
+
+    public PassivationSweeper(ActorSystem system) {
+        this(system, Duration.ofMillis(Cafienne.config().actor().idlePeriod()), Duration.ofMillis(Cafienne.config().actor().passivationSweepInterval()));
+    }
+
+    public PassivationSweeper(ActorSystem system, Duration idlePeriod, Duration interval) {
+        this.idlePeriod = idlePeriod.toNanos();
+        system.scheduler().scheduleWithFixedDelay(interval, interval, this::sweep, system.dispatcher());
+    }
+
+    long getIdlePeriod() {
+        return idlePeriod;
+    }
+
+    void register(BackOffice backOffice) {
+        actors.add(backOffice);
+    }
+
+    void remove(BackOffice backOffice) {
+        actors.remove(backOffice);
+    }
+
+    private void sweep() {
+        long now = System.nanoTime();
+        Iterator<BackOffice> iterator = actors.iterator();
+        while (iterator.hasNext()) {
+            BackOffice backOffice = iterator.next();
+            if (backOffice.idleSince(now) >= idlePeriod) {
+                // Remove the actor before asking it to check; if it turns out to be active, it will register again.
+                iterator.remove();
+                backOffice.requestIdleCheck();
+            }
+        }
+    }
+
+    /**
+     * Message sent to a ModelActor that seems to be idle. It never leaves the local actor system.
+     */
+    static class IdleCheck implements NoSerializationVerificationNeeded {
+        static final IdleCheck INSTANCE = new IdleCheck();
+
+        private IdleCheck() {
+        }
+    }
+}
@@ -48,6 +48,10 @@ class Reception {
         this.warehouse = new Warehouse(actor);
     }
 
+    void close() {
+        backoffice.close();
+    }
+
     void handleRecovery(Object msg) {
         if (isBroken()) {
             // Something has gone wrong with earlier recovery messages, no need to do further processing.
@@ -64,6 +68,8 @@ class Reception {
             if (visitor.isResponse() || canPass(visitor.asCommand())) {
                 backoffice.handleVisitor(visitor);
             }
+        } else if (message instanceof PassivationSweeper.IdleCheck) {
+            backoffice.checkIdle();
         } else if (message instanceof SnapshotProtocol.Response) {
             // Weirdly enough snapshotting takes a different route than event persistence...
             actor.handleSnapshotProtocolMessage((SnapshotProtocol.Response) message);
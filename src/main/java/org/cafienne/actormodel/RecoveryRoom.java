@@ -22,16 +22,22 @@ import akka.persistence.SnapshotOffer;
 import org.cafienne.actormodel.event.DebugEvent;
 import org.cafienne.actormodel.event.EngineVersionChanged;
 import org.cafienne.actormodel.event.ModelEvent;
+import org.cafienne.actormodel.snapshot.ModelActorSnapshot;
 import org.cafienne.infrastructure.serialization.DeserializationFailure;
 import org.cafienne.infrastructure.serialization.Fields;
+import org.cafienne.system.metrics.MetricsMeasurePoint;
+import org.cafienne.system.metrics.MetricsMonitor;
 
 /**
  * The RecoveryRoom is where the ModelActor is brought back into memory upon reception of new incoming traffic.
  * Failures during recovery are reported to the {@link Reception}
  */
 class RecoveryRoom {
+    private final static MetricsMeasurePoint metrics = MetricsMonitor.addMeasure("actor-recovery");
     private final ModelActor actor;
     private final Reception reception;
+    private final long started = System.nanoTime();
+    private long replayedEvents = 0;
 
     RecoveryRoom(ModelActor actor, Reception reception) {
         this.actor = actor;
@@ -43,7 +49,7 @@ class RecoveryRoom {
 
     void handleRecovery(Object msg) {
         // Steps:
-        // 0. Pass snapshots to the model actor
+        // 0. Pass snapshots to the model actor, so that it can restore its state
         // 1. For ModelEvents:
         //  a. Ignore DebugEvent message
         //  b. If supported event, run the recovery handler for it, including necessary bootstrapping
@@ -52,15 +58,57 @@ class RecoveryRoom {
         // 3. Invoke a "hook" method to indicate recovery completion upon RecoveryCompleted (used in TimerService)
         // 4. In all other cases print warn statements and ignore the event.
         if (msg instanceof SnapshotOffer) {
-            actor.handleSnapshot((SnapshotOffer) msg);
-        } else if (msg instanceof ModelEvent) {
+            // Step 0.
+            recoverSnapshot((SnapshotOffer) msg);
+        } else if (msg instanceof ModelEvent || msg instanceof DeserializationFailure) {
+            // Step 1. and 2.
+            replay(msg);
+        } else if (msg instanceof RecoveryCompleted) {
+            // Step 3.
+            if (actor.getLogger().isDebugEnabled()) {
+                actor.getLogger().debug(actor + " completed recovery");
+            }
+            metrics.record(actor.getClass().getSimpleName(), System.nanoTime() - started);
+            metrics.add("replayed-events", replayedEvents);
+            reception.open();
+        } else {
+            // Step 4.
+            actor.getLogger().warn(actor + " received unknown message of type " + msg.getClass().getName() + " during recovery: " + msg);
+        }
+    }
+
+    private void recoverSnapshot(SnapshotOffer offer) {
+        metrics.increment("snapshot-offers");
+        if (offer.snapshot() instanceof DeserializationFailure) {
+            reception.reportDeserializationFailure((DeserializationFailure) offer.snapshot());
+            return;
+        }
+        try {
+            // The bootstrap event is not replayed when a snapshot is offered, hence the tenant is restored from the snapshot
+            String tenant = offer.snapshot() instanceof ModelActorSnapshot ? ((ModelActorSnapshot) offer.snapshot()).getTenant() : null;
+            if (tenant != null) {
+                actor.setTenant(tenant);
+            }
+            actor.handleSnapshot(offer);
+            if (tenant != null) {
+                reception.unlock();
+            }
+        } catch (Throwable throwable) {
+            reception.reportStateUpdateFailure(throwable);
+        }
+    }
+
+    private void replay(Object msg) {
+        if (msg instanceof ModelEvent) {
             ModelEvent event = (ModelEvent) msg;
             actor.setCurrentUser(event.getUser());
             if (event instanceof DebugEvent) {
                 // Step 1a, ignore debug events
             } else if (actor.supportsEvent(event) || event instanceof EngineVersionChanged) {
                 // Step 1b, supported event
+                replayedEvents++;
                 recoverEvent(event);
+                actor.eventRecovered(event);
             } else {
                 // Step 1c. Weird: ModelEvents in recovery of other models??
                 reception.reportInvalidRecoveryEvent(event);
@@ -68,15 +116,6 @@ class RecoveryRoom {
         } else if (msg instanceof DeserializationFailure) {
             // Step 2. Probably incompatible change in event serialization format. Big issue
             reception.reportDeserializationFailure((DeserializationFailure) msg);
-        } else if (msg instanceof RecoveryCompleted) {
-            // Step 3.
-            if (actor.getLogger().isDebugEnabled()) {
-                actor.getLogger().debug(actor + " completed recovery");
-            }
-            reception.open();
-        } else {
-            // Step 4.
-            actor.getLogger().warn(actor + " received unknown message of type " + msg.getClass().getName() + " during recovery: " + msg);
         }
     }
 
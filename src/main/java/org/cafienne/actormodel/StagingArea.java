@@ -159,6 +159,7 @@ class StagingArea {
                 }
             }
             if (persistedEvent == lastPersistable) {
+                actor.eventsPersisted(events);
                 actor.reply(response);
             }
         });
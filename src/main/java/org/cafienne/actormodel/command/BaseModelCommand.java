@@ -18,9 +18,8 @@
 package org.cafienne.actormodel.command;
 
 import akka.actor.ActorPath;
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import org.cafienne.actormodel.ModelActor;
 import org.cafienne.actormodel.exception.InvalidCommandException;
 import org.cafienne.actormodel.identity.UserIdentity;
@@ -35,7 +34,6 @@ import org.cafienne.json.ValueMap;
 import org.cafienne.util.Guid;
 
 import java.io.IOException;
-import java.io.StringWriter;
 
 public abstract class BaseModelCommand<T extends ModelActor, U extends UserIdentity> implements ModelCommand {
     protected final String msgId;
@@ -173,14 +171,12 @@ public abstract class BaseModelCommand<T extends ModelActor, U extends UserIdent
     }
 
     public ValueMap rawJson() {
-        JsonFactory factory = new JsonFactory();
-        StringWriter sw = new StringWriter();
+        // Write the command into a token buffer and read the tokens back, to avoid printing and parsing text
+        TokenBuffer buffer = new TokenBuffer(null, false);
         try {
-            JsonGenerator generator = factory.createGenerator(sw);
-            generator.setPrettyPrinter(new DefaultPrettyPrinter());
-            writeThisObject(generator);
-            generator.close();
-            Value<?> json = JSONReader.parse(sw.toString());
+            writeThisObject(buffer);
+            buffer.close();
+            Value<?> json = JSONReader.read(buffer.asParser(), null);
             return new ValueMap(Fields.type, CafienneSerializer.getManifestString(this), Fields.content, json);
         } catch (IOException | JSONParseFailure e) {
             return new ValueMap("message", "Could not make JSON out of command "+getClass().getName(), "exception", Value.convertThrowable(e));
@@ -38,6 +38,11 @@ public class TerminateModelActor extends BaseModelCommand<ModelActor, UserIdenti
     }
 
     public final String actorId;
+    /**
+     * Simple class name of the type of ModelActor (e.g. Case or TenantActor), if known.
+     * Sharded routing needs the type to find the actor.
+     */
+    public final String actorType;
     public final boolean needsResponse;
 
     public TerminateModelActor(UserIdentity user, String actorId) {
@@ -45,14 +50,20 @@ public class TerminateModelActor extends BaseModelCommand<ModelActor, UserIdenti
     }
 
     public TerminateModelActor(UserIdentity user, String actorId, boolean needsResponse) {
+        this(user, actorId, null, needsResponse);
+    }
+
+    public TerminateModelActor(UserIdentity user, String actorId, String actorType, boolean needsResponse) {
         super(user, actorId);
         this.actorId = actorId;
+        this.actorType = actorType;
         this.needsResponse = needsResponse;
     }
 
     public TerminateModelActor(ValueMap json) {
         super(json);
         this.actorId = json.readString(Fields.actorId);
+        this.actorType = json.readString(Fields.type);
         this.needsResponse = json.readBoolean((Fields.response), true);
     }
 
@@ -73,6 +84,7 @@ public class TerminateModelActor extends BaseModelCommand<ModelActor, UserIdenti
     @Override
     public void write(JsonGenerator generator) throws IOException {
         writeField(generator, Fields.actorId, actorId);
+        writeField(generator, Fields.type, actorType);
         writeField(generator, Fields.response, needsResponse);
     }
 }
@@ -34,6 +34,8 @@ public abstract class BaseModelEvent<M extends ModelActor> implements ModelEvent
     public final String tenant;
     private final UserIdentity user;
     private final Instant timestamp;
+    // Size of the event in the journal, filled by the serializer
+    private int serializedSize = -1;
 
     protected BaseModelEvent(M actor) {
         this.json = new ValueMap();
@@ -67,6 +69,16 @@ public abstract class BaseModelEvent<M extends ModelActor> implements ModelEvent
         return this.json;
     }
 
+    @Override
+    public int getSerializedSize() {
+        return serializedSize;
+    }
+
+    @Override
+    public void setSerializedSize(int serializedSize) {
+        this.serializedSize = serializedSize;
+    }
+
     /**
      * Returns the identifier of the ModelActor that generated this event.
      * Is the same as the persistence id of the underlying Akka Actor.
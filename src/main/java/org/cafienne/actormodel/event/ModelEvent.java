@@ -48,4 +48,14 @@ public interface ModelEvent extends UserMessage {
     String getDescription();
 
     ValueMap rawJson();
+
+    /**
+     * Returns the number of bytes of the serialized event, or -1 if the event has not (yet) passed the serializer.
+     */
+    int getSerializedSize();
+
+    /**
+     * Invoked by the serializer to record the number of bytes of the serialized event.
+     */
+    void setSerializedSize(int serializedSize);
 }
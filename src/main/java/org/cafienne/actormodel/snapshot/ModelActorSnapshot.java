@@ -23,4 +23,11 @@ import org.cafienne.infrastructure.serialization.CafienneSerializable;
  * Interface to implement if the ModelActor uses snapshot storage
  */
 public interface ModelActorSnapshot extends CafienneSerializable {
+    /**
+     * Returns the tenant of the actor that took the snapshot, or null if the actor does not belong to a tenant.
+     * Upon recovery, the tenant is restored from the snapshot, as the bootstrap event is not replayed.
+     */
+    default String getTenant() {
+        return null;
+    }
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.actormodel.snapshot;
+
+import org.cafienne.actormodel.event.DebugEvent;
+import org.cafienne.actormodel.event.ModelEvent;
+import org.cafienne.infrastructure.config.SnapshotConfig;
+
+/**
+ * Keeps track of the events since the last snapshot, in order to determine when a new snapshot must be taken.
+ */
+public class SnapshotLog {
+    private final int everyEvents;
+    private final long everyBytes;
+    private int eventsSinceSnapshot = 0;
+    private long bytesSinceSnapshot = 0;
+
+    public SnapshotLog(SnapshotConfig config) {
+        this.everyEvents = config.everyEvents();
+        this.everyBytes = config.everyBytes();
+    }
+
+    public void add(ModelEvent event) {
+        if (event instanceof DebugEvent) {
+            return;
+        }
+        eventsSinceSnapshot++;
+        if (everyBytes > 0) {
+            int size = event.getSerializedSize();
+            // Events that did not pass the serializer (e.g. with a journal that keeps objects in memory) are measured here
+            bytesSinceSnapshot += size >= 0 ? size : event.toBytes().length;
+        }
+    }
+
+    /**
+     * Returns true if a snapshot must be taken according to the configured policy
+     */
+    public boolean snapshotDue() {
+        return (everyEvents > 0 && eventsSinceSnapshot >= everyEvents) || (everyBytes > 0 && bytesSinceSnapshot >= everyBytes);
+    }
+
+    /**
+     * Resets the counters of the policy, e.g. after taking or recovering a snapshot
+     */
+    public void reset() {
+        eventsSinceSnapshot = 0;
+        bytesSinceSnapshot = 0;
+    }
+}
@@ -102,6 +102,10 @@ public class StartCase extends CaseCommand implements BootstrapMessage {
         return tenant;
     }
 
+    public CaseDefinition getDefinition() {
+        return definition;
+    }
+
     @Override
     public String toString() {
         return "Set Case Definition '" + definition.getName() + "'";
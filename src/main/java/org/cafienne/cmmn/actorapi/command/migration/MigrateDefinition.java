@@ -50,6 +50,10 @@ public class MigrateDefinition extends CaseCommand {
         this.newDefinition = json.readDefinition(Fields.definition, CaseDefinition.class);
     }
 
+    public CaseDefinition getNewDefinition() {
+        return newDefinition;
+    }
+
     @Override
     public String toString() {
         return "Migrate Case Definition '" + newDefinition.getName() + "'";
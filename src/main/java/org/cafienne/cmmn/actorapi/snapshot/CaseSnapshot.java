@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.cmmn.actorapi.snapshot;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.cafienne.actormodel.event.ModelEvent;
+import org.cafienne.actormodel.snapshot.ModelActorSnapshot;
+import org.cafienne.cmmn.instance.Case;
+import org.cafienne.infrastructure.serialization.CafienneSerializer;
+import org.cafienne.infrastructure.serialization.DeserializationError;
+import org.cafienne.infrastructure.serialization.DeserializationFailure;
+import org.cafienne.infrastructure.serialization.Fields;
+import org.cafienne.infrastructure.serialization.Manifest;
+import org.cafienne.json.Value;
+import org.cafienne.json.ValueMap;
+
+import java.io.IOException;
+
+/**
+ * Snapshot of the state of a case: the definition, the team, the case file and the plan items,
+ * including the state of the sentries and on parts that listen to them.
+ */
+@Manifest
+public class CaseSnapshot implements ModelActorSnapshot {
+    private final String caseInstanceId;
+    private final String tenant;
+    private final String caseName;
+    private final ValueMap state;
+
+    public CaseSnapshot(Case caseInstance) {
+        this.caseInstanceId = caseInstance.getId();
+        this.tenant = caseInstance.getTenant();
+        this.caseName = caseInstance.getDefinition().getName();
+        this.state = caseInstance.snapshotState();
+    }
+
+    public CaseSnapshot(ValueMap json) {
+        this.caseInstanceId = json.readString(Fields.caseInstanceId);
+        this.tenant = json.readString(Fields.tenant);
+        this.caseName = json.readString(Fields.caseName);
+        this.state = json.readMap(Fields.state);
+    }
+
+    public String getCaseInstanceId() {
+        return caseInstanceId;
+    }
+
+    @Override
+    public String getTenant() {
+        return tenant;
+    }
+
+    /**
+     * Returns the state of the case, as created by {@link Case#snapshotState()}
+     */
+    public ValueMap getState() {
+        return state;
+    }
+
+    @Override
+    public String toString() {
+        return "CaseSnapshot[" + caseInstanceId + "] of case '" + caseName + "'";
+    }
+
+    @Override
+    public void write(JsonGenerator generator) throws IOException {
+        writeField(generator, Fields.caseInstanceId, caseInstanceId);
+        writeField(generator, Fields.tenant, tenant);
+        writeField(generator, Fields.caseName, caseName);
+        writeField(generator, Fields.state, state);
+    }
+
+    /**
+     * Writes an event (e.g. the last transition of a plan item) into the snapshot, along with its manifest.
+     */
+    public static ValueMap writeEvent(ModelEvent event) {
+        return new ValueMap(Fields.manifest, CafienneSerializer.getManifestString(event), Fields.content, event);
+    }
+
+    /**
+     * Reads an event that was written with {@link #writeEvent(ModelEvent)}.
+     * The event is passed through the serializer, so that older versions of the event are migrated as well.
+     */
+    public static <E extends ModelEvent> E readEvent(ValueMap json) {
+        Value<?> content = json.get(Fields.content);
+        if (content.getValue() instanceof ModelEvent) {
+            // Snapshot has not passed serialization, e.g. in an in-memory snapshot store
+            return (E) content.getValue();
+        }
+        Object event = new CafienneSerializer().fromJson(content.asMap(), json.readString(Fields.manifest));
+        if (event instanceof DeserializationFailure) {
+            DeserializationFailure failure = (DeserializationFailure) event;
+            throw new DeserializationError("Cannot read event with manifest " + failure.manifest + " from case snapshot", failure.exception);
+        }
+        return (E) event;
+    }
+}
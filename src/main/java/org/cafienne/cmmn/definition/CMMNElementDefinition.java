@@ -17,12 +17,13 @@
 
 package org.cafienne.cmmn.definition;
 
+import org.cafienne.infrastructure.Cafienne;
 import org.cafienne.infrastructure.serialization.CafienneSerializer;
 import org.cafienne.infrastructure.serialization.DeserializationError;
 import org.cafienne.infrastructure.serialization.Fields;
+import org.cafienne.journal.definitions.DefinitionSourceNotLoaded;
 import org.cafienne.json.ValueMap;
 import org.cafienne.processtask.definition.ProcessDefinition;
-import org.cafienne.util.XMLHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Element;
@@ -106,11 +107,16 @@ public abstract class CMMNElementDefinition extends XMLElementDefinition {
 
     public static <T extends CMMNElementDefinition> T fromJSON(String sourceClassName, ValueMap json, Class<T> tClass) {
         String guid = json.readString(Fields.elementId);
-        String source = json.readString(Fields.source);
         try {
-            DefinitionsDocument def = new DefinitionsDocument(XMLHelper.loadXML(source));
+            // Definitions can either be embedded with their full source, or referenced by the hash of the source
+            DefinitionsDocument def = json.has(Fields.source)
+                    ? DefinitionsCache.get(json.readString(Fields.source))
+                    : DefinitionsCache.getByHash(json.readString(Fields.sourceHash));
             T element = def.getElement(guid, tClass);
             return element;
+        } catch (DefinitionSourceNotLoaded e) {
+            // Not a failure of the content; the source is read in the background and a next attempt will succeed
+            throw new DeserializationError("Definition not yet loaded while deserializing an instance of " + sourceClassName, e);
         } catch (InvalidDefinitionException e) {
             if (logger.isDebugEnabled()) {
                 logger.debug("Encountered invalid definition during deserialization; probably content from a newer or older version", e);
@@ -130,8 +136,14 @@ public abstract class CMMNElementDefinition extends XMLElementDefinition {
         if (identifier == null || identifier.isEmpty()) {
             identifier = this.getName();
         }
-        String source = getModelDefinition().getDefinitionsDocument().getSource();
-        ValueMap json = new ValueMap(Fields.elementId, identifier, Fields.source, source);
+        DefinitionsDocument definitionsDocument = getModelDefinition().getDefinitionsDocument();
+        if (Cafienne.config().repository().storeByReference()) {
+            String reference = DefinitionsCache.referenceOf(definitionsDocument);
+            if (reference != null) {
+                return new ValueMap(Fields.elementId, identifier, Fields.sourceHash, reference);
+            }
+        }
+        ValueMap json = new ValueMap(Fields.elementId, identifier, Fields.source, definitionsDocument.getSource());
         return json;
     }
 }
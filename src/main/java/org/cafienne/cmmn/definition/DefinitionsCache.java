@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.cmmn.definition;
+
+import akka.Done;
+import org.cafienne.cmmn.repository.file.SimpleLRUCache;
+import org.cafienne.infrastructure.Cafienne;
+import org.cafienne.journal.definitions.DefinitionSourceNotLoaded;
+import org.cafienne.journal.definitions.DefinitionSourceStoreProvider;
+import org.cafienne.system.metrics.MetricsMeasurePoint;
+import org.cafienne.system.metrics.MetricsMonitor;
+import org.cafienne.util.ContentHash;
+import org.cafienne.util.XMLHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+import scala.concurrent.Future;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Process wide cache of parsed {@link DefinitionsDocument} instances, keyed by the hash of their XML source.
+ * Events and commands that carry a definition (e.g. CaseDefinitionApplied, ProcessStarted, StartProcess) all
+ * embed the full XML source, or refer to it by its hash. Through this cache, each distinct source is parsed only once
+ * per JVM, instead of once per event during recovery.
+ */
+public class DefinitionsCache {
+    private final static Logger logger = LoggerFactory.getLogger(DefinitionsCache.class);
+    private final static MetricsMeasurePoint metrics = MetricsMonitor.addMeasure("definitions-cache");
+    private final static Map<String, Entry> cache = new SimpleLRUCache<>(Cafienne.config().repository().deserializationCacheSize());
+
+    static {
+        metrics.gauge("size", () -> {
+            synchronized (cache) {
+                return cache.size();
+            }
+        });
+        metrics.gauge("source-bytes", () -> {
+            synchronized (cache) {
+                return cache.values().stream().mapToLong(entry -> entry.sourceLength * 2L).sum();
+            }
+        });
+    }
+
+    /**
+     * Returns the parsed definitions document for the source. If the same source was parsed before
+     * and is still in the cache, the existing instance is returned.
+     *
+     * @param source XML string of the definitions document
+     * @return
+     */
+    public static DefinitionsDocument get(String source) throws InvalidDefinitionException, IOException, ParserConfigurationException, SAXException {
+        return get(ContentHash.of(source), () -> source);
+    }
+
+    /**
+     * Returns the parsed definitions document for the source with the given hash.
+     * This does not do any I/O, as it is invoked during deserialization. If the document is not in the cache,
+     * its source is read from the {@link DefinitionSourceStoreProvider} in the background, and a
+     * {@link DefinitionSourceNotLoaded} is thrown; trying again after the read has completed will find the document in the cache.
+     *
+     * @param hash Content hash of the XML string of the definitions document
+     * @return
+     */
+    public static DefinitionsDocument getByHash(String hash) throws DefinitionSourceNotLoaded {
+        DefinitionsDocument document = getCached(hash);
+        if (document != null) {
+            metrics.increment("hits");
+            return document;
+        }
+        metrics.increment("misses");
+        DefinitionSourceStoreProvider.resolve(hash);
+        throw new DefinitionSourceNotLoaded(hash);
+    }
+
+    /**
+     * Returns a future with the parsed definitions document for the source with the given hash.
+     * If it is not in the cache, the source is read from the {@link DefinitionSourceStoreProvider}.
+     *
+     * @param hash Content hash of the XML string of the definitions document
+     * @return
+     */
+    public static Future<DefinitionsDocument> resolveByHash(String hash) {
+        DefinitionsDocument document = getCached(hash);
+        if (document != null) {
+            return Future.successful(document);
+        }
+        return DefinitionSourceStoreProvider.resolve(hash);
+    }
+
+    /**
+     * Returns the hash through which events and commands can refer to the definitions document, or null if the
+     * source of the document is not (yet) available in the {@link DefinitionSourceStoreProvider}. In that case
+     * the full source must be embedded, as an event must never refer to a source that may not have been stored.
+     * This does not do any I/O, and can therefore be invoked during serialization; commands carrying a definition
+     * are sent only after the source has been stored through {@link #storeByReference(DefinitionsDocument)}.
+     *
+     * @param document
+     * @return
+     */
+    public static String referenceOf(DefinitionsDocument document) {
+        String hash = document.getSourceHash();
+        if (!DefinitionSourceStoreProvider.isStored(hash)) {
+            // Should not happen, but if it does, store the source for the next time we have to serialize the document.
+            logger.warn("Definitions document with hash " + hash + " is serialized before its source has been stored; embedding the source instead");
+            DefinitionSourceStoreProvider.storeSource(hash, document.getSource());
+            return null;
+        }
+        synchronized (cache) {
+            if (!cache.containsKey(hash)) {
+                // Put the document in the cache, so that upon recovery in this JVM we need not read it from the store
+                cache.put(hash, new Entry(document.getSource().length(), document));
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Asynchronously stores the source of the definitions document in the {@link DefinitionSourceStoreProvider}.
+     * The returned future completes when events referring to the document can safely be persisted.
+     *
+     * @param document
+     * @return
+     */
+    public static Future<Done> storeByReference(DefinitionsDocument document) {
+        return DefinitionSourceStoreProvider.storeSource(document.getSourceHash(), document.getSource());
+    }
+
+    /**
+     * Returns the document from the cache, or null if it is not in the cache.
+     * If the document is being parsed, this waits for the parsing to complete.
+     */
+    private static DefinitionsDocument getCached(String hash) {
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(hash);
+        }
+        return entry == null ? null : entry.getParsedDocument();
+    }
+
+    private static DefinitionsDocument get(String hash, SourceProvider sourceProvider) throws InvalidDefinitionException, IOException, ParserConfigurationException, SAXException {
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(hash);
+            if (entry == null) {
+                entry = new Entry(0);
+                cache.put(hash, entry);
+                metrics.increment("misses");
+            } else {
+                metrics.increment("hits");
+            }
+        }
+        try {
+            return entry.getDocument(sourceProvider);
+        } catch (InvalidDefinitionException | IOException | ParserConfigurationException | SAXException | RuntimeException e) {
+            // Do not keep failures in the cache, as they may be caused by e.g. a newer version of the engine
+            synchronized (cache) {
+                cache.remove(hash, entry);
+            }
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface SourceProvider {
+        String getSource() throws IOException;
+    }
+
+    /**
+     * Entry holding the parsed document. Parsing happens outside of the cache lock, so that concurrent recovery of
+     * cases with different definitions does not block, while cases with the same definition wait for the first parse.
+     */
+    private static class Entry {
+        private volatile int sourceLength;
+        private DefinitionsDocument document;
+
+        private Entry(int sourceLength) {
+            this(sourceLength, null);
+        }
+
+        private Entry(int sourceLength, DefinitionsDocument document) {
+            this.sourceLength = sourceLength;
+            this.document = document;
+        }
+
+        private synchronized DefinitionsDocument getParsedDocument() {
+            return document;
+        }
+
+        private synchronized DefinitionsDocument getDocument(SourceProvider sourceProvider) throws InvalidDefinitionException, IOException, ParserConfigurationException, SAXException {
+            if (document == null) {
+                String source = sourceProvider.getSource();
+                sourceLength = source.length();
+                long start = System.nanoTime();
+                document = new DefinitionsDocument(XMLHelper.loadXML(source));
+                metrics.record("parse-time", System.nanoTime() - start);
+            }
+            return document;
+        }
+    }
+}
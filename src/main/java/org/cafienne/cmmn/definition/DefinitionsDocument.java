@@ -21,6 +21,7 @@ import org.cafienne.cmmn.definition.casefile.CaseFileItemDefinitionDefinition;
 import org.cafienne.cmmn.definition.casefile.ImportDefinition;
 import org.cafienne.cmmn.repository.MissingDefinitionException;
 import org.cafienne.processtask.definition.ProcessDefinition;
+import org.cafienne.util.ContentHash;
 import org.cafienne.util.XMLHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +40,7 @@ public class DefinitionsDocument implements Serializable {
     private final static Logger logger = LoggerFactory.getLogger(DefinitionsDocument.class);
 
     private final String sourceDocument;
+    private transient String sourceHash;
     private String defaultExpressionLanguage;
 
     /**
@@ -222,6 +224,18 @@ public class DefinitionsDocument implements Serializable {
         return sourceDocument;
     }
 
+    /**
+     * Returns the content hash of the source of this document; it is calculated upon first usage.
+     *
+     * @return
+     */
+    public String getSourceHash() {
+        if (sourceHash == null) {
+            sourceHash = ContentHash.of(sourceDocument);
+        }
+        return sourceHash;
+    }
+
     /**
      * Returns the XML document representing the unparsed DefinitionsDocument.
      *
@@ -21,20 +21,38 @@ import org.cafienne.actormodel.ModelActor;
 import org.cafienne.cmmn.definition.CMMNElementDefinition;
 import org.cafienne.cmmn.expression.InvalidExpressionException;
 import org.cafienne.cmmn.expression.spel.api.APIRootObject;
+import org.cafienne.infrastructure.Cafienne;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 
+import java.util.List;
+
+/**
+ * Parses an expression once, when the definition is loaded, and evaluates it against root objects.
+ * The parser and the property accessors are shared; every evaluation runs in a context of its own.
+ */
 public class Evaluator {
-    private final ExpressionParser parser;
+    private final static Logger logger = LoggerFactory.getLogger(Evaluator.class);
+    private final static ExpressionParser parser = new SpelExpressionParser(new SpelParserConfiguration(getCompilerMode(), Evaluator.class.getClassLoader()));
+    /**
+     * The property accessors hold no state of their own (the reflective one only caches class metadata), so all contexts share them.
+     */
+    private final static List<PropertyAccessor> propertyAccessors = List.of(new SpelReadableRecognizer(), new ReflectivePropertyAccessor());
+
     private final Expression expression;
     private final String source;
     private final CMMNElementDefinition definition;
 
     public Evaluator(CMMNElementDefinition definition, String source) {
-        this.parser = new SpelExpressionParser();
         this.definition = definition;
         this.source = source;
         this.expression = parseExpression();
@@ -65,12 +83,30 @@ public class Evaluator {
 
     public <T> T evaluate(APIRootObject<?> rootObject) {
         // System.out.println("Now evaluating the expression " + definition.getBody());
+        return returnValue(rootObject, () -> expression.getValue(createContext(rootObject)));
+    }
+
+    /**
+     * Each evaluation gets a fresh context, so that variables assigned in an expression cannot leak into the next evaluation.
+     */
+    private static StandardEvaluationContext createContext(APIRootObject<?> rootObject) {
         StandardEvaluationContext context = new StandardEvaluationContext(rootObject);
         // The property reader can dynamically resolve properties that belong to the ModelActor context.
-        SpelReadableRecognizer spelPropertyReader = new SpelReadableRecognizer(rootObject.getActor());
-        context.addPropertyAccessor(spelPropertyReader);
+        context.setPropertyAccessors(propertyAccessors);
+        return context;
+    }
 
-        return returnValue(rootObject, () -> expression.getValue(context));
+    private static SpelCompilerMode getCompilerMode() {
+        String mode = Cafienne.config().engine().spelCompilerMode();
+        switch (mode) {
+            case "off": return SpelCompilerMode.OFF;
+            case "mixed": return SpelCompilerMode.MIXED;
+            case "immediate": return SpelCompilerMode.IMMEDIATE;
+            default: {
+                logger.warn("Invalid value '" + mode + "' for cafienne.engine.expressions.spel-compiler-mode; using 'off' instead");
+                return SpelCompilerMode.OFF;
+            }
+        }
     }
 
     protected <T> T returnValue(APIRootObject<?> rootObject, ExpressionRunner runner) {
@@ -17,16 +17,24 @@
 
 package org.cafienne.cmmn.instance;
 
+import akka.persistence.SaveSnapshotFailure;
+import akka.persistence.SaveSnapshotSuccess;
+import akka.persistence.SnapshotMetadata;
+import akka.persistence.SnapshotOffer;
+import akka.persistence.SnapshotProtocol;
+import akka.persistence.SnapshotSelectionCriteria;
 import org.cafienne.actormodel.ModelActor;
 import org.cafienne.actormodel.event.ModelEvent;
 import org.cafienne.actormodel.identity.CaseUserIdentity;
 import org.cafienne.actormodel.message.IncomingActorMessage;
+import org.cafienne.actormodel.snapshot.SnapshotLog;
 import org.cafienne.cmmn.actorapi.command.CaseCommand;
 import org.cafienne.cmmn.actorapi.command.platform.PlatformUpdate;
 import org.cafienne.cmmn.actorapi.command.team.CurrentMember;
 import org.cafienne.cmmn.actorapi.event.*;
 import org.cafienne.cmmn.actorapi.event.migration.CaseDefinitionMigrated;
 import org.cafienne.cmmn.actorapi.event.plan.PlanItemCreated;
+import org.cafienne.cmmn.actorapi.snapshot.CaseSnapshot;
 import org.cafienne.cmmn.definition.CaseDefinition;
 import org.cafienne.cmmn.definition.CasePlanDefinition;
 import org.cafienne.cmmn.definition.ItemDefinition;
@@ -37,6 +45,11 @@ import org.cafienne.cmmn.instance.parameter.CaseInputParameter;
 import org.cafienne.cmmn.instance.parameter.CaseOutputParameter;
 import org.cafienne.cmmn.instance.sentry.SentryNetwork;
 import org.cafienne.cmmn.instance.team.Team;
+import org.cafienne.infrastructure.Cafienne;
+import org.cafienne.infrastructure.CafienneVersion;
+import org.cafienne.infrastructure.config.SnapshotConfig;
+import org.cafienne.infrastructure.serialization.DeserializationError;
+import org.cafienne.infrastructure.serialization.Fields;
 import org.cafienne.json.ValueList;
 import org.cafienne.json.ValueMap;
 import org.cafienne.system.CaseSystem;
@@ -51,6 +64,8 @@ import java.io.IOException;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 public class Case extends ModelActor {
 
@@ -61,9 +76,9 @@ public class Case extends ModelActor {
      */
     private Instant createdOn;
     /**
-     * List of plan items in the case.
+     * Index of the plan items in the case, by id, name and definition.
      */
-    private Collection<PlanItem<?>> planItems = new ArrayList<>();
+    private final PlanItemIndex planItems = new PlanItemIndex();
     /**
      * Pointer to the case file instance of the case.
      */
@@ -96,10 +111,17 @@ public class Case extends ModelActor {
      */
     private Team caseTeam;
 
+    /**
+     * Counts the events since the last snapshot, to determine when to take the next one; null if snapshots are disabled
+     */
+    private final SnapshotLog snapshotLog;
+
     public Case(CaseSystem caseSystem) {
         super(caseSystem);
         this.createdOn = getTransactionTimestamp();
         this.sentryNetwork = new SentryNetwork(this);
+        SnapshotConfig snapshotConfig = Cafienne.config().actor().snapshot();
+        this.snapshotLog = snapshotConfig.enabled() ? new SnapshotLog(snapshotConfig) : null;
 
         logger.info("Recovering/creating case " + this.getId() + " with path " + self().path());
     }
@@ -152,6 +174,16 @@ public class Case extends ModelActor {
         planItems.add(planItem);
     }
 
+    /**
+     * Internal engine method to update the plan item collection when the item definition of the plan item changed
+     *
+     * @param planItem
+     * @param previousItemDefinition
+     */
+    void reindexPlanItem(PlanItem<?> planItem, ItemDefinition previousItemDefinition) {
+        planItems.changeDefinition(planItem, previousItemDefinition);
+    }
+
     /**
      * Helper method to dump the state of the case into an XML document.
      *
@@ -203,7 +235,7 @@ public class Case extends ModelActor {
      * @return
      */
     public <T extends PlanItem<?>> T getPlanItemById(String id) {
-        return (T) planItems.stream().filter(p -> p.getId().equals(id)).findFirst().orElse(null);
+        return (T) planItems.get(id);
     }
 
     /**
@@ -214,13 +246,8 @@ public class Case extends ModelActor {
      * @return
      */
     public PlanItem<?> getPlanItemByName(String name) {
-        PlanItem<?> lastWithThisName = null;
-        for (PlanItem<?> planItem : planItems) {
-            if (planItem.getName().equals(name)) {
-                lastWithThisName = planItem;
-            }
-        }
-        return lastWithThisName;
+        List<PlanItem<?>> withThisName = planItems.withName(name);
+        return withThisName.isEmpty() ? null : withThisName.get(withThisName.size() - 1);
     }
 
     /**
@@ -229,7 +256,17 @@ public class Case extends ModelActor {
      * @return
      */
     public Collection<PlanItem<?>> getPlanItems() {
-        return planItems;
+        return planItems.all();
+    }
+
+    /**
+     * Returns the plan items that have the item definition, in the order in which they were created
+     *
+     * @param itemDefinition
+     * @return
+     */
+    public Collection<PlanItem<?>> getPlanItems(ItemDefinition itemDefinition) {
+        return planItems.withDefinition(itemDefinition);
     }
 
     /**
@@ -242,12 +279,12 @@ public class Case extends ModelActor {
      * @return
      */
     public Collection<PlanItem<?>> getPlanItems(String identifier) {
-        ArrayList<PlanItem<?>> list = new ArrayList<>();
-        for (PlanItem<?> planItem : getPlanItems()) {
-            if (planItem.getName().equals(identifier) || planItem.getId().equals(identifier)) {
-                list.add(0, planItem);
-            }
+        ArrayList<PlanItem<?>> list = new ArrayList<>(planItems.withName(identifier));
+        PlanItem<?> planItemWithId = planItems.get(identifier);
+        if (planItemWithId != null && !list.contains(planItemWithId)) {
+            list.add(planItemWithId);
         }
+        Collections.reverse(list);
         return list;
     }
 
@@ -276,32 +313,42 @@ public class Case extends ModelActor {
      * @return
      */
     public PlanItem<?> add(PlanItemCreated event) {
-        if (event.stageId.isEmpty()) {
+        return createPlanItem(event.getPlanItemId(), event.stageId, event.getPlanItemName(), event.getIndex(), event);
+    }
+
+    /**
+     * Creates a PlanItem within the Case, either from a {@link PlanItemCreated} event or from a {@link CaseSnapshot}.
+     *
+     * @param source Event or snapshot entry from which the plan item is created; used for logging
+     * @return
+     */
+    private PlanItem<?> createPlanItem(String planItemId, String stageId, String planItemName, int index, Object source) {
+        if (stageId.isEmpty()) {
             CasePlanDefinition definition = this.getDefinition().getCasePlanModel();
-            this.casePlan = definition.createInstance(event.getPlanItemId(), 0, definition, null, this);
+            this.casePlan = definition.createInstance(planItemId, 0, definition, null, this);
             return this.casePlan;
         } else {
             // Lookup the stage to which the plan item belongs,
             // then lookup the definition for the plan item
             // and then instantiate it.
-            Stage<?> stage = this.getPlanItemById(event.stageId);
+            Stage<?> stage = this.getPlanItemById(stageId);
             if (stage == null) {
-                logger.error("MAJOR ERROR: we cannot find the stage with id " + event.stageId + ", and therefore cannot recover plan item " + event);
+                logger.error("MAJOR ERROR: we cannot find the stage with id " + stageId + ", and therefore cannot recover plan item " + source);
                 return null;
             }
 
-            ItemDefinition itemDefinition = stage.getDefinition().getPlanItem(event.getPlanItemName());
+            ItemDefinition itemDefinition = stage.getDefinition().getPlanItem(planItemName);
             // If definition == null, try to see if it's a discretionaryItem
             if (itemDefinition == null) {
-                itemDefinition = stage.getDefinition().getDiscretionaryItem(event.getPlanItemName());
+                itemDefinition = stage.getDefinition().getDiscretionaryItem(planItemName);
                 if (itemDefinition == null) {
-                    logger.error("MAJOR ERROR: we cannot find a plan item definition named '" + event.getPlanItemName() + "' in stage " + event.stageId + ", and therefore cannot recover plan item " + event);
+                    logger.error("MAJOR ERROR: we cannot find a plan item definition named '" + planItemName + "' in stage " + stageId + ", and therefore cannot recover plan item " + source);
                     return null;
                 }
             }
 
             PlanItemDefinitionDefinition reference = itemDefinition.getPlanItemDefinition();
-            return reference.createInstance(event.getPlanItemId(), event.getIndex(), itemDefinition, stage, this);
+            return reference.createInstance(planItemId, index, itemDefinition, stage, this);
         }
     }
 
@@ -465,4 +512,106 @@ public class Case extends ModelActor {
         int numFailedPlanItems = Long.valueOf(getPlanItems().stream().filter(p -> p.getState().isFailed()).count()).intValue();
         this.addEvent(new CaseModified(this, source, numFailedPlanItems));
     }
+
+    /**
+     * Returns the state of the case for a {@link CaseSnapshot}
+     *
+     * @return
+     */
+    public ValueMap snapshotState() {
+        ValueList planItemsJson = new ValueList();
+        getPlanItems().forEach(item -> planItemsJson.add(item.snapshotState()));
+        return new ValueMap(
+                Fields.definition, getDefinition().toJSON(),
+                Fields.parentCaseId, parentCaseId,
+                Fields.rootCaseId, rootCaseId,
+                Fields.createdOn, createdOn,
+                Fields.lastModified, getLastModified(),
+                Fields.engineVersion, getEngineVersion() == null ? null : getEngineVersion().json(),
+                Fields.debugMode, debugMode(),
+                Fields.team, getCaseTeam().snapshotState(),
+                Fields.caseFile, getCaseFile().snapshotState(),
+                Fields.planItems, planItemsJson);
+    }
+
+    /**
+     * Restores the state of the case from a {@link CaseSnapshot}.
+     * The steps follow the order of the creation of a case: first the case file items (as case input parameters are
+     * bound before the case plan exists), then the plan items, and only then the state of the items and the sentries.
+     *
+     * @param state
+     */
+    private void restoreState(ValueMap state) {
+        CaseDefinition snapshotDefinition = state.readDefinition(Fields.definition, CaseDefinition.class);
+        if (snapshotDefinition == null) {
+            throw new DeserializationError("Cannot restore case " + getId() + " from snapshot, because the case definition cannot be read");
+        }
+        applyCaseDefinition(snapshotDefinition, state.readString(Fields.parentCaseId), state.readString(Fields.rootCaseId));
+        this.createdOn = state.readInstant(Fields.createdOn);
+        if (state.has(Fields.engineVersion)) {
+            setEngineVersion(new CafienneVersion(state.readMap(Fields.engineVersion)));
+        }
+        setDebugMode(state.readBoolean(Fields.debugMode));
+        setLastModified(state.readInstant(Fields.lastModified));
+        getCaseTeam().restoreState(state.readMap(Fields.team));
+
+        List<ValueMap> caseFileItems = state.readObjects(Fields.caseFile, item -> item);
+        List<ValueMap> planItemsJson = state.readObjects(Fields.planItems, item -> item);
+        getCaseFile().restoreItems(caseFileItems);
+        planItemsJson.forEach(json -> createPlanItem(json.readString(Fields.planItemId), json.readString(Fields.stageId), json.readString(Fields.name), json.readLong(Fields.index).intValue(), json));
+        // From now onwards case file items publish their transitions the regular way, just like after StartCase
+        getCaseFile().releaseBootstrapEvents();
+        getCaseFile().restoreState(caseFileItems);
+        planItemsJson.forEach(json -> {
+            PlanItem<?> item = getPlanItemById(json.readString(Fields.planItemId));
+            if (item != null) {
+                item.restoreState(json);
+            }
+        });
+    }
+
+    @Override
+    protected void handleSnapshot(SnapshotOffer offer) {
+        if (offer.snapshot() instanceof CaseSnapshot) {
+            CaseSnapshot snapshot = (CaseSnapshot) offer.snapshot();
+            if (logger.isDebugEnabled()) {
+                logger.debug("Recovering " + snapshot + " at sequence number " + offer.metadata().sequenceNr());
+            }
+            restoreState(snapshot.getState());
+            if (snapshotLog != null) {
+                snapshotLog.reset();
+            }
+        } else {
+            logger.warn("Case " + getId() + " received a snapshot offer of unexpected type " + offer.snapshot().getClass().getName());
+        }
+    }
+
+    @Override
+    protected void eventRecovered(ModelEvent event) {
+        if (snapshotLog != null) {
+            snapshotLog.add(event);
+        }
+    }
+
+    @Override
+    protected void eventsPersisted(List<ModelEvent> events) {
+        if (snapshotLog != null) {
+            events.forEach(snapshotLog::add);
+            if (snapshotLog.snapshotDue()) {
+                saveSnapshot(new CaseSnapshot(this));
+                snapshotLog.reset();
+            }
+        }
+    }
+
+    @Override
+    protected void handleSnapshotProtocolMessage(SnapshotProtocol.Response message) {
+        if (message instanceof SaveSnapshotSuccess) {
+            // Older snapshots are no longer needed
+            SnapshotMetadata metadata = ((SaveSnapshotSuccess) message).metadata();
+            deleteSnapshots(SnapshotSelectionCriteria.create(metadata.sequenceNr() - 1, Long.MAX_VALUE));
+        } else if (message instanceof SaveSnapshotFailure) {
+            logger.warn("Could not save snapshot of case " + getId() + "; recovery will replay all events after the previous snapshot", ((SaveSnapshotFailure) message).cause());
+        }
+    }
 }
@@ -22,11 +22,14 @@ import org.cafienne.cmmn.actorapi.event.CaseAppliedPlatformUpdate;
 import org.cafienne.cmmn.actorapi.event.migration.PlanItemDropped;
 import org.cafienne.cmmn.actorapi.event.migration.PlanItemMigrated;
 import org.cafienne.cmmn.actorapi.event.plan.*;
+import org.cafienne.cmmn.actorapi.snapshot.CaseSnapshot;
 import org.cafienne.cmmn.definition.ConstraintDefinition;
 import org.cafienne.cmmn.definition.ItemDefinition;
 import org.cafienne.cmmn.definition.PlanItemDefinitionDefinition;
 import org.cafienne.cmmn.instance.sentry.PlanItemOnPart;
 import org.cafienne.cmmn.instance.sentry.TransitionGenerator;
+import org.cafienne.infrastructure.serialization.Fields;
+import org.cafienne.json.ValueMap;
 import org.w3c.dom.Element;
 
 import java.util.Collection;
@@ -241,6 +244,10 @@ public abstract class PlanItem<T extends PlanItemDefinitionDefinition> extends C
     private void setItemDefinition(ItemDefinition newItemDefinition) {
         this.previousItemDefinition = this.itemDefinition;
         this.itemDefinition = newItemDefinition;
+        getCaseInstance().reindexPlanItem(this, previousItemDefinition);
+        if (getStage() != null) {
+            getStage().reindexChild(this, previousItemDefinition);
+        }
     }
 
     public ItemDefinition getPreviousItemDefinition() {
@@ -478,6 +485,75 @@ public abstract class PlanItem<T extends PlanItemDefinitionDefinition> extends C
         return getType() + "[" + getName() + "." + index + "]";
     }
 
+    /**
+     * Returns the state of this plan item, including the state of its criteria, for a snapshot of the case
+     *
+     * @return
+     */
+    ValueMap snapshotState() {
+        ValueMap json = new ValueMap(
+                Fields.planItemId, id,
+                Fields.stageId, stage == null ? "" : stage.getId(),
+                Fields.name, getName(),
+                Fields.index, index,
+                Fields.currentState, String.valueOf(state),
+                Fields.historyState, String.valueOf(historyState),
+                Fields.transition, String.valueOf(lastTransition),
+                Fields.isRepeating, repetitionRuleOutcome,
+                Fields.isRequired, requiredRuleOutcome,
+                Fields.entryCriteria, entryCriteria.snapshotState(),
+                Fields.exitCriteria, exitCriteria.snapshotState());
+        PlanItemTransitioned lastEvent = transitionPublisher.getLastTransition();
+        if (lastEvent != null) {
+            json.plus(Fields.lastEvent, CaseSnapshot.writeEvent(lastEvent));
+        }
+        String earlyBird = entryCriteria.getEarlyBirdId();
+        if (earlyBird != null) {
+            json.plus(Fields.earlyBird, earlyBird);
+        }
+        snapshotImplementation(json);
+        return json;
+    }
+
+    /**
+     * Restores the state of this plan item from a snapshot of the case.
+     * Other than in recovery of events, no transitions are made and no sentries are triggered.
+     *
+     * @param json
+     */
+    void restoreState(ValueMap json) {
+        this.state = json.readEnum(Fields.currentState, State.class);
+        this.historyState = json.readEnum(Fields.historyState, State.class);
+        this.lastTransition = json.readEnum(Fields.transition, Transition.class);
+        this.repetitionRuleOutcome = json.readBoolean(Fields.isRepeating);
+        this.requiredRuleOutcome = json.readBoolean(Fields.isRequired);
+        if (json.has(Fields.lastEvent)) {
+            transitionPublisher.restoreTransition(CaseSnapshot.readEvent(json.readMap(Fields.lastEvent)));
+        }
+        restoreImplementation(json);
+        entryCriteria.restoreState(json.readObjects(Fields.entryCriteria, criterion -> criterion));
+        exitCriteria.restoreState(json.readObjects(Fields.exitCriteria, criterion -> criterion));
+        if (json.has(Fields.earlyBird)) {
+            entryCriteria.restoreEarlyBird(json.readString(Fields.earlyBird));
+        }
+    }
+
+    /**
+     * Hook to add the state of the implementation of the plan item (e.g. task parameters) to the snapshot
+     *
+     * @param json
+     */
+    protected void snapshotImplementation(ValueMap json) {
+    }
+
+    /**
+     * Hook to restore the state of the implementation of the plan item from the snapshot
+     *
+     * @param json
+     */
+    protected void restoreImplementation(ValueMap json) {
+    }
+
     protected void dumpImplementationToXML(Element planItemXML) {
     }
 
@@ -98,6 +98,20 @@ public class PlanItemEntry extends CriteriaListener<EntryCriterionDefinition, En
         }
     }
 
+    /**
+     * Returns the definition id of the criterion that was satisfied before the lifecycle started, if any
+     */
+    String getEarlyBirdId() {
+        return earlyBird == null ? null : earlyBird.getDefinition().getId();
+    }
+
+    /**
+     * Restores the early bird criterion from a snapshot of the case
+     */
+    void restoreEarlyBird(String definitionId) {
+        earlyBird = criteria.stream().filter(criterion -> criterion.getDefinition().getId().equals(definitionId)).findFirst().orElse(null);
+    }
+
     private boolean willNotRepeat() {
         return item.getItemDefinition().getPlanItemControl().getRepetitionRule().isDefault();
     }
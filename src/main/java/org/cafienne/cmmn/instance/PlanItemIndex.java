@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.cmmn.instance;
+
+import org.cafienne.cmmn.definition.ItemDefinition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index on the plan items of a case or a stage, to avoid iterating all plan items upon each lookup.
+ * Plan items are kept in the order in which they were added, also in the lists per name and per definition,
+ * so that e.g. the last repetition of a plan item is the last element in the list with its name.
+ */
+class PlanItemIndex {
+    private final Map<String, PlanItem<?>> byId = new LinkedHashMap<>();
+    private final Map<String, List<PlanItem<?>>> byName = new HashMap<>();
+    private final Map<ItemDefinition, List<PlanItem<?>>> byDefinition = new HashMap<>();
+
+    void add(PlanItem<?> item) {
+        byId.put(item.getId(), item);
+        addTo(byName, item.getName(), item);
+        addTo(byDefinition, item.getItemDefinition(), item);
+    }
+
+    void remove(PlanItem<?> item) {
+        byId.remove(item.getId());
+        removeFrom(byName, item.getName(), item);
+        removeFrom(byDefinition, item.getItemDefinition(), item);
+    }
+
+    /**
+     * Moves the item to the name and definition of its new item definition (typically upon case definition migration)
+     */
+    void changeDefinition(PlanItem<?> item, ItemDefinition previous) {
+        if (previous == null) {
+            return;
+        }
+        removeFrom(byName, previous.getName(), item);
+        removeFrom(byDefinition, previous, item);
+        addTo(byName, item.getName(), item);
+        addTo(byDefinition, item.getItemDefinition(), item);
+    }
+
+    /**
+     * Returns all plan items, in the order in which they were added
+     */
+    Collection<PlanItem<?>> all() {
+        return byId.values();
+    }
+
+    PlanItem<?> get(String id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Returns the plan items with the name, in the order in which they were added
+     */
+    List<PlanItem<?>> withName(String name) {
+        return Collections.unmodifiableList(byName.getOrDefault(name, List.of()));
+    }
+
+    /**
+     * Returns the plan items with the item definition, in the order in which they were added
+     */
+    List<PlanItem<?>> withDefinition(ItemDefinition definition) {
+        return Collections.unmodifiableList(byDefinition.getOrDefault(definition, List.of()));
+    }
+
+    /**
+     * Returns true if there is a plan item with an item definition that has the id
+     */
+    boolean hasDefinitionWithId(String definitionId) {
+        return byDefinition.keySet().stream().anyMatch(definition -> definition.getId().equals(definitionId));
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    boolean isEmpty() {
+        return byId.isEmpty();
+    }
+
+    private <K> void addTo(Map<K, List<PlanItem<?>>> map, K key, PlanItem<?> item) {
+        map.computeIfAbsent(key, k -> new ArrayList<>()).add(item);
+    }
+
+    private <K> void removeFrom(Map<K, List<PlanItem<?>>> map, K key, PlanItem<?> item) {
+        List<PlanItem<?>> items = map.get(key);
+        if (items != null) {
+            items.remove(item);
+            if (items.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+}
@@ -30,7 +30,7 @@ import java.util.Collection;
 import java.util.stream.Collectors;
 
 public class Stage<T extends StageDefinition> extends TaskStage<T> {
-    private final Collection<PlanItem<?>> planItems = new ArrayList<>();
+    private final PlanItemIndex planItems = new PlanItemIndex();
 
     public Stage(String id, int index, ItemDefinition itemDefinition, T definition, Stage<?> parent, Case caseInstance) {
         this(id, index, itemDefinition, definition, parent, caseInstance, StateMachine.TaskStage);
@@ -42,7 +42,7 @@ public class Stage<T extends StageDefinition> extends TaskStage<T> {
 
     void register(PlanItem<?> child) {
         if (getCaseInstance().recoveryRunning() && child.getIndex() > 0) {
-            planItems.stream().filter(p -> p.getDefinition().equals(child.getDefinition()) && p.getIndex() + 1 == child.getIndex()).forEach(leftSibling -> {
+            planItems.withDefinition(child.getItemDefinition()).stream().filter(p -> p.getIndex() + 1 == child.getIndex()).forEach(leftSibling -> {
 //                System.out.println("!!!Releasing already repeated plan item " + leftSibling);
                 // Recovering repeated plan items should no longer inform the sentry network
                 leftSibling.getEntryCriteria().release();
@@ -52,7 +52,14 @@ public class Stage<T extends StageDefinition> extends TaskStage<T> {
     }
 
     public Collection<PlanItem<?>> getPlanItems() {
-        return planItems;
+        return planItems.all();
+    }
+
+    /**
+     * Update the index of children when the item definition of the child changed
+     */
+    void reindexChild(PlanItem<?> child, ItemDefinition previousItemDefinition) {
+        planItems.changeDefinition(child, previousItemDefinition);
     }
 
     /**
@@ -63,7 +70,7 @@ public class Stage<T extends StageDefinition> extends TaskStage<T> {
      */
     void planChild(DiscretionaryItem discretionaryItem, String planItemId) {
         // Determine index by iterating sibling plan items (i.e., those that have the same item definition).
-        int index = Long.valueOf(this.planItems.stream().filter(item -> item.getItemDefinition().equals(discretionaryItem.getDefinition())).count()).intValue();
+        int index = this.planItems.withDefinition(discretionaryItem.getDefinition()).size();
         addChild(discretionaryItem.getDefinition(), planItemId, index, true);
     }
 
@@ -79,7 +86,7 @@ public class Stage<T extends StageDefinition> extends TaskStage<T> {
         // Make sure we have a proper next index, by counting the number of existing plan items in this stage with the same definition
         //  An alternative was to do (this.index + 1) but actually it can happen that multiple items are active simultaneously
         //  and in that case, when completing an earlier one of those it may lead to a duplicate index if we apply only +1
-        int nextIndex = (int) getPlanItems().stream().map(PlanItem::getItemDefinition).filter(sibling -> sibling.equals(itemDefinition)).count();
+        int nextIndex = planItems.withDefinition(itemDefinition).size();
         // Create a new plan item
         addDebugInfo(() -> child + ": creating repeat item with index " + nextIndex + " and id " + repeatItemId);
         return addChild(itemDefinition, repeatItemId, nextIndex, true);
@@ -115,9 +122,9 @@ public class Stage<T extends StageDefinition> extends TaskStage<T> {
     private void createNullItems() {
         if (planItems.size() > 0) {
             addDebugInfo(() -> "Stage[" + getName() + "]: instantiating " + planItems.size() + " children having Null state. These are probably discretionary items that have been planned before the stage became active");
-            planItems.forEach(item -> addDebugInfo(() -> "Item["+item.getName()+"."+item.getIndex() +"] in state "+ item.getState()));
+            planItems.all().forEach(item -> addDebugInfo(() -> "Item["+item.getName()+"."+item.getIndex() +"] in state "+ item.getState()));
         }
-        planItems.stream().filter(item -> item.getState().isNull()).forEach(PlanItem::create);
+        planItems.all().stream().filter(item -> item.getState().isNull()).forEach(PlanItem::create);
     }
 
     @Override
@@ -199,7 +206,7 @@ public class Stage<T extends StageDefinition> extends TaskStage<T> {
             String msg = getPlanItems().stream().map(p -> "\n*   - " + p.toDescription()).collect(Collectors.toList()).toString();
             return "*   checking " + planItems.size() + " plan items for completion:" + msg;
         });
-        for (PlanItem<?> childItem : planItems) {
+        for (PlanItem<?> childItem : planItems.all()) {
             // There shouldn't be any active item.
             if (childItem.getState().isActive()) {
                 addDebugInfo(() -> "*** " + this + " cannot auto complete, because '" + childItem.toDescription() + "' is still Active");
@@ -267,7 +274,7 @@ public class Stage<T extends StageDefinition> extends TaskStage<T> {
     }
 
     private void disconnectChildren(boolean makeTerminationTransition) {
-        for (PlanItem<?> child : planItems) {
+        for (PlanItem<?> child : planItems.all()) {
             if (makeTerminationTransition) {
                 child.makeTransition(child.getTerminationTransition());
             }
@@ -282,7 +289,7 @@ public class Stage<T extends StageDefinition> extends TaskStage<T> {
      * @param transition
      */
     private void propagateTransition(Transition transition) {
-        for (PlanItem<?> child : planItems) {
+        for (PlanItem<?> child : planItems.all()) {
             child.makeTransition(transition);
         }
     }
@@ -290,7 +297,7 @@ public class Stage<T extends StageDefinition> extends TaskStage<T> {
     @Override
     protected void dumpImplementationToXML(Element stageXML) {
         super.dumpImplementationToXML(stageXML);
-        for (PlanItem<?> child : planItems) {
+        for (PlanItem<?> child : planItems.all()) {
             child.dumpMemoryStateToXML(stageXML);
         }
 
@@ -322,14 +329,14 @@ public class Stage<T extends StageDefinition> extends TaskStage<T> {
 
     @Override
     public void updateState(CaseAppliedPlatformUpdate event) {
-        planItems.forEach(item -> item.updateState(event));
+        planItems.all().forEach(item -> item.updateState(event));
     }
 
     @Override
     public void migrateItemDefinition(ItemDefinition newItemDefinition, T newDefinition) {
         super.migrateItemDefinition(newItemDefinition, newDefinition);
         // Migrate existing children (potentially dropping and removing them)
-        new ArrayList<>(planItems).forEach(this::migrateChild);
+        new ArrayList<>(planItems.all()).forEach(this::migrateChild);
 
         // When the Stage is in state Available, it is not yet active, and starting the Stage
         //  will make it active and then the new children will be instantiated automatically.
@@ -369,7 +376,7 @@ public class Stage<T extends StageDefinition> extends TaskStage<T> {
     }
 
     private boolean doesNotHaveChild(PlanItemDefinition newChildDefinition) {
-        boolean notHasChild = this.getPlanItems().stream().noneMatch(item -> item.getItemDefinition().getId().equals(newChildDefinition.getId()) || item.getName().equals(newChildDefinition.getName()));
+        boolean notHasChild = planItems.withName(newChildDefinition.getName()).isEmpty() && !planItems.hasDefinitionWithId(newChildDefinition.getId());
         if (notHasChild) {
             addDebugInfo(() -> this + ": migration found a new child definition " + newChildDefinition.getName() +" of type " + newChildDefinition.getType());
         }
@@ -387,7 +394,7 @@ public class Stage<T extends StageDefinition> extends TaskStage<T> {
     @Override
     protected void lostDefinition() {
         // First drop our children
-        new ArrayList<>(planItems).forEach(PlanItem::lostDefinition);
+        new ArrayList<>(planItems.all()).forEach(PlanItem::lostDefinition);
         // Then generate our own event
         super.lostDefinition();
     }
@@ -29,6 +29,7 @@ import org.cafienne.cmmn.definition.parameter.TaskOutputParameterDefinition;
 import org.cafienne.cmmn.instance.parameter.TaskInputParameter;
 import org.cafienne.cmmn.instance.parameter.TaskOutputParameter;
 import org.cafienne.cmmn.instance.task.validation.ValidationResponse;
+import org.cafienne.infrastructure.serialization.Fields;
 import org.cafienne.json.Value;
 import org.cafienne.json.ValueMap;
 import org.w3c.dom.Element;
@@ -268,6 +269,28 @@ public abstract class Task<D extends TaskDefinition<?>> extends TaskStage<D> {
         paramXML.appendChild(valueNode);
     }
 
+    @Override
+    protected void snapshotImplementation(ValueMap json) {
+        super.snapshotImplementation(json);
+        json.plus(Fields.taskParameters, taskInput.cloneValueNode(),
+                Fields.mappedInputParameters, implementationInput.cloneValueNode(),
+                Fields.rawOutputParameters, givenOutput.cloneValueNode(),
+                Fields.taskOutput, taskOutput.cloneValueNode(),
+                Fields.isStarted, implementationState.isStarted,
+                Fields.foundFailure, implementationState.foundFailure);
+    }
+
+    @Override
+    protected void restoreImplementation(ValueMap json) {
+        super.restoreImplementation(json);
+        this.taskInput = json.readMap(Fields.taskParameters).cloneValueNode();
+        this.implementationInput = json.readMap(Fields.mappedInputParameters).cloneValueNode();
+        this.givenOutput = json.readMap(Fields.rawOutputParameters).cloneValueNode();
+        this.taskOutput = json.readMap(Fields.taskOutput).cloneValueNode();
+        this.implementationState.isStarted = json.readBoolean(Fields.isStarted);
+        this.implementationState.foundFailure = json.readBoolean(Fields.foundFailure);
+    }
+
     public void updateState(TaskImplementationStarted event) {
         getImplementationState().updateState(event);
     }
@@ -21,6 +21,8 @@ import org.cafienne.cmmn.actorapi.event.plan.eventlistener.*;
 import org.cafienne.cmmn.definition.ItemDefinition;
 import org.cafienne.cmmn.definition.TimerEventDefinition;
 import org.cafienne.humantask.actorapi.event.migration.HumanTaskDropped;
+import org.cafienne.infrastructure.serialization.Fields;
+import org.cafienne.json.ValueMap;
 
 import java.time.Instant;
 
@@ -36,6 +38,18 @@ public class TimerEvent extends EventListener<TimerEventDefinition> {
         addDebugInfo(() -> super.toString() + " occurs at " + targetMoment);
     }
 
+    @Override
+    protected void snapshotImplementation(ValueMap json) {
+        super.snapshotImplementation(json);
+        json.plus(Fields.targetMoment, targetMoment);
+    }
+
+    @Override
+    protected void restoreImplementation(ValueMap json) {
+        super.restoreImplementation(json);
+        this.targetMoment = json.readInstant(Fields.targetMoment);
+    }
+
     @Override
     protected void createInstance() {
         addEvent(new TimerSet(this));
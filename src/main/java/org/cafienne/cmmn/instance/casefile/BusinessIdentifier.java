@@ -51,6 +51,14 @@ class BusinessIdentifier extends CMMNElement<PropertyDefinition> {
         this.currentValue = event.getValue();
     }
 
+    Value<?> getCurrentValue() {
+        return currentValue;
+    }
+
+    void restoreState(Value<?> value) {
+        this.currentValue = value;
+    }
+
     protected void lostDefinition() {
         // Ehm ... introduce a special event for this???
         // but ... we also must check whether a business identifier with the same name now exists
@@ -21,6 +21,7 @@ import org.cafienne.cmmn.definition.casefile.CaseFileDefinition;
 import org.cafienne.cmmn.definition.casefile.CaseFileError;
 import org.cafienne.cmmn.instance.Case;
 import org.cafienne.json.Value;
+import org.cafienne.json.ValueList;
 import org.cafienne.json.ValueMap;
 import org.cafienne.util.XMLHelper;
 import org.w3c.dom.Document;
@@ -101,6 +102,35 @@ public class CaseFile extends CaseFileItemCollection<CaseFileDefinition> {
         return caseFileJson;
     }
 
+    /**
+     * Returns the state of the case file items for a snapshot of the case
+     *
+     * @return
+     */
+    public ValueList snapshotState() {
+        return snapshotItems();
+    }
+
+    /**
+     * Creates the case file items from a snapshot of the case. This must be done before the case plan is restored,
+     * so that the items exist in the same order as they were created originally.
+     *
+     * @param snapshot
+     */
+    public void restoreItems(List<ValueMap> snapshot) {
+        super.restoreItems(snapshot);
+    }
+
+    /**
+     * Restores the state and value of the case file items from a snapshot of the case.
+     * This also creates the elements of case file item arrays.
+     *
+     * @param snapshot
+     */
+    public void restoreState(List<ValueMap> snapshot) {
+        restoreItemStates(snapshot);
+    }
+
     public void dumpMemoryStateToXML(Element parentElement) {
         Element caseFileXML = parentElement.getOwnerDocument().createElement("CaseFile");
         parentElement.appendChild(caseFileXML);
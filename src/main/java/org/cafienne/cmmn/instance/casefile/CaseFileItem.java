@@ -20,6 +20,7 @@ package org.cafienne.cmmn.instance.casefile;
 import org.cafienne.cmmn.actorapi.event.file.*;
 import org.cafienne.cmmn.actorapi.event.migration.CaseFileItemDropped;
 import org.cafienne.cmmn.actorapi.event.migration.CaseFileItemMigrated;
+import org.cafienne.cmmn.actorapi.snapshot.CaseSnapshot;
 import org.cafienne.cmmn.definition.CMMNElementDefinition;
 import org.cafienne.cmmn.definition.casefile.CaseFileError;
 import org.cafienne.cmmn.definition.casefile.CaseFileItemDefinition;
@@ -29,6 +30,7 @@ import org.cafienne.cmmn.instance.Path;
 import org.cafienne.cmmn.instance.State;
 import org.cafienne.cmmn.instance.sentry.CaseFileItemOnPart;
 import org.cafienne.cmmn.instance.sentry.TransitionGenerator;
+import org.cafienne.infrastructure.serialization.Fields;
 import org.cafienne.json.Value;
 import org.cafienne.json.ValueMap;
 import org.w3c.dom.Element;
@@ -496,6 +498,87 @@ public class CaseFileItem extends CaseFileItemCollection<CaseFileItemDefinition>
         return getDescription();
     }
 
+    /**
+     * Returns the state of this item and its children for a snapshot of the case.
+     * The value is only added if it differs from the value that the parent item holds for this item.
+     *
+     * @return
+     */
+    ValueMap snapshotState() {
+        ValueMap json = new ValueMap(Fields.name, getName(), Fields.state, String.valueOf(state));
+        if (lastTransition != null) {
+            json.plus(Fields.transition, String.valueOf(lastTransition));
+        }
+        if (indexInArray >= 0) {
+            json.plus(Fields.index, indexInArray);
+        }
+        if (!value.equals(getInheritedValue())) {
+            json.plus(Fields.value, value.cloneValueNode());
+        }
+        ValueMap identifiers = new ValueMap();
+        businessIdentifiers.forEach((name, identifier) -> {
+            if (identifier.getCurrentValue() != null) {
+                identifiers.put(name, identifier.getCurrentValue().cloneValueNode());
+            }
+        });
+        json.plus(Fields.identifiers, identifiers);
+        CaseFileItemTransitioned lastEvent = getPublisher().getLastTransition();
+        if (lastEvent != null) {
+            json.plus(Fields.lastEvent, CaseSnapshot.writeEvent(lastEvent));
+        }
+        json.plus(Fields.children, snapshotItems());
+        return json;
+    }
+
+    /**
+     * Restores the state and value of this item and its children from a snapshot of the case.
+     * Other than in recovery of events, no transitions are made, and the parent values are not updated,
+     * as they are restored from the snapshot themselves.
+     *
+     * @param json
+     */
+    void restoreState(ValueMap json) {
+        this.state = json.readEnum(Fields.state, State.class);
+        this.lastTransition = json.readEnum(Fields.transition, CaseFileItemTransition.class);
+        if (json.has(Fields.index)) {
+            this.indexInArray = json.readLong(Fields.index).intValue();
+        }
+        Value<?> inheritedValue = getInheritedValue();
+        this.value.clearOwner();
+        this.value = json.has(Fields.value) ? json.get(Fields.value).cloneValueNode() : inheritedValue != null ? inheritedValue : Value.NULL;
+        this.value.setOwner(this);
+        json.readMap(Fields.identifiers).getValue().forEach((name, identifierValue) -> {
+            BusinessIdentifier identifier = businessIdentifiers.get(name);
+            if (identifier != null) {
+                identifier.restoreState(identifierValue.cloneValueNode());
+            }
+        });
+        if (json.has(Fields.lastEvent)) {
+            getPublisher().restoreTransition(CaseSnapshot.readEvent(json.readMap(Fields.lastEvent)));
+        }
+        restoreItemStates(json.readObjects(Fields.children, child -> child));
+    }
+
+    /**
+     * Returns the value that our parent holds for us, or null if the parent does not have a value for us
+     *
+     * @return
+     */
+    private Value<?> getInheritedValue() {
+        if (parent == null || !parent.value.isMap()) {
+            return null;
+        }
+        Value<?> inheritedValue = parent.value.asMap().get(getName());
+        if (container == this) {
+            return inheritedValue;
+        }
+        // We are an element in an array, and the parent holds the value of the whole array
+        if (inheritedValue != null && inheritedValue.isList() && indexInArray >= 0 && indexInArray < inheritedValue.asList().size()) {
+            return inheritedValue.asList().get(indexInArray);
+        }
+        return null;
+    }
+
     /**
      * Dump the CaseFile item as XML.
      *
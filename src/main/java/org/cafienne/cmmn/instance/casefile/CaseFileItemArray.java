@@ -23,8 +23,10 @@ import org.cafienne.cmmn.definition.casefile.CaseFileItemDefinition;
 import org.cafienne.cmmn.instance.Case;
 import org.cafienne.cmmn.instance.State;
 import org.cafienne.cmmn.instance.TransitionDeniedException;
+import org.cafienne.infrastructure.serialization.Fields;
 import org.cafienne.json.Value;
 import org.cafienne.json.ValueList;
+import org.cafienne.json.ValueMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Element;
@@ -231,6 +233,26 @@ public class CaseFileItemArray extends CaseFileItem implements List<CaseFileItem
         }
     }
 
+    @Override
+    ValueMap snapshotState() {
+        ValueList elements = new ValueList();
+        actualArrayItems.forEach(item -> elements.add(item.snapshotState()));
+        return new ValueMap(Fields.name, getName(), Fields.elements, elements, Fields.current, current == null ? -1 : actualArrayItems.indexOf(current));
+    }
+
+    @Override
+    void restoreState(ValueMap json) {
+        // Elements are created here instead of upon creation of the case file structure,
+        //  so that they get their own transition publisher, just like elements that are added after the case has started.
+        for (ValueMap elementJson : json.readObjects(Fields.elements, element -> element)) {
+            CaseFileItem element = getNextItem();
+            element.restoreState(elementJson);
+            actualValueOfCaseFileItemArray.add(element.getValue());
+        }
+        int currentIndex = json.readLong(Fields.current, -1L).intValue();
+        current = currentIndex >= 0 && currentIndex < actualArrayItems.size() ? actualArrayItems.get(currentIndex) : null;
+    }
+
     @Override
     public void dumpMemoryStateToXML(Element parentElement) {
         // Only dump our actual items.
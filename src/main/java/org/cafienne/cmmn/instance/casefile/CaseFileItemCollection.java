@@ -24,7 +24,9 @@ import org.cafienne.cmmn.instance.CMMNElement;
 import org.cafienne.cmmn.instance.Case;
 import org.cafienne.cmmn.instance.Path;
 import org.cafienne.cmmn.instance.State;
+import org.cafienne.infrastructure.serialization.Fields;
 import org.cafienne.json.Value;
+import org.cafienne.json.ValueList;
 import org.cafienne.json.ValueMap;
 
 import java.util.ArrayList;
@@ -83,6 +85,46 @@ public abstract class CaseFileItemCollection<T extends CaseFileItemCollectionDef
         getItems().forEach(CaseFileItem::releaseBootstrapEvents);
     }
 
+    /**
+     * Returns the state of the child items for a snapshot of the case, in the order in which the items were created
+     *
+     * @return
+     */
+    protected ValueList snapshotItems() {
+        ValueList list = new ValueList();
+        items.forEach(item -> list.add(item.snapshotState()));
+        return list;
+    }
+
+    /**
+     * Creates the child items found in the snapshot, in the order in which they were created originally.
+     * Array elements (and their children) are not created in this step, but only when restoring the state.
+     *
+     * @param snapshot
+     */
+    protected void restoreItems(List<ValueMap> snapshot) {
+        snapshot.forEach(json -> {
+            CaseFileItem item = getItem(json.readString(Fields.name));
+            if (item != null) {
+                item.restoreItems(json.readObjects(Fields.children, child -> child));
+            }
+        });
+    }
+
+    /**
+     * Restores the state of the child items found in the snapshot.
+     *
+     * @param snapshot
+     */
+    protected void restoreItemStates(List<ValueMap> snapshot) {
+        snapshot.forEach(json -> {
+            CaseFileItem item = getItem(json.readString(Fields.name));
+            if (item != null) {
+                item.restoreState(json);
+            }
+        });
+    }
+
     /**
      * Returns the case file item with the specified index. Default implementation throws an exception, i.e., invoking this method
      * on a plain case file item will result in an {@link InvalidPathException}. It can only be invoked properly on a CaseFileItemArray.
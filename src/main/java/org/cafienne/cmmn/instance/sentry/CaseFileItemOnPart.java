@@ -18,9 +18,11 @@
 package org.cafienne.cmmn.instance.sentry;
 
 import org.cafienne.cmmn.actorapi.event.file.CaseFileItemTransitioned;
+import org.cafienne.cmmn.actorapi.snapshot.CaseSnapshot;
 import org.cafienne.cmmn.definition.sentry.CaseFileItemOnPartDefinition;
 import org.cafienne.cmmn.instance.casefile.CaseFileItem;
 import org.cafienne.cmmn.instance.casefile.CaseFileItemTransition;
+import org.cafienne.infrastructure.serialization.Fields;
 import org.cafienne.json.ValueMap;
 import org.w3c.dom.Element;
 
@@ -81,6 +83,23 @@ public class CaseFileItemOnPart extends OnPart<CaseFileItemOnPartDefinition, Cas
         }
     }
 
+    @Override
+    ValueMap snapshotState() {
+        ValueMap json = new ValueMap(Fields.active, isActive);
+        if (lastEvent != null) {
+            json.plus(Fields.lastEvent, CaseSnapshot.writeEvent(lastEvent));
+        }
+        return json;
+    }
+
+    @Override
+    void restoreState(ValueMap json) {
+        isActive = json.readBoolean(Fields.active);
+        if (json.has(Fields.lastEvent)) {
+            lastEvent = CaseSnapshot.readEvent(json.readMap(Fields.lastEvent));
+        }
+    }
+
     @Override
     ValueMap toJson() {
         return new ValueMap("casefile-item", getSourceName(),
@@ -23,10 +23,16 @@ import org.cafienne.cmmn.definition.sentry.CriterionDefinition;
 import org.cafienne.cmmn.instance.CMMNElement;
 import org.cafienne.cmmn.instance.PlanItem;
 import org.cafienne.cmmn.instance.PlanItemEntry;
+import org.cafienne.infrastructure.serialization.Fields;
+import org.cafienne.json.ValueList;
+import org.cafienne.json.ValueMap;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 public abstract class CriteriaListener<T extends CriterionDefinition, C extends Criterion<T>> extends CMMNElement<ItemDefinition> {
     protected final PlanItem<?> item;
@@ -78,6 +84,32 @@ public abstract class CriteriaListener<T extends CriterionDefinition, C extends
         criterion.release();
     }
 
+    /**
+     * Returns the state of the criteria for a snapshot of the case
+     */
+    public ValueList snapshotState() {
+        ValueList list = new ValueList();
+        criteria.forEach(criterion -> list.add(criterion.snapshotState()));
+        return list;
+    }
+
+    /**
+     * Restores the state of the criteria from a snapshot of the case.
+     * Criteria that are not in the snapshot had already been released, and are released again.
+     */
+    public void restoreState(List<ValueMap> snapshot) {
+        Map<String, ValueMap> criteriaById = new HashMap<>();
+        snapshot.forEach(json -> criteriaById.put(json.readString(Fields.elementId), json));
+        for (C criterion : new ArrayList<>(criteria)) {
+            ValueMap json = criteriaById.get(criterion.getDefinition().getId());
+            if (json == null) {
+                release(criterion);
+            } else {
+                criterion.restoreState(json);
+            }
+        }
+    }
+
     public abstract void satisfy(Criterion<?> criterion);
 
     protected abstract void migrateCriteria(ItemDefinition newItemDefinition);
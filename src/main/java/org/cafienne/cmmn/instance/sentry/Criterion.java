@@ -26,7 +26,7 @@ import org.cafienne.cmmn.instance.CMMNElement;
 import org.cafienne.cmmn.instance.CasePlan;
 import org.cafienne.cmmn.instance.PlanItem;
 import org.cafienne.cmmn.instance.Stage;
-import org.cafienne.cmmn.instance.casefile.CaseFileItem;
+import org.cafienne.infrastructure.serialization.Fields;
 import org.cafienne.json.ValueList;
 import org.cafienne.json.ValueMap;
 import org.w3c.dom.Element;
@@ -34,6 +34,7 @@ import org.w3c.dom.Element;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -64,6 +65,10 @@ public abstract class Criterion<D extends CriterionDefinition> extends CMMNEleme
         onParts.forEach(OnPart::connectToCase);
     }
 
+    Collection<OnPart<?, ?, ?>> getOnParts() {
+        return onParts;
+    }
+
     public PlanItem<?> getTarget() {
         return listener.item;
     }
@@ -143,36 +148,6 @@ public abstract class Criterion<D extends CriterionDefinition> extends CMMNEleme
         return getDefinition().getType() + " for " + getTarget() + " on " + "[" + listeners + "] - " + (activated ? "active" : "inactive");
     }
 
-    /**
-     * Connects to the plan item if there is an on part in the criterion that matches the plan item definition.
-     * Skips plan items that belong to sibling stages.
-     *
-     */
-    void establishPotentialConnection(PlanItem<?> planItem) {
-        onParts.forEach(onPart -> onPart.establishPotentialConnection(planItem));
-    }
-
-    /**
-     * Disconnect the item from our on parts, as the item is no longer part of the sentry network
-     */
-    void removeConnection(PlanItem<?> planItem) {
-        onParts.forEach(onPart -> onPart.removeConnection(planItem));
-    }
-
-    /**
-     * Connects to the case file item if there is an on part in the criterion that matches the case file item definition.
-     */
-    void establishPotentialConnection(CaseFileItem caseFileItem) {
-        onParts.forEach(onPart -> onPart.establishPotentialConnection(caseFileItem));
-    }
-
-    /**
-     * Disconnect the item from our on parts, as the item is no longer part of the sentry network
-     */
-    void removeConnection(CaseFileItem caseFileItem) {
-        onParts.forEach(onPart -> onPart.removeConnection(caseFileItem));
-    }
-
     public Element dumpMemoryStateToXML(Element parentElement, boolean showConnectedPlanItems) {
         Element sentryXML = parentElement.getOwnerDocument().createElement("Sentry");
         parentElement.appendChild(sentryXML);
@@ -201,6 +176,37 @@ public abstract class Criterion<D extends CriterionDefinition> extends CMMNEleme
                 "on-parts", onPartsJson);
     }
 
+    /**
+     * Returns the state of this criterion and its on parts for a snapshot of the case
+     */
+    ValueMap snapshotState() {
+        ValueList onPartsJson = new ValueList();
+        this.onParts.forEach(onPart -> onPartsJson.add(onPart.snapshotState().plus(Fields.inactive, inactiveOnParts.contains(onPart))));
+        return new ValueMap(Fields.elementId, getDefinition().getId(), Fields.active, isActive, Fields.onParts, onPartsJson);
+    }
+
+    /**
+     * Restores the state of this criterion and its on parts from a snapshot of the case.
+     * On parts are matched by position, as both follow the order of the sentry definition.
+     */
+    void restoreState(ValueMap json) {
+        isActive = json.readBoolean(Fields.active);
+        List<ValueMap> onPartsJson = json.readObjects(Fields.onParts, onPartJson -> onPartJson);
+        int i = 0;
+        for (OnPart<?, ?, ?> onPart : onParts) {
+            if (i >= onPartsJson.size()) {
+                break;
+            }
+            ValueMap onPartJson = onPartsJson.get(i++);
+            onPart.restoreState(onPartJson);
+            if (onPartJson.readBoolean(Fields.inactive)) {
+                inactiveOnParts.add(onPart);
+            } else {
+                inactiveOnParts.remove(onPart);
+            }
+        }
+    }
+
     public void release() {
         getCaseInstance().getSentryNetwork().remove(this);
         this.onParts.forEach(OnPart::releaseFromCase);
@@ -216,6 +222,7 @@ public abstract class Criterion<D extends CriterionDefinition> extends CMMNEleme
                 migratePlanItemOnPart((PlanItemOnPart) onPart, newDefinition);
             }
         });
+        getCaseInstance().getSentryNetwork().migrated(this);
         addDebugInfo(() -> "Migrated " + this);
     }
 
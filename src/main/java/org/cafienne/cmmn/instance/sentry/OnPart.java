@@ -99,5 +99,15 @@ public abstract class OnPart<T extends OnPartDefinition, E extends StandardEvent
 
     abstract ValueMap toJson();
 
+    /**
+     * Returns the state of this on part for a snapshot of the case
+     */
+    abstract ValueMap snapshotState();
+
+    /**
+     * Restores the state of this on part from a snapshot of the case
+     */
+    abstract void restoreState(ValueMap json);
+
     abstract void dumpMemoryStateToXML(Element sentryXML, boolean showConnectedPlanItems);
 }
\ No newline at end of file
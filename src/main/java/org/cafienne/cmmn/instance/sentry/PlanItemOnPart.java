@@ -18,9 +18,11 @@
 package org.cafienne.cmmn.instance.sentry;
 
 import org.cafienne.cmmn.actorapi.event.plan.PlanItemTransitioned;
+import org.cafienne.cmmn.actorapi.snapshot.CaseSnapshot;
 import org.cafienne.cmmn.definition.sentry.PlanItemOnPartDefinition;
 import org.cafienne.cmmn.instance.PlanItem;
 import org.cafienne.cmmn.instance.Transition;
+import org.cafienne.infrastructure.serialization.Fields;
 import org.cafienne.json.ValueMap;
 import org.w3c.dom.Element;
 
@@ -66,8 +68,8 @@ public class PlanItemOnPart extends OnPart<PlanItemOnPartDefinition, PlanItemTra
 
     @Override
     void connectToCase() {
-        // Try to connect with all plan items in the case
-        for (PlanItem<?> item : new ArrayList<>(getCaseInstance().getPlanItems())) {
+        // Try to connect with all plan items in the case that have our source definition
+        for (PlanItem<?> item : new ArrayList<>(getCaseInstance().getPlanItems(getDefinition().getSourceDefinition()))) {
             establishPotentialConnection(item);
         }
     }
@@ -127,6 +129,23 @@ public class PlanItemOnPart extends OnPart<PlanItemOnPartDefinition, PlanItemTra
         }
     }
 
+    @Override
+    ValueMap snapshotState() {
+        ValueMap json = new ValueMap(Fields.active, isActive);
+        if (lastEvent != null) {
+            json.plus(Fields.lastEvent, CaseSnapshot.writeEvent(lastEvent));
+        }
+        return json;
+    }
+
+    @Override
+    void restoreState(ValueMap json) {
+        isActive = json.readBoolean(Fields.active);
+        if (json.has(Fields.lastEvent)) {
+            lastEvent = CaseSnapshot.readEvent(json.readMap(Fields.lastEvent));
+        }
+    }
+
     @Override
     ValueMap toJson() {
         return new ValueMap("planitem", getSourceName(),
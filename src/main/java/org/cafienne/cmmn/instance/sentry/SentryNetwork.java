@@ -24,6 +24,10 @@ import org.cafienne.cmmn.instance.casefile.CaseFileItem;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Wrapper class for the collection of all sentries inside the case instance.
@@ -34,7 +38,16 @@ public class SentryNetwork {
     /**
      * List of sentries active within the case.
      */
-    private final Collection<Criterion<?>> criteria = new ArrayList<>();
+    private final Collection<Criterion<?>> criteria = new LinkedHashSet<>();
+    /**
+     * Index of the on parts of the criteria, keyed by their source definition (i.e., the item definition of plan items
+     * or the case file item definition), so that new items only have to be offered to the on parts that listen to them.
+     */
+    private final Map<Object, List<OnPart<?, ?, ?>>> onPartsBySource = new HashMap<>();
+    /**
+     * Index of criteria by their definition, used to find related exit criteria.
+     */
+    private final Map<Object, List<Criterion<?>>> criteriaByDefinition = new HashMap<>();
 
     public SentryNetwork(Case caseInstance) {
         this.caseInstance = caseInstance;
@@ -44,8 +57,8 @@ public class SentryNetwork {
      * Connect a new {@link CaseFileItem} to the network
      */
     public void connect(CaseFileItem item) {
-        for (Criterion<?> criterion : criteria) {
-            criterion.establishPotentialConnection(item);
+        for (OnPart<?, ?, ?> onPart : listenersTo(item.getDefinition())) {
+            onPart.establishPotentialConnection(item);
         }
     }
 
@@ -53,15 +66,15 @@ public class SentryNetwork {
      * Disconnect the item from the network (typically when the case file item is lost in migration)
      */
     public void disconnect(CaseFileItem item) {
-        criteria.forEach(criterion -> criterion.removeConnection(item));
+        listenersTo(item.getDefinition()).forEach(onPart -> onPart.removeConnection(item));
     }
 
     /**
      * Connect a new {@link PlanItem} to the network
      */
     public void connect(PlanItem<?> item) {
-        for (Criterion<?> criterion : criteria) {
-            criterion.establishPotentialConnection(item);
+        for (OnPart<?, ?, ?> onPart : listenersTo(item.getItemDefinition())) {
+            onPart.establishPotentialConnection(item);
         }
         item.getEntryCriteria().connect();
         item.getExitCriteria().connect();
@@ -72,7 +85,14 @@ public class SentryNetwork {
      * Disconnect the item from the network (typically when the plan item is lost in migration)
      */
     public void disconnect(PlanItem<?> item) {
-        criteria.forEach(criterion -> criterion.removeConnection(item));
+        listenersTo(item.getItemDefinition()).forEach(onPart -> onPart.removeConnection(item));
+    }
+
+    /**
+     * Returns a copy of the on parts that have the source definition, so that connecting items can safely create new criteria.
+     */
+    private List<OnPart<?, ?, ?>> listenersTo(Object sourceDefinition) {
+        return new ArrayList<>(onPartsBySource.getOrDefault(sourceDefinition, List.of()));
     }
 
     /**
@@ -81,6 +101,8 @@ public class SentryNetwork {
      */
     void add(Criterion<?> criterion) {
         criteria.add(criterion);
+        criteriaByDefinition.computeIfAbsent(criterion.getDefinition(), d -> new ArrayList<>()).add(criterion);
+        criterion.getOnParts().forEach(onPart -> onPartsBySource.computeIfAbsent(onPart.getDefinition().getSourceDefinition(), d -> new ArrayList<>()).add(onPart));
     }
 
     /**
@@ -88,7 +110,33 @@ public class SentryNetwork {
      * @param criterion
      */
     void remove(Criterion<?> criterion) {
-        this.criteria.remove(criterion);
+        if (this.criteria.remove(criterion)) {
+            removeFrom(criteriaByDefinition, criterion.getDefinition(), criterion);
+            criterion.getOnParts().forEach(onPart -> removeFrom(onPartsBySource, onPart.getDefinition().getSourceDefinition(), onPart));
+        }
+    }
+
+    private <T> void removeFrom(Map<Object, List<T>> index, Object key, T element) {
+        List<T> list = index.get(key);
+        if (list != null) {
+            list.remove(element);
+            if (list.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Update the indexes after the criterion and its on parts have been migrated to a new definition
+     * @param criterion
+     */
+    void migrated(Criterion<?> criterion) {
+        if (this.criteria.remove(criterion)) {
+            // The index keys are the old definitions, hence we have to search all index entries
+            criteriaByDefinition.values().removeIf(list -> list.remove(criterion) && list.isEmpty());
+            criterion.getOnParts().forEach(onPart -> onPartsBySource.values().removeIf(list -> list.remove(onPart) && list.isEmpty()));
+            add(criterion);
+        }
     }
 
     @Override
@@ -105,12 +153,10 @@ public class SentryNetwork {
      * @return
      */
     Criterion<?> findRelatedExitCriterion(PlanItem<?> item, ExitCriterionDefinition definition) {
-       for (Criterion<?> criterion : criteria) {
-           if (criterion.getDefinition().equals(definition)) {
-                if (criterion.getTarget() == item) {
-                        return criterion;
-                }
-           }
+        for (Criterion<?> criterion : criteriaByDefinition.getOrDefault(definition, List.of())) {
+            if (criterion.getTarget() == item) {
+                return criterion;
+            }
         }
         // Pretty weird, not sure what to do here. Probably we need to make it such that when the
         // exit criterion is created, it will also connect to those entry criteria that relate to it.
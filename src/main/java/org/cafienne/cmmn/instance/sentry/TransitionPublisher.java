@@ -53,6 +53,22 @@ public class TransitionPublisher<E extends StandardEvent<?,?>, I extends Transit
         informSentryNetwork(event);
     }
 
+    /**
+     * Returns the most recent transition of the item, or null if the item has not yet made any transition.
+     */
+    public E getLastTransition() {
+        return transitions.isEmpty() ? null : transitions.get(0);
+    }
+
+    /**
+     * Restores the last transition of the item from a snapshot.
+     * Other than {@link #addEvent(StandardEvent)} this neither updates the item state nor informs the sentry network,
+     * as both are restored from the snapshot as well.
+     */
+    public void restoreTransition(E event) {
+        transitions.add(0, event);
+    }
+
     protected void updateItemState(E event) {
         item.updateStandardEvent(event);
     }
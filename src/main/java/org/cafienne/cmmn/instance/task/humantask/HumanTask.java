@@ -32,6 +32,7 @@ import org.cafienne.humantask.actorapi.event.HumanTaskSuspended;
 import org.cafienne.humantask.actorapi.event.HumanTaskTerminated;
 import org.cafienne.humantask.actorapi.event.migration.HumanTaskDropped;
 import org.cafienne.humantask.instance.WorkflowTask;
+import org.cafienne.infrastructure.serialization.Fields;
 import org.cafienne.json.ValueMap;
 import org.w3c.dom.Element;
 
@@ -183,6 +184,22 @@ public class HumanTask extends Task<HumanTaskDefinition> {
         getImplementation().updateState(event);
     }
 
+    @Override
+    protected void snapshotImplementation(ValueMap json) {
+        super.snapshotImplementation(json);
+        if (workflow != null) {
+            json.plus(Fields.workflow, workflow.snapshotState());
+        }
+    }
+
+    @Override
+    protected void restoreImplementation(ValueMap json) {
+        super.restoreImplementation(json);
+        if (json.has(Fields.workflow)) {
+            getImplementation().restoreState(json.readMap(Fields.workflow));
+        }
+    }
+
     @Override
     public void migrateItemDefinition(ItemDefinition newItemDefinition, HumanTaskDefinition newDefinition) {
         super.migrateItemDefinition(newItemDefinition, newDefinition);
@@ -37,6 +37,8 @@ import org.cafienne.cmmn.definition.team.CaseRoleDefinition;
 import org.cafienne.cmmn.definition.team.CaseTeamDefinition;
 import org.cafienne.cmmn.instance.CMMNElement;
 import org.cafienne.cmmn.instance.Case;
+import org.cafienne.infrastructure.serialization.Fields;
+import org.cafienne.json.ValueMap;
 import org.w3c.dom.Element;
 
 import java.util.*;
@@ -222,6 +224,27 @@ public class Team extends CMMNElement<CaseTeamDefinition> {
         }
     }
 
+    /**
+     * Returns the members of the team for a snapshot of the case
+     *
+     * @return
+     */
+    public ValueMap snapshotState() {
+        return new ValueMap(Fields.users, new ArrayList<>(users.values()), Fields.groups, new ArrayList<>(groups.values()), Fields.tenantRoles, new ArrayList<>(tenantRoles.values()));
+    }
+
+    /**
+     * Restores the members of the team from a snapshot of the case
+     *
+     * @param json
+     */
+    public void restoreState(ValueMap json) {
+        CaseTeam team = CaseTeam.deserialize(json);
+        team.getUsers().forEach(this::updateState);
+        team.getGroups().forEach(this::updateState);
+        team.getTenantRoles().forEach(this::updateState);
+    }
+
     /**
      * For debugging purposes mostly.
      *
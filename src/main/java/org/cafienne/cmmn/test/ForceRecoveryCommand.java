@@ -24,6 +24,7 @@ import org.cafienne.actormodel.identity.CaseUserIdentity;
 import org.cafienne.infrastructure.serialization.CafienneSerializer;
 import org.cafienne.infrastructure.serialization.Manifest;
 import org.cafienne.json.ValueMap;
+import org.cafienne.storage.actormodel.ActorType;
 
 import java.io.IOException;
 
@@ -47,7 +48,7 @@ public class ForceRecoveryCommand extends TestScriptCommand {
 
     @Override
     public void beforeSendCommand(TestScript testScript) {
-        testScript.getCaseSystem().gateway().inform(new TerminateModelActor(getUser(), getActorId()), ActorRef.noSender());
+        testScript.getCaseSystem().gateway().inform(new TerminateModelActor(getUser(), getActorId(), ActorType.Case(), true), ActorRef.noSender());
         // Give the system 500 ms to clean up the actor and the references
         waitSomeTime(500);
     }
@@ -33,6 +33,7 @@ import org.cafienne.cmmn.instance.task.validation.ValidationError;
 import org.cafienne.cmmn.instance.task.validation.ValidationResponse;
 import org.cafienne.humantask.actorapi.event.*;
 import org.cafienne.humantask.actorapi.event.migration.HumanTaskMigrated;
+import org.cafienne.infrastructure.serialization.Fields;
 import org.cafienne.json.Value;
 import org.cafienne.json.ValueMap;
 
@@ -128,6 +129,35 @@ public class WorkflowTask extends CMMNElement<WorkflowTaskDefinition> {
         this.currentDueDate = event.dueDate;
     }
 
+    /**
+     * Returns the state of the task for a snapshot of the case
+     *
+     * @return
+     */
+    public ValueMap snapshotState() {
+        return new ValueMap(
+                Fields.owner, currentOwner,
+                Fields.assignee, currentAssignee,
+                Fields.dueDate, currentDueDate,
+                Fields.currentState, String.valueOf(currentTaskState),
+                Fields.historyState, String.valueOf(historyTaskState),
+                Fields.transition, String.valueOf(lastAction));
+    }
+
+    /**
+     * Restores the state of the task from a snapshot of the case
+     *
+     * @param json
+     */
+    public void restoreState(ValueMap json) {
+        this.currentOwner = json.readString(Fields.owner);
+        this.currentAssignee = json.readString(Fields.assignee);
+        this.currentDueDate = json.readInstant(Fields.dueDate);
+        this.currentTaskState = json.readEnum(Fields.currentState, TaskState.class);
+        this.historyTaskState = json.readEnum(Fields.historyState, TaskState.class);
+        this.lastAction = json.readEnum(Fields.transition, TaskAction.class);
+    }
+
     /**
      * Get the current task assignee
      *
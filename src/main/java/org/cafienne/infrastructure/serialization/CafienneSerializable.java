@@ -19,15 +19,18 @@ package org.cafienne.infrastructure.serialization;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SegmentedStringWriter;
+import com.fasterxml.jackson.core.util.BufferRecyclers;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import org.cafienne.cmmn.definition.CMMNElementDefinition;
 import org.cafienne.cmmn.instance.Path;
 import org.cafienne.json.CafienneJson;
+import org.cafienne.json.JSONReader;
 import org.cafienne.json.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.Collection;
@@ -36,24 +39,52 @@ public interface CafienneSerializable {
     Logger logger = LoggerFactory.getLogger(CafienneSerializer.class);
 
     default byte[] toBytes() {
-        JsonFactory factory = new JsonFactory();
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        return toBytes(JSONReader.getJSONFactory(), true);
+    }
+
+    /**
+     * Writes the object in the compact binary CBOR format
+     */
+    default byte[] toCBOR() {
+        return toBytes(JSONReader.getCBORFactory(), false);
+    }
+
+    /**
+     * Writes the object with a generator from the (shared) factory. The output buffer is taken from and
+     * returned to the per-thread buffer recycler of Jackson, so only the resulting byte array is newly allocated.
+     */
+    private byte[] toBytes(JsonFactory factory, boolean pretty) {
+        ByteArrayBuilder output = new ByteArrayBuilder(BufferRecyclers.getBufferRecycler());
         try {
-            JsonGenerator generator = factory.createGenerator(baos);
-            generator.setPrettyPrinter(new DefaultPrettyPrinter());
+            JsonGenerator generator = factory.createGenerator(output);
+            if (pretty) {
+                generator.setPrettyPrinter(new DefaultPrettyPrinter());
+            }
             this.writeThisObject(generator);
             generator.close();
+            return output.toByteArray();
         } catch (IOException e) {
             throw new RuntimeException("Failure in serialization of an object with type " + this.getClass().getName() + "\n" + e.getMessage(), e);
         } catch (Throwable t) {
             logger.error("Failed to serialize an object of type " + this.getClass().getName(), t);
             throw t;
+        } finally {
+            output.release();
         }
-        return baos.toByteArray();
     }
 
     default String asString() {
-        return new String(toBytes());
+        JsonFactory factory = JSONReader.getJSONFactory();
+        SegmentedStringWriter output = new SegmentedStringWriter(BufferRecyclers.getBufferRecycler());
+        try {
+            JsonGenerator generator = factory.createGenerator(output);
+            generator.setPrettyPrinter(new DefaultPrettyPrinter());
+            this.writeThisObject(generator);
+            generator.close();
+            return output.getAndClear();
+        } catch (IOException e) {
+            throw new RuntimeException("Failure in serialization of an object with type " + this.getClass().getName() + "\n" + e.getMessage(), e);
+        }
     }
 
     /**
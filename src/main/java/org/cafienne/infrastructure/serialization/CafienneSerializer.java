@@ -19,10 +19,13 @@ package org.cafienne.infrastructure.serialization;
 
 import akka.actor.ExtendedActorSystem;
 import akka.serialization.SerializerWithStringManifest;
+import org.cafienne.actormodel.event.ModelEvent;
+import org.cafienne.infrastructure.Cafienne;
 import org.cafienne.infrastructure.serialization.serializers.CommandSerializers;
 import org.cafienne.infrastructure.serialization.serializers.EventSerializers;
 import org.cafienne.infrastructure.serialization.serializers.ResponseSerializers;
 import org.cafienne.infrastructure.serialization.serializers.StorageSerializers;
+import org.cafienne.journal.definitions.DefinitionSourceStoreProvider;
 import org.cafienne.json.JSONParseFailure;
 import org.cafienne.json.JSONReader;
 import org.cafienne.json.ValueMap;
@@ -42,6 +45,11 @@ public class CafienneSerializer extends SerializerWithStringManifest {
      */
     public static final int IDENTIFIER = 52943;
 
+    /**
+     * Prefix to the manifest of objects that are serialized in binary CBOR format instead of JSON
+     */
+    public static final String CBOR_MARKER = "cbor:";
+
     private final static Map<String, ManifestWrapper> manifests = new HashMap<>();
     private final static Map<Class<?>, ManifestWrapper> manifestsByClass = new HashMap<>();
 
@@ -78,10 +86,24 @@ public class CafienneSerializer extends SerializerWithStringManifest {
         }
     }
 
+    private final boolean binary;
+
     public CafienneSerializer() {
+        this(false);
+    }
+
+    /**
+     * Create a serializer that writes either binary CBOR or JSON, regardless of the configured format
+     * @param binary
+     */
+    public CafienneSerializer(boolean binary) {
+        this.binary = binary;
     }
 
     public CafienneSerializer(ExtendedActorSystem system) {
+        this.binary = Cafienne.config().serialization().binary();
+        // Events may refer to their definition by hash, and then we need the store that goes with the journal
+        DefinitionSourceStoreProvider.initialize(system);
     }
 
     @FunctionalInterface // Simplistic interface to avoid an if statement in the deserialize function
@@ -128,7 +150,16 @@ public class CafienneSerializer extends SerializerWithStringManifest {
 
     @Override
     public Object fromBinary(byte[] eventBlob, String manifestString) {
-        return deserialize(manifestString, () -> JSONReader.parse(eventBlob), () -> eventBlob);
+        Object result;
+        if (manifestString.startsWith(CBOR_MARKER)) {
+            result = deserialize(manifestString.substring(CBOR_MARKER.length()), () -> JSONReader.parseCBOR(eventBlob), () -> eventBlob);
+        } else {
+            result = deserialize(manifestString, () -> JSONReader.parse(eventBlob), () -> eventBlob);
+        }
+        if (result instanceof ModelEvent) {
+            ((ModelEvent) result).setSerializedSize(eventBlob.length);
+        }
+        return result;
     }
 
     @Override
@@ -138,6 +169,9 @@ public class CafienneSerializer extends SerializerWithStringManifest {
 
     @Override
     public String manifest(Object o) {
+        if (binary) {
+            return CBOR_MARKER + getManifestString(o);
+        }
         return getManifestString(o);
     }
 
@@ -145,7 +179,12 @@ public class CafienneSerializer extends SerializerWithStringManifest {
     public byte[] toBinary(Object o) {
         if (o instanceof CafienneSerializable) {
             CafienneSerializable target = (CafienneSerializable) o;
-            return target.toBytes();
+            byte[] bytes = binary ? target.toCBOR() : target.toBytes();
+            if (target instanceof ModelEvent) {
+                // Keep track of the size, so that e.g. the snapshot policy need not serialize the event once more
+                ((ModelEvent) target).setSerializedSize(bytes.length);
+            }
+            return bytes;
         }
         throw new RuntimeException("The Akka Case Object Serializer can only serialize objects implementing CafienneSerializable");
     }
@@ -17,6 +17,8 @@
 
 package org.cafienne.infrastructure.serialization;
 
+import org.cafienne.journal.definitions.DefinitionSourceNotLoaded;
+
 import java.io.Serializable;
 
 /**
@@ -42,6 +44,19 @@ public class DeserializationFailure implements Serializable {
         this.msg = "Fatal error in deserializing manifest " + manifest + "\n" + exception + "\nEvent blob: " + new String(blob);
     }
 
+    /**
+     * Returns true if the failure is caused by a definition that is still being read from the definition source store.
+     * Deserializing the same blob again a little later will then succeed.
+     */
+    public boolean isTransient() {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DefinitionSourceNotLoaded) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public String toString() {
         return msg;
@@ -112,6 +112,7 @@ public enum Fields {
     role,
     elementId,
     source,
+    sourceHash,
     script,
     waitTime,
     assignee,
@@ -149,6 +150,22 @@ public enum Fields {
     sequenceNr,
     parent,
 
+    planItems,
+    caseFile,
+    entryCriteria,
+    exitCriteria,
+    onParts,
+    active,
+    inactive,
+    lastEvent,
+    earlyBird,
+    elements,
+    current,
+    identifiers,
+    isStarted,
+    foundFailure,
+    workflow,
+
     className,
     message,
     cause,
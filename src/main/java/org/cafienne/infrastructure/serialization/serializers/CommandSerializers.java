@@ -116,6 +116,8 @@ public class CommandSerializers {
         CafienneSerializer.addManifestWrapper(SuspendProcess.class, SuspendProcess::new);
         CafienneSerializer.addManifestWrapper(TerminateProcess.class, TerminateProcess::new);
         CafienneSerializer.addManifestWrapper(MigrateProcessDefinition.class, MigrateProcessDefinition::new);
+        CafienneSerializer.addManifestWrapper(CompleteHTTPCall.class, CompleteHTTPCall::new);
+        CafienneSerializer.addManifestWrapper(CompleteMail.class, CompleteMail::new);
     }
 
     private static void addTenantCommands() {
@@ -33,6 +33,7 @@ import org.cafienne.cmmn.actorapi.event.plan.task.TaskImplementationStarted;
 import org.cafienne.cmmn.actorapi.event.plan.task.TaskInputFilled;
 import org.cafienne.cmmn.actorapi.event.plan.task.TaskOutputFilled;
 import org.cafienne.cmmn.actorapi.event.team.deprecated.member.CaseOwnerAdded;
+import org.cafienne.cmmn.actorapi.snapshot.CaseSnapshot;
 import org.cafienne.cmmn.actorapi.event.team.deprecated.member.CaseOwnerRemoved;
 import org.cafienne.cmmn.actorapi.event.team.deprecated.member.TeamRoleCleared;
 import org.cafienne.cmmn.actorapi.event.team.deprecated.member.TeamRoleFilled;
@@ -87,6 +88,7 @@ public class EventSerializers {
         CafienneSerializer.addManifestWrapper(EngineVersionChanged.class, EngineVersionChanged::new);
         CafienneSerializer.addManifestWrapper(CaseDefinitionMigrated.class, CaseDefinitionMigrated::new);
         CafienneSerializer.addManifestWrapper(CaseOutputFilled.class, CaseOutputFilled::new);
+        CafienneSerializer.addManifestWrapper(CaseSnapshot.class, CaseSnapshot::new);
         registerCaseTeamEvents();
         registerCasePlanEvents();
         registerCaseFileEvents();
@@ -18,6 +18,7 @@
 package org.cafienne.json;
 
 import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -30,7 +31,13 @@ import java.io.InputStream;
  */
 public class JSONReader {
 
-    private static JsonFactory getJSONFactory() {
+    /**
+     * JsonFactory is thread safe once configured, so a single instance is shared for all parsing and printing.
+     * Sharing it also lets Jackson recycle its internal buffers (per thread) across invocations.
+     */
+    private final static JsonFactory factory = createJSONFactory();
+
+    private static JsonFactory createJSONFactory() {
         JsonFactory factory = new JsonFactory();
         factory.configure(JsonParser.Feature.ALLOW_SINGLE_QUOTES, true);
         factory.configure(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES, true);
@@ -39,6 +46,25 @@ public class JSONReader {
         return factory;
     }
 
+    /**
+     * Single CBORFactory for reading and writing the binary CBOR format, shared for the same reasons as the JsonFactory.
+     */
+    private final static CBORFactory cborFactory = new CBORFactory();
+
+    /**
+     * Returns the shared JsonFactory. It must not be reconfigured.
+     */
+    public static JsonFactory getJSONFactory() {
+        return factory;
+    }
+
+    /**
+     * Returns the shared CBORFactory. It must not be reconfigured.
+     */
+    public static CBORFactory getCBORFactory() {
+        return cborFactory;
+    }
+
     /**
      * Parse the specified string into a {@link Value} object
      * @param jsonString
@@ -47,12 +73,12 @@ public class JSONReader {
      * @throws IOException
      */
     public static <T extends Value<?>> T parse(String jsonString) throws IOException, JSONParseFailure {
-        JsonParser jp = getJSONFactory().createParser(jsonString);
+        JsonParser jp = factory.createParser(jsonString);
         return (T) read(jp, null);
     }
 
     public static <T extends Value<?>> T parse(InputStream jsonStream) throws IOException, JSONParseFailure {
-        JsonParser jp = getJSONFactory().createParser(jsonStream);
+        JsonParser jp = factory.createParser(jsonStream);
         return (T) read(jp, null);
     }
 
@@ -63,7 +89,18 @@ public class JSONReader {
      * @throws IOException
      */
     public static <T extends Value<?>> T parse(byte[] bytes) throws IOException, JSONParseFailure {
-        JsonParser jp = getJSONFactory().createParser(bytes);
+        JsonParser jp = factory.createParser(bytes);
+        return (T) read(jp, null);
+    }
+
+    /**
+     * Parse bytes in binary CBOR format into a {@link Value} object.
+     * @param bytes
+     * @return
+     * @throws IOException
+     */
+    public static <T extends Value<?>> T parseCBOR(byte[] bytes) throws IOException, JSONParseFailure {
+        JsonParser jp = cborFactory.createParser(bytes);
         return (T) read(jp, null);
     }
 
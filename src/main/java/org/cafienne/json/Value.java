@@ -19,6 +19,8 @@ package org.cafienne.json;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SegmentedStringWriter;
+import com.fasterxml.jackson.core.util.BufferRecyclers;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import org.cafienne.cmmn.definition.casefile.PropertyDefinition;
 import org.cafienne.cmmn.instance.casefile.CaseFileItem;
@@ -88,8 +90,8 @@ public abstract class Value<T> implements Serializable {
 
     @Override
     public String toString() {
-        JsonFactory factory = new JsonFactory();
-        StringWriter sw = new StringWriter();
+        JsonFactory factory = JSONReader.getJSONFactory();
+        SegmentedStringWriter sw = new SegmentedStringWriter(BufferRecyclers.getBufferRecycler());
         try {
             JsonGenerator generator = factory.createGenerator(sw);
             generator.setPrettyPrinter(new DefaultPrettyPrinter());
@@ -100,7 +102,7 @@ public abstract class Value<T> implements Serializable {
             sw.write("Could not print the value because of error");
             e.printStackTrace(new PrintWriter(sw));
         }
-        return sw.toString();
+        return sw.getAndClear();
     }
 
     /**
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.processtask.actorapi.command;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.cafienne.actormodel.identity.UserIdentity;
+import org.cafienne.actormodel.response.ModelResponse;
+import org.cafienne.infrastructure.serialization.Fields;
+import org.cafienne.infrastructure.serialization.Manifest;
+import org.cafienne.json.ValueMap;
+import org.cafienne.processtask.implementation.SubProcess;
+import org.cafienne.processtask.implementation.mail.Mail;
+import org.cafienne.processtask.instance.ProcessTaskActor;
+
+import java.io.IOException;
+
+/**
+ * Sent by the ProcessTaskActor to itself when an asynchronously sent mail has been accepted by the mail server (or has failed),
+ * so that the outcome is handled inside the actor.
+ */
+@Manifest
+public class CompleteMail extends ProcessCommand {
+    private final ValueMap response;
+
+    public CompleteMail(UserIdentity user, String id, ValueMap response) {
+        super(user, id);
+        this.response = response;
+    }
+
+    public CompleteMail(ValueMap json) {
+        super(json);
+        this.response = json.readMap(Fields.response);
+    }
+
+    @Override
+    public ModelResponse process(ProcessTaskActor processTaskActor) {
+        super.process(processTaskActor);
+        // Nobody is waiting for a response
+        return null;
+    }
+
+    @Override
+    protected void process(ProcessTaskActor processTaskActor, SubProcess<?> implementation) {
+        if (implementation instanceof Mail) {
+            ((Mail) implementation).handleResponse(response);
+        } else {
+            processTaskActor.addDebugInfo(() -> "Ignoring mail response, since the process task is not a mail task");
+        }
+    }
+
+    @Override
+    public void write(JsonGenerator generator) throws IOException {
+        super.writeModelCommand(generator);
+        writeField(generator, Fields.response, response);
+    }
+}
@@ -174,6 +174,14 @@ public abstract class SubProcess<T extends SubProcessDefinition> {
      */
     public abstract void resume();
 
+    /**
+     * Invoked when the ProcessTaskActor has recovered a process that was started but has not yet ended.
+     * Implementations that wait for an outcome outside of the actor can handle here that this outcome was lost
+     * together with the previous incarnation of the actor.
+     */
+    public void recoveredWhileRunning() {
+    }
+
     public void migrateDefinition(SubProcessDefinition implementation) {
         processTaskActor.addDebugInfo(() -> "Setting new " + implementation.getClass().getSimpleName());
         // Somewhere else (in the command MigrateProcessDefinition) we check that this new implementation has the same class
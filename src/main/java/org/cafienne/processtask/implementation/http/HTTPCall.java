@@ -17,8 +17,16 @@
 
 package org.cafienne.processtask.implementation.http;
 
+import akka.actor.ActorRef;
+import org.cafienne.actormodel.identity.UserIdentity;
+import org.cafienne.infrastructure.Cafienne;
+import org.cafienne.json.Value;
+import org.cafienne.json.ValueList;
+import org.cafienne.json.ValueMap;
+import org.cafienne.processtask.actorapi.command.CompleteHTTPCall;
 import org.cafienne.processtask.implementation.SubProcess;
 import org.cafienne.processtask.instance.ProcessTaskActor;
+import org.cafienne.system.router.CafienneGateway;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,7 +35,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public class HTTPCall extends SubProcess<HTTPCallDefinition> {
@@ -46,7 +56,14 @@ public class HTTPCall extends SubProcess<HTTPCallDefinition> {
 
     @Override
     public void start() {
-        boolean successful = runCall();
+        if (Cafienne.config().engine().httpClient().async()) {
+            startAsyncCall();
+        } else {
+            handleOutcome(runCall());
+        }
+    }
+
+    private void handleOutcome(boolean successful) {
         // Print debug information
         processTaskActor.addDebugInfo(result::getDebugInfo);
         // Set raw output parameters
@@ -60,6 +77,86 @@ public class HTTPCall extends SubProcess<HTTPCallDefinition> {
         }
     }
 
+    /**
+     * Flag indicating that an asynchronous call has been started and the response is awaited
+     */
+    private boolean awaitingResponse = false;
+
+    /**
+     * Resolves the request on the actor thread and hands it to the non-blocking client. The outcome comes back
+     * as a {@link CompleteHTTPCall} command to the ProcessTaskActor, and is handled in {@link #handleResponse(ValueMap)}.
+     */
+    private void startAsyncCall() {
+        URL targetURL = getDefinition().getURL().resolveURL(processTaskActor);
+        result.setTargetURL(targetURL);
+        String requestMethod = getDefinition().getMethod().resolve(processTaskActor);
+        result.setRequestMethod(requestMethod);
+        Map<String, String> headers = resolveHeaders();
+        String requestPayload = null;
+        if (requestMethod.equalsIgnoreCase("POST") || requestMethod.equalsIgnoreCase("PUT")) {
+            requestPayload = getDefinition().getContent().resolve(processTaskActor).toString();
+            result.setRequestPayload(requestPayload);
+        }
+
+        awaitingResponse = true;
+        UserIdentity user = processTaskActor.getCurrentUser();
+        String actorId = processTaskActor.getId();
+        // The response is sent through the gateway instead of to self, so that it also reaches the process task
+        //  if the actor has been removed from memory in the mean time.
+        CafienneGateway gateway = processTaskActor.caseSystem.gateway();
+        AsyncHTTPClient.send(processTaskActor.getContext().getSystem(), requestMethod, targetURL, headers, requestPayload)
+                .thenAccept(response -> gateway.inform(new CompleteHTTPCall(user, actorId, response), ActorRef.noSender()));
+    }
+
+    /**
+     * The pending state of an asynchronous call is not persisted, hence after recovery we cannot tell whether
+     * a response will still come in. The call is therefore reported as failed, so that it can be reactivated.
+     */
+    @Override
+    public void recoveredWhileRunning() {
+        awaitingResponse = true;
+        ValueMap response = new ValueMap(AsyncHTTPClient.ERROR(), "The http call was interrupted by a restart of the process task, and its outcome is unknown");
+        processTaskActor.self().tell(new CompleteHTTPCall(processTaskActor.getCurrentUser(), processTaskActor.getId(), response), ActorRef.noSender());
+    }
+
+    public void handleResponse(ValueMap response) {
+        if (!awaitingResponse) {
+            processTaskActor.addDebugInfo(() -> "Ignoring http call response, since no call is pending: ", response);
+            return;
+        }
+        awaitingResponse = false;
+        if (response.has(AsyncHTTPClient.ERROR())) {
+            Value<?> exception = response.has(AsyncHTTPClient.EXCEPTION()) ? response.get(AsyncHTTPClient.EXCEPTION()) : null;
+            result.setFailure(response.readString(AsyncHTTPClient.ERROR()), exception);
+            handleOutcome(false);
+            return;
+        }
+        result.setResponseCode(response.readLong(AsyncHTTPClient.CODE()).intValue());
+        result.setResponseMessage(response.readString(AsyncHTTPClient.MESSAGE()));
+        Map<String, List<String>> responseHeaders = new LinkedHashMap<>();
+        response.readMap(AsyncHTTPClient.HEADERS()).getValue().forEach((name, values) -> {
+            List<String> headerValues = new ArrayList<>();
+            ((ValueList) values).forEach(value -> headerValues.add(String.valueOf(value.getValue())));
+            responseHeaders.put(name, headerValues);
+        });
+        result.setResponseHeaders(responseHeaders);
+        result.setResponsePayload(response.readString(AsyncHTTPClient.PAYLOAD()));
+        if (result.isOutOf200Range()) {
+            handleOutcome(result.handleFailure("Status code " + result.getCode() + " is interpreted as a failure"));
+        } else {
+            handleOutcome(true);
+        }
+    }
+
+    private Map<String, String> resolveHeaders() {
+        // Map headers to simple strings (does parameter substitution).
+        Map<String, String> headers = new LinkedHashMap<>();
+        getDefinition().getHeaders(processTaskActor).forEach(header -> headers.put(header.getName(), header.getValue()));
+        // Store the headers in the call status object for debugging purposes
+        result.setRequestHeaders(headers);
+        return headers;
+    }
+
     private boolean runCall() {
         // Bind any parameters in the URL, any content and the http method to the input parameters of this task.
         URL targetURL = getDefinition().getURL().resolveURL(processTaskActor);
@@ -86,11 +183,7 @@ public class HTTPCall extends SubProcess<HTTPCallDefinition> {
         }
 
         // Now fill the http headers
-        // 1. Map headers to simple strings (does parameter substitution).
-        Map<String, String> headers = new LinkedHashMap<>();
-        getDefinition().getHeaders(processTaskActor).forEach(header -> headers.put(header.getName(), header.getValue()));
-        // Store the headers in the call status object for debugging purposes
-        result.setRequestHeaders(headers);
+        Map<String, String> headers = resolveHeaders();
         // Set the headers on the connection
         headers.forEach(httpConnection::setRequestProperty);
 
@@ -177,6 +270,8 @@ public class HTTPCall extends SubProcess<HTTPCallDefinition> {
 
     @Override
     public void terminate() {
+        // A response that comes in after termination must be ignored
+        awaitingResponse = false;
     }
 
     @Override
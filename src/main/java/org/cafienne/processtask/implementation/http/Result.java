@@ -76,6 +76,15 @@ class Result {
 
     String errorDescription = "";
     Throwable cause;
+    /**
+     * Exception details of a failure in an asynchronous call, where the Throwable itself is not available.
+     */
+    Value<?> failureDetails;
+
+    boolean setFailure(String description, Value<?> failureDetails) {
+        this.failureDetails = failureDetails;
+        return handleFailure(description);
+    }
 
     boolean handleFailure(String description, Throwable cause) {
         this.cause = cause;
@@ -102,6 +111,8 @@ class Result {
     Value<?> getException() {
         if (cause != null) {
             return Value.convert(cause);
+        } else if (failureDetails != null) {
+            return failureDetails;
         } else {
             return new ValueMap("description", getErrorDescription(), "response", getResponseDebugInfo());
         }
@@ -17,23 +17,29 @@
 
 package org.cafienne.processtask.implementation.mail;
 
+import akka.actor.ActorRef;
 import jakarta.mail.*;
 import jakarta.mail.internet.AddressException;
 import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
 import jakarta.mail.internet.MimeMultipart;
+import org.cafienne.actormodel.identity.UserIdentity;
 import org.cafienne.json.Value;
 import org.cafienne.json.ValueList;
 import org.cafienne.json.ValueMap;
+import org.cafienne.processtask.actorapi.command.CompleteMail;
 import org.cafienne.processtask.implementation.SubProcess;
 import org.cafienne.processtask.implementation.mail.definition.AddressDefinition;
 import org.cafienne.processtask.instance.ProcessTaskActor;
+import org.cafienne.system.router.CafienneGateway;
 
 import java.util.List;
-import java.util.Properties;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 public class Mail extends SubProcess<MailDefinition> {
+    private static final String ERROR = "error";
+    private static final String EXCEPTION = "exception";
     private ValueMap input;
     private List<MailAddress> from;
     private List<MailAddress> replyTo;
@@ -53,8 +59,11 @@ public class Mail extends SubProcess<MailDefinition> {
         start(); // Just do the call again.
     }
 
-    private Session mailSession;
-    private Transport transport;
+    /**
+     * Flag indicating that the mail has been handed to the pool for sending, and the outcome is awaited
+     */
+    private boolean awaitingResponse = false;
+    private long sendStartedAt;
 
     public String getSubject() {
         return subject;
@@ -84,42 +93,15 @@ public class Mail extends SubProcess<MailDefinition> {
         return list.stream().map(MailAddress::getAddress).toArray(InternetAddress[]::new);
     }
 
-    private void connectMailServer() throws MessagingException {
-        processTaskActor.addDebugInfo(() -> "Connecting to mail server");
-        long now = System.currentTimeMillis();
-
-        Properties mailServerProperties = getDefinition().getMailProperties();
-        String userName = mailServerProperties.get("authentication.user").toString();
-        String password = mailServerProperties.get("authentication.password").toString();
-        mailSession = Session.getInstance(mailServerProperties, new Authenticator() {
-            @Override
-            protected PasswordAuthentication getPasswordAuthentication() {
-                return new PasswordAuthentication(userName, password);
-            }
-        });
-
-        transport = mailSession.getTransport();
-        transport.connect();
-        long done = System.currentTimeMillis();
-//        System.out.println("Connect took " + (done - now) + " milliseconds");
-        processTaskActor.addDebugInfo(() -> "Connect to mail server took " + (done - now) + " milliseconds");
-    }
-
-    private void disconnectMailServer() throws MessagingException {
-        long now = System.currentTimeMillis();
-        transport.close();
-        long done = System.currentTimeMillis();
-        processTaskActor.addDebugInfo(() -> "Disconnecting from mail server took " + (done - now) + " milliseconds");
-    }
-
     @Override
     public void start() {
         input = processTaskActor.getMappedInputParameters();
 
+        // Connections to the mail server are pooled, and reused across mails
+        MailTransportPool mailServer = processTaskActor.caseSystem.mailTransportPools().of(getDefinition().getMailProperties());
+
         // Setup email message and recipients
         try {
-            connectMailServer();
-
             // Read email addresses (can be both statically defined or dynamically taken from input parameters)
             from = resolveAddress(getDefinition().getFrom(), "from");
             replyTo = resolveAddress(getDefinition().getReplyTo(), "replyTo");
@@ -130,7 +112,7 @@ public class Mail extends SubProcess<MailDefinition> {
 
 
             // Create a mail session and message to fill.
-            MimeMessage mailMessage = new MimeMessage(mailSession);
+            MimeMessage mailMessage = new MimeMessage(mailServer.getSession());
 
             // First validate the recipient list.
             try {
@@ -187,14 +169,29 @@ public class Mail extends SubProcess<MailDefinition> {
             mailMessage.setContent(multipart);
 
             processTaskActor.addDebugInfo(() -> "Sending message to mail server");
-            long now = System.currentTimeMillis();
+            sendStartedAt = System.currentTimeMillis();
             Address[] recipients = mailMessage.getAllRecipients();
-            transport.sendMessage(mailMessage, recipients);
+            if (mailServer.isAsync()) {
+                // The outcome comes back as a CompleteMail command, and is handled in handleResponse.
+                //  It is sent through the gateway, so that it also reaches the process task if the actor has been removed from memory in the mean time.
+                awaitingResponse = true;
+                UserIdentity user = processTaskActor.getCurrentUser();
+                String actorId = processTaskActor.getId();
+                CafienneGateway gateway = processTaskActor.caseSystem.gateway();
+                mailServer.sendAsync(mailMessage, recipients).whenComplete((sent, failure) -> {
+                    ValueMap response = new ValueMap();
+                    if (failure != null) {
+                        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+                        response.plus(ERROR, "Failed to send email: " + cause.getMessage(), EXCEPTION, Value.convert(cause));
+                    }
+                    gateway.inform(new CompleteMail(user, actorId, response), ActorRef.noSender());
+                });
+                return;
+            }
+            mailServer.send(mailMessage, recipients);
             long done = System.currentTimeMillis();
-//            System.out.println("Completed sending email in " + (done - now) + " milliseconds");
 
-            processTaskActor.addDebugInfo(() -> "Completed sending email in " + (done - now) + " milliseconds");
-            disconnectMailServer();
+            processTaskActor.addDebugInfo(() -> "Completed sending email in " + (done - sendStartedAt) + " milliseconds");
         } catch (AddressException aex) {
             raiseFault("Invalid email address in from and/or replyTo", aex);
             return;
@@ -207,12 +204,42 @@ public class Mail extends SubProcess<MailDefinition> {
         raiseComplete();
     }
 
+    public void handleResponse(ValueMap response) {
+        if (!awaitingResponse) {
+            processTaskActor.addDebugInfo(() -> "Ignoring mail response, since no mail is being sent: ", response);
+            return;
+        }
+        awaitingResponse = false;
+        if (response.has(ERROR)) {
+            if (response.has(EXCEPTION)) {
+                setFault(response.get(EXCEPTION));
+            }
+            raiseFault(response.readString(ERROR));
+            return;
+        }
+        long done = System.currentTimeMillis();
+        processTaskActor.addDebugInfo(() -> "Completed sending email in " + (done - sendStartedAt) + " milliseconds");
+        raiseComplete();
+    }
+
+    /**
+     * It is not known whether the mail server accepted a mail that was being sent when the previous incarnation
+     * of the actor stopped, hence it is reported as failed, so that it can be reactivated.
+     */
+    @Override
+    public void recoveredWhileRunning() {
+        awaitingResponse = true;
+        ValueMap response = new ValueMap(ERROR, "Sending the mail was interrupted by a restart of the process task, and its outcome is unknown");
+        processTaskActor.self().tell(new CompleteMail(processTaskActor.getCurrentUser(), processTaskActor.getId(), response), ActorRef.noSender());
+    }
+
     @Override
     public void suspend() {
     }
 
     @Override
     public void terminate() {
+        awaitingResponse = false;
     }
 
     @Override
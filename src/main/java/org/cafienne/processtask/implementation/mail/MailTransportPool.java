@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.processtask.implementation.mail;
+
+import akka.actor.ActorSystem;
+import jakarta.mail.*;
+import jakarta.mail.internet.MimeMessage;
+import org.cafienne.infrastructure.config.engine.MailPoolConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a bounded pool of connected transports to the mail server, so that the connect, TLS handshake and authentication
+ * are not done for each mail again. A connection is used for multiple messages, and closed when it has been idle for too long.
+ * The pools are held per case system in {@link MailTransportPools}.
+ */
+public class MailTransportPool {
+    private final static Logger logger = LoggerFactory.getLogger(MailTransportPool.class);
+    public static final String MAIL_DISPATCHER = "akka.actor.mail-dispatcher";
+
+    private final Session session;
+    private final boolean async;
+    private final Semaphore connections;
+    private final int maxMessagesPerConnection;
+    private final long idleTimeout;
+    private final Executor dispatcher;
+    // Most recently used connection first, so that surplus connections at the end become idle and get evicted
+    private final ConcurrentLinkedDeque<PooledTransport> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+
+    MailTransportPool(ActorSystem system, Properties mailServerProperties, MailPoolConfig config) {
+        String userName = mailServerProperties.get("authentication.user").toString();
+        String password = mailServerProperties.get("authentication.password").toString();
+        this.session = Session.getInstance(mailServerProperties, new Authenticator() {
+            @Override
+            protected PasswordAuthentication getPasswordAuthentication() {
+                return new PasswordAuthentication(userName, password);
+            }
+        });
+        this.async = config.async();
+        this.connections = new Semaphore(config.maxConnections());
+        this.maxMessagesPerConnection = config.maxMessagesPerConnection();
+        this.idleTimeout = config.idleTimeout().toMillis();
+        this.dispatcher = system.dispatchers().lookup(MAIL_DISPATCHER);
+        Duration evictionInterval = Duration.ofMillis(Math.max(1000, idleTimeout / 2));
+        system.scheduler().scheduleWithFixedDelay(evictionInterval, evictionInterval, this::evictIdleConnections, system.dispatcher());
+    }
+
+    /**
+     * Session to create messages with
+     */
+    public Session getSession() {
+        return session;
+    }
+
+    /**
+     * If true, mails must be sent with {@link #sendAsync(MimeMessage, Address[])}, so that the processtask-dispatcher is not blocked
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Number of connections that have been opened to the mail server since the pool was created
+     */
+    public long getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    /**
+     * Sends the message on the mail-dispatcher. The stage completes when the mail server has accepted the message.
+     */
+    public CompletionStage<Void> sendAsync(MimeMessage message, Address[] recipients) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                send(message, recipients);
+            } catch (MessagingException e) {
+                throw new CompletionException(e);
+            }
+        }, dispatcher);
+    }
+
+    /**
+     * Sends the message on the current thread, through one of the pooled connections.
+     */
+    public void send(MimeMessage message, Address[] recipients) throws MessagingException {
+        connections.acquireUninterruptibly();
+        try {
+            PooledTransport transport = borrow();
+            boolean reused = transport.messagesSent > 0;
+            try {
+                sendWith(transport, message, recipients);
+            } catch (SendFailedException rejected) {
+                throw rejected;
+            } catch (MessagingException failure) {
+                if (!reused) {
+                    throw failure;
+                }
+                // The server may have dropped the connection while it was in the pool, so try once more on a new one
+                logger.debug("Sending mail on a pooled connection failed, retrying on a new connection", failure);
+                sendWith(connect(), message, recipients);
+            }
+        } finally {
+            connections.release();
+        }
+    }
+
+    private void sendWith(PooledTransport transport, MimeMessage message, Address[] recipients) throws MessagingException {
+        try {
+            transport.transport.sendMessage(message, recipients);
+            transport.messagesSent++;
+            giveBack(transport);
+        } catch (SendFailedException rejected) {
+            // The server refused the message or (some of) its recipients, but the connection itself is still fine
+            giveBack(transport);
+            throw rejected;
+        } catch (MessagingException failure) {
+            transport.close();
+            throw failure;
+        }
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        PooledTransport transport;
+        while ((transport = idle.pollFirst()) != null) {
+            if (transport.isExpired()) {
+                transport.close();
+            } else {
+                return transport;
+            }
+        }
+        return connect();
+    }
+
+    private PooledTransport connect() throws MessagingException {
+        long now = System.currentTimeMillis();
+        Transport transport = session.getTransport();
+        transport.connect();
+        connectionsOpened.incrementAndGet();
+        logger.debug("Connect to mail server took {} milliseconds", System.currentTimeMillis() - now);
+        return new PooledTransport(transport);
+    }
+
+    private void giveBack(PooledTransport transport) {
+        if (transport.messagesSent >= maxMessagesPerConnection) {
+            transport.close();
+        } else {
+            transport.lastUsed = System.currentTimeMillis();
+            idle.addFirst(transport);
+        }
+    }
+
+    /**
+     * Closes the idle connections
+     */
+    void close() {
+        PooledTransport transport;
+        while ((transport = idle.pollFirst()) != null) {
+            transport.close();
+        }
+    }
+
+    private void evictIdleConnections() {
+        idle.forEach(transport -> {
+            // Only close it if it is not borrowed in the mean time
+            if (transport.isExpired() && idle.remove(transport)) {
+                transport.close();
+            }
+        });
+    }
+
+    private class PooledTransport {
+        private final Transport transport;
+        private int messagesSent = 0;
+        private long lastUsed = System.currentTimeMillis();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() - lastUsed > idleTimeout;
+        }
+
+        private void close() {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                logger.debug("Failure while closing connection to the mail server", e);
+            }
+        }
+    }
+}
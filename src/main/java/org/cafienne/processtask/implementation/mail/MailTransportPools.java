@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.processtask.implementation.mail;
+
+import akka.actor.ActorSystem;
+import org.cafienne.infrastructure.Cafienne;
+import org.cafienne.infrastructure.config.engine.MailPoolConfig;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the pools of connections to the mail servers of one case system; there is one pool per mail server configuration.
+ * The connections are closed when the actor system terminates.
+ */
+public class MailTransportPools {
+    private final ActorSystem system;
+    private final MailPoolConfig config;
+    private final Map<Properties, MailTransportPool> pools = new ConcurrentHashMap<>();
+
+    public MailTransportPools(ActorSystem system) {
+        this(system, Cafienne.config().engine().mailService().pool());
+    }
+
+    public MailTransportPools(ActorSystem system, MailPoolConfig config) {
+        this.system = system;
+        this.config = config;
+        system.registerOnTermination(() -> pools.values().forEach(MailTransportPool::close));
+    }
+
+    /**
+     * Returns the pool for the mail server with the given properties
+     */
+    public MailTransportPool of(Properties mailServerProperties) {
+        return pools.computeIfAbsent(mailServerProperties, properties -> new MailTransportPool(system, properties, config));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cafienne.processtask.implementation.report;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import org.cafienne.cmmn.repository.file.SimpleLRUCache;
+import org.cafienne.infrastructure.Cafienne;
+import org.cafienne.system.metrics.MetricsMeasurePoint;
+import org.cafienne.system.metrics.MetricsMonitor;
+import org.cafienne.util.ContentHash;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of compiled {@link JasperReport} instances, keyed by the hash of their report xml.
+ * Compiled reports are not modified when filling them, so they can be shared across process tasks.
+ * PDFReport tasks use the process wide instance through {@link #get(String)}.
+ */
+class CompiledReportCache {
+    private final static MetricsMeasurePoint metrics = MetricsMonitor.addMeasure("compiled-report-cache");
+    private final static CompiledReportCache shared = new CompiledReportCache(Cafienne.config().engine().pdfReport().compiledCacheSize());
+
+    static {
+        metrics.gauge("size", shared::size);
+    }
+
+    private final Map<String, JasperReport> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    CompiledReportCache(int size) {
+        this.cache = new SimpleLRUCache<>(size);
+    }
+
+    /**
+     * Returns the compiled report for the xml from the process wide cache.
+     */
+    static JasperReport get(String xml) throws JRException {
+        return shared.compile(xml);
+    }
+
+    /**
+     * Returns the compiled report for the xml. If the same xml was compiled before and is still in the cache, that report is returned.
+     */
+    JasperReport compile(String xml) throws JRException {
+        String hash = ContentHash.of(xml);
+        synchronized (cache) {
+            JasperReport report = cache.get(hash);
+            if (report != null) {
+                hits.increment();
+                metrics.increment("hits");
+                return report;
+            }
+        }
+        misses.increment();
+        metrics.increment("misses");
+        // Compile outside the lock; if the same report is compiled concurrently, the last one is kept
+        JasperReport report = JasperCompileManager.compileReport(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        synchronized (cache) {
+            cache.put(hash, report);
+        }
+        return report;
+    }
+
+    int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+}
@@ -18,7 +18,6 @@
 package org.cafienne.processtask.implementation.report;
 
 import net.sf.jasperreports.engine.JRException;
-import net.sf.jasperreports.engine.JasperCompileManager;
 import net.sf.jasperreports.engine.JasperReport;
 import org.cafienne.cmmn.definition.CMMNElementDefinition;
 import org.cafienne.cmmn.definition.ModelDefinition;
@@ -27,10 +26,6 @@ import org.cafienne.json.Value;
 import org.cafienne.util.XMLHelper;
 import org.w3c.dom.Element;
 
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-
 public class JasperDefinition extends CMMNElementDefinition {
     final static String JASPER_XML_TAG = "jasperReport";
 
@@ -82,8 +77,7 @@ public class JasperDefinition extends CMMNElementDefinition {
     }
 
     private JasperReport compile(String xml) throws JRException {
-        InputStream is = new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
-        return JasperCompileManager.compileReport(is);
+        return CompiledReportCache.get(xml);
     }
 
     @Override
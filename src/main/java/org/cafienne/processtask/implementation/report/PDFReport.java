@@ -19,13 +19,16 @@ package org.cafienne.processtask.implementation.report;
 
 import net.sf.jasperreports.engine.*;
 import net.sf.jasperreports.engine.query.JsonQueryExecuterFactory;
+import org.cafienne.infrastructure.config.engine.PDFReportConfig;
 import org.cafienne.json.StringValue;
 import org.cafienne.json.ValueMap;
 import org.cafienne.processtask.definition.SubProcessDefinition;
 import org.cafienne.processtask.implementation.SubProcess;
+import org.cafienne.processtask.implementation.report.blobstore.BlobReference;
 import org.cafienne.processtask.instance.ProcessTaskActor;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.Locale;
@@ -34,6 +37,7 @@ import java.util.Map;
 public class PDFReport extends SubProcess<PDFReportDefinition> {
 
     final static String REPORT_DATA_TAG = "reportData";
+    final static String PDF_CONTENT_TYPE = "application/pdf";
 
     public PDFReport(ProcessTaskActor processTask, PDFReportDefinition definition) {
         super(processTask, definition);
@@ -89,11 +93,19 @@ public class PDFReport extends SubProcess<PDFReportDefinition> {
             JasperReport jReport = getDefinition().getReportDefinition().createInstance(this);
             JasperPrint jPrint = JasperFillManager.fillReport(jReport, jasperParameters);
 
-            ByteArrayOutputStream reportOutput = new ByteArrayOutputStream();
-            JasperExportManager.exportReportToPdfStream(jPrint, reportOutput);
+            PDFReportConfig config = processTaskActor.caseSystem.pdfReportConfig();
+            if (config.outputToBlobStore()) {
+                // Stream the document into the blob store under the case of the task, and only pass a reference to it in the output
+                BlobReference document = config.blobStore().write(processTaskActor.getParentActorId(), PDF_CONTENT_TYPE, output -> JasperExportManager.exportReportToPdfStream(jPrint, output));
+                processTaskActor.addDebugInfo(() -> "PDF Report - Stored document of " + document.getSize() + " bytes with reference " + document.getReference());
+                setRawOutputParameter(PDFReportDefinition.PDF_REPORT_DATA, document.toJSON());
+            } else {
+                ByteArrayOutputStream reportOutput = new ByteArrayOutputStream();
+                JasperExportManager.exportReportToPdfStream(jPrint, reportOutput);
 
-            String encodedOutput = Base64.getEncoder().encodeToString(reportOutput.toByteArray());
-            setRawOutputParameter(PDFReportDefinition.PDF_REPORT_DATA, new StringValue(encodedOutput));
+                String encodedOutput = Base64.getEncoder().encodeToString(reportOutput.toByteArray());
+                setRawOutputParameter(PDFReportDefinition.PDF_REPORT_DATA, new StringValue(encodedOutput));
+            }
 
             processTaskActor.addDebugInfo(() -> "PDF Report - Filling time : " + (System.currentTimeMillis() - start));
             raiseComplete();
@@ -102,6 +114,8 @@ public class PDFReport extends SubProcess<PDFReportDefinition> {
             raiseFault("Error while generating pdf report", e);
         } catch (MissingParameterException mpe) {
             raiseFault("Missing parameter", mpe);
+        } catch (IOException ioe) {
+            raiseFault("Error while storing pdf report", ioe);
         }
     }
 
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.processtask.implementation.report.blobstore;
+
+import org.cafienne.json.ValueMap;
+
+/**
+ * Reference to a blob in the {@link BlobStore}, along with metadata of the content
+ */
+public class BlobReference {
+    private final String reference;
+    private final String contentType;
+    private final long size;
+    private final String hash;
+
+    public BlobReference(String reference, String contentType, long size, String hash) {
+        this.reference = reference;
+        this.contentType = contentType;
+        this.size = size;
+        this.hash = hash;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public ValueMap toJSON() {
+        return new ValueMap("reference", reference, "contentType", contentType, "size", size, "hash", hash);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.processtask.implementation.report.blobstore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Store for generated documents, so that process tasks can pass a reference to the document instead of the document itself.
+ * Blobs are kept per owner (the case that generated them), so that they can be removed along with the case.
+ * Implementations must have a public no-arg constructor; the implementation is configured in cafienne.engine.pdf-report.blob-store.provider
+ */
+public interface BlobStore {
+    /**
+     * Writes a new blob for the owner with the content that the writer produces, and returns the reference to it.
+     * The reference starts with the owner, followed by a slash.
+     */
+    BlobReference write(String owner, String contentType, ContentWriter writer) throws IOException;
+
+    /**
+     * Opens the blob with the given reference for reading
+     */
+    InputStream read(String reference) throws IOException;
+
+    /**
+     * Removes all blobs of the owner. Does nothing if the owner has no blobs.
+     */
+    void delete(String owner) throws IOException;
+
+    @FunctionalInterface
+    interface ContentWriter {
+        void writeTo(OutputStream output) throws Exception;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.processtask.implementation.report.blobstore;
+
+import org.cafienne.infrastructure.Cafienne;
+import org.cafienne.util.ContentHash;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.stream.Stream;
+
+/**
+ * Stores blobs as files in a local directory (cafienne.engine.pdf-report.blob-store.location).
+ * Each owner has a sub directory. The content is streamed into the file, and the file is named
+ * after the hash of the content, so that the same document is stored only once per owner.
+ */
+public class LocalFileBlobStore implements BlobStore {
+    private final Path location;
+
+    public LocalFileBlobStore() {
+        this(Paths.get(Cafienne.config().engine().pdfReport().blobStoreLocation()));
+    }
+
+    public LocalFileBlobStore(Path location) {
+        this.location = location.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public BlobReference write(String owner, String contentType, ContentWriter writer) throws IOException {
+        Path directory = ownerDirectory(owner);
+        Files.createDirectories(directory);
+        Path tempFile = Files.createTempFile(directory, "blob-", ".tmp");
+        try {
+            MessageDigest digest = ContentHash.newDigest();
+            try (OutputStream output = new DigestOutputStream(Files.newOutputStream(tempFile), digest)) {
+                writer.writeTo(output);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Failed to write the content of the blob", e);
+            }
+            String hash = ContentHash.toHex(digest.digest());
+            String fileName = hash + extensionOf(contentType);
+            long size = Files.size(tempFile);
+            Files.move(tempFile, directory.resolve(fileName), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new BlobReference(owner + "/" + fileName, contentType, size, hash);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Override
+    public InputStream read(String reference) throws IOException {
+        Path file = location.resolve(reference).normalize();
+        // A reference must point to a file inside the directory of an owner
+        if (!file.startsWith(location) || file.getNameCount() != location.getNameCount() + 2) {
+            throw new IOException("Blob reference '" + reference + "' points outside of the blob store");
+        }
+        return Files.newInputStream(file);
+    }
+
+    @Override
+    public void delete(String owner) throws IOException {
+        Path directory = ownerDirectory(owner);
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    private Path ownerDirectory(String owner) throws IOException {
+        Path directory = location.resolve(owner).normalize();
+        if (owner.isEmpty() || !location.equals(directory.getParent())) {
+            throw new IOException("Blob owner '" + owner + "' cannot be used as a directory in the blob store");
+        }
+        return directory;
+    }
+
+    private String extensionOf(String contentType) {
+        return "application/pdf".equals(contentType) ? ".pdf" : "";
+    }
+}
@@ -41,6 +41,10 @@ public class ProcessTaskActor extends ModelActor {
     private SubProcess<?> taskImplementation;
     private ValueMap inputParameters;
     private ValueMap outputParameters;
+    /**
+     * Flag indicating that the process has been started or reactivated, and has not yet ended
+     */
+    private boolean running = false;
 
     public ProcessTaskActor(CaseSystem caseSystem) {
         super(caseSystem);
@@ -95,6 +99,7 @@ public class ProcessTaskActor extends ModelActor {
         this.parentActorId = event.parentActorId;
         this.rootActorId = event.rootActorId;
         this.inputParameters = event.inputParameters;
+        this.running = true;
         if (! recoveryRunning()) {
             addDebugInfo(() -> "Starting process task " + name + " with input: ", inputParameters);
             getImplementation().start();
@@ -103,6 +108,7 @@ public class ProcessTaskActor extends ModelActor {
 
     public void updateState(ProcessReactivated event) {
         this.inputParameters = event.inputParameters;
+        this.running = true;
         if (! recoveryRunning()) {
             addDebugInfo(() -> "Reactivating process " + getName());
             getImplementation().resetOutput();
@@ -125,6 +131,7 @@ public class ProcessTaskActor extends ModelActor {
     }
 
     public void updateState(ProcessTerminated event) {
+        this.running = false;
         if (! recoveryRunning()) {
             addDebugInfo(() -> "Terminating process " + getName());
             getImplementation().terminate();
@@ -132,6 +139,7 @@ public class ProcessTaskActor extends ModelActor {
     }
 
     public void updateState(ProcessCompleted event) {
+        this.running = false;
         this.outputParameters = event.output;
         addDebugInfo(() -> "Completing process task " + name + " of process type " + getImplementation().getClass().getName() + " with output:", outputParameters);
         if (recoveryFinished()) {
@@ -145,6 +153,7 @@ public class ProcessTaskActor extends ModelActor {
     }
 
     public void updateState(ProcessFailed event) {
+        this.running = false;
         outputParameters = event.output;
         informParent(new FailTask(this, outputParameters), failure -> {
             logger.error("Could not complete process task " + getId() + " " + name + " in parent, due to:\n" + failure);
@@ -160,6 +169,14 @@ public class ProcessTaskActor extends ModelActor {
         addDebugInfo(() -> "====== Completed Migration on ProcessTask["+getId()+"] with name " + getDefinition().getName());
     }
 
+    @Override
+    protected void recoveryCompleted() {
+        super.recoveryCompleted();
+        if (running) {
+            getImplementation().recoveredWhileRunning();
+        }
+    }
+
     @Override
     protected Logger getLogger() {
         return logger;
@@ -33,13 +33,15 @@ import org.slf4j.LoggerFactory;
 public class TimerService extends ModelActor {
     private final static Logger logger = LoggerFactory.getLogger(TimerService.class);
     public static final String CAFIENNE_TIMER_SERVICE = "cafienne-timer-service";
+    final TimerPartition partition;
     final TimerStore storage;
     final TimerEventSink eventSink;
     final TimerMonitor monitor;
 
-    public TimerService(CaseSystem caseSystem) {
+    public TimerService(CaseSystem caseSystem, TimerPartition partition) {
         super(caseSystem);
-        this.storage = new TimerStoreProvider(caseSystem).store();
+        this.partition = partition;
+        this.storage = new TimerStoreProvider(caseSystem, partition).store();
         this.monitor = new TimerMonitor(this);
         this.eventSink = new TimerEventSink(this);
         setEngineVersion(Cafienne.version());
@@ -62,12 +64,12 @@ public class TimerService extends ModelActor {
 
     @Override
     public String persistenceId() {
-        return CAFIENNE_TIMER_SERVICE;
+        return partition.name();
     }
 
     @Override
     protected void recoveryCompleted() {
-        logger.warn("Starting Timer Service - loading timers every " + Cafienne.config().engine().timerService().interval() + " for a window of " + Cafienne.config().engine().timerService().window() + " ahead");
+        logger.warn("Starting Timer Service for " + partition + " - loading timers every " + Cafienne.config().engine().timerService().interval() + " for a window of " + Cafienne.config().engine().timerService().window() + " ahead");
         monitor.start();
         eventSink.start();
     }
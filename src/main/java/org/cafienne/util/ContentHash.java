@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes SHA-256 based content hashes, e.g. to use as a key for content-addressed caches.
+ */
+public class ContentHash {
+    private final static char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Returns the hex encoded SHA-256 hash of the UTF-8 representation of the string
+     *
+     * @param content
+     * @return
+     */
+    public static String of(String content) {
+        return of(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the hex encoded SHA-256 hash of the bytes
+     *
+     * @param content
+     * @return
+     */
+    public static String of(byte[] content) {
+        return toHex(newDigest().digest(content));
+    }
+
+    /**
+     * Returns a new SHA-256 digest, e.g. to compute the hash of content that is streamed
+     *
+     * @return
+     */
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is a mandatory algorithm in each JVM, so this should never happen
+            throw new IllegalStateException("SHA-256 is not available in this JVM", e);
+        }
+    }
+
+    /**
+     * Returns the hex encoded representation of the digest
+     *
+     * @param digest
+     * @return
+     */
+    public static String toHex(byte[] digest) {
+        char[] chars = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            chars[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[digest[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
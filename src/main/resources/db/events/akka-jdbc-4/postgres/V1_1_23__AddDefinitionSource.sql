@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS definition_source (
+	"hash" character varying COLLATE pg_catalog."default" NOT NULL,
+	"source" text COLLATE pg_catalog."default" NOT NULL,
+	"created_on" timestamp without time zone NOT NULL,
+
+	CONSTRAINT definition_source_pkey PRIMARY KEY (hash)
+);
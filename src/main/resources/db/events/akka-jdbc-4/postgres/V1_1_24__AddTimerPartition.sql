@@ -0,0 +1,3 @@
+ALTER TABLE timer ADD COLUMN IF NOT EXISTS "partition_key" integer NOT NULL DEFAULT -1;
+
+CREATE INDEX IF NOT EXISTS ix_partition_key__timer ON timer USING btree (partition_key);
@@ -0,0 +1,6 @@
+CREATE TABLE definition_source (
+	"hash" NVARCHAR(255) NOT NULL,
+	"source" NVARCHAR(MAX) NOT NULL,
+	"created_on" [datetimeoffset](6) NOT NULL,
+	PRIMARY KEY ("hash")
+);
@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS PUBLIC."definition_source" (
+  "hash" VARCHAR NOT NULL,
+  "source" VARCHAR NOT NULL,
+  "created_on" TIMESTAMP NOT NULL,
+  PRIMARY KEY("hash")
+);
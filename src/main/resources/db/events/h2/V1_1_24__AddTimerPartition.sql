@@ -0,0 +1,3 @@
+ALTER TABLE PUBLIC."timer" ADD COLUMN IF NOT EXISTS "partition_key" INTEGER DEFAULT -1 NOT NULL;
+
+CREATE INDEX IF NOT EXISTS "ix_partition_key__timer" ON PUBLIC."timer" ("partition_key");
@@ -0,0 +1,3 @@
+ALTER TABLE timer ADD "partition_key" INT NOT NULL DEFAULT -1;
+
+CREATE INDEX ix_partition_key__timer ON timer ("partition_key");
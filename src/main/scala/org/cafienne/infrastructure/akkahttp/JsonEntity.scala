@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.infrastructure.akkahttp
+
+import akka.NotUsed
+import akka.http.scaladsl.model.{ContentTypes, HttpEntity, ResponseEntity}
+import akka.stream.scaladsl.Source
+import akka.util.{ByteString, ByteStringBuilder}
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter
+import org.cafienne.json.{CafienneJson, JSONReader, Value, ValueList}
+
+import scala.jdk.CollectionConverters._
+
+/**
+  * Creates http entities for JSON responses.
+  * Values are printed directly into ByteStrings, without first rendering them into a String.
+  * Lists are streamed element by element, so that the response can start before
+  * all elements are printed, and only one printed element is in memory at a time.
+  */
+object JsonEntity {
+  private val listStart = ByteString("[ ")
+  private val listSeparator = ByteString(", ")
+  private val listEnd = ByteString(" ]")
+
+  def apply(value: Value[_]): ResponseEntity = value match {
+    case values: ValueList => list(values.getValue.asScala.toSeq)
+    case other => HttpEntity.Strict(ContentTypes.`application/json`, print(other))
+  }
+
+  def list(elements: Seq[Value[_]]): ResponseEntity = stream(elements)(element => element)
+
+  /**
+    * Streams the elements as a JSON array; elements are only converted to Value when they are printed.
+    */
+  def fromSeq(elements: Seq[CafienneJson]): ResponseEntity = stream(elements)(element => element.toValue)
+
+  private def stream[T](elements: Seq[T])(toValue: T => Value[_]): ResponseEntity = {
+    if (elements.isEmpty) {
+      HttpEntity.Strict(ContentTypes.`application/json`, ByteString("[ ]"))
+    } else {
+      val printedElements: Source[ByteString, NotUsed] = Source(elements).zipWithIndex.map {
+        case (element, 0L) => print(toValue(element))
+        case (element, _) => listSeparator ++ print(toValue(element))
+      }
+      HttpEntity(ContentTypes.`application/json`, Source.single(listStart).concat(printedElements).concat(Source.single(listEnd)))
+    }
+  }
+
+  /**
+    * Prints the value with the same pretty printing as Value.toString, but directly into a ByteString
+    */
+  def print(value: Value[_]): ByteString = {
+    val builder = new ByteStringBuilder
+    val generator = JSONReader.getJSONFactory.createGenerator(builder.asOutputStream)
+    generator.setPrettyPrinter(new DefaultPrettyPrinter())
+    value.print(generator)
+    generator.close()
+    builder.result()
+  }
+}
@@ -29,6 +29,6 @@ object ResponseMarshallers {
     * Simple CaseResponse converter to JSON
     */
   implicit val modelResponseMarshaller = Marshaller.withFixedContentType(ContentTypes.`application/json`) { value: ModelResponse =>
-    HttpEntity(ContentTypes.`application/json`, value.toJson.toString)
+    JsonEntity(value.toJson)
   }
 }
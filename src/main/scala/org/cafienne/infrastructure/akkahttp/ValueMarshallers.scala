@@ -41,15 +41,15 @@ object ValueMarshallers {
     XMLHelper.loadXML(data.getBytes())
   })
 
-  implicit val ValueUnmarshaller = Unmarshaller.stringUnmarshaller.forContentTypes(ContentTypes.`application/json`).map(data => {
+  implicit val ValueUnmarshaller = Unmarshaller.byteArrayUnmarshaller.forContentTypes(ContentTypes.`application/json`).map(data => {
     JSONReader.parse(data).asInstanceOf[Value[_]]
   })
 
-  implicit val ValueMapUnmarshaller = Unmarshaller.stringUnmarshaller.forContentTypes(ContentTypes.`application/json`).map(data => {
+  implicit val ValueMapUnmarshaller = Unmarshaller.byteArrayUnmarshaller.forContentTypes(ContentTypes.`application/json`).map(data => {
     JSONReader.parse(data).asInstanceOf[ValueMap]
   })
 
-  implicit val ValueListUnmarshaller = Unmarshaller.stringUnmarshaller.forContentTypes(ContentTypes.`application/json`).map(data => {
+  implicit val ValueListUnmarshaller = Unmarshaller.byteArrayUnmarshaller.forContentTypes(ContentTypes.`application/json`).map(data => {
     JSONReader.parse(data).asInstanceOf[ValueList]
   })
 
@@ -61,10 +61,10 @@ object ValueMarshallers {
   }
 
   implicit val valueMapMarshaller = Marshaller.withFixedContentType(ContentTypes.`application/json`) { value: ValueMap =>
-    HttpEntity(ContentTypes.`application/json`, value.toString)
+    JsonEntity(value)
   }
 
   implicit val valueListMarshaller = Marshaller.withFixedContentType(ContentTypes.`application/json`) { value: ValueList =>
-    HttpEntity(ContentTypes.`application/json`, value.toString)
+    JsonEntity(value)
   }
 }
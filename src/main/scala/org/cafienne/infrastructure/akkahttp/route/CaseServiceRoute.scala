@@ -26,6 +26,7 @@ import ch.megard.akka.http.cors.scaladsl.model.HttpHeaderRange
 import ch.megard.akka.http.cors.scaladsl.settings.CorsSettings
 import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.actormodel.response.ModelResponse
+import org.cafienne.infrastructure.akkahttp.JsonEntity
 import org.cafienne.json.{CafienneJson, Value}
 import org.cafienne.service.akkahttp.Headers
 import org.cafienne.system.CaseSystem
@@ -119,11 +120,11 @@ trait CaseServiceRoute extends LazyLogging {
   }
 
   def completeCafienneJSONSeq(seq: Seq[CafienneJson]): Route = {
-    completeJsonValue(Value.convert(seq.map(element => element.toValue)))
+    complete(StatusCodes.OK, JsonEntity.fromSeq(seq))
   }
 
   def completeJsonValue(v: Value[_]): Route = {
-    complete(StatusCodes.OK, HttpEntity(ContentTypes.`application/json`, v.toString))
+    complete(StatusCodes.OK, JsonEntity(v))
   }
 
   private var concatenatedSubRoutes: Option[Route] = None
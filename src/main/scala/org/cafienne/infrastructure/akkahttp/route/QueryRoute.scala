@@ -21,7 +21,7 @@ import akka.http.scaladsl.model.{ContentTypes, HttpEntity, StatusCodes}
 import akka.http.scaladsl.server.{Directive1, Route}
 import org.cafienne.actormodel.exception.AuthorizationException
 import org.cafienne.actormodel.response.ActorLastModified
-import org.cafienne.json.{CafienneJson, Value}
+import org.cafienne.json.CafienneJson
 import org.cafienne.querydb.materializer.LastModifiedRegistration
 import org.cafienne.querydb.query.exception.SearchFailure
 import org.cafienne.service.akkahttp.Headers
@@ -75,7 +75,7 @@ trait QueryRoute extends AuthenticatedRoute {
 
   def handleQueryResultList[T <: CafienneJson](future: => Future[Seq[T]]): Route = {
     onComplete(future) {
-      case Success(value) => completeJsonValue(Value.convert(value.map(v => v.toValue)))
+      case Success(value) => completeCafienneJSONSeq(value)
       case Failure(t) => handleFailure(t)
     }
   }
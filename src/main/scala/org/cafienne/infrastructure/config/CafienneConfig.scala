@@ -82,6 +82,11 @@ class CafienneConfig extends ConfigReader with LazyLogging {
 
   lazy val storage: StorageConfig = new StorageConfig(this)
 
+  /**
+    * Returns configuration options for the format of serialized events, commands and responses
+    */
+  lazy val serialization: SerializationConfig = new SerializationConfig(this)
+
   /**
     * Returns configuration options for the engine and it's internal services
     */
@@ -39,6 +39,15 @@ class ModelActorConfig(val parent: CafienneConfig) extends ChildConfigReader {
     period * 1000
   }
 
+  /**
+    * Interval in which idle ModelActors are looked up and removed from memory.
+    * By default a tenth of the idle period, between 1 and 60 seconds.
+    */
+  lazy val passivationSweepInterval: Long = {
+    val default = Math.max(1, Math.min(60, idlePeriod / 1000 / 10))
+    readLong("passivation-sweep-interval", default) * 1000
+  }
+
   /**
     * Setting to indicate whether ModelActors should start in debug mode or not (by default).
     * Currently only implemented for cases. Also StartCase command has option to override the default setting
@@ -47,4 +56,14 @@ class ModelActorConfig(val parent: CafienneConfig) extends ChildConfigReader {
     // Note: for now, we can better take this from model-actor config, but we should also read the old option
     readBoolean("debug", parent.readBoolean("debug", default = false))
   }
+
+  /**
+    * Policy for taking snapshots of case instances, to reduce the number of events that must be replayed upon recovery
+    */
+  lazy val snapshot: SnapshotConfig = new SnapshotConfig(this)
+
+  /**
+    * Routing of commands to the model actors, either with local routers or through cluster sharding
+    */
+  lazy val router: RouterConfig = new RouterConfig(this)
 }
\ No newline at end of file
@@ -29,6 +29,18 @@ class QueryDBConfig(val parent: CafienneConfig) extends MandatoryConfig {
   override val msg = "Cafienne Query Database is not configured. Check local.conf for 'cafienne.query-db' settings"
 
   lazy val restartSettings: RestartSettings = new RestartConfig(this).settings
+  lazy val materializer: MaterializerConfig = new MaterializerConfig(this)
+  /**
+    * The case file is either stored as a single json document per case ("document" layout),
+    * or with a separate record per top level case file item ("items" layout).
+    */
+  lazy val itemizedCaseFile: Boolean = readString("case-file-layout", "document") match {
+    case "items" => true
+    case "document" => false
+    case other =>
+      logger.warn(s"Unknown value '$other' for cafienne.query-db.case-file-layout, using 'document' instead")
+      false
+  }
   lazy val debug: Boolean = readBoolean("debug", default = false)
   lazy val readJournal: String = {
     val foundJournal = readString("read-journal")
@@ -48,4 +60,31 @@ class RestartConfig(val parent: QueryDBConfig) extends ChildConfigReader {
   lazy val maxRestartsWithin: FiniteDuration = readDuration("max-restarts-within", FiniteDuration(5, TimeUnit.MINUTES))
 
   lazy val settings: RestartSettings = RestartSettings(minBackoff, maxBackoff, randomFactor).withMaxRestarts(maxRestarts, maxRestartsWithin)
-}
\ No newline at end of file
+}
+
+class MaterializerConfig(val parent: QueryDBConfig) extends ChildConfigReader {
+  def path = "materializer"
+
+  /**
+    * Number of lanes in which case event batches are materialized concurrently.
+    * Events of the same case are always handled in the same lane.
+    */
+  lazy val lanes: Int = readInt("lanes", 1)
+
+  /**
+    * Maximum number of case event batches that are committed together in a single database transaction.
+    * Default is 1, which means that each batch has its own transaction.
+    */
+  lazy val groupCommitSize: Int = readInt("group-commit.max-batches", 1)
+
+  /**
+    * Maximum time to wait for more batches to fill up a group commit.
+    */
+  lazy val groupCommitDelay: FiniteDuration = readDuration("group-commit.max-delay", FiniteDuration(10, TimeUnit.MILLISECONDS))
+
+  /**
+    * Maximum estimated size (in bytes) of the cache with recently materialized case records.
+    * Default is 0, which disables the cache.
+    */
+  lazy val projectionCacheSize: Long = if (config.hasPath("projection-cache.max-size")) config.getBytes("projection-cache.max-size") else 0
+}
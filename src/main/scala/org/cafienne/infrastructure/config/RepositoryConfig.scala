@@ -40,4 +40,26 @@ class RepositoryConfig(val parent: CafienneConfig) extends MandatoryConfig {
     if (config.hasPath("cache.size")) config.getInt("cache.size")
     100
   }
+
+  /**
+    * Number of distinct definitions documents that are kept in memory after being parsed from events and commands
+    */
+  lazy val deserializationCacheSize: Int = {
+    readInt("deserialization-cache.size", 100)
+  }
+
+  /**
+    * If true, events and commands refer to the definition by the hash of its source, instead of embedding the full source.
+    * The source itself is then stored only once in the definition source store that goes with the journal.
+    */
+  lazy val storeByReference: Boolean = {
+    readBoolean("by-reference.enabled", default = false)
+  }
+
+  /**
+    * Returns configuration path of the JDBC database to store definitions by reference (when using a JDBC journal)
+    */
+  lazy val sourceStore: String = {
+    readString("by-reference.store", "akka-persistence-jdbc.shared-databases.slick")
+  }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.infrastructure.config
+
+import org.cafienne.infrastructure.config.util.ChildConfigReader
+
+/**
+  * Settings for routing commands to the ModelActors.
+  * By default, each type of ModelActor has an in-memory router on the local node.
+  * In "sharded" mode the ModelActors are distributed across the cluster through Akka Cluster Sharding,
+  * which requires the actor system to run with the cluster actor provider.
+  */
+class RouterConfig(val parent: ModelActorConfig) extends ChildConfigReader {
+  def path = "router"
+
+  lazy val sharded: Boolean = readString("mode", "local") match {
+    case "sharded" =>
+      logger.info(s"ModelActors are routed through Akka Cluster Sharding with $numberOfShards shards per actor type")
+      true
+    case "local" => false
+    case other =>
+      logger.warn(s"Unknown value '$other' for cafienne.actor.router.mode, using 'local' instead")
+      false
+  }
+
+  /**
+    * Number of shards per type of ModelActor. Must be the same on all nodes in the cluster.
+    */
+  lazy val numberOfShards: Int = readInt("number-of-shards", 100)
+
+  /**
+    * Number of router partitions per type of ModelActor in local mode.
+    * Commands are spread across the partitions by the hash of the actor id, so that
+    * a single router mailbox does not become a bottleneck under high command load.
+    */
+  lazy val localPartitions: Int = Math.max(1, readInt("local-partitions", 1))
+
+  /**
+    * Maximum number of ModelActors per type that the local routers keep in memory.
+    * When exceeded, the least recently used actor is passivated. 0 means no limit.
+    */
+  lazy val maxResidentActors: Int = Math.max(0, readInt("max-resident-actors", 0))
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.infrastructure.config
+
+import org.cafienne.infrastructure.config.util.ChildConfigReader
+
+/**
+  * Settings for the way CafienneSerializable objects (events, commands and responses) are stored in the journal.
+  */
+class SerializationConfig(val parent: CafienneConfig) extends ChildConfigReader {
+  def path = "serialization"
+
+  /**
+    * If true, objects are written in the compact binary CBOR format instead of pretty printed JSON.
+    * Objects written in JSON can always be read, regardless of this setting.
+    */
+  lazy val binary: Boolean = readString("format", "json") match {
+    case "cbor" =>
+      logger.info("CafienneSerializer writes events in binary CBOR format")
+      true
+    case "json" => false
+    case other =>
+      logger.warn(s"Unknown value '$other' for cafienne.serialization.format, using 'json' instead")
+      false
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.infrastructure.config
+
+import org.cafienne.infrastructure.config.util.ChildConfigReader
+
+/**
+  * Settings for the snapshot policy of ModelActors. Snapshots are only taken if either of the two thresholds is set.
+  * Note that this requires an akka snapshot-store plugin to be configured.
+  */
+class SnapshotConfig(val parent: ModelActorConfig) extends ChildConfigReader {
+  def path = "snapshot"
+
+  /**
+    * Number of events persisted after the last snapshot that triggers a new snapshot. 0 means no threshold.
+    */
+  lazy val everyEvents: Int = readInt("every-events", 0)
+
+  /**
+    * Number of bytes of serialized events persisted after the last snapshot that triggers a new snapshot. 0 means no threshold.
+    */
+  lazy val everyBytes: Long = readLong("every-bytes", 0)
+
+  lazy val enabled: Boolean = {
+    val enabled = everyEvents > 0 || everyBytes > 0
+    if (enabled) {
+      logger.info(s"Case instances will store a snapshot after every $everyEvents events or $everyBytes bytes (0 means no threshold)")
+    }
+    enabled
+  }
+}
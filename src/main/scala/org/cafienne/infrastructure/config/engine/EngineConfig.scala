@@ -32,4 +32,19 @@ class EngineConfig(val parent: CafienneConfig) extends ChildConfigReader {
     * Config property for settings of the mail service to use
     */
   lazy val mailService = new MailServiceConfig(this)
+
+  /**
+    * Config property for settings of the http client of HTTPCall process tasks
+    */
+  lazy val httpClient = new HttpClientConfig(this)
+
+  /**
+    * Config property for settings of the PDF report process tasks
+    */
+  lazy val pdfReport = new PDFReportConfig(this)
+
+  /**
+    * Compiler mode for SpEL expressions; one of "off", "mixed" or "immediate"
+    */
+  lazy val spelCompilerMode: String = readString("expressions.spel-compiler-mode", "off").toLowerCase
 }
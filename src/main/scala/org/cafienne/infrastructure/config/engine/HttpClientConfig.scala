@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.infrastructure.config.engine
+
+import org.cafienne.infrastructure.config.util.ChildConfigReader
+
+import scala.concurrent.duration._
+
+/**
+  * Settings for the http client that is used by process tasks of type HTTPCall
+  */
+class HttpClientConfig(val parent: EngineConfig) extends ChildConfigReader {
+  def path = "http-client"
+
+  /**
+    * If true, HTTPCall process tasks run on a non-blocking connection pool, and report the outcome to the process task
+    * once the response has been received. Otherwise, the call blocks a thread of the processtask-dispatcher.
+    */
+  lazy val async: Boolean = readBoolean("async", default = false)
+
+  /**
+    * Maximum number of connections per target host
+    */
+  lazy val maxConnectionsPerHost: Int = readInt("max-connections-per-host", 32)
+
+  /**
+    * Maximum number of requests per target host that can be waiting for a connection; must be a power of 2
+    */
+  lazy val maxOpenRequestsPerHost: Int = readInt("max-open-requests-per-host", 256)
+
+  lazy val connectTimeout: FiniteDuration = readDuration("connect-timeout", 10.seconds)
+
+  /**
+    * Maximum time to wait for a complete response
+    */
+  lazy val requestTimeout: FiniteDuration = readDuration("request-timeout", 60.seconds)
+
+  /**
+    * Responses with a larger body are treated as a failure
+    */
+  lazy val maxResponseSize: Long = if (config.hasPath("max-response-size")) config.getBytes("max-response-size") else 10L * 1024 * 1024
+}
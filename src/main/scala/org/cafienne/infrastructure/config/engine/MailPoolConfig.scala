@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.infrastructure.config.engine
+
+import org.cafienne.infrastructure.config.util.ChildConfigReader
+
+import scala.concurrent.duration._
+
+/**
+  * Settings for the pool of connections to the mail server that is used by process tasks of type Mail
+  */
+class MailPoolConfig(val parent: MailServiceConfig) extends ChildConfigReader {
+  def path = "pool"
+
+  /**
+    * If true, mails are sent on the mail-dispatcher, and the outcome is reported to the process task
+    * once the mail server has accepted the message. Otherwise, sending blocks a thread of the processtask-dispatcher.
+    */
+  lazy val async: Boolean = readBoolean("async", default = false)
+
+  /**
+    * Maximum number of open connections to the mail server
+    */
+  lazy val maxConnections: Int = readInt("max-connections", 8)
+
+  /**
+    * Number of messages after which a connection is closed and replaced by a new one
+    */
+  lazy val maxMessagesPerConnection: Int = readInt("max-messages-per-connection", 100)
+
+  /**
+    * Connections that have not been used for this period are closed
+    */
+  lazy val idleTimeout: FiniteDuration = readDuration("idle-timeout", 60.seconds)
+}
@@ -28,8 +28,13 @@ class MailServiceConfig(val parent: EngineConfig) extends MandatoryConfig {
     val mailProperties = new Properties
     config.entrySet().forEach(entry => {
 //      logger.warn(entry.getKey + ": " + entry.getValue.unwrapped)
-      mailProperties.put(entry.getKey, entry.getValue.unwrapped)
+      // Settings of the connection pool are not passed to the mail server
+      if (!entry.getKey.startsWith(pool.path + ".")) {
+        mailProperties.put(entry.getKey, entry.getValue.unwrapped)
+      }
     })
     mailProperties
   }
+
+  lazy val pool: MailPoolConfig = new MailPoolConfig(this)
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.infrastructure.config.engine
+
+import org.cafienne.infrastructure.config.util.ChildConfigReader
+import org.cafienne.processtask.implementation.report.blobstore.BlobStore
+
+/**
+  * Settings for process tasks of type PDFReport
+  */
+class PDFReportConfig(val parent: EngineConfig) extends ChildConfigReader {
+  def path = "pdf-report"
+
+  /**
+    * Number of compiled report definitions that are kept in memory
+    */
+  lazy val compiledCacheSize: Int = readInt("compiled-cache-size", 100)
+
+  /**
+    * If true, generated documents are written into the blob store, instead of being put inline in the output of the task
+    */
+  lazy val outputToBlobStore: Boolean = {
+    readString("output", "inline").toLowerCase match {
+      case "inline" => false
+      case "blob-store" => true
+      case other => fail(s"Invalid value '$other' for $this.output; must be either 'inline' or 'blob-store'")
+    }
+  }
+
+  /**
+    * Store to write the generated documents into, when output is set to blob-store
+    */
+  lazy val blobStore: BlobStore = {
+    val providerClassName = readString("blob-store.provider", "org.cafienne.processtask.implementation.report.blobstore.LocalFileBlobStore")
+    Class.forName(providerClassName).getDeclaredConstructor().newInstance().asInstanceOf[BlobStore]
+  }
+
+  lazy val blobStoreLocation: String = readString("blob-store.location", "./reports")
+}
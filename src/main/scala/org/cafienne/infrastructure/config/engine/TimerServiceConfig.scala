@@ -56,4 +56,60 @@ class TimerServiceConfig(val parent: EngineConfig) extends ChildConfigReader {
     }
     interval
   }
-}
\ No newline at end of file
+
+  /**
+    * Returns the resolution of the in-memory timing wheel; timers are raised at most one tick after their moment
+    */
+  val tick: FiniteDuration = {
+    val tick = readDuration("tick", FiniteDuration(100, TimeUnit.MILLISECONDS))
+    if (tick.toMillis <= 0) {
+      fail(s"Timer service tick (configured to $tick) must be at least 1 millisecond")
+    }
+    tick
+  }
+
+  /**
+    * Returns the number of buckets per level of the in-memory timing wheel
+    */
+  val wheelSize: Int = {
+    val size = readInt("wheel-size", 512)
+    if (size < 2) {
+      fail(s"Timer service wheel size (configured to $size) must be at least 2")
+    }
+    size
+  }
+
+  /**
+    * Number of partitions of the timer service. Each partition runs its own TimerService for the timers
+    * of a part of the cases, with its own offset and window loading.
+    */
+  lazy val partitions: Int = {
+    val partitions = readInt("partitions", 1)
+    if (partitions < 1) {
+      fail(s"Timer service partitions (configured to $partitions) must be at least 1")
+    }
+    partitions
+  }
+
+  /**
+    * Number of timers that is read from the storage in one query when loading the window
+    */
+  lazy val loaderPageSize: Int = readInt("loader.page-size", 1000)
+
+  /**
+    * Maximum number of overdue timers that are raised in parallel when loading the window.
+    * This avoids a burst of commands to the cases when the engine starts with a large backlog of timers.
+    */
+  lazy val loaderMaxInFlight: Int = readInt("loader.max-in-flight", 32)
+
+  /**
+    * Maximum number of timer events that are written to the timer store in one transaction.
+    * Default is 1, which means that each event has its own transaction.
+    */
+  lazy val batchSize: Int = readInt("batch.max-events", 1)
+
+  /**
+    * Maximum time to wait for more timer events to fill up a batch.
+    */
+  lazy val batchDelay: FiniteDuration = readDuration("batch.max-delay", FiniteDuration(10, TimeUnit.MILLISECONDS))
+}
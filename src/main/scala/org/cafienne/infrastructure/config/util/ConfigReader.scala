@@ -96,7 +96,7 @@ trait ConfigReader extends LazyLogging {
 
   def readDuration(name: String, default: FiniteDuration): FiniteDuration = {
     if (config != null && config.hasPath(name)) {
-      val duration = FiniteDuration(config.getDuration(name).toSeconds, TimeUnit.SECONDS).toCoarsest
+      val duration = FiniteDuration(config.getDuration(name).toMillis, TimeUnit.MILLISECONDS).toCoarsest
       if (duration.toMillis < 0) {
         fail(s"Duration cannot be negative (found $this.$name = ${config.getValue(name).unwrapped()})")
       }
@@ -40,6 +40,7 @@ trait InstanceEventSource extends ReadJournalProvider with ModelEventFilter with
     */
   def events(actorId: String): Source[ModelEventEnvelope, NotUsed] =
     query(actorId)
+      .map(failOnTransientFailures) // Rather fail than leave out an event that can be read a little later
       .filter(validateModelEvents) // Only interested in ModelEvents, but we log errors if it is an unexpected event or deserialization issue
       .map(ModelEventEnvelope) // Construct a simple wrapper that understands we're dealing with ModelEvents
 }
@@ -20,9 +20,21 @@ package org.cafienne.infrastructure.cqrs
 import akka.persistence.query.EventEnvelope
 import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.actormodel.event.ModelEvent
-import org.cafienne.infrastructure.serialization.{DeserializationFailure, UnrecognizedManifest}
+import org.cafienne.infrastructure.serialization.{DeserializationError, DeserializationFailure, UnrecognizedManifest}
 
 trait ModelEventFilter extends LazyLogging {
+  /**
+    * Fails on events that cannot be deserialized yet, because the definition they refer to is still being loaded.
+    * Skipping such an event would lose it; failing makes a restarting source read it again from the last offset.
+    */
+  def failOnTransientFailures(element: EventEnvelope): EventEnvelope = {
+    element.event match {
+      case failure: DeserializationFailure if failure.isTransient =>
+        throw new DeserializationError(s"Event with persistenceId=${element.persistenceId}, sequenceNumber=${element.sequenceNr} cannot yet be deserialized", failure.exception)
+      case _ => element
+    }
+  }
+
   def validateModelEvents(element: EventEnvelope): Boolean = {
     element match {
       case EventEnvelope(_, _, _, _: ModelEvent) => true
@@ -69,7 +69,7 @@ trait TaggedEventSource extends ReadJournalProvider with ModelEventFilter with L
         //  consuming that were consumed already successfully before the source had to be restarted.
         getOffset.map { offset: Offset =>
           logger.warn(s"Starting to read '$tag' events from offset " + offset)
-          query(offset)
+          query(offset).map(failOnTransientFailures)
         }
       })
     }
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.journal.definitions
+
+import akka.Done
+import com.typesafe.scalalogging.LazyLogging
+
+import scala.concurrent.{ExecutionContext, Future}
+
+/**
+  * Deduplicated storage of definitions documents, keyed by the hash of their XML source.
+  * Events that refer to a definition by hash (instead of embedding the full source) are resolved through this store.
+  */
+trait DefinitionSourceStore extends LazyLogging {
+  implicit val ec: ExecutionContext = scala.concurrent.ExecutionContext.global
+
+  def read(hash: String): Future[Option[String]]
+
+  def store(hash: String, source: String): Future[Done]
+
+  /**
+    * Return a description for this type of definition store, defaults to simple class name
+    */
+  lazy val description: String = getClass.getSimpleName
+}
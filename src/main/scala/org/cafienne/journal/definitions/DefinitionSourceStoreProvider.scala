@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.journal.definitions
+
+import akka.Done
+import akka.actor.ActorSystem
+import akka.persistence.cassandra.query.scaladsl.CassandraReadJournal
+import akka.persistence.jdbc.query.scaladsl.JdbcReadJournal
+import com.typesafe.scalalogging.LazyLogging
+import org.cafienne.cmmn.definition.{DefinitionsCache, DefinitionsDocument}
+import org.cafienne.infrastructure.cqrs.ReadJournalProvider
+import org.cafienne.journal.definitions.cassandra.CassandraDefinitionSourceStore
+import org.cafienne.journal.definitions.inmemory.InMemoryDefinitionSourceStore
+import org.cafienne.journal.definitions.jdbc.JDBCDefinitionSourceStore
+
+import java.io.IOException
+import java.util.concurrent.ConcurrentHashMap
+import scala.concurrent.Future
+import scala.util.{Failure, Success}
+
+/**
+  * Provides access to the definition source store that goes with the configured journal.
+  * Both reading and writing are asynchronous. Writing must have completed before an event referring to the source is persisted;
+  * serialization itself only writes the hash. Deserialization does not read from the store, but only from the DefinitionsCache,
+  * which is filled by reading the source through resolve().
+  * Each hash is written and read only once per JVM, as the parsed definitions are kept in the DefinitionsCache.
+  */
+object DefinitionSourceStoreProvider extends LazyLogging {
+  private var registeredSystem: Option[ActorSystem] = None
+  private val storedHashes = ConcurrentHashMap.newKeySet[String]()
+  private val pendingWrites = new ConcurrentHashMap[String, Future[Done]]()
+  private val pendingReads = new ConcurrentHashMap[String, Future[DefinitionsDocument]]()
+
+  private lazy val store: DefinitionSourceStore = {
+    val provider = new ReadJournalProvider {
+      override val system: ActorSystem = registeredSystem.getOrElse(throw new IllegalStateException("Cannot access the definition source store before the actor system has been initialized"))
+    }
+    val store = provider.journal() match {
+      case c: CassandraReadJournal => new CassandraDefinitionSourceStore(c)
+      case _: JdbcReadJournal => new JDBCDefinitionSourceStore()
+      case _ => new InMemoryDefinitionSourceStore() // By default return in memory map
+    }
+    logger.info("Storing definitions by reference in " + store.description)
+    store
+  }
+
+  /**
+    * Register the actor system, such that the store can be created upon first usage.
+    */
+  def initialize(system: ActorSystem): Unit = this.synchronized {
+    if (registeredSystem.isEmpty) {
+      registeredSystem = Some(system)
+    }
+  }
+
+  /**
+    * Reads the source of the definitions document with the specified hash from the store, and puts the parsed
+    * document in the DefinitionsCache. Concurrent requests for the same hash share the same read.
+    */
+  def resolve(hash: String): Future[DefinitionsDocument] = {
+    pendingReads.computeIfAbsent(hash, _ => {
+      store.read(hash).map {
+        case Some(source) =>
+          storedHashes.add(hash)
+          DefinitionsCache.get(source)
+        case None => throw new IOException(s"Cannot find a definitions document with hash $hash in the definition source store")
+      }(store.ec).andThen {
+        case Success(_) => pendingReads.remove(hash)
+        case Failure(failure) =>
+          logger.error(s"Could not read definitions document with hash $hash", failure)
+          pendingReads.remove(hash)
+      }(store.ec)
+    })
+  }
+
+  /**
+    * Returns true if the source with the specified hash is known to be available in the store.
+    */
+  def isStored(hash: String): Boolean = storedHashes.contains(hash)
+
+  /**
+    * Makes sure the source is available in the store under the specified hash.
+    * Concurrent requests for the same hash share the same write.
+    */
+  def storeSource(hash: String, source: String): Future[Done] = {
+    if (storedHashes.contains(hash)) {
+      Future.successful(Done)
+    } else {
+      pendingWrites.computeIfAbsent(hash, _ => {
+        store.store(hash, source).andThen {
+          case Success(_) =>
+            storedHashes.add(hash)
+            pendingWrites.remove(hash)
+          case Failure(failure) =>
+            logger.error(s"Could not store definitions document with hash $hash", failure)
+            pendingWrites.remove(hash)
+        }(store.ec)
+      })
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.journal.definitions.cassandra
+
+import akka.Done
+import akka.persistence.cassandra.query.scaladsl.CassandraReadJournal
+import akka.util.Timeout
+import com.datastax.oss.driver.api.core.`type`.DataTypes
+import com.datastax.oss.driver.api.core.cql._
+import com.datastax.oss.driver.api.querybuilder.QueryBuilder.literal
+import com.datastax.oss.driver.api.querybuilder.{QueryBuilder, SchemaBuilder}
+import org.cafienne.journal.definitions.DefinitionSourceStore
+
+import java.time.Instant
+import scala.concurrent.duration._
+import scala.concurrent.{Await, ExecutionContext, Future}
+
+class CassandraDefinitionSourceStore(readJournal: CassandraReadJournal) extends DefinitionSourceStore {
+  val keyspace: String = "akka" // Same keyspace as the timer service
+  val sourceTable: String = "cafienne_definition_source"
+  val cassandraTimeout: Timeout = Timeout(15.seconds)
+  override implicit val ec: ExecutionContext = scala.concurrent.ExecutionContext.global
+
+  // First create the schema inside the akka keyspace.
+  Await.result(readJournal.session.underlying().map(createSchema), cassandraTimeout.duration)
+
+  override def read(hash: String): Future[Option[String]] = {
+    val select = QueryBuilder.selectFrom(keyspace, sourceTable).column("source").whereColumn("hash").isEqualTo(literal(hash)).build()
+    readJournal.session.selectOne(select).map(_.map(_.getString("source")))
+  }
+
+  override def store(hash: String, source: String): Future[Done] = {
+    logger.whenDebugEnabled(logger.debug("Storing definition source with hash " + hash))
+    val insert = QueryBuilder.insertInto(keyspace, sourceTable)
+      .value("hash", literal(hash))
+      .value("source", literal(source))
+      .value("created_on", literal(Instant.now())).build()
+    readJournal.session.executeWrite(insert)
+  }
+
+  private def createSchema(session: SyncCqlSession): Unit = {
+    val sourceDDL: SimpleStatement = SchemaBuilder.createTable(keyspace, sourceTable).ifNotExists()
+      .withPartitionKey("hash", DataTypes.TEXT)
+      .withColumn("source", DataTypes.TEXT)
+      .withColumn("created_on", DataTypes.TIMESTAMP).build()
+
+    logger.warn(s"Creating table $sourceTable: " + sourceDDL)
+    session.execute(sourceDDL)
+  }
+}
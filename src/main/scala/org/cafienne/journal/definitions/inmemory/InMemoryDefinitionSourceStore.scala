@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.journal.definitions.inmemory
+
+import akka.Done
+import org.cafienne.journal.definitions.DefinitionSourceStore
+
+import scala.collection.concurrent.TrieMap
+import scala.concurrent.Future
+
+class InMemoryDefinitionSourceStore extends DefinitionSourceStore {
+  val sources = new TrieMap[String, String]()
+
+  override def read(hash: String): Future[Option[String]] = Future.successful(sources.get(hash))
+
+  override def store(hash: String, source: String): Future[Done] = {
+    sources.putIfAbsent(hash, source)
+    Future.successful(Done)
+  }
+}
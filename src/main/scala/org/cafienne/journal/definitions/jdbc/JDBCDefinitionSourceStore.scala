@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.journal.definitions.jdbc
+
+import akka.Done
+import org.cafienne.infrastructure.Cafienne
+import org.cafienne.infrastructure.jdbc.CafienneJDBCConfig
+import org.cafienne.journal.definitions.DefinitionSourceStore
+import slick.basic.DatabaseConfig
+import slick.jdbc.JdbcProfile
+
+import java.time.Instant
+import scala.concurrent.{ExecutionContext, Future}
+
+final case class DefinitionSourceRecord(hash: String, source: String, createdOn: Instant)
+
+class JDBCDefinitionSourceStore extends DefinitionSourceStore with CafienneJDBCConfig {
+  override lazy val dbConfig: DatabaseConfig[JdbcProfile] = DatabaseConfig.forConfig(Cafienne.config.repository.sourceStore)
+
+  import dbConfig.profile.api._
+
+  override implicit val ec: ExecutionContext = db.ioExecutionContext
+
+  final class DefinitionSourceTable(tag: Tag) extends CafienneTable[DefinitionSourceRecord](tag, "definition_source") {
+
+    def hash = idColumn[String]("hash", O.PrimaryKey)
+
+    def source = jsonColumn[String]("source")
+
+    def createdOn = column[Instant]("created_on")
+
+    def * = (hash, source, createdOn).mapTo[DefinitionSourceRecord]
+  }
+
+  override def read(hash: String): Future[Option[String]] = {
+    db.run(TableQuery[DefinitionSourceTable].filter(_.hash === hash).map(_.source).result.headOption)
+  }
+
+  override def store(hash: String, source: String): Future[Done] = {
+    logger.debug("Storing definition source with hash " + hash)
+    // Content is immutable for a given hash, so an upsert is only needed to be idempotent
+    db.run(TableQuery[DefinitionSourceTable].insertOrUpdate(DefinitionSourceRecord(hash, source, Instant.now))).map(_ => Done)
+  }
+}
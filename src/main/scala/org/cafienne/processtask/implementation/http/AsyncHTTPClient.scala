@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.processtask.implementation.http
+
+import akka.actor.ActorSystem
+import akka.http.scaladsl.Http
+import akka.http.scaladsl.model._
+import akka.http.scaladsl.model.headers.RawHeader
+import akka.http.scaladsl.settings.{ClientConnectionSettings, ConnectionPoolSettings}
+import akka.pattern.after
+import com.typesafe.scalalogging.LazyLogging
+import org.cafienne.infrastructure.Cafienne
+import org.cafienne.infrastructure.config.engine.HttpClientConfig
+import org.cafienne.json.{Value, ValueMap}
+
+import java.net.URL
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.{CompletionStage, TimeoutException}
+import scala.concurrent.{ExecutionContext, Future}
+import scala.jdk.CollectionConverters._
+import scala.jdk.FutureConverters._
+
+/**
+  * Non-blocking http client for HTTPCall process tasks, running on the Akka HTTP host connection pools.
+  * The outcome of a call is given as a ValueMap, so that it can be sent as a command to the ProcessTaskActor.
+  */
+object AsyncHTTPClient extends LazyLogging {
+  val CODE = "code"
+  val MESSAGE = "message"
+  val HEADERS = "headers"
+  val PAYLOAD = "payload"
+  val ERROR = "error"
+  val EXCEPTION = "exception"
+
+  private val contentHeaders = Set("content-type", "content-length")
+
+  def send(system: ActorSystem, method: String, url: URL, headers: java.util.Map[String, String], payload: String): CompletionStage[ValueMap] = {
+    send(system, method, url, headers, payload, Cafienne.config.engine.httpClient)
+  }
+
+  def send(system: ActorSystem, method: String, url: URL, headers: java.util.Map[String, String], payload: String, config: HttpClientConfig): CompletionStage[ValueMap] = {
+    implicit val ec: ExecutionContext = system.dispatcher
+
+    val poolSettings = ConnectionPoolSettings(system)
+      .withMaxConnections(config.maxConnectionsPerHost)
+      .withMaxOpenRequests(config.maxOpenRequestsPerHost)
+      .withConnectionSettings(ClientConnectionSettings(system).withConnectingTimeout(config.connectTimeout))
+
+    val call: Future[ValueMap] = Future(createRequest(method, url, headers, payload)).flatMap(request => {
+      Http(system).singleRequest(request, settings = poolSettings).flatMap(response => {
+        response.entity.withSizeLimit(config.maxResponseSize).toStrict(config.requestTimeout).map(entity => success(response, entity))
+      })
+    })
+    val timeout = after(config.requestTimeout)(Future.failed(new TimeoutException(s"No response from $url within ${config.requestTimeout}")))(system)
+
+    Future.firstCompletedOf(Seq(call, timeout)).recover {
+      case t: Throwable =>
+        logger.whenDebugEnabled(logger.debug(s"Failure during http call $method $url", t))
+        new ValueMap(ERROR, s"Failure during http call to $url: ${t.getMessage}", EXCEPTION, Value.convert(t))
+    }.asJava
+  }
+
+  private def createRequest(method: String, url: URL, headers: java.util.Map[String, String], payload: String): HttpRequest = {
+    val httpMethod = HttpMethods.getForKeyCaseInsensitive(method).getOrElse(HttpMethod.custom(method.toUpperCase))
+    val requestHeaders = headers.asScala.filterNot(header => contentHeaders.contains(header._1.toLowerCase)).map(header => RawHeader(header._1, header._2)).toList
+    val entity = if (payload == null || payload.isBlank) {
+      HttpEntity.Empty
+    } else {
+      // Same default as HttpURLConnection in the blocking implementation
+      val contentType = headers.asScala.find(_._1.equalsIgnoreCase("content-type"))
+        .flatMap(header => ContentType.parse(header._2).toOption)
+        .getOrElse(MediaTypes.`application/x-www-form-urlencoded`.toContentTypeWithMissingCharset)
+      HttpEntity(contentType, payload.getBytes(StandardCharsets.UTF_8))
+    }
+    HttpRequest(httpMethod, Uri(url.toString), requestHeaders, entity)
+  }
+
+  private def success(response: HttpResponse, entity: HttpEntity.Strict): ValueMap = {
+    val headers = new ValueMap()
+    val allHeaders = response.headers.map(header => (header.name, header.value)) ++ Seq("Content-Type" -> entity.contentType.value, "Content-Length" -> entity.data.length.toString)
+    allHeaders.groupMap(_._1)(_._2).foreach(header => headers.put(header._1, Value.convert(header._2.asJava)))
+    new ValueMap(CODE, response.status.intValue, MESSAGE, response.status.reason, HEADERS, headers, PAYLOAD, entity.data.utf8String)
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.querydb.materializer
+
+import akka.Done
+
+import scala.concurrent.Future
+
+/**
+  * A group of transactions that is committed to the database in a single transaction.
+  * Transactions join the group one after another; when a member transaction commits, its statements
+  * are handed over to the group, and the commit completes when the group has been flushed.
+  */
+trait CommitGroup {
+  /**
+    * Returns a future that completes when the next member transaction hands over its statements.
+    */
+  def nextCommit(): Future[Done]
+
+  /**
+    * Write the statements of all member transactions to the database.
+    */
+  def flush(): Future[Done]
+
+  /**
+    * Abort the group; the commits of all member transactions will fail with the cause.
+    */
+  def fail(cause: Throwable): Unit
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.querydb.materializer
+
+import akka.persistence.query.Offset
+
+import java.util
+
+/**
+  * When batches are materialized in parallel lanes, a batch may be committed before batches with a lower offset
+  * in other lanes. The offset stored with a batch must therefore not be its own offset, but the highest offset
+  * up to which all batches have been committed (or are in the transaction being committed).
+  * After a restart, at most the batches that were in flight will be materialized again.
+  *
+  * @param startOffset The offset from which the sink started reading events
+  */
+class LaneOffsetTracker(startOffset: Offset) {
+  // Batches in the order in which they were read from the journal, with a flag indicating whether they have been committed
+  private val pending = new util.LinkedHashMap[QueryDBEventBatch, Boolean]()
+  private var committedOffset: Offset = startOffset
+
+  def register(batch: QueryDBEventBatch): QueryDBEventBatch = synchronized {
+    pending.put(batch, false)
+    batch.offsetTracker = Some(this)
+    batch
+  }
+
+  def completed(batch: QueryDBEventBatch): Unit = synchronized {
+    pending.put(batch, true)
+    val iterator = pending.entrySet().iterator()
+    var done = false
+    while (!done && iterator.hasNext) {
+      val entry = iterator.next()
+      if (entry.getValue) {
+        committedOffset = entry.getKey.events.last.offset
+        iterator.remove()
+      } else {
+        done = true
+      }
+    }
+  }
+
+  /**
+    * Returns the highest offset up to which all batches are committed, assuming the given batch commits as well.
+    */
+  def safeOffset(batch: QueryDBEventBatch): Offset = synchronized {
+    var offset = committedOffset
+    val iterator = pending.entrySet().iterator()
+    var done = false
+    while (!done && iterator.hasNext) {
+      val entry = iterator.next()
+      if (entry.getValue || (entry.getKey eq batch)) {
+        offset = entry.getKey.events.last.offset
+      } else {
+        done = true
+      }
+    }
+    offset
+  }
+
+  def inFlight: Int = synchronized(pending.size())
+}
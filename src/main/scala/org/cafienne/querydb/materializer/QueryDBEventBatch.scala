@@ -18,13 +18,31 @@
 package org.cafienne.querydb.materializer
 
 import akka.Done
-import org.cafienne.actormodel.event.CommitEvent
+import akka.persistence.query.Offset
+import org.cafienne.actormodel.event.{ActorModified, CommitEvent}
 import org.cafienne.infrastructure.cqrs.ModelEventEnvelope
 import org.cafienne.infrastructure.cqrs.batch.EventBatch
 
 import scala.concurrent.Future
 
 trait QueryDBEventBatch extends EventBatch {
+  /**
+    * Set when the batch is materialized in one of the lanes of a partitioned sink
+    */
+  var offsetTracker: Option[LaneOffsetTracker] = None
+
+  /**
+    * Offset to be stored in the transaction of this batch.
+    */
+  def offsetToCommit: Offset = offsetTracker.map(_.safeOffset(this)).getOrElse(events.last.offset)
+
+  def dBTransaction: QueryDBTransaction
+
+  /**
+    * Only batches that end with a regular modification can be committed as part of a group;
+    * other commit events (e.g. platform updates) run their own database transaction.
+    */
+  def groupable: Boolean = commitEvent.isInstanceOf[ActorModified]
 
   def handleEvent(envelope: ModelEventEnvelope): Future[Done]
 
@@ -17,22 +17,130 @@
 
 package org.cafienne.querydb.materializer
 
-import akka.stream.scaladsl.Sink
+import akka.persistence.query.Offset
+import akka.stream.scaladsl.{Flow, Sink, Source}
+import akka.{Done, NotUsed}
 import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.infrastructure.cqrs.batch.EventBatchSource
 import org.cafienne.system.health.HealthMonitor
+import org.cafienne.system.metrics.MetricsMonitor
 
+import java.util.concurrent.TimeUnit
+import scala.collection.mutable.ListBuffer
+import scala.concurrent.Future
+import scala.concurrent.duration.FiniteDuration
 import scala.util.{Failure, Success}
 
 trait QueryDBEventSink extends EventBatchSource[QueryDBEventBatch] with LazyLogging {
   import scala.concurrent.ExecutionContext.Implicits.global
 
+  val storage: QueryDBStorage
+
+  private lazy val metrics = MetricsMonitor.addMeasure("query-db")
+
   /**
     * Start reading and processing events
     */
   def start(): Unit = {
-    batches
-      .mapAsync(1)(_.consume()) // Now handle the batch (would be better if that is done through a real Sink, not yet sure how to achieve that - make EventBatch extend Sink???)
+    if (lanes > 1) {
+      getOffset.map(startPartitioned).onComplete {
+        case Success(_) => //
+        case Failure(ex) => reportUnhealthy(ex)
+      }
+    } else {
+      run(batches
+        .via(consumer) // Now handle the batch (would be better if that is done through a real Sink, not yet sure how to achieve that - make EventBatch extend Sink???)
+        .map(_ => Done))
+    }
+  }
+
+  /**
+    * Number of lanes in which batches are materialized concurrently. Batches of the same persistence id always go to the same lane.
+    */
+  def lanes: Int = 1
+
+  /**
+    * Maximum number of batches that are committed in a single database transaction.
+    */
+  def groupCommitSize: Int = 1
+
+  /**
+    * Maximum time to wait for a group commit to fill up.
+    */
+  def groupCommitDelay: FiniteDuration = FiniteDuration(0, TimeUnit.MILLISECONDS)
+
+  private def startPartitioned(startOffset: Offset): Unit = {
+    logger.info(s"${getClass.getSimpleName} materializes events in $lanes lanes")
+    val tracker = new LaneOffsetTracker(startOffset)
+    metrics.gauge(s"${getClass.getSimpleName}.in-flight", () => tracker.inFlight)
+    run(batches
+      .map(tracker.register) // Register in the order of the journal, so that the tracker can determine the safe offset
+      .groupBy(lanes, batch => Math.floorMod(batch.persistenceId.hashCode, lanes))
+      .via(consumer)
+      .map(consumed => {
+        consumed.foreach(tracker.completed)
+        Done
+      })
+      .mergeSubstreams)
+  }
+
+  /**
+    * Flow that consumes the batches, and emits them after they have been committed to the database.
+    */
+  private def consumer: Flow[QueryDBEventBatch, Seq[QueryDBEventBatch], NotUsed] = {
+    if (groupCommitSize > 1) {
+      Flow[QueryDBEventBatch].groupedWithin(groupCommitSize, groupCommitDelay).mapAsync(1)(consumeGroup)
+    } else {
+      Flow[QueryDBEventBatch].mapAsync(1)(batch => batch.consume().map(_ => Seq(batch)))
+    }
+  }
+
+  private[materializer] def consumeGroup(batches: Seq[QueryDBEventBatch]): Future[Seq[QueryDBEventBatch]] = {
+    // Consecutive groupable batches are committed together, other batches are consumed on their own in between.
+    val segments = ListBuffer[ListBuffer[QueryDBEventBatch]]()
+    batches.foreach(batch => {
+      if (batch.groupable && segments.nonEmpty && segments.last.head.groupable) {
+        segments.last += batch
+      } else {
+        segments += ListBuffer(batch)
+      }
+    })
+    segments.foldLeft(Future.successful[Done](Done))((previous, segment) => previous.flatMap(_ => {
+      if (segment.size > 1) commitTogether(segment.toSeq) else segment.head.consume()
+    })).map(_ => batches)
+  }
+
+  private def commitTogether(batches: Seq[QueryDBEventBatch]): Future[Done] = {
+    val group = storage.createCommitGroup()
+    val commits = ListBuffer[Future[Done]]()
+    // Batches are handled one after another, in order to keep the statements in the order of the events.
+    //  The next batch can start as soon as the previous one has handed over its statements to the group,
+    //  and the commits of the batches complete when the group is written to the database.
+    val handled = batches.foldLeft(Future.successful[Done](Done))((previous, batch) => previous.flatMap(_ => {
+      batch.dBTransaction.join(group)
+      val handedOver = group.nextCommit()
+      val committed = batch.consume()
+      commits += committed
+      Future.firstCompletedOf(Seq(handedOver, committed))
+    }))
+
+    handled
+      .flatMap(_ => group.flush())
+      .recoverWith {
+        case failure: Throwable =>
+          group.fail(failure)
+          Future.failed(failure)
+      }
+      .flatMap(_ => Future.sequence(commits.toSeq))
+      .map(_ => {
+        metrics.increment(s"${getClass.getSimpleName}.group-commits")
+        metrics.add(s"${getClass.getSimpleName}.grouped-batches", batches.size)
+        Done
+      })
+  }
+
+  private def run(source: Source[Done, NotUsed]): Unit = {
+    source
       .runWith(Sink.ignore)
       .onComplete {
         case Success(_) => //
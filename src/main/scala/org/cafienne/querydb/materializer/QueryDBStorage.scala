@@ -36,5 +36,7 @@ trait QueryDBStorage {
 
   def createTenantTransaction(tenant: String): TenantStorageTransaction
 
+  def createCommitGroup(): CommitGroup
+
   def getOffset(offsetName: String): Future[Offset]
 }
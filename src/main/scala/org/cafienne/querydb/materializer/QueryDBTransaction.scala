@@ -27,4 +27,10 @@ trait QueryDBTransaction {
   def upsert(record: OffsetRecord): Unit
 
   def commit(): Future[Done]
+
+  /**
+    * Let the transaction become part of the group, so that it is committed along with the other members.
+    * By default, transactions are committed on their own.
+    */
+  def join(group: CommitGroup): Unit = {}
 }
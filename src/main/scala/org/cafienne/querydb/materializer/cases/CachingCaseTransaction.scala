@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.querydb.materializer.cases
+
+import akka.Done
+import org.cafienne.cmmn.actorapi.command.platform.NewUserInformation
+import org.cafienne.infrastructure.cqrs.offset.OffsetRecord
+import org.cafienne.querydb.materializer.CommitGroup
+import org.cafienne.querydb.materializer.cases.team.CaseTeamMemberKey
+import org.cafienne.querydb.record._
+
+import scala.concurrent.Future
+import scala.util.Failure
+
+/**
+  * Case storage transaction that reads records from the projection cache before going to the database,
+  * and writes the records it upserts through into the cache.
+  * If the transaction fails to commit, the case is removed from the cache, since it may hold records that are not in the database.
+  */
+class CachingCaseTransaction(caseInstanceId: String, transaction: CaseStorageTransaction, cache: CaseProjectionCache) extends CaseStorageTransaction {
+  import scala.concurrent.ExecutionContext.Implicits.global
+
+  override def upsert(record: CaseRecord): Unit = {
+    transaction.upsert(record)
+    cache.put(record)
+  }
+
+  override def upsert(record: CaseDefinitionRecord): Unit = transaction.upsert(record)
+
+  override def upsert(record: TaskRecord): Unit = {
+    transaction.upsert(record)
+    cache.put(record)
+  }
+
+  override def upsert(record: PlanItemRecord): Unit = {
+    transaction.upsert(record)
+    cache.put(record)
+  }
+
+  override def upsert(record: CaseFileRecord): Unit = {
+    transaction.upsert(record)
+    cache.put(record)
+  }
+
+  override def upsert(record: CaseFileItemRecord): Unit = transaction.upsert(record)
+
+  override def upsert(record: CaseBusinessIdentifierRecord): Unit = transaction.upsert(record)
+
+  override def upsert(record: CaseRoleRecord): Unit = transaction.upsert(record)
+
+  override def upsert(record: CaseTeamUserRecord): Unit = transaction.upsert(record)
+
+  override def upsert(record: CaseTeamTenantRoleRecord): Unit = transaction.upsert(record)
+
+  override def upsert(record: CaseTeamGroupRecord): Unit = transaction.upsert(record)
+
+  override def upsert(record: OffsetRecord): Unit = transaction.upsert(record)
+
+  override def delete(record: CaseTeamUserRecord): Unit = transaction.delete(record)
+
+  override def delete(record: CaseTeamTenantRoleRecord): Unit = transaction.delete(record)
+
+  override def delete(record: CaseTeamGroupRecord): Unit = transaction.delete(record)
+
+  override def deleteTaskRecord(taskId: String): Unit = {
+    transaction.deleteTaskRecord(taskId)
+    cache.removeTask(caseInstanceId, taskId)
+  }
+
+  override def deleteCaseTeamMember(key: CaseTeamMemberKey): Unit = transaction.deleteCaseTeamMember(key)
+
+  override def deletePlanItemRecord(planItemId: String): Unit = {
+    transaction.deletePlanItemRecord(planItemId)
+    cache.removePlanItem(caseInstanceId, planItemId)
+  }
+
+  override def deleteCaseFileItem(caseInstanceId: String, name: String): Unit = transaction.deleteCaseFileItem(caseInstanceId, name)
+
+  override def removeCaseRoles(caseInstanceId: String): Unit = transaction.removeCaseRoles(caseInstanceId)
+
+  override def getPlanItem(planItemId: String): Future[Option[PlanItemRecord]] = {
+    readThrough[PlanItemRecord](cache.getPlanItem(caseInstanceId, planItemId), transaction.getPlanItem(planItemId), cache.put)
+  }
+
+  override def getCaseFile(caseInstanceId: String): Future[Option[CaseFileRecord]] = {
+    readThrough[CaseFileRecord](cache.getCaseFile(caseInstanceId), transaction.getCaseFile(caseInstanceId), cache.put)
+  }
+
+  override def getCaseFileItem(caseInstanceId: String, name: String): Future[Option[CaseFileItemRecord]] = transaction.getCaseFileItem(caseInstanceId, name)
+
+  override def getCaseInstance(caseInstanceId: String): Future[Option[CaseRecord]] = {
+    readThrough[CaseRecord](cache.getCaseInstance(caseInstanceId), transaction.getCaseInstance(caseInstanceId), cache.put)
+  }
+
+  override def getTask(taskId: String): Future[Option[TaskRecord]] = {
+    readThrough[TaskRecord](cache.getTask(caseInstanceId, taskId), transaction.getTask(taskId), cache.put)
+  }
+
+  private def readThrough[T](cached: Option[T], query: => Future[Option[T]], store: T => Unit): Future[Option[T]] = {
+    cached match {
+      case Some(record) => Future.successful(Some(record))
+      case None => query.map(result => {
+        result.foreach(store)
+        result
+      })
+    }
+  }
+
+  override def updateCaseUserInformation(caseId: String, info: Seq[NewUserInformation], offset: OffsetRecord): Future[Done] = {
+    // User ids are changed inside the database, hence the cached records are no longer valid
+    cache.invalidate(caseId)
+    transaction.updateCaseUserInformation(caseId, info, offset).andThen(_ => cache.invalidate(caseId))
+  }
+
+  override def commit(): Future[Done] = {
+    transaction.commit().andThen {
+      case Failure(_) => cache.invalidate(caseInstanceId)
+    }
+  }
+
+  override def join(group: CommitGroup): Unit = transaction.join(group)
+}
@@ -39,7 +39,10 @@ class CaseEventBatch(val sink: CaseEventSink, override val persistenceId: String
 
   val caseInstanceId: String = persistenceId
   lazy val tenant: String = events.head.event.tenant()
-  val dBTransaction: CaseStorageTransaction = storage.createCaseTransaction(persistenceId)
+  val dBTransaction: CaseStorageTransaction = {
+    val transaction = storage.createCaseTransaction(persistenceId)
+    CaseEventSink.projectionCache.fold(transaction)(cache => new CachingCaseTransaction(caseInstanceId, transaction, cache))
+  }
 
   private val caseTeamProjection = new CaseTeamProjection(this)
   private val caseFileProjection = new CaseFileProjection(this)
@@ -76,13 +79,13 @@ class CaseEventBatch(val sink: CaseEventSink, override val persistenceId: String
     caseFileProjection.prepareCommit()
     casePlanProjection.prepareCommit(caseModified)
     // Update the offset storage with the latest & greatest offset we handled
-    dBTransaction.upsert(createOffsetRecord(envelope.offset))
+    dBTransaction.upsert(createOffsetRecord(offsetToCommit))
 
     // Commit and then inform the last modified registration
     dBTransaction.commit().andThen(_ => CaseReader.lastModifiedRegistration.handle(caseModified))
   }
 
   private def updateUserIds(event: CaseAppliedPlatformUpdate, envelope: ModelEventEnvelope): Future[Done] = {
-    dBTransaction.updateCaseUserInformation(event.getCaseInstanceId, event.newUserInformation.info, createOffsetRecord(envelope.offset))
+    dBTransaction.updateCaseUserInformation(event.getCaseInstanceId, event.newUserInformation.info, createOffsetRecord(offsetToCommit))
   }
 }
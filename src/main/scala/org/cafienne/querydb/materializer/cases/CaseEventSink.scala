@@ -21,20 +21,36 @@ import akka.actor.ActorSystem
 import akka.persistence.query.Offset
 import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.cmmn.actorapi.event.CaseEvent
+import org.cafienne.infrastructure.Cafienne
 import org.cafienne.querydb.materializer.{QueryDBEventSink, QueryDBStorage}
 
 import scala.concurrent.Future
+import scala.concurrent.duration.FiniteDuration
 
-class CaseEventSink(override val system: ActorSystem, storage: QueryDBStorage) extends QueryDBEventSink with LazyLogging {
+class CaseEventSink(override val system: ActorSystem, val storage: QueryDBStorage) extends QueryDBEventSink with LazyLogging {
   override val tag: String = CaseEvent.TAG
 
   override def getOffset: Future[Offset] = storage.getOffset(CaseEventSink.offsetName)
 
+  override def lanes: Int = Cafienne.config.queryDB.materializer.lanes
+
+  override def groupCommitSize: Int = Cafienne.config.queryDB.materializer.groupCommitSize
+
+  override def groupCommitDelay: FiniteDuration = Cafienne.config.queryDB.materializer.groupCommitDelay
+
   override def createBatch(persistenceId: String): CaseEventBatch = new CaseEventBatch(this, persistenceId, storage)
 }
 
 object CaseEventSink {
   val offsetName = "CaseEventSink"
+
+  /**
+    * Cache with the records of recently materialized cases, if enabled
+    */
+  lazy val projectionCache: Option[CaseProjectionCache] = {
+    val maxSize = Cafienne.config.queryDB.materializer.projectionCacheSize
+    if (maxSize > 0) Some(new CaseProjectionCache(maxSize)) else None
+  }
 }
 
 trait CaseEventMaterializer {
@@ -22,7 +22,9 @@ import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.cmmn.actorapi.event.definition.CaseDefinitionEvent
 import org.cafienne.cmmn.actorapi.event.migration.CaseDefinitionMigrated
 import org.cafienne.cmmn.actorapi.event.{CaseDefinitionApplied, CaseEvent, CaseModified}
+import org.cafienne.cmmn.definition.DefinitionsCache
 import org.cafienne.cmmn.instance.State
+import org.cafienne.infrastructure.Cafienne
 import org.cafienne.querydb.materializer.cases.file.CaseFileProjection
 import org.cafienne.querydb.record.{CaseDefinitionRecord, CaseRecord, CaseRoleRecord}
 
@@ -42,7 +44,7 @@ class CaseProjection(override val batch: CaseEventBatch, caseFileProjection: Cas
   }
 
   private def createCaseInstance(event: CaseDefinitionApplied): Future[Done] = {
-    upsertCaseDefinitionRecords(event)
+    val definitionStored = upsertCaseDefinitionRecords(event)
     this.caseInstance = Some(CaseRecord(
       id = event.getCaseInstanceId,
       tenant = event.tenant,
@@ -57,24 +59,32 @@ class CaseProjection(override val batch: CaseEventBatch, caseFileProjection: Cas
       createdOn = event.createdOn
     ))
     caseFileProjection.handleCaseCreation()
-    Future.successful(Done)
+    definitionStored
   }
 
-  private def upsertCaseDefinitionRecords(event: CaseDefinitionEvent): Unit = {
+  private def upsertCaseDefinitionRecords(event: CaseDefinitionEvent): Future[Done] = {
     import scala.jdk.CollectionConverters._
 
     // First upsert the CaseDefinition, then all roles
-    caseDefinition = Some(CaseDefinitionRecord(event.getActorId, event.getCaseName, event.getDefinition.documentation.text, event.getDefinition.getId, event.getDefinition.getDefinitionsDocument.getSource, event.tenant, event.getTimestamp, event.getUser.id))
+    val definitionsDocument = event.getDefinition.getDefinitionsDocument
     val roles = event.getDefinition.getCaseTeamModel.getCaseRoles.asScala.toSeq
     roles.foreach(role => dBTransaction.upsert(CaseRoleRecord(event.getCaseInstanceId, event.tenant, role.getName, assigned = false)))
+    if (Cafienne.config.repository.storeByReference) {
+      // Only keep a reference to the deduplicated source, rather than a copy of the source per case.
+      // Events written before by-reference was enabled embed the source, so it may not yet be in the store.
+      caseDefinition = Some(CaseDefinitionRecord(event.getActorId, event.getCaseName, event.getDefinition.documentation.text, event.getDefinition.getId, "", event.tenant, event.getTimestamp, event.getUser.id, Some(definitionsDocument.getSourceHash)))
+      DefinitionsCache.storeByReference(definitionsDocument)
+    } else {
+      caseDefinition = Some(CaseDefinitionRecord(event.getActorId, event.getCaseName, event.getDefinition.documentation.text, event.getDefinition.getId, definitionsDocument.getSource, event.tenant, event.getTimestamp, event.getUser.id))
+      Future.successful(Done)
+    }
   }
 
   private def migrateCaseDefinition(event: CaseDefinitionMigrated): Future[Done] = {
     // Remove existing roles
     dBTransaction.removeCaseRoles(event.getCaseInstanceId)
     // Upsert case definition will add the new roles
-    upsertCaseDefinitionRecords(event)
-    changeCaseRecord(event, instance => instance.copy(caseName = event.getDefinition.getName))
+    upsertCaseDefinitionRecords(event).flatMap(_ => changeCaseRecord(event, instance => instance.copy(caseName = event.getDefinition.getName)))
   }
 
   private def updateCaseModified(evt: CaseModified): Future[Done] = {
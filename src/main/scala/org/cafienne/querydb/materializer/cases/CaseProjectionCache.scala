@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.querydb.materializer.cases
+
+import com.typesafe.scalalogging.LazyLogging
+import org.cafienne.querydb.record.{CaseFileRecord, CaseRecord, PlanItemRecord, TaskRecord}
+import org.cafienne.system.metrics.MetricsMonitor
+
+import java.util
+import scala.collection.mutable
+
+/**
+  * Bounded cache with the records that have been materialized recently, grouped per case instance.
+  * When the next batch of events of a case comes in, the projections can find the current records in here,
+  * instead of reading them from the database.
+  * The cache is written through when records are upserted, and evicts the least recently used cases
+  * when the estimated size of the records exceeds the maximum size.
+  *
+  * @param maxSize Maximum estimated size (in bytes) of the cached records
+  */
+class CaseProjectionCache(val maxSize: Long) extends LazyLogging {
+  private val metrics = MetricsMonitor.addMeasure("query-db")
+  private val cases = new util.LinkedHashMap[String, CachedCase](16, 0.75f, true)
+  private var size: Long = 0
+
+  metrics.gauge("projection-cache.cases", () => synchronized(cases.size()))
+  metrics.gauge("projection-cache.size", () => synchronized(size))
+
+  /**
+    * Fixed size estimate of a record, on top of the size of the case file json
+    */
+  private val recordSize = 512
+
+  private class CachedCase {
+    var caseRecord: Option[CaseRecord] = None
+    var caseFile: Option[CaseFileRecord] = None
+    val planItems: mutable.Map[String, PlanItemRecord] = mutable.Map()
+    val tasks: mutable.Map[String, TaskRecord] = mutable.Map()
+
+    def estimatedSize: Long = {
+      caseRecord.fold(0)(_ => recordSize) + caseFile.fold(0)(_.data.length * 2 + recordSize) + (planItems.size + tasks.size) * recordSize
+    }
+  }
+
+  private def read[T](caseInstanceId: String, reader: CachedCase => Option[T]): Option[T] = synchronized {
+    val found = Option(cases.get(caseInstanceId)).flatMap(reader)
+    metrics.increment(if (found.isDefined) "projection-cache.hits" else "projection-cache.misses")
+    found
+  }
+
+  private def write(caseInstanceId: String, writer: CachedCase => Unit): Unit = synchronized {
+    val cachedCase = Option(cases.get(caseInstanceId)).getOrElse({
+      val newCase = new CachedCase
+      cases.put(caseInstanceId, newCase)
+      newCase
+    })
+    size -= cachedCase.estimatedSize
+    writer(cachedCase)
+    size += cachedCase.estimatedSize
+    evict()
+  }
+
+  private def evict(): Unit = {
+    val iterator = cases.values().iterator()
+    while (size > maxSize && iterator.hasNext) {
+      size -= iterator.next().estimatedSize
+      iterator.remove()
+      metrics.increment("projection-cache.evictions")
+    }
+  }
+
+  def getCaseInstance(caseInstanceId: String): Option[CaseRecord] = read(caseInstanceId, _.caseRecord)
+
+  def getCaseFile(caseInstanceId: String): Option[CaseFileRecord] = read(caseInstanceId, _.caseFile)
+
+  def getPlanItem(caseInstanceId: String, planItemId: String): Option[PlanItemRecord] = read(caseInstanceId, _.planItems.get(planItemId))
+
+  def getTask(caseInstanceId: String, taskId: String): Option[TaskRecord] = read(caseInstanceId, _.tasks.get(taskId))
+
+  def put(record: CaseRecord): Unit = write(record.id, _.caseRecord = Some(record))
+
+  def put(record: CaseFileRecord): Unit = write(record.caseInstanceId, _.caseFile = Some(record))
+
+  def put(record: PlanItemRecord): Unit = write(record.caseInstanceId, _.planItems.put(record.id, record))
+
+  def put(record: TaskRecord): Unit = write(record.caseInstanceId, _.tasks.put(record.id, record))
+
+  def removePlanItem(caseInstanceId: String, planItemId: String): Unit = write(caseInstanceId, _.planItems.remove(planItemId))
+
+  def removeTask(caseInstanceId: String, taskId: String): Unit = write(caseInstanceId, _.tasks.remove(taskId))
+
+  /**
+    * Remove all records of the case, e.g. when it is archived or deleted, or when writing to the database failed.
+    */
+  def invalidate(caseInstanceId: String): Unit = synchronized {
+    Option(cases.remove(caseInstanceId)).foreach(removed => size -= removed.estimatedSize)
+  }
+}
@@ -37,6 +37,8 @@ trait CaseStorageTransaction extends QueryDBTransaction {
 
   def upsert(record: CaseFileRecord): Unit
 
+  def upsert(record: CaseFileItemRecord): Unit
+
   def upsert(record: CaseBusinessIdentifierRecord): Unit
 
   def upsert(record: CaseRoleRecord): Unit
@@ -59,12 +61,16 @@ trait CaseStorageTransaction extends QueryDBTransaction {
 
   def deletePlanItemRecord(planItemId: String): Unit
 
+  def deleteCaseFileItem(caseInstanceId: String, name: String): Unit
+
   def removeCaseRoles(caseInstanceId: String): Unit
 
   def getPlanItem(planItemId: String): Future[Option[PlanItemRecord]]
 
   def getCaseFile(caseInstanceId: String): Future[Option[CaseFileRecord]]
 
+  def getCaseFileItem(caseInstanceId: String, name: String): Future[Option[CaseFileItemRecord]]
+
   def getCaseInstance(caseInstanceId: String): Future[Option[CaseRecord]]
 
   def getTask(taskId: String): Future[Option[TaskRecord]]
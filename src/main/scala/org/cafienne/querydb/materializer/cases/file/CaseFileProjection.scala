@@ -21,13 +21,15 @@ import akka.Done
 import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.cmmn.actorapi.event.file._
 import org.cafienne.cmmn.actorapi.event.migration.{CaseFileItemDropped, CaseFileItemMigrated}
+import org.cafienne.infrastructure.Cafienne
 import org.cafienne.json.{JSONReader, ValueMap}
 import org.cafienne.querydb.materializer.cases.{CaseEventBatch, CaseStorageTransaction}
-import org.cafienne.querydb.record.{CaseBusinessIdentifierRecord, CaseFileRecord}
+import org.cafienne.querydb.record.{CaseBusinessIdentifierRecord, CaseFileItemRecord, CaseFileRecord}
 
+import scala.collection.mutable
 import scala.concurrent.{ExecutionContext, Future}
 
-class CaseFileProjection(batch: CaseEventBatch)(implicit val executionContext: ExecutionContext) extends LazyLogging {
+class CaseFileProjection(batch: CaseEventBatch, itemizedLayout: Boolean = Cafienne.config.queryDB.itemizedCaseFile)(implicit val executionContext: ExecutionContext) extends LazyLogging {
   lazy val dBTransaction: CaseStorageTransaction = batch.dBTransaction
   lazy val caseInstanceId: String = batch.caseInstanceId
   lazy val tenant: String = batch.tenant
@@ -36,7 +38,17 @@ class CaseFileProjection(batch: CaseEventBatch)(implicit val executionContext: E
   private val bufferedCaseFileEvents = new CaseFileEventBuffer()
   private var caseFile: Option[ValueMap] = None
 
-  def handleCaseCreation(): Unit = setCaseFile(new ValueMap()) // Always create an empty case file
+  // In the items layout, the case file only holds the top level items that are changed in this batch
+  private val changedItems = mutable.Set[String]()
+  private val loadedItems = mutable.Set[String]()
+  private var documentChecked = false
+  private var documentChanged = false
+
+  def handleCaseCreation(): Unit = {
+    setCaseFile(new ValueMap()) // Always create an empty case file
+    documentChecked = true
+    documentChanged = true
+  }
 
   def handleCaseFileEvent(event: CaseFileEvent): Future[Done] = {
     event match {
@@ -60,12 +72,18 @@ class CaseFileProjection(batch: CaseEventBatch)(implicit val executionContext: E
   private def handleCaseFileItemEvent(event: CaseFileItemTransitioned): Future[Done] = {
     bufferedCaseFileEvents.addEvent(event)
     // Fetch the existing case file data, so that we can apply the events to it later on
-    getCaseFile(caseInstanceId).map(_ => Done)
+    val path = event.getPath
+    val changedItem = if (path.isEmpty && event.isInstanceOf[CaseFileItemChildRemoved]) {
+      event.asInstanceOf[CaseFileItemChildRemoved].getChildPath.getRootName
+    } else {
+      path.getRootName
+    }
+    getCaseFile(Seq(changedItem)).map(_ => Done)
   }
 
   private def handleCaseFileMigration(event: CaseFileItemMigrated): Future[Done] = {
     // Fetch the existing case file data, and then change the existing path to which the event is pointing into the new one
-    getCaseFile(caseInstanceId).map(json => {
+    getCaseFile(Seq(event.formerPath.getRootName, event.path.getRootName)).map(json => {
       val parent = event.formerPath.resolveParent(json)
       parent.put(event.path.name, parent.get(event.formerPath.name))
       parent.getValue.remove(event.formerPath.name)
@@ -75,7 +93,7 @@ class CaseFileProjection(batch: CaseEventBatch)(implicit val executionContext: E
 
   private def handleCaseFileDropped(event: CaseFileItemDropped): Future[Done] = {
     // Fetch the existing case file data, and then change the existing path to which the event is pointing into the new one
-    getCaseFile(caseInstanceId).map(json => {
+    getCaseFile(Seq(event.path.getRootName)).map(json => {
       val parent = event.path.resolveParent(json)
       parent.getValue.remove(event.path.name)
     })
@@ -87,8 +105,13 @@ class CaseFileProjection(batch: CaseEventBatch)(implicit val executionContext: E
     data
   }
 
-  private def getCaseFile(caseInstanceId: String): Future[ValueMap] = {
-    if (this.caseFile.isEmpty) {
+  /**
+    * Returns the case file json. In the items layout, this only contains the items with the given names.
+    */
+  private def getCaseFile(itemNames: Seq[String]): Future[ValueMap] = {
+    if (itemizedLayout) {
+      getCaseFileItems(itemNames)
+    } else if (this.caseFile.isEmpty) {
       logger.whenDebugEnabled(logger.debug("Retrieving casefile caseInstanceId={} from database", caseInstanceId))
       dBTransaction.getCaseFile(caseInstanceId).map {
         case Some(record) => JSONReader.parse(record.data)
@@ -99,9 +122,53 @@ class CaseFileProjection(batch: CaseEventBatch)(implicit val executionContext: E
     }
   }
 
+  private def getCaseFileItems(itemNames: Seq[String]): Future[ValueMap] = {
+    val caseFile = this.caseFile.getOrElse(setCaseFile(new ValueMap()))
+    changedItems ++= itemNames
+    val missingItems = itemNames.filterNot(loadedItems.contains).distinct
+    loadedItems ++= missingItems
+    checkCaseFileDocument(caseFile).flatMap(_ => Future.sequence(missingItems.map(name => {
+      logger.whenDebugEnabled(logger.debug("Retrieving casefile item {} in caseInstanceId={} from database", name, caseInstanceId))
+      dBTransaction.getCaseFileItem(caseInstanceId, name).map(_.foreach(record => caseFile.put(name, record.toValue)))
+    }))).map(_ => caseFile)
+  }
+
+  /**
+    * A case that was stored in the document layout keeps its data in the case file record.
+    * In that case all items are moved into separate records, and the document is left empty.
+    */
+  private def checkCaseFileDocument(caseFile: ValueMap): Future[Done] = {
+    if (documentChecked) {
+      Future.successful(Done)
+    } else {
+      documentChecked = true
+      dBTransaction.getCaseFile(caseInstanceId).map {
+        case Some(record) =>
+          val document = record.toValueMap
+          if (!document.getValue.isEmpty) {
+            logger.whenDebugEnabled(logger.debug("Moving casefile of caseInstanceId={} into separate item records", caseInstanceId))
+            document.getValue.forEach((name, value) => {
+              caseFile.put(name, value)
+              loadedItems += name
+              changedItems += name
+            })
+            documentChanged = true
+          }
+          Done
+        case None =>
+          documentChanged = true
+          Done
+      }
+    }
+  }
+
   def prepareCommit(): Unit = {
     // Update case file and identifiers
-    this.caseFile.map(getUpdatedCaseFile).foreach(caseFile => dBTransaction.upsert(caseFile))
+    if (itemizedLayout) {
+      this.caseFile.foreach(updateCaseFileItems)
+    } else {
+      this.caseFile.map(getUpdatedCaseFile).foreach(caseFile => dBTransaction.upsert(caseFile))
+    }
     this.businessIdentifiers.toSeq.foreach(item => dBTransaction.upsert(item))
   }
 
@@ -115,4 +182,21 @@ class CaseFileProjection(batch: CaseEventBatch)(implicit val executionContext: E
     bufferedCaseFileEvents.events.forEach(event => CaseFileMerger.merge(event, caseFileInProgress))
     CaseFileRecord(caseInstanceId, tenant, caseFileInProgress.toString)
   }
+
+  /**
+    * Writes the top level items that are changed in this batch, and an empty case file document if that is not yet there.
+    */
+  private def updateCaseFileItems(caseFileInProgress: ValueMap): Unit = {
+    bufferedCaseFileEvents.events.forEach(event => CaseFileMerger.merge(event, caseFileInProgress))
+    if (documentChanged) {
+      dBTransaction.upsert(CaseFileRecord(caseInstanceId, tenant, new ValueMap().toString))
+    }
+    changedItems.foreach(name => {
+      if (caseFileInProgress.has(name)) {
+        dBTransaction.upsert(CaseFileItemRecord(caseInstanceId, tenant, name, caseFileInProgress.get(name).toString))
+      } else {
+        dBTransaction.deleteCaseFileItem(caseInstanceId, name)
+      }
+    })
+  }
 }
@@ -25,7 +25,7 @@ import org.cafienne.system.CaseSystem
 
 import scala.concurrent.Future
 
-class ConsentGroupEventSink(val caseSystem: CaseSystem, storage: QueryDBStorage) extends QueryDBEventSink with LazyLogging {
+class ConsentGroupEventSink(val caseSystem: CaseSystem, val storage: QueryDBStorage) extends QueryDBEventSink with LazyLogging {
   override val system = caseSystem.system
 
   override val tag: String = ConsentGroupEvent.TAG
@@ -31,25 +31,39 @@ class SlickCaseTransaction extends SlickQueryDBTransaction with CaseStorageTrans
 
   import dbConfig.profile.api._
 
-  override def upsert(record: CaseRecord): Unit = addStatement(TableQuery[CaseInstanceTable].insertOrUpdate(record))
+  private lazy val cases = bulkUpsert[CaseRecord, CaseInstanceTable](TableQuery[CaseInstanceTable])
+  private lazy val caseDefinitions = bulkUpsert[CaseDefinitionRecord, CaseInstanceDefinitionTable](TableQuery[CaseInstanceDefinitionTable])
+  private lazy val tasks = bulkUpsert[TaskRecord, TaskTable](TableQuery[TaskTable])
+  private lazy val planItems = bulkUpsert[PlanItemRecord, PlanItemTable](TableQuery[PlanItemTable])
+  private lazy val caseFiles = bulkUpsert[CaseFileRecord, CaseFileTable](TableQuery[CaseFileTable])
+  private lazy val caseFileItems = bulkUpsert[CaseFileItemRecord, CaseFileItemTable](TableQuery[CaseFileItemTable])
+  private lazy val businessIdentifiers = bulkUpsert[CaseBusinessIdentifierRecord, CaseBusinessIdentifierTable](TableQuery[CaseBusinessIdentifierTable])
+  private lazy val caseRoles = bulkUpsert[CaseRoleRecord, CaseInstanceRoleTable](TableQuery[CaseInstanceRoleTable])
+  private lazy val teamUsers = bulkUpsert[CaseTeamUserRecord, CaseInstanceTeamUserTable](TableQuery[CaseInstanceTeamUserTable])
+  private lazy val teamTenantRoles = bulkUpsert[CaseTeamTenantRoleRecord, CaseInstanceTeamTenantRoleTable](TableQuery[CaseInstanceTeamTenantRoleTable])
+  private lazy val teamGroups = bulkUpsert[CaseTeamGroupRecord, CaseInstanceTeamGroupTable](TableQuery[CaseInstanceTeamGroupTable])
 
-  override def upsert(record: CaseDefinitionRecord): Unit = addStatement(TableQuery[CaseInstanceDefinitionTable].insertOrUpdate(record))
+  override def upsert(record: CaseRecord): Unit = addUpsert(cases, ("case", record.id), record)
 
-  override def upsert(record: TaskRecord): Unit = addStatement(TableQuery[TaskTable].insertOrUpdate(record))
+  override def upsert(record: CaseDefinitionRecord): Unit = addUpsert(caseDefinitions, ("case-definition", record.caseInstanceId), record)
 
-  override def upsert(record: PlanItemRecord): Unit = addStatement(TableQuery[PlanItemTable].insertOrUpdate(record))
+  override def upsert(record: TaskRecord): Unit = addUpsert(tasks, ("task", record.id), record)
 
-  override def upsert(record: CaseFileRecord): Unit = addStatement(TableQuery[CaseFileTable].insertOrUpdate(record))
+  override def upsert(record: PlanItemRecord): Unit = addUpsert(planItems, ("plan-item", record.id), record)
 
-  override def upsert(record: CaseBusinessIdentifierRecord): Unit = addStatement(TableQuery[CaseBusinessIdentifierTable].insertOrUpdate(record))
+  override def upsert(record: CaseFileRecord): Unit = addUpsert(caseFiles, ("case-file", record.caseInstanceId), record)
 
-  override def upsert(record: CaseRoleRecord): Unit = addStatement(TableQuery[CaseInstanceRoleTable].insertOrUpdate(record))
+  override def upsert(record: CaseFileItemRecord): Unit = addUpsert(caseFileItems, ("case-file-item", record.caseInstanceId, record.name), record)
 
-  override def upsert(record: CaseTeamUserRecord): Unit = addStatement(TableQuery[CaseInstanceTeamUserTable].insertOrUpdate(record))
+  override def upsert(record: CaseBusinessIdentifierRecord): Unit = addUpsert(businessIdentifiers, ("business-identifier", record.caseInstanceId, record.name), record)
 
-  override def upsert(record: CaseTeamTenantRoleRecord): Unit = addStatement(TableQuery[CaseInstanceTeamTenantRoleTable].insertOrUpdate(record))
+  override def upsert(record: CaseRoleRecord): Unit = addUpsert(caseRoles, ("case-role", record.caseInstanceId, record.roleName), record)
 
-  override def upsert(record: CaseTeamGroupRecord): Unit = addStatement(TableQuery[CaseInstanceTeamGroupTable].insertOrUpdate(record))
+  override def upsert(record: CaseTeamUserRecord): Unit = addUpsert(teamUsers, ("team-user", record.caseInstanceId, record.caseRole, record.userId), record)
+
+  override def upsert(record: CaseTeamTenantRoleRecord): Unit = addUpsert(teamTenantRoles, ("team-tenant-role", record.caseInstanceId, record.tenant, record.tenantRole, record.caseRole), record)
+
+  override def upsert(record: CaseTeamGroupRecord): Unit = addUpsert(teamGroups, ("team-group", record.caseInstanceId, record.groupId, record.groupRole, record.caseRole), record)
 
   override def delete(record: CaseTeamUserRecord): Unit = addStatement(
     TableQuery[CaseInstanceTeamUserTable]
@@ -75,7 +89,7 @@ class SlickCaseTransaction extends SlickQueryDBTransaction with CaseStorageTrans
       .delete)
 
   override def deleteTaskRecord(taskId: String): Unit = {
-    addStatement(TableQuery[TaskTable].filter(_.id === taskId).delete)
+    addDelete(("task", taskId), TableQuery[TaskTable].filter(_.id === taskId).delete)
   }
 
   override def deleteCaseTeamMember(key: CaseTeamMemberKey): Unit = {
@@ -87,7 +101,11 @@ class SlickCaseTransaction extends SlickQueryDBTransaction with CaseStorageTrans
   }
 
   override def deletePlanItemRecord(planItemId: String): Unit = {
-    addStatement(TableQuery[PlanItemTable].filter(_.id === planItemId).delete)
+    addDelete(("plan-item", planItemId), TableQuery[PlanItemTable].filter(_.id === planItemId).delete)
+  }
+
+  override def deleteCaseFileItem(caseInstanceId: String, name: String): Unit = {
+    addDelete(("case-file-item", caseInstanceId, name), TableQuery[CaseFileItemTable].filter(_.caseInstanceId === caseInstanceId).filter(_.name === name).delete)
   }
 
   override def removeCaseRoles(caseInstanceId: String): Unit = {
@@ -95,19 +113,23 @@ class SlickCaseTransaction extends SlickQueryDBTransaction with CaseStorageTrans
   }
 
   override def getPlanItem(planItemId: String): Future[Option[PlanItemRecord]] = {
-    db.run(TableQuery[PlanItemTable].filter(_.id === planItemId).result.headOption)
+    readRecord(("plan-item", planItemId), db.run(TableQuery[PlanItemTable].filter(_.id === planItemId).result.headOption))
   }
 
   override def getCaseInstance(id: String): Future[Option[CaseRecord]] = {
-    db.run(TableQuery[CaseInstanceTable].filter(_.id === id).result.headOption)
+    readRecord(("case", id), db.run(TableQuery[CaseInstanceTable].filter(_.id === id).result.headOption))
   }
 
   override def getCaseFile(caseInstanceId: String): Future[Option[CaseFileRecord]] = {
-    db.run(TableQuery[CaseFileTable].filter(_.caseInstanceId === caseInstanceId).result.headOption)
+    readRecord(("case-file", caseInstanceId), db.run(TableQuery[CaseFileTable].filter(_.caseInstanceId === caseInstanceId).result.headOption))
+  }
+
+  override def getCaseFileItem(caseInstanceId: String, name: String): Future[Option[CaseFileItemRecord]] = {
+    readRecord(("case-file-item", caseInstanceId, name), db.run(TableQuery[CaseFileItemTable].filter(_.caseInstanceId === caseInstanceId).filter(_.name === name).result.headOption))
   }
 
   override def getTask(taskId: String): Future[Option[TaskRecord]] = {
-    db.run(TableQuery[TaskTable].filter(_.id === taskId).result.headOption)
+    readRecord(("task", taskId), db.run(TableQuery[TaskTable].filter(_.id === taskId).result.headOption))
   }
 
   override def updateCaseUserInformation(caseId: String, info: Seq[NewUserInformation], offset: OffsetRecord): Future[Done] = {
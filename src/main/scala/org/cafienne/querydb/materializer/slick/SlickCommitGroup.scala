@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.querydb.materializer.slick
+
+import akka.Done
+import org.cafienne.querydb.materializer.CommitGroup
+import org.cafienne.querydb.schema.QueryDBSchema
+
+import scala.concurrent.{ExecutionContext, Future, Promise}
+
+/**
+  * Group of SlickQueryDBTransactions that share a single statement buffer, which is written to the database
+  * in one transaction.
+  */
+class SlickCommitGroup extends CommitGroup with QueryDBSchema {
+
+  import dbConfig.profile.api._
+
+  implicit val ec: ExecutionContext = db.ioExecutionContext
+
+  val statements: StatementBuffer = new StatementBuffer
+  private val result = Promise[Done]()
+  private var nextCommitted = Promise[Done]()
+
+  override def nextCommit(): Future[Done] = synchronized {
+    nextCommitted = Promise[Done]()
+    nextCommitted.future
+  }
+
+  /**
+    * Invoked by a member transaction when it commits. The statements are already in the shared buffer.
+    */
+  def committed(): Future[Done] = synchronized {
+    nextCommitted.trySuccess(Done)
+    result.future
+  }
+
+  override def flush(): Future[Done] = {
+    if (!result.isCompleted) {
+      if (statements.isEmpty) {
+        result.trySuccess(Done)
+      } else {
+        result.completeWith(db.run(DBIO.sequence(statements.flush()).transactionally).map(_ => Done))
+      }
+    }
+    result.future
+  }
+
+  override def fail(cause: Throwable): Unit = result.tryFailure(cause)
+}
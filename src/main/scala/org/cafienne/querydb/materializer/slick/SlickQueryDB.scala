@@ -19,7 +19,7 @@ package org.cafienne.querydb.materializer.slick
 
 import akka.persistence.query.Offset
 import org.cafienne.infrastructure.jdbc.cqrs.JDBCOffsetStorage
-import org.cafienne.querydb.materializer.QueryDBStorage
+import org.cafienne.querydb.materializer.{CommitGroup, QueryDBStorage}
 import org.cafienne.querydb.materializer.cases.CaseStorageTransaction
 import org.cafienne.querydb.materializer.consentgroup.ConsentGroupStorageTransaction
 import org.cafienne.querydb.materializer.tenant.TenantStorageTransaction
@@ -35,6 +35,8 @@ object SlickQueryDB extends QueryDBStorage with QueryDBSchema {
 
   override def createTenantTransaction(tenant: String): TenantStorageTransaction = new SlickTenantTransaction
 
+  override def createCommitGroup(): CommitGroup = new SlickCommitGroup
+
   private val databaseConfig = dbConfig
 
   override def getOffset(offsetName: String): Future[Offset] = new JDBCOffsetStorage {
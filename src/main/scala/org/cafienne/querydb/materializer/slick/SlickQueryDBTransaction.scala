@@ -21,12 +21,10 @@ import akka.Done
 import org.cafienne.cmmn.actorapi.command.platform.NewUserInformation
 import org.cafienne.infrastructure.cqrs.offset.OffsetRecord
 import org.cafienne.infrastructure.jdbc.cqrs.OffsetStoreTables
-import org.cafienne.querydb.materializer.QueryDBTransaction
+import org.cafienne.querydb.materializer.{CommitGroup, QueryDBTransaction}
 import org.cafienne.querydb.schema.QueryDBSchema
 import org.cafienne.querydb.schema.table.{CaseTables, ConsentGroupTables, TaskTables, TenantTables}
 
-import scala.collection.mutable
-import scala.collection.mutable.ListBuffer
 import scala.concurrent.{ExecutionContext, Future}
 
 class SlickQueryDBTransaction
@@ -42,19 +40,60 @@ class SlickQueryDBTransaction
 
   implicit val ec: ExecutionContext = db.ioExecutionContext // TODO: Is this the best execution context to pick?
 
-  val dbStatements: mutable.ListBuffer[DBIO[_]] = ListBuffer[DBIO[_]]()
+  private var statements: StatementBuffer = new StatementBuffer
+  private var group: Option[SlickCommitGroup] = None
 
-  def addStatement(action: dbConfig.profile.api.DBIO[_]): Unit = dbStatements += action
+  def addStatement(action: dbConfig.profile.api.DBIO[_]): Unit = statements.add(action)
 
-  override def upsert(record: OffsetRecord): Unit = addStatement(TableQuery[OffsetStoreTable].insertOrUpdate(record))
+  /**
+    * Add an upsert of the record with the given key. Upserts into the same table are written with a single bulk statement,
+    * and an earlier upsert of the same record in the transaction is replaced.
+    */
+  def addUpsert[R](bulk: BulkUpsert[R], key: Any, record: R): Unit = statements.upsert(bulk, key, record)
+
+  /**
+    * Creates a bulk upsert for the table. A single record is written with insertOrUpdate, multiple records
+    * with insertOrUpdateAll, which lets the database profile use a JDBC batch with its native upsert
+    * (e.g. INSERT ... ON CONFLICT on PostgreSQL, MERGE on SQL Server and H2).
+    */
+  def bulkUpsert[R, T <: Table[R]](query: TableQuery[T]): BulkUpsert[R] = new BulkUpsert[R] {
+    override val table: String = query.baseTableRow.tableName
+
+    override def upsertAll(records: Seq[R]): DBIO[_] = {
+      if (records.size == 1) query.insertOrUpdate(records.head) else query.insertOrUpdateAll(records)
+    }
+  }
+
+  private lazy val offsets = bulkUpsert[OffsetRecord, OffsetStoreTable](TableQuery[OffsetStoreTable])
+
+  def addDelete(key: Any, action: dbConfig.profile.api.DBIO[_]): Unit = statements.delete(key, action)
+
+  /**
+    * Read the record from the pending statements if it is changed in this transaction, otherwise run the query.
+    */
+  def readRecord[T](key: Any, query: => Future[Option[T]]): Future[Option[T]] = {
+    statements.pending[T](key).map(Future.successful).getOrElse(query)
+  }
+
+  override def upsert(record: OffsetRecord): Unit = addUpsert(offsets, ("offset", record.name), record)
+
+  override def join(group: CommitGroup): Unit = group match {
+    case slickGroup: SlickCommitGroup =>
+      this.group = Some(slickGroup)
+      this.statements = slickGroup.statements
+    case _ => // Other types of groups cannot be joined; this transaction commits on its own
+  }
 
   def commit(): Future[Done] = {
-    val transaction = dbStatements.toSeq
-    // Clear statement buffer (the "transaction")
-    dbStatements.clear()
+    group match {
+      case Some(commitGroup) => commitGroup.committed()
+      case None =>
+        // Take the statements and clear the buffer (the "transaction")
+        val transaction = statements.flush()
 
-    // Run the actions
-    db.run(DBIO.sequence(transaction).transactionally).map { _ => Done }
+        // Run the actions
+        db.run(DBIO.sequence(transaction).transactionally).map { _ => Done }
+    }
   }
 
   def convertUserUpdate(info: Seq[NewUserInformation]): Set[(String, Set[String])] = {
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.querydb.materializer.slick
+
+import slick.dbio.DBIO
+
+import scala.collection.mutable
+import scala.collection.mutable.ListBuffer
+
+/**
+  * Bulk upsert of records into a table.
+  */
+trait BulkUpsert[R] {
+  /**
+    * Name of the table; upserts into the same table are collected together
+    */
+  val table: String
+
+  def upsertAll(records: Seq[R]): DBIO[_]
+}
+
+/**
+  * Buffer with the statements of a query-db transaction.
+  * Upserts are collected per table, and written with a single bulk statement for each table.
+  * A repeated upsert of the same record replaces the earlier one instead of writing the record twice.
+  * Collecting upserts only happens as long as no other statements (e.g. deletes or updates) are added,
+  * as those may touch the same records; the upserts after such a statement are collected in a new set.
+  * The buffer also keeps track of the latest version of the records, so that reads within the transaction
+  * can be answered from the buffer instead of the database.
+  */
+class StatementBuffer {
+  private val entries = ListBuffer[Either[DBIO[_], Upserts[_]]]()
+  private val openUpserts = mutable.Map[String, Upserts[_]]()
+  private val records = mutable.Map[Any, Option[Any]]()
+
+  private class Upserts[R](val bulk: BulkUpsert[R]) {
+    val records = mutable.LinkedHashMap[Any, R]()
+
+    def statement: DBIO[_] = bulk.upsertAll(records.values.toSeq)
+  }
+
+  def add(statement: DBIO[_]): Unit = {
+    // Statements other than upserts may affect any record, so subsequent upserts must come after it
+    openUpserts.clear()
+    entries += Left(statement)
+  }
+
+  def upsert[R](bulk: BulkUpsert[R], key: Any, record: R): Unit = {
+    val upserts = openUpserts.getOrElseUpdate(bulk.table, {
+      val newUpserts = new Upserts(bulk)
+      entries += Right(newUpserts)
+      newUpserts
+    }).asInstanceOf[Upserts[R]]
+    upserts.records.put(key, record)
+    records.put(key, Some(record))
+  }
+
+  def delete(key: Any, statement: DBIO[_]): Unit = {
+    add(statement)
+    records.put(key, None)
+  }
+
+  /**
+    * Returns Some with the latest version of the record if it has been upserted or deleted in this buffer,
+    * and None if the record is not known in the buffer.
+    */
+  def pending[T](key: Any): Option[Option[T]] = records.get(key).map(_.map(_.asInstanceOf[T]))
+
+  def isEmpty: Boolean = entries.isEmpty
+
+  /**
+    * Returns the statements and clears the buffer
+    */
+  def flush(): Seq[DBIO[_]] = {
+    val transaction = entries.toSeq.map {
+      case Left(statement) => statement
+      case Right(upserts) => upserts.statement
+    }
+    entries.clear()
+    openUpserts.clear()
+    records.clear()
+    transaction
+  }
+}
@@ -56,7 +56,7 @@ class TenantEventBatch(val sink: TenantEventSink, override val persistenceId: St
   override def commit(envelope: ModelEventEnvelope, transactionEvent: CommitEvent): Future[Done] = {
     transactionEvent match {
       case event: TenantModified => commitTenantRecords(envelope, event)
-      case event: TenantAppliedPlatformUpdate => updateUserIds(event, envelope.offset)
+      case event: TenantAppliedPlatformUpdate => updateUserIds(event, offsetToCommit)
       case _ =>
         logger.warn(s"TenantTransaction unexpectedly receives a commit event of type ${transactionEvent.getClass.getName}. This event is ignored.")
         Future.successful(Done)
@@ -68,7 +68,7 @@ class TenantEventBatch(val sink: TenantEventSink, override val persistenceId: St
     tenantProjection.prepareCommit()
     userProjection.prepareCommit()
     // Update the offset of the last event handled in this projection
-    dBTransaction.upsert(createOffsetRecord(envelope.offset))
+    dBTransaction.upsert(createOffsetRecord(offsetToCommit))
     // Commit and then inform the last modified registration
     dBTransaction.commit().andThen(_ => {
       // Clear the user cache for those user ids that have been updated
@@ -25,7 +25,7 @@ import org.cafienne.tenant.actorapi.event.TenantEvent
 
 import scala.concurrent.Future
 
-class TenantEventSink(val caseSystem: CaseSystem, storage: QueryDBStorage) extends QueryDBEventSink with LazyLogging {
+class TenantEventSink(val caseSystem: CaseSystem, val storage: QueryDBStorage) extends QueryDBEventSink with LazyLogging {
   override val system = caseSystem.system
 
   override val tag: String = TenantEvent.TAG
@@ -19,7 +19,8 @@ package org.cafienne.querydb.query
 
 import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.actormodel.identity.{ConsentGroupMembership, Origin, UserIdentity}
-import org.cafienne.querydb.record.{CaseBusinessIdentifierRecord, CaseRecord, ConsentGroupMemberRecord}
+import org.cafienne.infrastructure.Cafienne
+import org.cafienne.querydb.record.{CaseBusinessIdentifierRecord, CaseFileRecord, CaseRecord, ConsentGroupMemberRecord}
 import org.cafienne.querydb.schema.table.{CaseTables, ConsentGroupTables, TaskTables, TenantTables}
 
 import scala.concurrent.{ExecutionContext, Future}
@@ -38,10 +39,23 @@ trait BaseQueryImpl
   val caseInstanceQuery = TableQuery[CaseInstanceTable]
   val caseDefinitionQuery = TableQuery[CaseInstanceDefinitionTable]
   val caseFileQuery = TableQuery[CaseFileTable]
+  val caseFileItemQuery = TableQuery[CaseFileItemTable]
   val caseIdentifiersQuery = TableQuery[CaseBusinessIdentifierTable]
 
   val planItemTableQuery = TableQuery[PlanItemTable]
 
+  def itemizedCaseFile: Boolean = Cafienne.config.queryDB.itemizedCaseFile
+
+  /**
+    * In the "items" case file layout, the top level case file items are stored in separate records,
+    * and have to be added to the case file record.
+    */
+  def withCaseFileItems(caseFile: Option[CaseFileRecord]): Future[Option[CaseFileRecord]] = caseFile match {
+    case Some(record) if itemizedCaseFile =>
+      db.run(caseFileItemQuery.filter(_.caseInstanceId === record.caseInstanceId).result).map(items => Some(record.withItems(items)))
+    case other => Future.successful(other)
+  }
+
   def getCaseMembership(caseInstanceId: String, user: UserIdentity, exception: String => Exception, msg: String): Future[CaseMembership] = {
 //    if (msg == caseInstanceId) {
 //      println(s"Trying to fetch case '$caseInstanceId' ")
@@ -70,7 +70,7 @@ class CaseQueriesImpl
     val result = for {
       caseInstance <- getCaseInstance(caseInstanceId, user)
       caseTeam <- getCaseTeam(caseInstanceId, user)
-      caseFile <- db.run(caseFileQuery.filter(_.caseInstanceId === caseInstanceId).result.headOption).map(f => CaseFile(f.orNull))
+      caseFile <- db.run(caseFileQuery.filter(_.caseInstanceId === caseInstanceId).result.headOption).flatMap(withCaseFileItems).map(f => CaseFile(f.orNull))
       casePlan <- db.run(planItemTableQuery.filter(_.caseInstanceId === caseInstanceId).result).map {
         CasePlan
       }
@@ -162,9 +162,9 @@ class CaseQueriesImpl
       _ <- membershipQuery(user, caseInstanceId)
     } yield baseQuery
 
-    db.run(query.result.headOption).map {
-      case Some(result) => CaseDefinitionDocument(result)
-      case None => throw CaseSearchFailure(caseInstanceId)
+    db.run(query.result.headOption).flatMap {
+      case Some(result) => result.definitionsLoaded.map(CaseDefinitionDocument)
+      case None => Future.failed(CaseSearchFailure(caseInstanceId))
     }
   }
 
@@ -176,7 +176,7 @@ class CaseQueriesImpl
       _ <- membershipQuery(user, caseInstanceId)
     } yield baseQuery
 
-    db.run(query.result.headOption).map {
+    db.run(query.result.headOption).flatMap(withCaseFileItems).map {
       case Some(result) => CaseFile(result)
       case None => throw CaseSearchFailure(caseInstanceId)
     }
@@ -190,9 +190,9 @@ class CaseQueriesImpl
       _ <- membershipQuery(user, caseInstanceId)
     } yield (baseQuery)
 
-    db.run(query.result.headOption).map {
-      case Some(result) => CaseFileDocumentation(result)
-      case None => throw CaseSearchFailure(caseInstanceId)
+    db.run(query.result.headOption).flatMap {
+      case Some(result) => result.definitionsLoaded.map(CaseFileDocumentation)
+      case None => Future.failed(CaseSearchFailure(caseInstanceId))
     }
   }
 
@@ -233,17 +233,17 @@ class CaseQueriesImpl
       _ <- membershipQuery(user, baseQuery.caseInstanceId)
     } yield (baseQuery, definitionQuery)
 
-    db.run(query.result.headOption).map {
-      case None => throw PlanItemSearchFailure(planItemId)
-      case Some(record) => {
+    db.run(query.result.headOption).flatMap {
+      case None => Future.failed(PlanItemSearchFailure(planItemId))
+      case Some(record) => record._2.definitionsLoaded.map(definitionRecord => {
         val definitionId = record._1.definitionId
-        val definitionDocument = record._2.definitions
+        val definitionDocument = definitionRecord.definitions
         val element: CMMNElementDefinition = definitionDocument.findElement(element => definitionId.equals(element.getId))
         element == null match {
           case true => Documentation("")
           case _ => Documentation(element.documentation.text, element.documentation.textFormat)
         }
-      }
+      })
     }
   }
 
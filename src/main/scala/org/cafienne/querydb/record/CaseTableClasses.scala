@@ -17,10 +17,11 @@
 
 package org.cafienne.querydb.record
 
-import org.cafienne.cmmn.definition.{CaseDefinition, DefinitionsDocument}
+import org.cafienne.cmmn.definition.{CaseDefinition, DefinitionsCache, DefinitionsDocument}
 import org.cafienne.json._
 
 import java.time.Instant
+import scala.concurrent.{ExecutionContext, Future}
 
 final case class CaseRecord(id: String,
                             tenant: String,
@@ -62,13 +63,37 @@ final case class CaseRecord(id: String,
   }
 }
 
-final case class CaseDefinitionRecord(caseInstanceId: String, name: String, description: String, elementId: String, content: String, tenant: String, lastModified: Instant, modifiedBy: String) {
-  lazy val definitions: DefinitionsDocument = DefinitionsDocument.fromSource(content)
+final case class CaseDefinitionRecord(caseInstanceId: String, name: String, description: String, elementId: String, content: String, tenant: String, lastModified: Instant, modifiedBy: String, sourceHash: Option[String] = None) {
+  // Content is empty if the definition is stored by reference
+  lazy val definitions: DefinitionsDocument = sourceHash.fold(DefinitionsDocument.fromSource(content))(hash => DefinitionsCache.getByHash(hash))
+  lazy val source: String = sourceHash.fold(content)(_ => definitions.getSource)
   lazy val caseDefinition: CaseDefinition = definitions.getCaseDefinition(elementId)
+
+  /**
+    * Completes when the definitions can be accessed, i.e., when a definition that is stored by reference has been read into the DefinitionsCache
+    */
+  def definitionsLoaded: Future[CaseDefinitionRecord] = sourceHash.fold(Future.successful(this))(hash => DefinitionsCache.resolveByHash(hash).map(_ => this)(ExecutionContext.parasitic))
 }
 
 final case class CaseFileRecord(caseInstanceId: String, tenant: String, data: String) {
   def toValueMap: ValueMap = JSONReader.parse(data)
+
+  /**
+    * Returns a record in which the top level items that are stored in separate records are added to the data
+    */
+  def withItems(items: Seq[CaseFileItemRecord]): CaseFileRecord = {
+    if (items.isEmpty) {
+      this
+    } else {
+      val json = toValueMap
+      items.foreach(item => json.put(item.name, item.toValue))
+      this.copy(data = json.toString)
+    }
+  }
+}
+
+final case class CaseFileItemRecord(caseInstanceId: String, tenant: String, name: String, data: String) {
+  def toValue: Value[_] = JSONReader.parse(data)
 }
 
 final case class CaseBusinessIdentifierRecord(caseInstanceId: String, tenant: String, name: String, value: Option[String], active: Boolean, path: String)
@@ -100,7 +100,9 @@ trait CaseTables extends QueryDBSchema {
 
     lazy val modifiedBy = userColumn[String]("modified_by")
 
-    lazy val * = (caseInstanceId, name, description, elementId, content, tenant, lastModified, modifiedBy).mapTo[CaseDefinitionRecord]
+    lazy val sourceHash = column[Option[String]]("source_hash")
+
+    lazy val * = (caseInstanceId, name, description, elementId, content, tenant, lastModified, modifiedBy, sourceHash).mapTo[CaseDefinitionRecord]
   }
 
   class PlanItemTable(tag: Tag) extends CafienneTenantTable[PlanItemRecord](tag, "plan_item") {
@@ -163,6 +165,21 @@ trait CaseTables extends QueryDBSchema {
     lazy val indexCaseInstanceId = oldStyleIndex(caseInstanceId)
   }
 
+  final class CaseFileItemTable(tag: Tag) extends CafienneTenantTable[CaseFileItemRecord](tag, "case_file_item") {
+
+    lazy val caseInstanceId = idColumn[String]("case_instance_id")
+
+    lazy val name = idColumn[String]("name")
+
+    lazy val data = jsonColumn[String]("data")
+
+    lazy val * = (caseInstanceId, tenant, name, data).mapTo[CaseFileItemRecord]
+
+    lazy val pk = primaryKey(pkName, (caseInstanceId, name))
+
+    lazy val indexCaseInstanceId = oldStyleIndex(caseInstanceId)
+  }
+
   final class CaseBusinessIdentifierTable(tag: Tag) extends CafienneTenantTable[CaseBusinessIdentifierRecord](tag, "case_business_identifier") {
     override def getSortColumn(field: String): ColumnOrdered[_] = field match {
       case "name" => name
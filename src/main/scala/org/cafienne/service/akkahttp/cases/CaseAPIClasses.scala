@@ -33,7 +33,7 @@ final case class CaseTeamResponse(team: CaseTeam, caseRoles: Seq[String] = Seq()
 }
 
 final case class CaseDefinitionDocument(record: CaseDefinitionRecord) {
-  def xml: String = record.content
+  def xml: String = record.source
 }
 
 final case class CasePlan(items: Seq[PlanItemRecord]) extends CafienneJson {
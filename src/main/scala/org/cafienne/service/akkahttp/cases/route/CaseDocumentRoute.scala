@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cafienne.service.akkahttp.cases.route
+
+import akka.http.scaladsl.model.{ContentType, ContentTypes, HttpEntity, MediaTypes, StatusCodes}
+import akka.http.scaladsl.server.Route
+import akka.stream.scaladsl.StreamConverters
+import io.swagger.v3.oas.annotations.enums.ParameterIn
+import io.swagger.v3.oas.annotations.media.Schema
+import io.swagger.v3.oas.annotations.responses.ApiResponse
+import io.swagger.v3.oas.annotations.security.SecurityRequirement
+import io.swagger.v3.oas.annotations.{Operation, Parameter}
+import org.cafienne.service.akkahttp.Headers
+import org.cafienne.system.CaseSystem
+
+import java.io.IOException
+import javax.ws.rs._
+import scala.util.{Failure, Success, Try}
+
+@SecurityRequirement(name = "openId", scopes = Array("openid"))
+@Path("/cases")
+class CaseDocumentRoute(override val caseSystem: CaseSystem) extends CasesRoute {
+  override def routes: Route = concat(getDocument)
+
+  @Path("/{caseInstanceId}/documents/{documentId}")
+  @GET
+  @Operation(
+    summary = "Get a document that has been generated in the case",
+    description = "Returns the content of a document that a PDFReport task in the case has written into the blob store. The documentId is the last part of the reference in the task output",
+    tags = Array("case file"),
+    parameters = Array(
+      new Parameter(name = "caseInstanceId", description = "Unique id of the case instance", in = ParameterIn.PATH, schema = new Schema(implementation = classOf[String]), required = true),
+      new Parameter(name = "documentId", description = "Id of the document", in = ParameterIn.PATH, schema = new Schema(implementation = classOf[String]), required = true),
+      new Parameter(name = Headers.CASE_LAST_MODIFIED, description = "Get after events have been processed", in = ParameterIn.HEADER, schema = new Schema(implementation = classOf[String]), required = false),
+    ),
+    responses = Array(
+      new ApiResponse(description = "Document found and returned", responseCode = "200"),
+      new ApiResponse(description = "Case or document not found", responseCode = "404")
+    )
+  )
+  @Produces(Array("application/pdf", "application/octet-stream"))
+  def getDocument: Route = get {
+    caseInstanceSubRoute("documents") { (user, caseInstanceId) =>
+      path(Segment) { documentId =>
+        authorizeCaseAccess(user, caseInstanceId, _ => {
+          // Documents are stored under the case that generated them, so only documents of this case can be read
+          Try(caseSystem.pdfReportConfig.blobStore.read(s"$caseInstanceId/$documentId")) match {
+            case Success(content) => complete(HttpEntity(contentTypeOf(documentId), StreamConverters.fromInputStream(() => content)))
+            case Failure(_: IOException) => complete(StatusCodes.NotFound, s"Document $documentId cannot be found in case $caseInstanceId")
+            case Failure(other) => throw other
+          }
+        })
+      }
+    }
+  }
+
+  private def contentTypeOf(documentId: String): ContentType = {
+    if (documentId.endsWith(".pdf")) ContentType(MediaTypes.`application/pdf`)
+    else ContentTypes.`application/octet-stream`
+  }
+}
@@ -35,6 +35,7 @@ class CasesRoutes(override val caseSystem: CaseSystem) extends AuthenticatedRout
   addSubRoute(new PlanItemRoute(caseSystem))
   addSubRoute(new DiscretionaryRoute(caseSystem))
   addSubRoute(new CaseDocumentationRoute(caseSystem))
+  addSubRoute(new CaseDocumentRoute(caseSystem))
   addSubRoute(new CaseHistoryRoute(caseSystem))
   addSubRoute(new CaseMigrationRoute(caseSystem))
   addSubRoute(new DeprecatedPlanItemHistoryRoute(caseSystem))
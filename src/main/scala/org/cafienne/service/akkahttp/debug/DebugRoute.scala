@@ -85,9 +85,11 @@ class DebugRoute(override val caseSystem: CaseSystem) extends CommandRoute {
     parameters = Array(
       new Parameter(name = "tenant", description = "Name of the tenant in which the actor lives", in = ParameterIn.PATH, schema = new Schema(implementation = classOf[String])),
       new Parameter(name = "modelId", description = "Identifier of the actor (eg. case id or tenant name)", in = ParameterIn.PATH, schema = new Schema(implementation = classOf[String])),
+      new Parameter(name = "type", description = "Type of the actor (Case, ProcessTaskActor, TenantActor or ConsentGroupActor), required when running in sharded mode", in = ParameterIn.QUERY, schema = new Schema(implementation = classOf[String]), required = false),
     ),
     responses = Array(
       new ApiResponse(description = "Events in a json list", responseCode = "200"),
+      new ApiResponse(description = "Type of the model actor is missing", responseCode = "400"),
       new ApiResponse(description = "Model actor not found", responseCode = "404")
     )
   )
@@ -95,12 +97,17 @@ class DebugRoute(override val caseSystem: CaseSystem) extends CommandRoute {
   def forceRecovery: Route = patch {
     path("force-recovery" / Segment) { modelId =>
       validUser { user =>
-        if (!Cafienne.config.developerRouteOpen) {
-          complete(StatusCodes.NotFound)
-        } else {
-          onComplete(caseSystem.gateway.request(new TerminateModelActor(user, modelId))) {
-            case Success(value) => complete(StatusCodes.OK, s"Forced recovery of $modelId")
-            case Failure(err) => throw err;
+        parameters("type".?) { actorType =>
+          if (!Cafienne.config.developerRouteOpen) {
+            complete(StatusCodes.NotFound)
+          } else if (actorType.isEmpty && caseSystem.sharded) {
+            // In sharded mode the gateway can only find the actor through the shard region of its type
+            complete(StatusCodes.BadRequest, s"Parameter 'type' is required to force recovery of $modelId")
+          } else {
+            onComplete(caseSystem.gateway.request(new TerminateModelActor(user, modelId, actorType.orNull, true))) {
+              case Success(value) => complete(StatusCodes.OK, s"Forced recovery of $modelId")
+              case Failure(err) => throw err;
+            }
           }
         }
       }
@@ -26,6 +26,7 @@ import org.cafienne.infrastructure.Cafienne
 import org.cafienne.infrastructure.akkahttp.route.CaseServiceRoute
 import org.cafienne.system.CaseSystem
 import org.cafienne.system.health.HealthMonitor
+import org.cafienne.system.metrics.MetricsMonitor
 
 import javax.ws.rs._
 
@@ -35,7 +36,7 @@ class CaseEngineHealthRoute(override val caseSystem: CaseSystem) extends CaseSer
 
   // For now, directly in the main, and not as child of PlatformRoutes;
   //  Otherwise, routes are not available when case system is not healthy (because platform routes are AuthenticatedRoute)
-  override def routes = concat(health, version, status)
+  override def routes = concat(health, version, status, metrics)
 
   registerAPIRoute(this)
 
@@ -82,6 +83,26 @@ class CaseEngineHealthRoute(override val caseSystem: CaseSystem) extends CaseSer
     }
   }
 
+  @Path("/metrics")
+  @GET
+  @Operation(
+    summary = "Get platform metrics",
+    description = "Retrieves runtime statistics of the internal components of the Case Engine, like caches and routers",
+    tags = Array("platform"),
+    responses = Array(
+      new ApiResponse(responseCode = "200", description = "Platform metrics report", content = Array(new Content(schema = new Schema(implementation = classOf[Object])))),
+      new ApiResponse(responseCode = "500", description = "Not able to perform the action")
+    )
+  )
+  @Produces(Array("application/json"))
+  def metrics = get {
+    pathPrefix("metrics") {
+      pathEndOrSingleSlash {
+        completeJsonValue(MetricsMonitor.report)
+      }
+    }
+  }
+
   @Path("/version")
   @GET
   @Operation(
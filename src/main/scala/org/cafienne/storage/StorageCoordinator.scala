@@ -123,7 +123,7 @@ class StorageCoordinator(val caseSystem: CaseSystem) extends Actor with LazyLogg
       logger.whenDebugEnabled(logger.debug(s"Received $command"))
       registerFollowup(command, sender())
       // Tell Cafienne Engine to remove this model actor from memory
-      caseSystem.gateway.inform(new TerminateModelActor(command.metadata.user, command.metadata.actorId), self)
+      caseSystem.gateway.inform(new TerminateModelActor(command.metadata.user, command.metadata.actorId, command.metadata.actorType, true), self)
     case message: ActorTerminated => handleFollowup(message)
     case event: RemovalCompleted =>
       // Nothing needs to be done, as the actor will stop itself and below we handle the resulting Termination message.
@@ -19,7 +19,7 @@ package org.cafienne.storage.actormodel
 
 import akka.actor.ActorRef
 import akka.persistence.journal.Tagged
-import akka.persistence.{PersistentActor, RecoveryCompleted}
+import akka.persistence.{DeleteSnapshotsFailure, PersistentActor, Recovery, RecoveryCompleted, SnapshotSelectionCriteria}
 import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.actormodel.command.TerminateModelActor
 import org.cafienne.actormodel.event.ModelEvent
@@ -39,15 +39,43 @@ trait StorageActor[S <: StorageActorState] extends PersistentActor with LazyLogg
    */
   override def persistenceId: String = metadata.actorId
 
+  /**
+   * Snapshots under our persistence id are written by the model actor and contain model state, not events.
+   * We need to see all events in order to determine the storage state, hence we always recover from the journal.
+   */
+  override def recovery: Recovery = Recovery(fromSnapshot = SnapshotSelectionCriteria.None)
+
   def createState(): S
 
+  private var clearToSequenceNr: Long = Long.MaxValue
+
   /**
     * Invoked after the StorageActor has done it's job.
     * This can be used to clean the storage job state.
+    * First the snapshots of the model actor are deleted, and upon DeleteSnapshotsSuccess
+    * the subclass invokes snapshotsCleared() to also delete the events.
+    * Note that if we would delete the events first, a remaining snapshot would bring back the model actor.
     * @param toSequenceNr
     */
   def clearState(toSequenceNr: Long = Long.MaxValue): Unit = {
-    deleteMessages(toSequenceNr)
+    clearToSequenceNr = toSequenceNr
+    deleteSnapshots(SnapshotSelectionCriteria.Latest)
+  }
+
+  /**
+    * Trigger this method when DeleteSnapshotsSuccess is received in the StorageActor.
+    * It continues clearing the state by deleting the events from the journal.
+    */
+  def snapshotsCleared(): Unit = {
+    deleteMessages(clearToSequenceNr)
+  }
+
+  /**
+    * Trigger this method when DeleteSnapshotsFailure is received in the StorageActor.
+    * The events are kept, so that the storage process can be retried.
+    */
+  def snapshotsClearingFailed(failure: DeleteSnapshotsFailure): Unit = {
+    logger.error(s"Could not delete snapshots of ${metadata.path}; events are not deleted either", failure.cause)
   }
 
   /**
@@ -60,27 +88,37 @@ trait StorageActor[S <: StorageActorState] extends PersistentActor with LazyLogg
    */
   val children: mutable.Map[String, ActorRef] = new mutable.HashMap[String, ActorRef]()
 
+  /**
+   * Metadata of the children, so that the type of the ModelActor is known when the child is terminated.
+   */
+  val childMetadata: mutable.Map[String, ActorMetadata] = new mutable.HashMap[String, ActorMetadata]()
+
   def printLogMessage(msg: String): Unit = {
     Printer.print(this.metadata, msg)
   }
 
   /**
-    * Tell Cafienne Gateway to remove the actual ModelActor with the same actor id from memory
+    * Tell Cafienne Gateway to remove the actual ModelActor from memory.
+    * Passes the type of actor, so that the gateway can also find the actor when running in sharded mode.
     */
-  def informCafienneGateway(actorId: String, needsResponse: Boolean = false): Unit = {
+  def informCafienneGateway(actor: ActorMetadata): Unit = {
+    terminateModelActor(actor.actorId, actor.actorType, needsResponse = false)
+  }
+
+  private def terminateModelActor(actorId: String, actorType: String, needsResponse: Boolean): Unit = {
     printLogMessage("Telling Cafienne Gateway to terminate " + actorId)
-    caseSystem.gateway.inform(new TerminateModelActor(metadata.user, actorId, needsResponse), self)
+    caseSystem.gateway.inform(new TerminateModelActor(metadata.user, actorId, actorType, needsResponse), self)
   }
 
   private val followups = mutable.Map[String, () => Unit]()
 
   /**
-   * Tell Cafienne Gateway to remove the actual ModelActor with the same actor id from memory.
+   * Tell Cafienne Gateway to remove the actual ModelActor from memory.
     * Upon successful termination, the followup action will be triggered.
    */
-  def informCafienneGateway(actorId: String, followUpAction: => Unit): Unit = {
-    followups.put(actorId, () => followUpAction)
-    informCafienneGateway(actorId, true)
+  def informCafienneGateway(actor: ActorMetadata, followUpAction: => Unit): Unit = {
+    followups.put(actor.actorId, () => followUpAction)
+    terminateModelActor(actor.actorId, actor.actorType, needsResponse = true)
   }
 
   /**
@@ -18,7 +18,7 @@
 package org.cafienne.storage.archival
 
 import akka.actor.{ActorRef, Props, Terminated}
-import akka.persistence.DeleteMessagesSuccess
+import akka.persistence.{DeleteMessagesSuccess, DeleteSnapshotsFailure, DeleteSnapshotsSuccess}
 import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.actormodel.response.ActorTerminated
 import org.cafienne.infrastructure.Cafienne
@@ -63,7 +63,7 @@ class ActorDataArchiver(override val caseSystem: CaseSystem, override val metada
 
     // First, tell the case system to remove the actual ModelActor (e.g. a Tenant or a Case) from memory
     //  This to avoid continued behavior of that specific actor.
-    informCafienneGateway(child.actorId, {
+    informCafienneGateway(child, {
       // After successful termination create a child archiver and tell it to clean up itself.
       //  Keep watching the child to make sure we know that it is terminated and we need to remove it from the
       //  collection of child references.
@@ -76,6 +76,7 @@ class ActorDataArchiver(override val caseSystem: CaseSystem, override val metada
   def getChildActorRef(child: ActorMetadata): ActorRef = {
     children.getOrElseUpdate(child.actorId, {
       // If the child does not yet exist, create it.
+      childMetadata.put(child.actorId, child)
       context.watch(context.actorOf(Props(classOf[ActorDataArchiver], caseSystem, child), child.actorId))
     })
   }
@@ -90,7 +91,7 @@ class ActorDataArchiver(override val caseSystem: CaseSystem, override val metada
     if (children.remove(actorId).isEmpty) {
       logger.warn("Received a Termination message for actor " + actorId + ", but it was not registered in the LocalRoutingService. Termination message is ignored")
     }
-    informCafienneGateway(actorId)
+    childMetadata.remove(actorId).foreach(child => informCafienneGateway(child))
   }
 
   def archivalCompleted(): Unit = {
@@ -189,6 +190,8 @@ class ActorDataArchiver(override val caseSystem: CaseSystem, override val metada
     case event: ChildArchived => storeEvent(event) // One of our children completed
     case event: ArchiveExported => storeEvent(event)
     case event: ArchivalInitiated => // Event comes when one of the children has started archival
+    case _: DeleteSnapshotsSuccess => snapshotsCleared() // Snapshots of the model actor are gone, now delete the events
+    case failure: DeleteSnapshotsFailure => snapshotsClearingFailed(failure)
     case _: DeleteMessagesSuccess => archivalCompleted() // Event journal no longer contains our events
     case t: Terminated => childActorTerminated(t) // Akka has removed us from memory
     case t: ActorTerminated => actorTerminated(t)
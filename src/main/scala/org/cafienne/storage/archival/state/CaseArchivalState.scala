@@ -25,6 +25,10 @@ import org.cafienne.storage.querydb.CaseStorage
 
 import scala.concurrent.Future
 
+/**
+ * Note: documents that PDFReport tasks of the case have written into the blob store are not part of the archive,
+ * and are therefore kept in the blob store when the case is archived. They are removed when the case is deleted.
+ */
 class CaseArchivalState(override val actor: ActorDataArchiver) extends ArchivalState with CaseChildrenFinder {
   override val dbStorage: CaseStorage = new CaseStorage
 
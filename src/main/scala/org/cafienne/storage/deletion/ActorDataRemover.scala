@@ -18,7 +18,7 @@
 package org.cafienne.storage.deletion
 
 import akka.actor.{Props, Terminated}
-import akka.persistence.DeleteMessagesSuccess
+import akka.persistence.{DeleteMessagesSuccess, DeleteSnapshotsFailure, DeleteSnapshotsSuccess}
 import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.actormodel.response.ActorTerminated
 import org.cafienne.storage.actormodel.{ActorMetadata, ActorType, StorageActor}
@@ -61,7 +61,7 @@ class ActorDataRemover(val caseSystem: CaseSystem, val metadata: ActorMetadata)
 
     // First, tell the case system to remove the actual ModelActor (e.g. a Tenant or a Case) from memory
     //  This to avoid continued behavior of that specific actor.
-    informCafienneGateway(child.actorId, {
+    informCafienneGateway(child, {
       // Now create a child remover and tell it to clean up itself.
       //  Keep watching the child to make sure we know that it is terminated and we need to remove it from the
       //  collection of child references.
@@ -69,6 +69,7 @@ class ActorDataRemover(val caseSystem: CaseSystem, val metadata: ActorMetadata)
       //  or removal initiated. Both is fine, and are handled upon receiveCommand.
       children.getOrElseUpdate(child.actorId, {
         // If the child does not yet exist, create it.
+        childMetadata.put(child.actorId, child)
         context.watch(context.actorOf(Props(classOf[ActorDataRemover], caseSystem, child), child.actorId))
       }).tell(command.RemoveActorData(child), self)
     })
@@ -84,7 +85,7 @@ class ActorDataRemover(val caseSystem: CaseSystem, val metadata: ActorMetadata)
     if (children.remove(actorId).isEmpty) {
       logger.warn("Received a Termination message for actor " + actorId + ", but it was not registered in the LocalRoutingService. Termination message is ignored")
     }
-    informCafienneGateway(actorId)
+    childMetadata.remove(actorId).foreach(child => informCafienneGateway(child))
   }
 
   /**
@@ -109,7 +110,7 @@ class ActorDataRemover(val caseSystem: CaseSystem, val metadata: ActorMetadata)
     } else {
       printLogMessage(s"Completed clearing event journal $msg; informing StorageCoordinator (since we have no parent) and stopping ActorDataRemover on $metadata")
     }
-    informCafienneGateway(metadata.actorId)
+    informCafienneGateway(metadata)
     context.parent ! RemovalCompleted(metadata)
     context.stop(self)
   }
@@ -154,6 +155,8 @@ class ActorDataRemover(val caseSystem: CaseSystem, val metadata: ActorMetadata)
     case event: ChildrenRemovalInitiated => storeEvent(event) // We now know which children to remove
     case event: RemovalCompleted => storeEvent(event) // One of our children completed
     case event: QueryDataRemoved => storeEvent(event) // Our state is removed from QueryDB
+    case _: DeleteSnapshotsSuccess => snapshotsCleared() // Snapshots of the model actor are gone, now delete the events
+    case failure: DeleteSnapshotsFailure => snapshotsClearingFailed(failure)
     case _: DeleteMessagesSuccess => deletionCompleted("because events have been deleted from the journal") // Event journal no longer contains our persistence id
     case t: Terminated => childActorTerminated(t) // Akka has removed one of our children from memory
     case t: ActorTerminated => actorTerminated(t)
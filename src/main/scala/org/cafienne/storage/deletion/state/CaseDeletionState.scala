@@ -30,4 +30,11 @@ class CaseDeletionState(override val actor: ActorDataRemover) extends DeletionSt
   override def clearQueryData(): Future[Done] = {
     dbStorage.deleteCase(metadata.actorId)
   }
+
+  override def clearExternalData(): Future[Done] = Future {
+    // Remove the documents that the PDFReport tasks of the case have written into the blob store.
+    //  A failure fails the future, and the deletion is then retried when the actor recovers.
+    actor.caseSystem.pdfReportConfig.blobStore.delete(metadata.actorId)
+    Done
+  }
 }
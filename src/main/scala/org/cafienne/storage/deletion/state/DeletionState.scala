@@ -66,6 +66,11 @@ trait DeletionState extends StorageActorState {
     */
   def clearQueryData(): Future[Done]
 
+  /** ModelActor specific implementation to clean up data that is kept outside of the events and the QueryDB.
+    * It is invoked after the QueryDB data has been cleaned.
+    */
+  def clearExternalData(): Future[Done] = Future.successful(Done)
+
   /** The removal process is idempotent (i.e., it can be triggered multiple times without ado).
     * It is typically triggered when recovery is done or after the first incoming RemoveActorData command is received.
     * It triggers both child removal and cleaning query data.
@@ -106,7 +111,7 @@ trait DeletionState extends StorageActorState {
   def triggerQueryDBCleanupProcess(): Unit = {
     if (!queryDataCleared) {
       printLogMessage("Deleting query data")
-      clearQueryData().map(_ => actor.self ! QueryDataRemoved(metadata))
+      clearQueryData().flatMap(_ => clearExternalData()).map(_ => actor.self ! QueryDataRemoved(metadata))
     }
     checkCleaningDone()
   }
@@ -18,6 +18,7 @@
 package org.cafienne.storage.querydb
 
 import akka.Done
+import org.cafienne.querydb.materializer.cases.CaseEventSink
 
 import scala.concurrent.Future
 
@@ -29,6 +30,7 @@ class CaseStorage extends QueryDBStorage {
     addStatement(TableQuery[CaseInstanceDefinitionTable].filter(_.caseInstanceId === caseId).delete)
     addStatement(TableQuery[PlanItemTable].filter(_.caseInstanceId === caseId).delete)
     addStatement(TableQuery[CaseFileTable].filter(_.caseInstanceId === caseId).delete)
+    addStatement(TableQuery[CaseFileItemTable].filter(_.caseInstanceId === caseId).delete)
     addStatement(TableQuery[CaseBusinessIdentifierTable].filter(_.caseInstanceId === caseId).delete)
     addStatement(TableQuery[CaseInstanceRoleTable].filter(_.caseInstanceId === caseId).delete)
     addStatement(TableQuery[CaseInstanceTeamUserTable].filter(_.caseInstanceId === caseId).delete)
@@ -36,7 +38,7 @@ class CaseStorage extends QueryDBStorage {
     addStatement(TableQuery[CaseInstanceTeamGroupTable].filter(_.caseInstanceId === caseId).delete)
     addStatement(TableQuery[TaskTable].filter(_.caseInstanceId === caseId).delete)
     addStatement(TableQuery[CaseInstanceTable].filter(_.id === caseId).delete)
-    commit()
+    commit().andThen(_ => CaseEventSink.projectionCache.foreach(_.invalidate(caseId)))
   }
 
   def archiveCase(caseId: String): Future[Done] = {
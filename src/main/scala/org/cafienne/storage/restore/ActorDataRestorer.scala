@@ -18,7 +18,7 @@
 package org.cafienne.storage.restore
 
 import akka.actor.{ActorRef, Props, Terminated}
-import akka.persistence.DeleteMessagesSuccess
+import akka.persistence.{DeleteMessagesSuccess, DeleteSnapshotsFailure, DeleteSnapshotsSuccess}
 import org.cafienne.infrastructure.Cafienne
 import org.cafienne.storage.actormodel.{ActorMetadata, StorageActor}
 import org.cafienne.storage.archival.Archive
@@ -90,6 +90,8 @@ class ActorDataRestorer(override val caseSystem: CaseSystem, override val metada
     case command: RestoreActorData => initiateRestore(command) // Initial command. Validate and reply.
     case event: ArchiveRetrieved => storeEvent(event) // Archive available, store and spread.
     case event: ChildRestored => storeEvent(event) // One of our children restored itself, we can remove it from the list.
+    case _: DeleteSnapshotsSuccess => snapshotsCleared() // Snapshots of the model actor are gone, now delete the events
+    case failure: DeleteSnapshotsFailure => snapshotsClearingFailed(failure)
     case _: DeleteMessagesSuccess => restoreCompleted() // Event journal no longer contains our events, we can be deleted
     case t: Terminated => childActorTerminated(t) // One of our children left memory. That's a good sign...
     case other => logger.warn(s"Received message with unknown type. Ignoring it. Message is of type ${other.getClass.getName}")
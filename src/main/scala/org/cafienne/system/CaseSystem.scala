@@ -19,11 +19,14 @@ package org.cafienne.system
 
 import akka.actor._
 import com.typesafe.scalalogging.LazyLogging
+import org.cafienne.actormodel.PassivationSweeper
 import org.cafienne.infrastructure.Cafienne
+import org.cafienne.infrastructure.config.engine.PDFReportConfig
 import org.cafienne.infrastructure.akkahttp.authentication.IdentityCache
+import org.cafienne.processtask.implementation.mail.MailTransportPools
 import org.cafienne.system.bootstrap.BootstrapPlatformConfiguration
 import org.cafienne.system.router.CafienneGateway
-import org.cafienne.timerservice.TimerService
+import org.cafienne.timerservice.{TimerPartition, TimerService}
 
 import scala.concurrent.ExecutionContextExecutor
 
@@ -34,8 +37,11 @@ import scala.concurrent.ExecutionContextExecutor
   * and forward messages to the proper case instance.
   * In the local scenario, the case system is run in-memory, and messages are forwarded by
   * a simple in-memory router.
+  * The mode is read from cafienne.actor.router.mode, unless it is passed explicitly (e.g. to run multiple nodes in one JVM).
   */
-class CaseSystem(val system: ActorSystem = ActorSystem("Cafienne-Case-System", Cafienne.config.systemConfig)) extends LazyLogging {
+class CaseSystem(val system: ActorSystem = ActorSystem("Cafienne-Case-System", Cafienne.config.systemConfig), val sharded: Boolean = Cafienne.config.actor.router.sharded) extends LazyLogging {
+
+  def this(system: ActorSystem) = this(system, Cafienne.config.actor.router.sharded)
 
   implicit val ec: ExecutionContextExecutor = system.dispatcher
 
@@ -45,10 +51,25 @@ class CaseSystem(val system: ActorSystem = ActorSystem("Cafienne-Case-System", C
   val gateway: CafienneGateway = new CafienneGateway(this)
 
   // Create singleton actors
-  val timerService: ActorRef = system.actorOf(Props.create(classOf[TimerService], this), TimerService.CAFIENNE_TIMER_SERVICE);
+  val timerServices: Seq[ActorRef] = TimerPartition.all(Cafienne.config.engine.timerService.partitions).map(partition => system.actorOf(Props.create(classOf[TimerService], this, partition), partition.name))
 
   lazy val userCache: IdentityCache = new IdentityCache()
 
+  /**
+    * Removes ModelActors from memory when they have been idle for too long
+    */
+  lazy val passivationSweeper: PassivationSweeper = new PassivationSweeper(system)
+
+  /**
+    * Pools of connections to the mail servers, used by the Mail process tasks
+    */
+  lazy val mailTransportPools: MailTransportPools = new MailTransportPools(system)
+
+  /**
+    * Settings of the PDFReport process tasks, including the blob store that holds the generated documents
+    */
+  lazy val pdfReportConfig: PDFReportConfig = Cafienne.config.engine.pdfReport
+
   // First, start platform bootstrap configuration
   BootstrapPlatformConfiguration.run(this)
 }
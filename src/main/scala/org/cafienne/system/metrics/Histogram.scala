@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.system.metrics
+
+import org.cafienne.json.ValueMap
+
+import java.util.concurrent.atomic.{LongAccumulator, LongAdder}
+
+/**
+  * Simple histogram of durations, bucketed in exponentially growing millisecond ranges.
+  */
+class Histogram {
+  private val count = new LongAdder
+  private val total = new LongAdder
+  private val max = new LongAccumulator((a, b) => Math.max(a, b), 0)
+  private val buckets = Array.fill(Histogram.bounds.length + 1)(new LongAdder)
+
+  def record(nanos: Long): Unit = {
+    val millis = nanos / 1000000
+    count.increment()
+    total.add(nanos)
+    max.accumulate(nanos)
+    val index = Histogram.bounds.indexWhere(millis < _)
+    buckets(if (index < 0) Histogram.bounds.length else index).increment()
+  }
+
+  def asJSON(): ValueMap = {
+    val numRecords = count.sum()
+    val average = if (numRecords == 0) 0 else total.sum() / numRecords / 1000
+    val json = new ValueMap("count", numRecords, "average-micros", average, "max-micros", max.get() / 1000)
+    val distribution = json.`with`("buckets")
+    Histogram.bounds.indices.foreach(i => distribution.plus(s"<${Histogram.bounds(i)}ms", buckets(i).sum()))
+    distribution.plus(s">=${Histogram.bounds.last}ms", buckets(Histogram.bounds.length).sum())
+    json
+  }
+}
+
+object Histogram {
+  private val bounds: Array[Long] = Array(1, 5, 10, 50, 100, 500, 1000, 5000, 10000)
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.system.metrics
+
+import org.cafienne.json.ValueMap
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.LongAdder
+import java.util.function.Supplier
+
+/**
+  * A measure point holds a set of counters, gauges and histograms of a single component.
+  * All operations are thread safe, and cheap enough to be invoked from the hot path.
+  */
+class MetricsMeasurePoint(val key: String) {
+  private val counters = new ConcurrentHashMap[String, LongAdder]()
+  private val histograms = new ConcurrentHashMap[String, Histogram]()
+  private val gauges = new ConcurrentHashMap[String, Supplier[Any]]()
+
+  def counter(name: String): LongAdder = counters.computeIfAbsent(name, _ => new LongAdder)
+
+  def increment(name: String): Unit = counter(name).increment()
+
+  def add(name: String, value: Long): Unit = counter(name).add(value)
+
+  def histogram(name: String): Histogram = histograms.computeIfAbsent(name, _ => new Histogram)
+
+  /**
+    * Record the duration (in nanoseconds) in the histogram with the given name
+    */
+  def record(name: String, nanos: Long): Unit = histogram(name).record(nanos)
+
+  /**
+    * Register a gauge, i.e., a value that is computed each time the metrics are reported.
+    */
+  def gauge(name: String, value: Supplier[Any]): Unit = gauges.put(name, value)
+
+  def asJSON(): ValueMap = {
+    val json = new ValueMap()
+    counters.forEach((name, counter) => json.plus(name, counter.sum()))
+    gauges.forEach((name, gauge) => json.plus(name, gauge.get()))
+    histograms.forEach((name, histogram) => json.put(name, histogram.asJSON()))
+    json
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.system.metrics
+
+import org.cafienne.json.ValueMap
+
+import java.util
+import scala.collection.mutable.Set
+import scala.jdk.CollectionConverters._
+
+/**
+  * Metrics monitor keeps track of runtime statistics of the various components inside the Case System,
+  * like caches, routers and projections.
+  */
+object MetricsMonitor {
+
+  // Make it an ordered set, so that the json structure is stable.
+  private val measures: Set[MetricsMeasurePoint] = new util.LinkedHashSet[MetricsMeasurePoint]().asScala
+
+  def report: ValueMap = {
+    val json = new ValueMap()
+    measures.synchronized {
+      measures.foreach(measure => json.put(measure.key, measure.asJSON()))
+    }
+    json
+  }
+
+  /**
+    * Add a new measure point with the given key. If a measure point with the key already exists, that one is returned.
+    */
+  def addMeasure(key: String): MetricsMeasurePoint = measures.synchronized {
+    measures.find(_.key == key).getOrElse({
+      val measure = new MetricsMeasurePoint(key)
+      measures += measure
+      measure
+    })
+  }
+}
@@ -17,46 +17,157 @@
 
 package org.cafienne.system.router
 
+import akka.Done
 import akka.actor.{Actor, ActorRef, ActorSystem, Props}
 import akka.util.Timeout
-import org.cafienne.actormodel.command.ModelCommand
-import org.cafienne.cmmn.actorapi.command.CaseCommand
+import com.typesafe.scalalogging.LazyLogging
+import org.cafienne.actormodel.ModelActor
+import org.cafienne.actormodel.command.{ModelCommand, TerminateModelActor}
+import org.cafienne.actormodel.response.CommandFailure
+import org.cafienne.cmmn.actorapi.command.migration.MigrateDefinition
+import org.cafienne.cmmn.actorapi.command.{CaseCommand, StartCase}
+import org.cafienne.cmmn.definition.{DefinitionsCache, DefinitionsDocument}
+import org.cafienne.cmmn.instance.Case
+import org.cafienne.consentgroup.ConsentGroupActor
 import org.cafienne.consentgroup.actorapi.command.ConsentGroupCommand
 import org.cafienne.infrastructure.Cafienne
-import org.cafienne.processtask.actorapi.command.ProcessCommand
+import org.cafienne.journal.definitions.DefinitionSourceStoreProvider
+import org.cafienne.processtask.actorapi.command.{MigrateProcessDefinition, ProcessCommand, StartProcess}
+import org.cafienne.processtask.instance.ProcessTaskActor
+import org.cafienne.storage.actormodel.ActorType
 import org.cafienne.system.CaseSystem
+import org.cafienne.tenant.TenantActor
 import org.cafienne.tenant.actorapi.command.TenantCommand
 
 import scala.concurrent.Future
+import scala.util.{Failure, Success, Try}
 
-class CafienneGateway(caseSystem: CaseSystem) {
+class CafienneGateway(caseSystem: CaseSystem) extends LazyLogging {
   private val system: ActorSystem = caseSystem.system
+  private val sharded: Boolean = caseSystem.sharded
   private val terminationRequests = collection.concurrent.TrieMap[String, ActorRef]()
   private val actors = collection.concurrent.TrieMap[String, ActorRef]()
-  private val caseService = system.actorOf(Props.create(classOf[LocalRouter], caseSystem, actors, terminationRequests), "cases")
-  private val processTaskService = system.actorOf(Props.create(classOf[LocalRouter], caseSystem, actors, terminationRequests), "process-tasks")
-  private val tenantService = system.actorOf(Props.create(classOf[LocalRouter], caseSystem, actors, terminationRequests), "tenants")
-  private val consentGroupService = system.actorOf(Props.create(classOf[LocalRouter], caseSystem, actors, terminationRequests), "consent-groups")
-  private val defaultRouterService: ActorRef = system.actorOf(Props.create(classOf[LocalRouter], caseSystem, actors, terminationRequests), "default-router")
+  private val partitions: Int = if (sharded) 1 else Cafienne.config.actor.router.localPartitions
+  private val caseService = createRouter("cases", classOf[Case])
+  private val processTaskService = createRouter("process-tasks", classOf[ProcessTaskActor])
+  private val tenantService = createRouter("tenants", classOf[TenantActor])
+  private val consentGroupService = createRouter("consent-groups", classOf[ConsentGroupActor])
+  private val defaultRouterService: ActorRef = createLocalRouter("default-router", "default", 0)
+
+  private def createRouter(name: String, actorClass: Class[_ <: ModelActor]): IndexedSeq[ActorRef] = {
+    if (sharded) {
+      IndexedSeq(ShardedRouter.startRegion(caseSystem, actorClass))
+    } else {
+      // The maximum number of actors in memory is spread across the partitions
+      val maxResidents = Math.ceil(Cafienne.config.actor.router.maxResidentActors.toDouble / partitions).toInt
+      val actorType = actorClass.getSimpleName
+      if (partitions == 1) {
+        IndexedSeq(createLocalRouter(name, actorType, maxResidents))
+      } else {
+        (0 until partitions).map(partition => createLocalRouter(s"$name-$partition", actorType, maxResidents))
+      }
+    }
+  }
+
+  private def createLocalRouter(name: String, actorType: String, maxResidents: Int): ActorRef = {
+    system.actorOf(Props.create(classOf[LocalRouter], caseSystem, actors, terminationRequests, actorType, Int.box(maxResidents)), name)
+  }
+
+  /**
+    * Select the router partition for the actor id. A ModelActor is always created, found and terminated
+    * by the same partition, so that creation and termination of a specific actor remain serialized.
+    */
+  private def select(routers: IndexedSeq[ActorRef], actorId: String): ActorRef = {
+    routers(CafienneGateway.partitionOf(actorId, routers.size))
+  }
 
   def request(message: ModelCommand): Future[Any] = {
     import akka.pattern.ask
     implicit val timeout: Timeout = Cafienne.config.actor.askTimout
 
-    getRouter(message).ask(message)
+    def ask(): Future[Any] = getRouter(message) match {
+      case Success(router) => router.ask(message)
+      case Failure(failure) => Future.failed(failure)
+    }
+
+    definitionStored(message) match {
+      case None => ask()
+      case Some(stored) => stored.flatMap(_ => ask())(system.dispatcher)
+    }
   }
 
   def inform(message: ModelCommand, sender: ActorRef = Actor.noSender): Unit = {
-    getRouter(message).tell(message, sender)
+    def tell(): Unit = getRouter(message) match {
+      case Success(router) => router.tell(message, sender)
+      case Failure(failure) => logger.error(s"Dropping ${message.getClass.getSimpleName} for ModelActor[${message.actorId}]: ${failure.getMessage}")
+    }
+
+    definitionStored(message) match {
+      case None => tell()
+      case Some(stored) => stored.onComplete {
+        case Success(_) => tell()
+        case Failure(failure) =>
+          // Tell the sender that the command is not handled, rather than letting it wait for a response that never comes
+          logger.error(s"Cannot send ${message.getClass.getSimpleName} to ModelActor[${message.actorId}], because the definition could not be stored", failure)
+          Option(sender).foreach(_ ! new CommandFailure(message, failure))
+      }(system.dispatcher)
+    }
+  }
+
+  /**
+    * When definitions are stored by reference, commands carrying a definition are only sent after the source of the
+    * definition has been stored. This keeps I/O out of the serialization of the command and of the events that refer to it.
+    * Returns None if the command can be sent right away.
+    */
+  private def definitionStored(message: ModelCommand): Option[Future[Done]] = {
+    if (!Cafienne.config.repository.storeByReference) return None
+    val document: Option[DefinitionsDocument] = message match {
+      case command: StartCase => Some(command.getDefinition.getDefinitionsDocument)
+      case command: MigrateDefinition => Some(command.getNewDefinition.getDefinitionsDocument)
+      case command: StartProcess => Some(command.getDefinition.getDefinitionsDocument)
+      case command: MigrateProcessDefinition => Some(command.getNewDefinition.getDefinitionsDocument)
+      case _ => None
+    }
+    document.filterNot(d => DefinitionSourceStoreProvider.isStored(d.getSourceHash)).map(DefinitionsCache.storeByReference)
   }
 
-  private def getRouter(message: Any): ActorRef = {
+  /**
+    * Returns the router for the message, or a failure if the message cannot be routed.
+    */
+  private def getRouter(message: ModelCommand): Try[ActorRef] = {
     message match {
-      case _: CaseCommand => caseService
-      case _: ProcessCommand => processTaskService
-      case _: TenantCommand => tenantService
-      case _: ConsentGroupCommand => consentGroupService
-      case _ => defaultRouterService
+      case _: CaseCommand => Success(select(caseService, message.actorId))
+      case _: ProcessCommand => Success(select(processTaskService, message.actorId))
+      case _: TenantCommand => Success(select(tenantService, message.actorId))
+      case _: ConsentGroupCommand => Success(select(consentGroupService, message.actorId))
+      case terminate: TerminateModelActor if sharded || partitions > 1 => getRouter(terminate.actorType, terminate.actorId)
+      case _ => Success(defaultRouterService)
     }
   }
+
+  /**
+    * In sharded or partitioned mode, termination requests must be sent to the router that owns the actor.
+    * If the type is not known, the default router handles the request. In local mode it hands the request
+    * to the router that created the actor, but it cannot reach a sharded actor.
+    */
+  private def getRouter(actorType: String, actorId: String): Try[ActorRef] = {
+    actorType match {
+      case ActorType.Case => Success(select(caseService, actorId))
+      case ActorType.Process => Success(select(processTaskService, actorId))
+      case ActorType.Tenant => Success(select(tenantService, actorId))
+      case ActorType.Group => Success(select(consentGroupService, actorId))
+      case _ if sharded => Failure(new IllegalArgumentException(s"Cannot terminate actor $actorId without its type, since it runs in a shard region"))
+      case _ => Success(defaultRouterService)
+    }
+  }
+}
+
+object CafienneGateway {
+  /**
+    * Returns the index of the partition that routes the messages for the actor id
+    */
+  def partitionOf(actorId: String, partitions: Int): Int = {
+    if (partitions == 1) 0
+    else Math.floorMod(actorId.hashCode, partitions)
+  }
 }
@@ -17,26 +17,46 @@
 
 package org.cafienne.system.router
 
-import akka.actor.{ActorRef, Props, Terminated}
+import akka.actor.{ActorRef, PoisonPill, Props, Terminated}
 import org.cafienne.actormodel.command.{ModelCommand, TerminateModelActor}
 import org.cafienne.actormodel.response.ActorTerminated
 import org.cafienne.system.CaseSystem
+import org.cafienne.system.metrics.MetricsMonitor
 
+import java.util
 import scala.collection.mutable
 
 /**
   * In-memory router for akka messages sent in the CaseSystem.
   * Facilitates actor management in a non-clustered actor system.
+  * If maxResidents is set, the router passivates the least recently used ModelActor when
+  * the number of actors it has in memory exceeds that limit.
   */
-class LocalRouter(caseSystem: CaseSystem, actors: mutable.Map[String, ActorRef], terminationRequests: mutable.Map[String, ActorRef]) extends CaseMessageRouter {
+class LocalRouter(caseSystem: CaseSystem, actors: mutable.Map[String, ActorRef], terminationRequests: mutable.Map[String, ActorRef], actorType: String, maxResidents: Int) extends CaseMessageRouter {
   logger.info(s"Starting case system in local mode, opening router for ${self.path.name}")
+  /**
+    * The actors created by this router, in order of last use
+    */
+  private val residents = new util.LinkedHashMap[String, ActorRef](16, 0.75f, true)
+  /**
+    * Messages for actors that are being passivated. They are delivered to a new incarnation after the old one has terminated.
+    */
+  private val passivating = new mutable.HashMap[String, mutable.Queue[(ModelCommand, ActorRef)]]()
+  private val metrics = MetricsMonitor.addMeasure("actor-residency")
+  metrics.gauge(s"${self.path.name}.resident", () => residents.size())
+
   /**
     * Forward a command to the appropriate ModelActor. Actor will be created if it does not yet exist.
     *
     * @param m
     */
   override def forwardMessage(m: ModelCommand): Unit = {
-    actors.getOrElseUpdate(m.actorId, createActorRef(m)).forward(m)
+    passivating.get(m.actorId) match {
+      case Some(buffer) => buffer.enqueue((m, sender()))
+      case None =>
+        residents.get(m.actorId) // Mark the actor as most recently used
+        actors.getOrElseUpdate(m.actorId, createActorRef(m)).forward(m)
+    }
   }
 
   /**
@@ -50,19 +70,43 @@ class LocalRouter(caseSystem: CaseSystem, actors: mutable.Map[String, ActorRef],
     val ref = context.actorOf(Props.create(m.actorClass, caseSystem), m.actorId)
     // Also start watching the lifecycle of the model actor
     context.watch(ref)
+    metrics.increment(s"$actorType.activations")
+    residents.put(m.actorId, ref)
+    passivateLeastRecentlyUsed()
     ref
   }
 
+  private def passivateLeastRecentlyUsed(): Unit = {
+    if (maxResidents > 0) {
+      val iterator = residents.entrySet().iterator()
+      while (residents.size() > maxResidents && iterator.hasNext) {
+        val eldest = iterator.next()
+        iterator.remove()
+        logger.whenDebugEnabled(logger.debug("Passivating ModelActor[" + eldest.getKey + "] because router " + self.path.name + " has more than " + maxResidents + " actors in memory"))
+        passivating.put(eldest.getKey, new mutable.Queue[(ModelCommand, ActorRef)]())
+        // PoisonPill instead of stop, so that the actor completes the messages already in its mailbox
+        eldest.getValue ! PoisonPill
+        metrics.increment(s"$actorType.evictions")
+      }
+    }
+  }
+
   override def terminateActor(msg: TerminateModelActor): Unit = {
     val actorId = msg.actorId;
-    // If the actor is not (or no longer) in memory, We can immediately inform the sender
-    actors.get(actorId).fold({
-      if (msg.needsResponse) sender() ! ActorTerminated(actorId)
-    })(actor => {
-      // Otherwise, store the request, stop the actor and, when the Termination is received, we will inform the requester.
-      if (msg.needsResponse) terminationRequests.put(actorId, sender())
-      context.stop(actor)
-    })
+    actors.get(actorId) match {
+      // If the actor is not (or no longer) in memory, We can immediately inform the sender
+      case None => if (msg.needsResponse) sender() ! ActorTerminated(actorId)
+      // If another router created the actor (e.g. when the type of the actor is not known), that router must stop it,
+      //  so that creation and termination of the actor remain serialized in one router.
+      case Some(actor) if actor.path.parent != self.path => context.actorSelection(actor.path.parent).forward(msg)
+      case Some(actor) =>
+        // Otherwise, store the request, stop the actor and, when the Termination is received, we will inform the requester.
+        if (msg.needsResponse) terminationRequests.put(actorId, sender())
+        // Commands that arrive while the actor stops are delivered to a new incarnation, like during passivation
+        passivating.getOrElseUpdate(actorId, new mutable.Queue[(ModelCommand, ActorRef)]())
+        residents.remove(actorId)
+        context.stop(actor)
+    }
   }
 
   /**
@@ -77,6 +121,14 @@ class LocalRouter(caseSystem: CaseSystem, actors: mutable.Map[String, ActorRef],
     if (actors.remove(actorId).isEmpty) {
       logger.warn("Received a Termination message for actor " + actorId + ", but it was not registered in the LocalRoutingService. Termination message is ignored")
     }
+    residents.remove(actorId)
     terminationRequests.remove(actorId).foreach(requester => requester ! ActorTerminated(actorId))
+    // Deliver the messages that came in during passivation to a new incarnation of the actor
+    passivating.remove(actorId).filter(_.nonEmpty).foreach(buffer => buffer.foreach(message => forwardBuffered(message._1, message._2)))
+  }
+
+  private def forwardBuffered(m: ModelCommand, originalSender: ActorRef): Unit = {
+    residents.get(m.actorId)
+    actors.getOrElseUpdate(m.actorId, createActorRef(m)).tell(m, originalSender)
   }
 }
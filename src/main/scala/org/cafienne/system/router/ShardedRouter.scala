@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.system.router
+
+import akka.actor.{ActorRef, Props}
+import akka.cluster.sharding.{ClusterSharding, ClusterShardingSettings, ShardRegion}
+import com.typesafe.scalalogging.LazyLogging
+import org.cafienne.actormodel.ModelActor
+import org.cafienne.actormodel.command.ModelCommand
+import org.cafienne.infrastructure.Cafienne
+import org.cafienne.system.CaseSystem
+
+import java.util.concurrent.TimeUnit
+import scala.concurrent.duration.FiniteDuration
+
+/**
+  * Router for akka messages sent in a clustered CaseSystem.
+  * Each type of ModelActor runs as an entity in Akka Cluster Sharding, with the actor id as entity id.
+  * The shard region creates the ModelActor on one of the nodes of the cluster when a command comes in,
+  * and passivates it after it has been idle for the configured idle period.
+  */
+object ShardedRouter extends LazyLogging {
+
+  /**
+    * Start the shard region for the type of ModelActor on this node. The region is registered under the simple class name.
+    */
+  def startRegion(caseSystem: CaseSystem, actorClass: Class[_ <: ModelActor]): ActorRef = {
+    val config = Cafienne.config.actor
+    logger.info(s"Starting case system in sharded mode, opening shard region for ${actorClass.getSimpleName}")
+    val settings = ClusterShardingSettings(caseSystem.system)
+      .withRememberEntities(false)
+      .withPassivateIdleAfter(FiniteDuration(config.idlePeriod, TimeUnit.MILLISECONDS))
+    ClusterSharding(caseSystem.system).start(
+      typeName = actorClass.getSimpleName,
+      entityProps = Props.create(actorClass, caseSystem),
+      settings = settings,
+      messageExtractor = new ModelCommandExtractor(config.router.numberOfShards))
+  }
+}
+
+/**
+  * Extracts the entity id (i.e., the persistence id of the ModelActor) from the command,
+  * and determines the shard based on the hash code of that id.
+  */
+class ModelCommandExtractor(numberOfShards: Int) extends ShardRegion.HashCodeMessageExtractor(numberOfShards) {
+  override def entityId(message: Any): String = message match {
+    case command: ModelCommand => command.actorId
+    case _ => null
+  }
+}
@@ -23,7 +23,9 @@ import akka.stream.scaladsl.Sink
 import org.cafienne.cmmn.actorapi.event.plan.eventlistener._
 import org.cafienne.infrastructure.cqrs.{ModelEventEnvelope, TaggedEventSource}
 import org.cafienne.system.CaseSystem
+import org.cafienne.infrastructure.Cafienne
 import org.cafienne.system.health.HealthMonitor
+import org.cafienne.timerservice.persistence.TimerBatch
 
 import scala.concurrent.Future
 import scala.util.{Failure, Success}
@@ -37,6 +39,7 @@ class TimerEventSink(val timerService: TimerService) extends TaggedEventSource {
 
   def consumeModelEvent(envelope: ModelEventEnvelope): Future[Done] = {
     envelope.event match {
+      case event if !timerService.partition.contains(event.getActorId) => Future.successful(Done) // Timer of a case in another partition
       case event: TimerSet =>
         logger.debug(s"${event.getClass.getSimpleName} on timer ${event.getTimerId} in case ${event.getActorId} (triggering at ${event.getTargetMoment})")
         timerService.monitor.addTimer(event, envelope.offset)
@@ -49,14 +52,41 @@ class TimerEventSink(val timerService: TimerService) extends TaggedEventSource {
     }
   }
 
+  /**
+    * Handles the events in memory one by one, and then writes the outcome to the timer store with a single offset update.
+    */
+  def consumeModelEvents(envelopes: Seq[ModelEventEnvelope]): Future[Done] = {
+    val updates: Seq[(String, Option[Timer])] = envelopes.map(_.event).filter(event => timerService.partition.contains(event.getActorId)).flatMap {
+      case event: TimerSet =>
+        logger.debug(s"${event.getClass.getSimpleName} on timer ${event.getTimerId} in case ${event.getActorId} (triggering at ${event.getTargetMoment})")
+        Some(event.getTimerId -> Some(timerService.monitor.setTimer(event)))
+      case event: TimerCleared =>
+        logger.debug(s"${event.getClass.getSimpleName} on timer ${event.getTimerId} in case ${event.getActorId}")
+        timerService.monitor.clearTimer(event.getTimerId)
+        Some(event.getTimerId -> Option.empty[Timer])
+      case other =>
+        logger.warn(s"Timer Service received an unexpected event of type ${other.getClass.getName}")
+        None
+    }
+    timerService.monitor.storeTimers(TimerBatch.from(updates, envelopes.lastOption.map(_.offset)))
+  }
+
   /**
     * Start reading and processing events
     */
   def start(): Unit = {
     import scala.concurrent.ExecutionContext.Implicits.global
 
-    taggedEvents
-      .mapAsync(1)(consumeModelEvent)
+    val batchSize = Cafienne.config.engine.timerService.batchSize
+    // Store writes stay sequential (parallelism 1): each write also stores the offset, and a later offset must never be
+    //  committed before the writes of earlier events. Batching is what reduces the number of database round trips.
+    val events = if (batchSize > 1) {
+      taggedEvents.groupedWithin(batchSize, Cafienne.config.engine.timerService.batchDelay).mapAsync(1)(consumeModelEvents)
+    } else {
+      taggedEvents.mapAsync(1)(consumeModelEvent)
+    }
+
+    events
       .runWith(Sink.ignore)
       .onComplete {
         case Success(_) => //
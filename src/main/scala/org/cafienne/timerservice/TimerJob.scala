@@ -17,31 +17,39 @@
 
 package org.cafienne.timerservice
 
-import akka.actor.{Cancellable, Scheduler}
+import akka.Done
 import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.actormodel.response.{CommandFailure, ModelResponse}
 import org.cafienne.cmmn.actorapi.command.plan.eventlistener.RaiseEvent
 
-import java.util.concurrent.TimeUnit
-import scala.concurrent.ExecutionContext.Implicits.global
-import scala.concurrent.duration.{Duration, FiniteDuration}
+import scala.concurrent.{Future, Promise}
 
-class TimerJob(val timerService: TimerService, val timer: Timer, val scheduler: Scheduler) extends Runnable with LazyLogging {
-  val command = new RaiseEvent(timer.user, timer.caseInstanceId, timer.timerId)
+class TimerJob(val timerService: TimerService, val timer: Timer) extends Runnable with LazyLogging {
   val millis: Long = timer.moment.toEpochMilli
-  val delay: Long = millis - System.currentTimeMillis
 
-  val duration: FiniteDuration = Duration.create(delay, TimeUnit.MILLISECONDS)
-  logger.whenDebugEnabled(logger.debug(s"Scheduling to run timer request ${timer.timerId} in ${duration.length / 1000}.${duration.length % 1000} seconds from now (at ${timer.moment})"))
-  val schedule: Cancellable = scheduler.scheduleOnce(duration, this)
+  // Position of the job inside the TimingWheel
+  private[timerservice] var bucket: TimerBucket = _
+  private[timerservice] var previous: TimerJob = _
+  private[timerservice] var next: TimerJob = _
 
-  def run(): Unit = {
-    logger.whenDebugEnabled(logger.debug(s"Raising timer in case ${timer.caseInstanceId} for timer ${timer.timerId} on behalf of user ${timer.userId}"))
-    timerService.askModel(command, handleFailingCaseInvocation, handleCaseInvocation)
-  }
+  def run(): Unit = raise()
 
-  def cancel(): Boolean = {
-    schedule.cancel()
+  /**
+    * Raises the timer in the case. The future completes when the case has responded.
+    */
+  def raise(): Future[Done] = {
+    logger.whenDebugEnabled(logger.debug(s"Raising timer in case ${timer.caseInstanceId} for timer ${timer.timerId} on behalf of user ${timer.userId}"))
+    val response = Promise[Done]()
+    def onFailure(failure: CommandFailure): Unit = {
+      handleFailingCaseInvocation(failure)
+      response.trySuccess(Done)
+    }
+    def onSuccess(success: ModelResponse): Unit = {
+      handleCaseInvocation(success)
+      response.trySuccess(Done)
+    }
+    timerService.askModel(new RaiseEvent(timer.user, timer.caseInstanceId, timer.timerId), onFailure, onSuccess)
+    response.future
   }
 
   def handleFailingCaseInvocation(failure: CommandFailure): Unit = {
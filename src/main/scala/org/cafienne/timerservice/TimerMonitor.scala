@@ -19,11 +19,13 @@ package org.cafienne.timerservice
 
 import akka.Done
 import akka.actor.Scheduler
+import akka.pattern.after
 import akka.persistence.query.Offset
 import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.cmmn.actorapi.event.plan.eventlistener.TimerSet
 import org.cafienne.infrastructure.Cafienne
 import org.cafienne.system.health.HealthMonitor
+import org.cafienne.timerservice.persistence.TimerBatch
 
 import scala.collection.mutable
 import scala.concurrent.duration.FiniteDuration
@@ -33,9 +35,14 @@ class TimerMonitor(val timerService: TimerService) extends LazyLogging {
   private val activeTimers: mutable.Map[String, TimerJob] = mutable.Map()
   implicit val dispatcher: ExecutionContext = timerService.caseSystem.system.dispatcher
   val scheduler: Scheduler = timerService.caseSystem.system.scheduler
-  val reader = new TimerStorageReader(this)
+  val reader = new TimerStorageReader(timerService.storage, loadTimer)(timerService.caseSystem.system)
+  private val tick: FiniteDuration = Cafienne.config.engine.timerService.tick
+  private val wheel = new TimingWheel(tick.toMillis, Cafienne.config.engine.timerService.wheelSize, System.currentTimeMillis)
 
   def start(): Unit = {
+    // Turn the wheel at a fixed rate; timers that expired during a tick are raised as a batch
+    scheduler.scheduleWithFixedDelay(tick, tick)(() => fireTimers())
+
     // Start off with immediately getting first set of timers from storage ...
     //  Note: this loads existing timers faster than first scheduling it.
     reader.loadNextWindow
@@ -46,10 +53,21 @@ class TimerMonitor(val timerService: TimerService) extends LazyLogging {
   }
 
   def removeTimer(timerId: String, offset: Option[Offset]): Future[Done] = {
-    activeTimers.remove(timerId).map(schedule => schedule.cancel())
+    clearTimer(timerId)
     runStorage(timerService.storage.removeTimer(timerId, offset))
   }
 
+  /**
+    * Removes the timer from memory only
+    */
+  def clearTimer(timerId: String): Unit = {
+    activeTimers.synchronized(activeTimers.remove(timerId)).foreach(wheel.cancel)
+  }
+
+  def storeTimers(batch: TimerBatch): Future[Done] = {
+    runStorage(timerService.storage.storeTimers(batch))
+  }
+
   def runStorage(function: => Future[Done]): Future[Done] = {
     try {
       val result = function
@@ -63,15 +81,61 @@ class TimerMonitor(val timerService: TimerService) extends LazyLogging {
   }
 
   def addTimer(event: TimerSet, offset: Offset): Future[Done] = {
+    runStorage(timerService.storage.storeTimer(setTimer(event), Some(offset)))
+  }
+
+  /**
+    * Creates the timer for the event, and schedules it in memory if it fits the current window ahead.
+    * Storing the timer is left to the caller.
+    */
+  def setTimer(event: TimerSet): Timer = {
     val job: Timer = Timer(event.getCaseInstanceId, event.getTimerId, event.getTargetMoment, event.getUser.id)
-    // If the timer fits the current window ahead, immediately schedule it. Otherwise just persist.
     if (reader.fitsActiveWindow(job)) {
       scheduleTimer(job)
     }
-    runStorage(timerService.storage.storeTimer(job, Some(offset)))
+    job
+  }
+
+  /**
+    * Schedules a timer that is loaded from storage. If the timer is already due, it is raised right away,
+    * and the future completes when the case has handled it (or when that takes longer than the ask timeout).
+    */
+  def loadTimer(timer: Timer): Future[Done] = {
+    addToWheel(timer).fold(Future.successful[Done](Done))(overdue => {
+      val timeout = after(Cafienne.config.actor.askTimout.duration, scheduler)(Future.successful(Done))
+      Future.firstCompletedOf(Seq(overdue.raise(), timeout))
+    })
+  }
+
+  /**
+    * Adds the timer to the timing wheel. Returns the job if the moment of the timer has already passed, so that the caller can raise it.
+    */
+  private def addToWheel(timer: Timer): Option[TimerJob] = {
+    val job = activeTimers.synchronized {
+      if (activeTimers.contains(timer.timerId)) {
+        None // Already scheduled (or even fired) before; reloading the window must not raise it again
+      } else {
+        val job = new TimerJob(timerService, timer)
+        activeTimers.put(timer.timerId, job)
+        Some(job)
+      }
+    }
+    job.filterNot(job => {
+      logger.whenDebugEnabled(logger.debug(s"Scheduling to run timer request ${timer.timerId} at ${timer.moment}"))
+      wheel.add(job)
+    })
   }
 
   def scheduleTimer(timer: Timer): Unit = {
-    activeTimers.getOrElseUpdate(timer.timerId, new TimerJob(timerService, timer, scheduler))
+    // If the moment has passed already, raise it right away
+    addToWheel(timer).foreach(dispatcher.execute)
+  }
+
+  private def fireTimers(): Unit = {
+    val expired = wheel.advance(System.currentTimeMillis)
+    if (expired.nonEmpty) {
+      logger.whenDebugEnabled(logger.debug(s"Raising ${expired.size} timers"))
+      dispatcher.execute(() => expired.foreach(_.run()))
+    }
   }
 }
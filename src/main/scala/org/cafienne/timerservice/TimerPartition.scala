@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.timerservice
+
+/**
+  * Timers are divided over a number of partitions, each with its own TimerService, based on the case instance id.
+  * A partition consumes only the timer events of its own cases, and loads only the timers of its own cases.
+  */
+final case class TimerPartition(index: Int, count: Int) {
+  val name: String = if (count == 1) TimerService.CAFIENNE_TIMER_SERVICE else s"${TimerService.CAFIENNE_TIMER_SERVICE}-${index + 1}-of-$count"
+
+  /**
+    * Name of the offset record of this partition. A single partition uses the name from before partitioning was introduced.
+    */
+  val offsetName: String = if (count == 1) TimerPartition.offsetPrefix else s"${TimerPartition.offsetPrefix} ${index + 1} of $count"
+
+  def contains(caseInstanceId: String): Boolean = count == 1 || TimerPartition.keyOf(caseInstanceId) % count == index
+
+  def contains(timer: Timer): Boolean = contains(timer.caseInstanceId)
+
+  override def toString: String = s"timer partition ${index + 1} of $count"
+}
+
+object TimerPartition {
+  val offsetPrefix = "Timer Service Offset"
+
+  /**
+    * Partition key of a case; it is stored with the timer, so that a partition can select its timers in the database.
+    * The key does not depend on the number of partitions, so stored keys remain valid when that number changes.
+    */
+  def keyOf(caseInstanceId: String): Int = caseInstanceId.hashCode & Int.MaxValue
+
+  def all(count: Int): Seq[TimerPartition] = (0 until count).map(TimerPartition(_, count))
+}
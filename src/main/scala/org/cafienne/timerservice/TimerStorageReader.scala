@@ -17,6 +17,9 @@
 
 package org.cafienne.timerservice
 
+import akka.Done
+import akka.actor.ActorSystem
+import akka.stream.scaladsl.{Sink, Source}
 import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.infrastructure.Cafienne
 import org.cafienne.system.health.HealthMonitor
@@ -26,31 +29,64 @@ import java.time.Instant
 import scala.concurrent.duration.FiniteDuration
 import scala.concurrent.{ExecutionContext, Future}
 
-class TimerStorageReader(schedule: TimerMonitor) extends Runnable with LazyLogging {
-  implicit val dispatcher: ExecutionContext = schedule.timerService.caseSystem.system.dispatcher
-  private val storage: TimerStore = schedule.timerService.storage
-  private val window: FiniteDuration = Cafienne.config.engine.timerService.window
+/**
+  * Reads the timers of the next window from the storage, and hands them to the loader (TimerMonitor.loadTimer).
+  * At most maxInFlight timers are being loaded at the same time.
+  */
+class TimerStorageReader(storage: TimerStore,
+                         loadTimer: Timer => Future[Done],
+                         window: FiniteDuration = Cafienne.config.engine.timerService.window,
+                         pageSize: Int = Cafienne.config.engine.timerService.loaderPageSize,
+                         maxInFlight: Int = Cafienne.config.engine.timerService.loaderMaxInFlight)
+                        (implicit val system: ActorSystem) extends Runnable with LazyLogging {
+  implicit val dispatcher: ExecutionContext = system.dispatcher
   private var activeWindow: Long = -1
+  // The load that is currently running, and whether the next load has already been chained to it
+  private var currentLoad: Future[Unit] = Future.unit
+  private var nextLoadChained: Boolean = false
 
   override def run(): Unit = loadNextWindow
 
-  def loadNextWindow: Future[Unit] = {
+  /**
+    * Loads the next window, or, if the previous load is still running (e.g. because of a large backlog of timers),
+    * starts the next load only once the previous one has completed. Loads never overlap, and at most one load is waiting.
+    */
+  def loadNextWindow: Future[Unit] = synchronized {
+    if (currentLoad.isCompleted) {
+      currentLoad = readWindow()
+    } else if (!nextLoadChained) {
+      logger.warn("Loading the timers of the previous window has not yet completed; the next window is loaded once that is done")
+      nextLoadChained = true
+      currentLoad = currentLoad.flatMap(_ => {
+        synchronized { nextLoadChained = false }
+        readWindow()
+      })
+    }
+    currentLoad
+  }
+
+  private def readWindow(): Future[Unit] = {
     val nextWindow = Instant.now().plusMillis(window.toMillis)
     activeWindow = nextWindow.toEpochMilli
     logger.whenDebugEnabled(logger.debug(s"Reading timers from TimerStore for next $window (setting active window to $nextWindow)"))
 
     val timers = {
       try {
-        val result = storage.getTimers(nextWindow)
-        HealthMonitor.timerService.isOK()
-        result
+        storage.streamTimers(nextWindow, pageSize)
       } catch {
         case t: Throwable =>
           HealthMonitor.timerService.hasFailed(t)
-          Future.successful(Seq())
+          Source.empty
       }
     }
-    timers.map(_.foreach(schedule.scheduleTimer))
+    // Overdue timers are raised while loading; the stream only reads further when there is room for more of them
+    timers
+      .mapAsync(maxInFlight)(loadTimer)
+      .runWith(Sink.ignore)
+      .map(_ => HealthMonitor.timerService.isOK())
+      .recover {
+        case t: Throwable => HealthMonitor.timerService.hasFailed(t)
+      }
   }
 
   def fitsActiveWindow(timer: Timer): Boolean = {
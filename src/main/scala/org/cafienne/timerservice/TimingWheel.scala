@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.timerservice
+
+import scala.collection.mutable.ListBuffer
+
+/**
+  * Hierarchical timing wheel that holds the timers of the active window in memory.
+  * The lowest level has buckets of one tick each; timers that are too far ahead for that level go into
+  * an overflow wheel with buckets of (tick * wheelSize), and so on. Overflow wheels are created on demand.
+  * When the lower level completes a rotation, the next bucket of the overflow wheel is cascaded down.
+  *
+  * Adding and cancelling a timer is O(1). The wheel is not driven by itself; the owner invokes advance
+  * at a fixed tick rate and receives all jobs that expired in one batch.
+  * A job fires at most one tick after its moment, and never before.
+  */
+class TimingWheel(val tickMillis: Long, val wheelSize: Int, startMillis: Long) {
+  require(tickMillis > 0, "Tick of the timing wheel must be positive")
+  require(wheelSize > 1, "Timing wheel must have more than 1 bucket")
+
+  private val root: WheelLevel = new WheelLevel(tickMillis, startMillis / tickMillis)
+  private var count: Int = 0
+
+  /**
+    * Number of jobs in the wheel
+    */
+  def size: Int = synchronized(count)
+
+  /**
+    * Adds the job to the wheel. Returns false if the moment of the job has already passed,
+    * in which case the job is not added and must be run by the caller.
+    */
+  def add(job: TimerJob): Boolean = synchronized {
+    if (job.bucket != null) {
+      true // Already in the wheel
+    } else if (root.add(job)) {
+      count += 1
+      true
+    } else {
+      false
+    }
+  }
+
+  /**
+    * Removes the job from the wheel, if it is in there
+    */
+  def cancel(job: TimerJob): Boolean = synchronized {
+    if (job.bucket != null) {
+      job.bucket.remove(job)
+      count -= 1
+      true
+    } else {
+      false
+    }
+  }
+
+  /**
+    * Moves the wheel forward until the given moment, and returns all jobs that expired.
+    */
+  def advance(nowMillis: Long): Seq[TimerJob] = synchronized {
+    val expired = ListBuffer[TimerJob]()
+    if (count == 0) {
+      // Nothing to fire, so we can simply jump ahead instead of turning every bucket
+      root.align(nowMillis / tickMillis)
+    } else {
+      while ((root.currentTick + 1) * tickMillis <= nowMillis) {
+        root.tick(expired)
+      }
+    }
+    count -= expired.size
+    expired.toSeq
+  }
+
+  private class WheelLevel(val tick: Long, startTick: Long) {
+    private val buckets: Array[TimerBucket] = Array.fill(wheelSize)(new TimerBucket)
+    // All buckets before the current tick have been processed
+    var currentTick: Long = startTick
+    private var overflow: WheelLevel = _
+
+    def add(job: TimerJob): Boolean = {
+      val slot = job.millis / tick
+      if (slot < currentTick) {
+        false
+      } else if (slot < currentTick + wheelSize) {
+        buckets((slot % wheelSize).toInt).add(job)
+        true
+      } else {
+        if (overflow == null) {
+          // The overflow wheel has not yet processed the bucket after the one covering our current tick
+          overflow = new WheelLevel(tick * wheelSize, currentTick / wheelSize + 1)
+        }
+        overflow.add(job)
+      }
+    }
+
+    /**
+      * Processes the bucket of the current tick. On the lowest level the jobs in the bucket have expired,
+      * on the higher levels they are re-distributed over the lower levels.
+      */
+    def tick(expired: ListBuffer[TimerJob]): Unit = {
+      val jobs = buckets((currentTick % wheelSize).toInt).flush()
+      currentTick += 1
+      if (this eq root) {
+        expired ++= jobs
+      } else {
+        jobs.foreach(job => if (!root.add(job)) expired += job)
+      }
+      if (currentTick % wheelSize == 0 && overflow != null) {
+        overflow.tick(expired)
+      }
+    }
+
+    def align(newTick: Long): Unit = {
+      currentTick = newTick
+      if (overflow != null) overflow.align(newTick / wheelSize + 1)
+    }
+  }
+}
+
+/**
+  * Doubly linked list of jobs, so that cancelling a job does not require a search
+  */
+private[timerservice] class TimerBucket {
+  private var head: TimerJob = _
+
+  def add(job: TimerJob): Unit = {
+    job.bucket = this
+    job.previous = null
+    job.next = head
+    if (head != null) head.previous = job
+    head = job
+  }
+
+  def remove(job: TimerJob): Unit = {
+    if (job.previous != null) job.previous.next = job.next else head = job.next
+    if (job.next != null) job.next.previous = job.previous
+    job.bucket = null
+    job.previous = null
+    job.next = null
+  }
+
+  def flush(): Seq[TimerJob] = {
+    val jobs = ListBuffer[TimerJob]()
+    var job = head
+    while (job != null) {
+      val next = job.next
+      job.bucket = null
+      job.previous = null
+      job.next = null
+      jobs += job
+      job = next
+    }
+    head = null
+    jobs.toSeq
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.timerservice.persistence
+
+import akka.persistence.query.Offset
+import org.cafienne.timerservice.Timer
+
+import scala.collection.mutable
+
+/**
+  * Set of changes to the timer store that must be written in one go, along with the offset of the last event in the batch.
+  * A timer id is either in the list of timers to store or in the list of timers to remove, never in both.
+  */
+final case class TimerBatch(timers: Seq[Timer], removals: Seq[String], offset: Option[Offset])
+
+object TimerBatch {
+  /**
+    * Creates a batch from a sequence of updates, in which a timer is either set (Some) or cleared (None).
+    * Only the last update on a timer determines what must be stored, e.g. a timer that is set and cleared is just removed.
+    */
+  def from(updates: Seq[(String, Option[Timer])], offset: Option[Offset]): TimerBatch = {
+    val lastUpdates = mutable.LinkedHashMap[String, Option[Timer]]()
+    updates.foreach(update => {
+      // Remove first, so that the order reflects the last update on the timer
+      lastUpdates.remove(update._1)
+      lastUpdates.put(update._1, update._2)
+    })
+    val timers = lastUpdates.values.flatten.toSeq
+    val removals = lastUpdates.collect { case (timerId, None) => timerId }.toSeq
+    TimerBatch(timers, removals, offset)
+  }
+}
@@ -17,10 +17,12 @@
 
 package org.cafienne.timerservice.persistence
 
-import akka.Done
-import akka.persistence.query.Offset
+import akka.{Done, NotUsed}
+import akka.persistence.query.{Offset, Sequence, TimeBasedUUID}
+import akka.stream.scaladsl.Source
 import com.typesafe.scalalogging.LazyLogging
-import org.cafienne.timerservice.Timer
+import org.cafienne.infrastructure.cqrs.offset.OffsetRecord
+import org.cafienne.timerservice.{Timer, TimerPartition}
 
 import java.time.Instant
 import scala.concurrent.{ExecutionContext, Future}
@@ -33,16 +35,51 @@ trait TimerStore extends LazyLogging {
 
   def getOffset: Future[Offset]
 
-  val storageName: String = "Timer Service Offset"
+  /**
+    * The partition of which this store holds the timers
+    */
+  def partition: TimerPartition
+
+  val storageName: String = partition.offsetName
+
+  /**
+    * Returns the offset of this partition from the offset records of all timer partitions.
+    * If the partition has no offset yet, e.g. because the number of partitions has changed, then the lowest offset is taken,
+    * so that no timer events are missed. Timer events after that offset are then consumed once more.
+    */
+  def partitionOffset(records: Seq[OffsetRecord]): Offset = {
+    records.find(_.name == storageName).fold({
+      val offsets = records.filter(_.name.startsWith(TimerPartition.offsetPrefix)).map(_.asOffset())
+      if (offsets.nonEmpty) {
+        logger.warn(s"There is no offset for $partition, reading timer events from the lowest offset of the other timer partitions")
+      }
+      offsets.reduceOption((o1, o2) => (o1, o2) match {
+        case (s1: Sequence, s2: Sequence) => if (s1 < s2) s1 else s2
+        case (u1: TimeBasedUUID, u2: TimeBasedUUID) => if (u1 < u2) u1 else u2
+        case _ => Offset.noOffset
+      }).getOrElse(Offset.noOffset)
+    })(_.asOffset())
+  }
 
   def importTimers(list: Seq[Timer]): Unit
 
   def getTimers(window: Instant): Future[Seq[Timer]]
 
+  /**
+    * Returns the timers up to the window as a stream that reads the storage in pages of the given size.
+    * The default implementation reads all timers in one go.
+    */
+  def streamTimers(window: Instant, pageSize: Int): Source[Timer, NotUsed] = Source.future(getTimers(window)).mapConcat(identity)
+
   def storeTimer(job: Timer, offset: Option[Offset]): Future[Done]
 
   def removeTimer(timerId: String, offset: Option[Offset]): Future[Done]
 
+  /**
+    * Stores and removes the timers in the batch and updates the offset, if possible in a single write to the storage
+    */
+  def storeTimers(batch: TimerBatch): Future[Done]
+
   /**
     * Return a description for this type of timer store, defaults to simple class name
     */
@@ -17,28 +17,29 @@
 
 package org.cafienne.timerservice.persistence.cassandra
 
-import akka.Done
+import akka.{Done, NotUsed}
 import akka.persistence.cassandra.query.scaladsl.CassandraReadJournal
-import akka.persistence.query.{Offset, TimeBasedUUID}
+import akka.persistence.query.Offset
+import akka.stream.scaladsl.Source
 import akka.util.Timeout
 import com.datastax.oss.driver.api.core.`type`.DataTypes
 import com.datastax.oss.driver.api.core.cql._
 import com.datastax.oss.driver.api.querybuilder.QueryBuilder.literal
 import com.datastax.oss.driver.api.querybuilder.{QueryBuilder, SchemaBuilder}
 import org.cafienne.infrastructure.cqrs.offset.OffsetRecord
-import org.cafienne.timerservice.Timer
-import org.cafienne.timerservice.persistence.TimerStore
+import org.cafienne.timerservice.{Timer, TimerPartition}
+import org.cafienne.timerservice.persistence.{TimerBatch, TimerStore}
 
 import java.time.Instant
-import java.util.UUID
 import scala.concurrent.duration._
 import scala.concurrent.{Await, ExecutionContext, Future}
 
-class CassandraTimerStore(readJournal: CassandraReadJournal) extends TimerStore {
+class CassandraTimerStore(readJournal: CassandraReadJournal, val partition: TimerPartition) extends TimerStore {
   val keyspace: String = "akka" // For now store timers inside the akka keyspace, not too sure if that is handy
   val timerTable: String = "cafienne_timer"
   val offsetTable: String = "cafienne_timer_offset"
   val cassandraTimeout: Timeout = Timeout(15.seconds)
+  val importBatchSize: Int = 100
   override implicit val ec: ExecutionContext = scala.concurrent.ExecutionContext.global
 
   // First create the schema inside the akka keyspace.
@@ -46,31 +47,47 @@ class CassandraTimerStore(readJournal: CassandraReadJournal) extends TimerStore
 
   override def getOffset: Future[Offset] = {
     logger.debug("Reading timer offset from Cassandra")
-    val offsetQuery = QueryBuilder.selectFrom(keyspace, offsetTable).all().whereColumn("name").isEqualTo(literal(storageName)).allowFiltering().build()
-    readJournal.session.selectOne(offsetQuery).map(result => result.fold(Offset.noOffset)(row => TimeBasedUUID(UUID.fromString(row.getString("offset_value")))))
+    // The offset table only holds the offsets of the timer partitions
+    val offsetQuery = QueryBuilder.selectFrom(keyspace, offsetTable).all().build()
+    readJournal.session.selectAll(offsetQuery).map(rows => partitionOffset(rows.map(row => OffsetRecord(row.getString("name"), row.getString("offset_type"), row.getString("offset_value")))))
+  }
+
+  private def selectTimers(window: Instant): SimpleStatement = {
+    QueryBuilder.selectFrom(keyspace, timerTable).all().whereColumn("moment").isLessThan(literal(window)).allowFiltering().build()
+  }
+
+  private def readTimer(row: Row): Timer = {
+    val timerId = row.getString("timerid")
+    val caseInstanceId = row.getString("caseinstanceid")
+    val tenant = row.getString("tenant")
+    val userId = row.getString("user")
+    val moment = row.getInstant("moment")
+    if (timerId == null || caseInstanceId == null || tenant == null || userId == null || moment == null) {
+      logger.error(s"Cassandra database table contains an invalid record ($timerId, $caseInstanceId, $tenant, $userId, $moment). Record will be ignored")
+      null
+    } else {
+      Timer(caseInstanceId, timerId, moment, userId)
+    }
   }
 
   override def getTimers(window: Instant): Future[Seq[Timer]] = {
     logger.whenDebugEnabled(logger.debug(s"Reading existing timers from Cassandra database for window $window"))
-    val select = QueryBuilder.selectFrom(keyspace, timerTable).all().whereColumn("moment").isLessThan(literal(window)).allowFiltering().build()
-    readJournal.session.selectAll(select).map(rows => {
+    readJournal.session.selectAll(selectTimers(window)).map(rows => {
       logger.whenDebugEnabled(logger.debug("Found " + rows.length + " timers"))
-      rows.map(row => {
-        val timerId = row.getString("timerid")
-        val caseInstanceId = row.getString("caseinstanceid")
-        val tenant = row.getString("tenant")
-        val userId = row.getString("user")
-        val moment = row.getInstant("moment")
-        if (timerId == null || caseInstanceId == null || tenant == null || userId == null || moment == null) {
-          logger.error(s"Cassandra database table contains an invalid record ($timerId, $caseInstanceId, $tenant, $userId, $moment). Record will be ignored")
-          null
-        } else {
-          Timer(caseInstanceId, timerId, moment, userId)
-        }
-      }).filter(_ != null) // Filter out the records that have missing column information
+      rows.map(readTimer)
+        .filter(_ != null) // Filter out the records that have missing column information
+        .filter(partition.contains) // Cassandra cannot select on the partition, so other partitions' timers are skipped here
     })
   }
 
+  override def streamTimers(window: Instant, pageSize: Int): Source[Timer, NotUsed] = {
+    logger.whenDebugEnabled(logger.debug(s"Streaming existing timers from Cassandra database for window $window"))
+    // The driver fetches the next page when the stream demands more timers
+    readJournal.session.select(selectTimers(window).setPageSize(pageSize))
+      .map(readTimer)
+      .filter(timer => timer != null && partition.contains(timer))
+  }
+
   override def storeTimer(job: Timer, offset: Option[Offset]): Future[Done] = {
     logger.whenDebugEnabled(logger.debug("Storing timer into Cassandra timer table " + job))
     val batch = BatchStatement.builder(BatchType.LOGGED).addStatement(getInsertStatement(job))
@@ -101,8 +118,12 @@ class CassandraTimerStore(readJournal: CassandraReadJournal) extends TimerStore
     insert
   }
 
+  private def getDeleteStatement(timerId: String): SimpleStatement = {
+    QueryBuilder.deleteFrom(keyspace, timerTable).whereColumn("timerId").isEqualTo(literal(timerId)).build()
+  }
+
   override def removeTimer(timerId: String, offset: Option[Offset]): Future[Done] = {
-    val delete = QueryBuilder.deleteFrom(keyspace, timerTable).whereColumn("timerId").isEqualTo(literal(timerId)).build()
+    val delete = getDeleteStatement(timerId)
     logger.whenDebugEnabled(logger.debug(s"Removing timer $timerId from Cassandra database with statement $delete"))
     val batch = BatchStatement.builder(BatchType.LOGGED).addStatement(delete)
     offset.foreach(offset => batch.addStatement(getOffsetInsert(offset)))
@@ -112,10 +133,24 @@ class CassandraTimerStore(readJournal: CassandraReadJournal) extends TimerStore
     })
   }
 
+  override def storeTimers(batch: TimerBatch): Future[Done] = {
+    logger.whenDebugEnabled(logger.debug(s"Storing ${batch.timers.size} and removing ${batch.removals.size} timers in Cassandra"))
+    // The timers are in different partitions, so an unlogged batch avoids the overhead of the batch log.
+    //  Since an unlogged batch is not atomic, the offset is only written after the timers are written successfully.
+    val statements = BatchStatement.builder(BatchType.UNLOGGED)
+    batch.timers.map(getInsertStatement).foreach(statements.addStatement)
+    batch.removals.map(getDeleteStatement).foreach(statements.addStatement)
+    val timers = if (batch.timers.nonEmpty || batch.removals.nonEmpty) readJournal.session.executeWriteBatch(statements.build) else Future.successful(Done)
+    timers.flatMap(_ => batch.offset.fold(Future.successful[Done](Done))(offset => readJournal.session.executeWrite(getOffsetInsert(offset))))
+  }
+
   override def importTimers(list: Seq[Timer]): Unit = {
-    val batch = BatchStatement.builder(BatchType.LOGGED)
-    list.map(getInsertStatement).foreach(batch.addStatement)
-    Await.result(readJournal.session.executeWriteBatch(batch.build), cassandraTimeout.duration)
+    // Timers are in different partitions, so they are written in unlogged batches of limited size
+    list.grouped(importBatchSize).foreach(chunk => {
+      val batch = BatchStatement.builder(BatchType.UNLOGGED)
+      chunk.map(getInsertStatement).foreach(batch.addStatement)
+      Await.result(readJournal.session.executeWriteBatch(batch.build), cassandraTimeout.duration)
+    })
   }
 
   object Schema {
@@ -20,20 +20,21 @@ package org.cafienne.timerservice.persistence.inmemory
 import akka.Done
 import akka.persistence.query.Offset
 import com.typesafe.scalalogging.LazyLogging
-import org.cafienne.timerservice.Timer
-import org.cafienne.timerservice.persistence.TimerStore
+import org.cafienne.timerservice.{Timer, TimerPartition}
+import org.cafienne.timerservice.persistence.{TimerBatch, TimerStore}
 
 import java.time.Instant
 import scala.collection.mutable
 import scala.concurrent.Future
 
-class InMemoryStore extends TimerStore with LazyLogging {
+class InMemoryStore(val partition: TimerPartition) extends TimerStore with LazyLogging {
   val timers = new mutable.HashMap[String, Timer]()
 
   override def getOffset: Future[Offset] = Future.successful(Offset.noOffset)
 
   override def getTimers(window: Instant): Future[Seq[Timer]] = {
-    Future.successful(timers.values.filter(_.moment.toEpochMilli <= window.toEpochMilli).toSeq)
+    // Like the other stores, only the timers of this partition are returned, also if timers of other partitions are imported
+    Future.successful(timers.values.filter(_.moment.toEpochMilli <= window.toEpochMilli).filter(partition.contains).toSeq)
   }
 
   override def storeTimer(job: Timer, offset: Option[Offset]): Future[Done] = {
@@ -48,6 +49,13 @@ class InMemoryStore extends TimerStore with LazyLogging {
     Future.successful(Done)
   }
 
+  override def storeTimers(batch: TimerBatch): Future[Done] = {
+    batch.timers.foreach(timer => timers.put(timer.timerId, timer))
+    batch.removals.foreach(timers.remove)
+    logger.debug(s"Stored ${batch.timers.size} and removed ${batch.removals.size} timers")
+    Future.successful(Done)
+  }
+
   override def importTimers(list: Seq[Timer]): Unit = {
     list.foreach(timer => timers.put(timer.timerId, timer))
   }
@@ -17,14 +17,15 @@
 
 package org.cafienne.timerservice.persistence.jdbc
 
-import akka.Done
+import akka.{Done, NotUsed}
 import akka.persistence.query.Offset
+import akka.stream.scaladsl.Source
 import org.cafienne.infrastructure.Cafienne
 import org.cafienne.infrastructure.cqrs.offset.OffsetRecord
 import org.cafienne.infrastructure.jdbc.CafienneJDBCConfig
 import org.cafienne.infrastructure.jdbc.cqrs.JDBCOffsetStorage
-import org.cafienne.timerservice.Timer
-import org.cafienne.timerservice.persistence.TimerStore
+import org.cafienne.timerservice.{Timer, TimerPartition}
+import org.cafienne.timerservice.persistence.{TimerBatch, TimerStore}
 import slick.basic.DatabaseConfig
 import slick.jdbc.JdbcProfile
 
@@ -32,22 +33,50 @@ import java.time.Instant
 import scala.concurrent.duration.DurationInt
 import scala.concurrent.{Await, ExecutionContext, Future}
 
-class JDBCTimerStore extends TimerStore with JDBCOffsetStorage with CafienneJDBCConfig with TimerServiceTables {
-  override lazy val dbConfig: DatabaseConfig[JdbcProfile] = DatabaseConfig.forConfig(Cafienne.config.engine.timerService.store)
+class JDBCTimerStore(val partition: TimerPartition) extends TimerStore with JDBCOffsetStorage with CafienneJDBCConfig with TimerServiceTables {
+  // The timer partitions share the database connection pool
+  override lazy val dbConfig: DatabaseConfig[JdbcProfile] = JDBCTimerStore.dbConfig
 
   import dbConfig.profile.api._
 
   override implicit val ec: ExecutionContext = db.ioExecutionContext
 
+  override def getOffset: Future[Offset] = {
+    db.run(offsetQuery.filter(_.name.startsWith(TimerPartition.offsetPrefix)).result).map(partitionOffset)
+  }
+
+  private def timersQuery(window: Instant) = {
+    val timers = TableQuery[TimerServiceTable].filter(_.moment <= window)
+    if (partition.count == 1) timers
+    // Timers stored before partitioning have no partition key, they are checked after reading
+    else timers.filter(timer => timer.partitionKey % partition.count === partition.index || timer.partitionKey === TimerServiceRecord.noPartitionKey)
+  }
+
+  private def asTimers(records: Seq[TimerServiceRecord]): Seq[Timer] = {
+    records.map(record => Timer(record.caseInstanceId, record.timerId, record.moment, record.user)).filter(partition.contains)
+  }
+
   override def getTimers(window: Instant): Future[Seq[Timer]] = {
-    val query = TableQuery[TimerServiceTable].filter(_.moment <= window)
-    db.run(query.distinct.result).map(records => records.map(record => Timer(record.caseInstanceId, record.timerId, record.moment, record.user)))
+    db.run(timersQuery(window).distinct.result).map(asTimers)
+  }
+
+  override def streamTimers(window: Instant, pageSize: Int): Source[Timer, NotUsed] = {
+    // Keyset paging on moment and timer id; each page starts after the last timer of the previous page,
+    //  so that every page is a cheap query, also when the window contains a large backlog of timers.
+    Source.unfoldAsync[Option[Option[TimerServiceRecord]], Seq[TimerServiceRecord]](Some(None)) {
+      case None => Future.successful(None)
+      case Some(last) =>
+        val page = last.fold(timersQuery(window))(last => timersQuery(window).filter(timer => timer.moment > last.moment || (timer.moment === last.moment && timer.timerId > last.timerId)))
+        db.run(page.sortBy(timer => (timer.moment, timer.timerId)).take(pageSize).result).map(records => {
+          val next = if (records.size < pageSize) None else Some(records.lastOption)
+          if (records.isEmpty) None else Some((next, records))
+        })
+    }.mapConcat(asTimers)
   }
 
   override def storeTimer(job: Timer, offset: Option[Offset]): Future[Done] = {
     logger.debug("Storing JDBC timer " + job.timerId + " for timestamp " + job.moment)
-    val record = TimerServiceRecord(timerId = job.timerId, caseInstanceId = job.caseInstanceId, moment = job.moment, tenant = "", user = job.userId)
-    commit(offset, TableQuery[TimerServiceTable].insertOrUpdate(record))
+    commit(offset, TableQuery[TimerServiceTable].insertOrUpdate(asRecord(job)))
   }
 
   override def removeTimer(timerId: String, offset: Option[Offset]): Future[Done] = {
@@ -55,16 +84,34 @@ class JDBCTimerStore extends TimerStore with JDBCOffsetStorage with CafienneJDBC
     commit(offset, TableQuery[TimerServiceTable].filter(_.timerId === timerId).delete)
   }
 
-  private def commit(offset: Option[Offset], action: dbConfig.profile.api.DBIO[Int]): Future[Done] = {
+  override def storeTimers(batch: TimerBatch): Future[Done] = {
+    logger.debug(s"Storing ${batch.timers.size} and removing ${batch.removals.size} JDBC timers")
+    // One batched upsert for all timers that are set, and one delete statement for all timers that are cleared
+    val upserts = if (batch.timers.isEmpty) Seq() else Seq(TableQuery[TimerServiceTable].insertOrUpdateAll(batch.timers.map(asRecord)))
+    val deletes = if (batch.removals.isEmpty) Seq() else Seq(TableQuery[TimerServiceTable].filter(_.timerId.inSet(batch.removals)).delete)
+    commit(batch.offset, upserts ++ deletes: _*)
+  }
+
+  private def commit(offset: Option[Offset], actions: dbConfig.profile.api.DBIO[Any]*): Future[Done] = {
     val offsetUpdate = offset.map(offset => TableQuery[OffsetStoreTable].insertOrUpdate(OffsetRecord(storageName, offset)))
-    val updates = offsetUpdate.fold(Seq(action))(o => Seq(action, o))
+    val updates = actions ++ offsetUpdate
     db.run(DBIO.sequence(updates).transactionally).map(_ => Done)
   }
 
+  private def asRecord(job: Timer): TimerServiceRecord = {
+    TimerServiceRecord(timerId = job.timerId, caseInstanceId = job.caseInstanceId, moment = job.moment, tenant = "", user = job.userId, partitionKey = TimerPartition.keyOf(job.caseInstanceId))
+  }
+
   override def importTimers(list: Seq[Timer]): Unit = {
-    val tx = list
-      .map(job => TimerServiceRecord(timerId = job.timerId, caseInstanceId = job.caseInstanceId, moment = job.moment, tenant = "", user = job.userId))
-      .map(record => TableQuery[TimerServiceTable].insertOrUpdate(record))
-    Await.result(db.run(DBIO.sequence(tx).transactionally), 30.seconds)
+    // Timers are upserted in chunks; each chunk is a single JDBC batch that uses the native upsert of the database profile
+    list.grouped(JDBCTimerStore.importBatchSize).foreach(chunk => {
+      Await.result(db.run(TableQuery[TimerServiceTable].insertOrUpdateAll(chunk.map(asRecord)).transactionally), 30.seconds)
+    })
   }
 }
+
+object JDBCTimerStore {
+  val importBatchSize = 1000
+
+  lazy val dbConfig: DatabaseConfig[JdbcProfile] = DatabaseConfig.forConfig(Cafienne.config.engine.timerService.store)
+}
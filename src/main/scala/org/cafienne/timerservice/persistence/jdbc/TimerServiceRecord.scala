@@ -19,4 +19,11 @@ package org.cafienne.timerservice.persistence.jdbc
 
 import java.time.Instant
 
-final case class TimerServiceRecord(timerId: String, caseInstanceId: String, moment: Instant, tenant: String, user: String)
+final case class TimerServiceRecord(timerId: String, caseInstanceId: String, moment: Instant, tenant: String, user: String, partitionKey: Int = TimerServiceRecord.noPartitionKey)
+
+object TimerServiceRecord {
+  /**
+    * Partition key of timers that were stored before timer partitions were introduced
+    */
+  val noPartitionKey: Int = -1
+}
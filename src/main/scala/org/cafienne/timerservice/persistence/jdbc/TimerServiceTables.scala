@@ -26,7 +26,8 @@ import java.time.Instant
   * caseInstanceId: String,
   * moment: Instant,
   * tenant: String,
-  * user: String)
+  * user: String,
+  * partitionKey: Int)
   */
 trait TimerServiceTables extends CafienneJDBCConfig {
   import dbConfig.profile.api._
@@ -44,12 +45,15 @@ trait TimerServiceTables extends CafienneJDBCConfig {
 
     def user = column[String]("user", O.Default(""))
 
+    def partitionKey = column[Int]("partition_key", O.Default(TimerServiceRecord.noPartitionKey))
+
     // Various indices for optimizing getAllTasks queries
     def indexCaseInstanceId = oldStyleIndex(caseInstanceId)
     def indexTimerId = oldStyleIndex(timerId)
     def indexTenant = oldStyleIndex(tenant)
     def indexMoment = index(oldStyleIxName(moment), moment)
+    def indexPartitionKey = index(oldStyleIxName(partitionKey), partitionKey)
 
-    def * = (timerId, caseInstanceId, moment, tenant, user).mapTo[TimerServiceRecord]
+    def * = (timerId, caseInstanceId, moment, tenant, user, partitionKey).mapTo[TimerServiceRecord]
   }
 }
@@ -0,0 +1,112 @@
+package org.cafienne.cmmn.definition;
+
+import akka.actor.ActorSystem;
+import org.cafienne.cmmn.test.TestScript;
+import org.cafienne.infrastructure.serialization.DeserializationError;
+import org.cafienne.infrastructure.serialization.DeserializationFailure;
+import org.cafienne.infrastructure.serialization.Fields;
+import org.cafienne.journal.definitions.DefinitionSourceStoreProvider;
+import org.cafienne.json.ValueMap;
+import org.cafienne.util.ContentHash;
+import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+import java.util.concurrent.TimeUnit;
+
+public class TestDefinitionsCache {
+
+    @Test
+    public void testDeserializationReusesParsedDefinition() {
+        CaseDefinition definition = TestScript.getDefinitions("testdefinition/helloworld.xml").getFirstCase();
+        ValueMap json = definition.toJSON();
+
+        CaseDefinition first = CMMNElementDefinition.fromJSON(getClass().getName(), json, CaseDefinition.class);
+        CaseDefinition second = CMMNElementDefinition.fromJSON(getClass().getName(), json.cloneValueNode(), CaseDefinition.class);
+
+        if (first != second) {
+            throw new AssertionError("Expected the same definition instance to be returned when deserializing the same source twice");
+        }
+        if (!first.getDefinitionsDocument().getSource().equals(definition.getDefinitionsDocument().getSource())) {
+            throw new AssertionError("Expected the deserialized definition to have the same source as the original one");
+        }
+    }
+
+    @Test
+    public void testReferenceIsResolvedAfterAsynchronousStore() throws Exception {
+        ActorSystem system = ActorSystem.create("TestDefinitionsCache");
+        try {
+            DefinitionSourceStoreProvider.initialize(system);
+            CaseDefinition definition = TestScript.getDefinitions("testdefinition/stages.xml").getFirstCase();
+            DefinitionsDocument document = definition.getDefinitionsDocument();
+
+            Await.result(DefinitionsCache.storeByReference(document), Duration.create(10, TimeUnit.SECONDS));
+            if (!DefinitionSourceStoreProvider.isStored(document.getSourceHash())) {
+                throw new AssertionError("Expected the source to be stored when the future completes");
+            }
+
+            String hash = DefinitionsCache.referenceOf(document);
+            if (!hash.equals(document.getSourceHash())) {
+                throw new AssertionError("Expected the reference to be the hash of the source");
+            }
+            ValueMap json = new ValueMap(Fields.elementId, definition.getId(), Fields.sourceHash, hash);
+            CaseDefinition resolved = CMMNElementDefinition.fromJSON(getClass().getName(), json, CaseDefinition.class);
+            if (!resolved.getDefinitionsDocument().getSource().equals(document.getSource())) {
+                throw new AssertionError("Expected the definition to be resolved through its reference");
+            }
+        } finally {
+            system.terminate();
+        }
+    }
+
+    @Test
+    public void testReferenceIsResolvedInTheBackground() throws Exception {
+        ActorSystem system = ActorSystem.create("TestDefinitionsCache");
+        try {
+            DefinitionSourceStoreProvider.initialize(system);
+            CaseDefinition definition = TestScript.getDefinitions("testdefinition/helloworld.xml").getFirstCase();
+            // A source that is in the store, but that has not yet been parsed in this JVM
+            String source = definition.getDefinitionsDocument().getSource() + "\n<!-- stored by another node -->";
+            String hash = ContentHash.of(source);
+            Await.result(DefinitionSourceStoreProvider.storeSource(hash, source), Duration.create(10, TimeUnit.SECONDS));
+
+            ValueMap json = new ValueMap(Fields.elementId, definition.getId(), Fields.sourceHash, hash);
+            try {
+                CMMNElementDefinition.fromJSON(getClass().getName(), json, CaseDefinition.class);
+                throw new AssertionError("Expected deserialization to fail fast while the source is not yet loaded");
+            } catch (DeserializationError e) {
+                if (!new DeserializationFailure("manifest", e, new byte[0]).isTransient()) {
+                    throw new AssertionError("Expected the deserialization failure to be transient", e);
+                }
+            }
+
+            DefinitionsDocument resolved = Await.result(DefinitionsCache.resolveByHash(hash), Duration.create(10, TimeUnit.SECONDS));
+            CaseDefinition deserialized = CMMNElementDefinition.fromJSON(getClass().getName(), json, CaseDefinition.class);
+            if (deserialized.getDefinitionsDocument() != resolved) {
+                throw new AssertionError("Expected deserialization to find the resolved definition in the cache");
+            }
+        } finally {
+            system.terminate();
+        }
+    }
+
+    @Test
+    public void testUnstoredSourceIsNotReferenced() throws Exception {
+        ActorSystem system = ActorSystem.create("TestDefinitionsCache");
+        try {
+            DefinitionSourceStoreProvider.initialize(system);
+            DefinitionsDocument document = DefinitionsCache.get(TestScript.getDefinitions("testdefinition/helloworld.xml").getSource() + "\n<!-- not yet stored -->");
+
+            // The source must then be embedded; it is stored in the background so that it can be referenced later on
+            if (DefinitionsCache.referenceOf(document) != null) {
+                throw new AssertionError("Expected no reference to a source that has not been stored");
+            }
+            Await.result(DefinitionsCache.storeByReference(document), Duration.create(10, TimeUnit.SECONDS));
+            if (!document.getSourceHash().equals(DefinitionsCache.referenceOf(document))) {
+                throw new AssertionError("Expected the reference to be the hash of the source once it is stored");
+            }
+        } finally {
+            system.terminate();
+        }
+    }
+}
@@ -16,6 +16,7 @@ import org.junit.runners.Suite.SuiteClasses;
     TestBasic.class,
     TestCasePlanExitCriteria.class,
     TestEventListener.class,
+    TestCaseSnapshot.class,
     TestHelloWorld.class,
     TestPlanning.class,
     TestRepeatRule.class,
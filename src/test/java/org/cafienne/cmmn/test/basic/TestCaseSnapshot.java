@@ -0,0 +1,180 @@
+/*
+ * Copyright 2014 - 2019 Cafienne B.V.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.cafienne.cmmn.test.basic;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.pattern.Patterns;
+import akka.persistence.AbstractPersistentActor;
+import akka.persistence.DeleteSnapshotsSuccess;
+import akka.persistence.SnapshotOffer;
+import akka.persistence.SnapshotSelectionCriteria;
+import org.cafienne.cmmn.actorapi.command.StartCase;
+import org.cafienne.cmmn.definition.CaseDefinition;
+import org.cafienne.cmmn.instance.State;
+import org.cafienne.cmmn.test.TestScript;
+import org.cafienne.humantask.actorapi.command.CompleteHumanTask;
+import org.cafienne.json.ValueMap;
+import org.cafienne.util.Guid;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.cafienne.cmmn.test.TestScript.*;
+
+/**
+ * Cases store a snapshot every 10 events (see cafienne.actor.snapshot.every-events in the test configuration).
+ * Recovering from a snapshot must result in exactly the same case state as the live case, including the sentries.
+ * Recovering from a snapshot plus the remaining events must result in the same case state as the live case
+ * and as a full replay of all events, apart from the sentries.
+ */
+public class TestCaseSnapshot {
+    private final CaseDefinition definitions = loadCaseDefinition("testdefinition/helloworld.xml");
+
+    @Test
+    public void testRecoveryFromSnapshot() {
+        String caseInstanceId = new Guid().toString();
+        TestScript testCase = new TestScript("case-snapshot");
+        ActorSystem system = testCase.getCaseSystem().system();
+        ValueMap greeting = new ValueMap("Greeting", new ValueMap("Message", "hello", "To", testUser.id(), "From", testUser.id()));
+
+        StartCase startCase = createCaseCommand(testUser, caseInstanceId, definitions, greeting);
+        testCase.addStep(startCase, casePlan -> {
+            String liveState = casePlan.toString();
+            String taskId = casePlan.assertHumanTask("Receive Greeting and Send response").getId();
+            awaitSnapshot(system, caseInstanceId);
+            // Snapshots are taken after all events of a command are persisted, so there are no events after it
+            if (!Boolean.TRUE.equals(askProbe(system, caseInstanceId, SnapshotProbe.HAS_LATEST_SNAPSHOT))) {
+                throw new AssertionError("Expected the snapshot of case " + caseInstanceId + " to hold all events of StartCase");
+            }
+
+            testCase.insertStep(createRecoveryCommand(testUser, caseInstanceId), recoveredPlan -> {
+                assertSameState("Case recovered from snapshot", liveState, recoveredPlan.toString());
+
+                testCase.insertStep(new CompleteHumanTask(testUser, caseInstanceId, taskId, new ValueMap()), completedPlan -> {
+                    completedPlan.assertPlanItem("Receive Greeting and Send response").assertState(State.Completed);
+                    String completedState = completedPlan.toString();
+
+                    testCase.insertStep(createRecoveryCommand(testUser, caseInstanceId), snapshotAndTail -> {
+                        String snapshotState = snapshotAndTail.toString();
+                        assertSameStateApartFromSentries("Case recovered from snapshot and events", completedState, snapshotState);
+                        deleteSnapshots(system, caseInstanceId);
+
+                        testCase.insertStep(createRecoveryCommand(testUser, caseInstanceId), fullReplay -> {
+                            assertSameStateApartFromSentries("Case recovered from all events", snapshotState, fullReplay.toString());
+                        });
+                    });
+                });
+            });
+        });
+
+        testCase.runTest();
+    }
+
+    private static void assertSameState(String msg, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new AssertionError(msg + " has a different state.\nExpected:\n" + expected + "\nFound:\n" + actual);
+        }
+    }
+
+    /**
+     * During a replay of events the sentries are not evaluated, so the on part state of a recovered case
+     * only matches the live case up to the moment of the snapshot. Sentries are therefore left out of comparisons
+     * that involve replaying events.
+     */
+    private static void assertSameStateApartFromSentries(String msg, String expected, String actual) {
+        assertSameState(msg, withoutSentries(expected), withoutSentries(actual));
+    }
+
+    private static String withoutSentries(String caseState) {
+        return caseState.replaceAll("<Sentry\\b[^>]*/>", "").replaceAll("(?s)<Sentry\\b.*?</Sentry>", "");
+    }
+
+    private static void awaitSnapshot(ActorSystem system, String persistenceId) {
+        // Snapshots are saved asynchronously after the events are persisted
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!Boolean.TRUE.equals(askProbe(system, persistenceId, SnapshotProbe.HAS_SNAPSHOT))) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Case " + persistenceId + " did not store a snapshot");
+            }
+            TestScript.debugMessage("Waiting for the snapshot of case " + persistenceId);
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                throw new AssertionError("Interrupted while waiting for the snapshot", e);
+            }
+        }
+    }
+
+    private static void deleteSnapshots(ActorSystem system, String persistenceId) {
+        askProbe(system, persistenceId, SnapshotProbe.DELETE_SNAPSHOTS);
+        if (Boolean.TRUE.equals(askProbe(system, persistenceId, SnapshotProbe.HAS_SNAPSHOT))) {
+            throw new AssertionError("Snapshots of case " + persistenceId + " were not deleted");
+        }
+    }
+
+    private static Object askProbe(ActorSystem system, String persistenceId, String question) {
+        ActorRef probe = system.actorOf(Props.create(SnapshotProbe.class, persistenceId));
+        try {
+            return Patterns.ask(probe, question, Duration.ofSeconds(5)).toCompletableFuture().get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new AssertionError("Could not read the snapshots of case " + persistenceId, e);
+        } finally {
+            system.stop(probe);
+        }
+    }
+
+    /**
+     * Recovers on the persistence id of the case to tell whether there is a snapshot, or to delete the snapshots.
+     */
+    public static class SnapshotProbe extends AbstractPersistentActor {
+        static final String HAS_SNAPSHOT = "hasSnapshot";
+        static final String DELETE_SNAPSHOTS = "deleteSnapshots";
+        static final String HAS_LATEST_SNAPSHOT = "hasLatestSnapshot";
+
+        private final String persistenceId;
+        private boolean hasSnapshot = false;
+        private long snapshotSequenceNr = -1;
+        private ActorRef requester;
+
+        public SnapshotProbe(String persistenceId) {
+            this.persistenceId = persistenceId;
+        }
+
+        @Override
+        public String persistenceId() {
+            return persistenceId;
+        }
+
+        @Override
+        public Receive createReceiveRecover() {
+            return receiveBuilder()
+                    .match(SnapshotOffer.class, offer -> {
+                        hasSnapshot = true;
+                        snapshotSequenceNr = offer.metadata().sequenceNr();
+                    })
+                    .matchAny(msg -> {}) // Events are not relevant
+                    .build();
+        }
+
+        @Override
+        public Receive createReceive() {
+            return receiveBuilder()
+                    .matchEquals(HAS_SNAPSHOT, msg -> getSender().tell(hasSnapshot, getSelf()))
+                    .matchEquals(HAS_LATEST_SNAPSHOT, msg -> getSender().tell(hasSnapshot && snapshotSequenceNr == lastSequenceNr(), getSelf()))
+                    .matchEquals(DELETE_SNAPSHOTS, msg -> {
+                        requester = getSender();
+                        deleteSnapshots(SnapshotSelectionCriteria.latest());
+                    })
+                    .match(DeleteSnapshotsSuccess.class, success -> requester.tell(true, getSelf()))
+                    .build();
+        }
+    }
+}
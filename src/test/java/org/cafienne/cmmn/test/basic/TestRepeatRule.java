@@ -8,7 +8,9 @@
 package org.cafienne.cmmn.test.basic;
 
 import org.cafienne.cmmn.actorapi.command.StartCase;
+import org.cafienne.cmmn.actorapi.command.migration.MigrateDefinition;
 import org.cafienne.cmmn.actorapi.command.plan.MakePlanItemTransition;
+import org.cafienne.cmmn.actorapi.event.plan.PlanItemCreated;
 import org.cafienne.cmmn.definition.CaseDefinition;
 import org.cafienne.cmmn.instance.State;
 import org.cafienne.cmmn.instance.Transition;
@@ -127,4 +129,35 @@ public class TestRepeatRule {
 
         testCase.runTest();
     }
+
+    @Test
+    public void testRepeatRuleAfterMigration() {
+        String caseInstanceId = "repeatrule-migration";
+        TestScript testCase = new TestScript(caseInstanceId);
+
+        CaseDefinition definitions = loadCaseDefinition("testdefinition/repeatrule.xml");
+        CaseDefinition renamedDefinitions = loadCaseDefinition("testdefinition/migration/repeatrule_renamed.xml");
+
+        testCase.addStep(createCaseCommand(testUser, caseInstanceId, definitions));
+        testCase.addStep(new MakePlanItemTransition(testUser, caseInstanceId, "Item1", Transition.Complete));
+        testCase.addStep(new MakePlanItemTransition(testUser, caseInstanceId, "Item2", Transition.Complete), casePlan -> {
+            casePlan.assertPlanItems("Item2").filter(State.Completed).assertSize(1);
+            casePlan.assertPlanItems("Item2").filter(State.Active).assertSize(1);
+        });
+
+        // Migration gives Item2 a new name and item definition; the repetitions must still be counted from the existing items
+        testCase.addStep(new MigrateDefinition(testUser, caseInstanceId, renamedDefinitions));
+        testCase.addStep(new MakePlanItemTransition(testUser, caseInstanceId, "RenamedItem2", Transition.Complete), casePlan -> {
+            casePlan.print();
+            PlanItemCreated repetition = casePlan.getEvents().filter(PlanItemCreated.class).assertSize(1).getEvents().get(0);
+            if (!repetition.getPlanItemName().equals("RenamedItem2")) {
+                throw new AssertionError("Expected a repetition of RenamedItem2, but found " + repetition.getPlanItemName());
+            }
+            if (repetition.getIndex() != 2) {
+                throw new AssertionError("Expected the repetition of RenamedItem2 to have index 2, but found " + repetition.getIndex());
+            }
+        });
+
+        testCase.runTest();
+    }
 }
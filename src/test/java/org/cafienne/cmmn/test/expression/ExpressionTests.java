@@ -26,7 +26,8 @@ import org.junit.runners.Suite.SuiteClasses;
         TestTimerExpression.class,
         TestVariousSpelExpressions.class,
         TestVariousSpelExpressions2.class,
-        TestCaseFileContextExpressions.class
+        TestCaseFileContextExpressions.class,
+        TestExpressionVariables.class
 })
 public class ExpressionTests {
 
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2014 - 2019 Cafienne B.V.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.cafienne.cmmn.test.expression;
+
+import org.cafienne.cmmn.actorapi.command.StartCase;
+import org.cafienne.cmmn.actorapi.command.casefile.CreateCaseFileItem;
+import org.cafienne.cmmn.definition.CaseDefinition;
+import org.cafienne.cmmn.instance.Path;
+import org.cafienne.cmmn.instance.State;
+import org.cafienne.cmmn.test.TestScript;
+import org.cafienne.json.ValueMap;
+import org.cafienne.util.Guid;
+import org.junit.Test;
+
+import static org.cafienne.cmmn.test.TestScript.*;
+
+public class TestExpressionVariables {
+    private final CaseDefinition definitions = loadCaseDefinition("testdefinition/expression/variableleak.xml");
+
+    @Test
+    public void testVariablesDoNotLeakIntoNextEvaluation() {
+        String caseInstanceId = new Guid().toString();
+        TestScript testCase = new TestScript("VariableLeak");
+
+        StartCase startCase = createCaseCommand(testUser, caseInstanceId, definitions);
+        testCase.addStep(startCase, casePlan -> {
+            casePlan.assertPlanItem("First").assertState(State.Available);
+            casePlan.assertPlanItem("Second").assertState(State.Available);
+        });
+
+        // Both sentries assign the variable 'leak' and only succeed if it is not yet set.
+        //  If the variable would survive the first evaluation, only one of the milestones would occur.
+        testCase.addStep(new CreateCaseFileItem(testUser, caseInstanceId, new ValueMap(), new Path("Content")), casePlan -> {
+            casePlan.assertPlanItem("First").assertState(State.Completed);
+            casePlan.assertPlanItem("Second").assertState(State.Completed);
+        });
+
+        testCase.runTest();
+    }
+}
@@ -17,6 +17,7 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({
         TestMilestone.class,
+        TestSentryNetworkMigration.class,
         TestRepetitiveFileItems.class,
         TestGetListGetDetails.class,
         TestVariousSpelExpressions.class
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2014 - 2019 Cafienne B.V.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.cafienne.cmmn.test.sentry;
+
+import org.cafienne.cmmn.actorapi.command.migration.MigrateDefinition;
+import org.cafienne.cmmn.actorapi.command.plan.MakePlanItemTransition;
+import org.cafienne.cmmn.definition.CaseDefinition;
+import org.cafienne.cmmn.instance.State;
+import org.cafienne.cmmn.instance.Transition;
+import org.cafienne.cmmn.test.TestScript;
+import org.junit.Test;
+
+import static org.cafienne.cmmn.test.TestScript.*;
+
+public class TestSentryNetworkMigration {
+    private final CaseDefinition definitions = loadCaseDefinition("testdefinition/migration/sentrynetwork.xml");
+    private final CaseDefinition renamedDefinitions = loadCaseDefinition("testdefinition/migration/sentrynetwork_renamed.xml");
+
+    /**
+     * The entry criterion of milestone TaskCompleted exists before the migration, but the task it listens to is only
+     * created afterwards, when the stage starts. The migrated criterion must therefore be found by the new definition of the task.
+     */
+    @Test
+    public void testConnectItemCreatedAfterMigration() {
+        String caseInstanceId = "sentrynetwork-migration";
+        TestScript testCase = new TestScript(caseInstanceId);
+
+        testCase.addStep(createCaseCommand(testUser, caseInstanceId, definitions), casePlan -> {
+            casePlan.assertPlanItem("TaskCompleted").assertState(State.Available);
+            casePlan.assertPlanItem("Stage").assertState(State.Available);
+        });
+
+        testCase.addStep(new MigrateDefinition(testUser, caseInstanceId, renamedDefinitions));
+
+        testCase.addStep(new MakePlanItemTransition(testUser, caseInstanceId, "StartStage", Transition.Occur), casePlan -> {
+            casePlan.print();
+            casePlan.assertPlanItem("Stage").assertState(State.Active);
+            casePlan.assertPlanItem("RenamedTask").assertState(State.Active);
+        });
+
+        testCase.addStep(new MakePlanItemTransition(testUser, caseInstanceId, "RenamedTask", Transition.Complete), casePlan -> {
+            casePlan.print();
+            casePlan.assertPlanItem("RenamedTask").assertState(State.Completed);
+            casePlan.assertPlanItem("TaskCompleted").assertState(State.Completed);
+        });
+
+        testCase.runTest();
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2014 - 2019 Cafienne B.V.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.cafienne.cmmn.test.task;
+
+import akka.actor.ActorSystem;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.cafienne.cmmn.actorapi.command.StartCase;
+import org.cafienne.cmmn.definition.CaseDefinition;
+import org.cafienne.cmmn.instance.State;
+import org.cafienne.cmmn.test.TestScript;
+import org.cafienne.infrastructure.Cafienne;
+import org.cafienne.infrastructure.config.engine.MailPoolConfig;
+import org.cafienne.json.ValueMap;
+import org.cafienne.processtask.implementation.mail.MailTransportPool;
+import org.cafienne.processtask.implementation.mail.MailTransportPools;
+import org.cafienne.system.CaseSystem;
+import org.cafienne.util.Guid;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.cafienne.cmmn.test.TestScript.*;
+
+/**
+ * Sends mails through the MailTransportPool to an in-process smtp server
+ */
+public class TestMailTransportPool {
+    private final CaseDefinition definitions = loadCaseDefinition("testdefinition/task/smtpcall.xml");
+    private GreenMail mailServer;
+    private ActorSystem system;
+
+    @Before
+    public void startMailServer() {
+        mailServer = new GreenMail(ServerSetupTest.SMTP);
+        mailServer.start();
+        system = ActorSystem.create("TestMailTransportPool");
+    }
+
+    @After
+    public void stopMailServer() {
+        mailServer.stop();
+        system.terminate();
+    }
+
+    @Test
+    public void testSendingMultipleMails() throws Exception {
+        MailTransportPool pool = new MailTransportPools(system, poolConfig(false, 100)).of(greenMailProperties());
+
+        Address[] recipients = new Address[]{new InternetAddress("piet@example.com")};
+        for (int i = 0; i < 3; i++) {
+            pool.send(createMessage(pool, "Mail " + i, recipients), recipients);
+        }
+        pool.sendAsync(createMessage(pool, "Async mail", recipients), recipients).toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+        if (mailServer.getReceivedMessages().length != 4) {
+            throw new AssertionError("Expected 4 mails to be received, but found " + mailServer.getReceivedMessages().length);
+        }
+        // All mails must have been sent on the same connection
+        if (pool.getConnectionsOpened() != 1) {
+            throw new AssertionError("Expected the mails to be sent on 1 connection, but " + pool.getConnectionsOpened() + " connections have been opened");
+        }
+    }
+
+    @Test
+    public void testMaxMessagesPerConnection() throws Exception {
+        MailTransportPool pool = new MailTransportPools(system, poolConfig(false, 2)).of(greenMailProperties());
+
+        Address[] recipients = new Address[]{new InternetAddress("piet@example.com")};
+        for (int i = 0; i < 5; i++) {
+            pool.send(createMessage(pool, "Mail " + i, recipients), recipients);
+        }
+
+        if (mailServer.getReceivedMessages().length != 5) {
+            throw new AssertionError("Expected 5 mails to be received, but found " + mailServer.getReceivedMessages().length);
+        }
+        // After every 2 messages the connection is replaced by a new one
+        if (pool.getConnectionsOpened() != 3) {
+            throw new AssertionError("Expected 3 connections to be opened for 5 mails, but found " + pool.getConnectionsOpened());
+        }
+    }
+
+    @Test
+    public void testPoolsPerCaseSystem() {
+        ActorSystem otherSystem = ActorSystem.create("TestMailTransportPool-other");
+        try {
+            MailTransportPools pools = new MailTransportPools(system);
+            MailTransportPools otherPools = new MailTransportPools(otherSystem);
+            if (pools.of(greenMailProperties()) != pools.of(greenMailProperties())) {
+                throw new AssertionError("Expected the same pool for the same mail server within a case system");
+            }
+            if (pools.of(greenMailProperties()) == otherPools.of(greenMailProperties())) {
+                throw new AssertionError("Expected each case system to have its own pool for the same mail server");
+            }
+        } finally {
+            otherSystem.terminate();
+        }
+    }
+
+    @Test
+    public void testAsyncMailCompletesProcessTask() {
+        MailTransportPools pools = new GreenMailPools(system, poolConfig(true, 100));
+        CaseSystem caseSystem = new CaseSystem(system) {
+            @Override
+            public MailTransportPools mailTransportPools() {
+                return pools;
+            }
+        };
+
+        String caseInstanceId = new Guid().toString();
+        TestScript testCase = new TestScript("AsyncMail", caseSystem);
+
+        ValueMap inputs = new ValueMap();
+        ValueMap request = inputs.with("Request");
+        request.plus("from", "joop@example.com");
+        request.plus("to", "piet@example.com");
+        request.plus("subject", "Sent asynchronously");
+        request.plus("body", "The outcome comes back as a command");
+        request.plus("replyTo", "jan@example.com");
+
+        StartCase startCase = createCaseCommand(testUser, caseInstanceId, definitions, inputs);
+        testCase.addStep(startCase, casePlan -> {
+            // The task only completes when the CompleteMail command has reached the ProcessTaskActor
+            testCase.getEventListener().awaitPlanItemState("Send test email", State.Completed);
+            if (mailServer.getReceivedMessages().length == 0) {
+                throw new AssertionError("Expected the mail server to have received the mail");
+            }
+        });
+
+        testCase.runTest();
+    }
+
+    /**
+     * Sends all mails to the in-process mail server, regardless of the mail server in the definition or configuration
+     */
+    private class GreenMailPools extends MailTransportPools {
+        private GreenMailPools(ActorSystem system, MailPoolConfig config) {
+            super(system, config);
+        }
+
+        @Override
+        public MailTransportPool of(Properties mailServerProperties) {
+            return super.of(greenMailProperties());
+        }
+    }
+
+    private Properties greenMailProperties() {
+        Properties properties = new Properties();
+        properties.put("mail.host", "localhost");
+        properties.put("mail.smtp.host", "localhost");
+        properties.put("mail.smtp.port", String.valueOf(mailServer.getSmtp().getPort()));
+        properties.put("authentication.user", "");
+        properties.put("authentication.password", "");
+        return properties;
+    }
+
+    private MailPoolConfig poolConfig(boolean async, int maxMessagesPerConnection) {
+        return new MailPoolConfig(Cafienne.config().engine().mailService()) {
+            @Override
+            public Config config() {
+                return ConfigFactory.parseString("async = " + async + "\nmax-messages-per-connection = " + maxMessagesPerConnection);
+            }
+        };
+    }
+
+    private MimeMessage createMessage(MailTransportPool pool, String subject, Address[] recipients) throws Exception {
+        MimeMessage message = new MimeMessage(pool.getSession());
+        message.setFrom(new InternetAddress("joop@example.com"));
+        message.setRecipients(Message.RecipientType.TO, recipients);
+        message.setSubject(subject);
+        message.setText("Pooled connections are cool");
+        return message;
+    }
+}
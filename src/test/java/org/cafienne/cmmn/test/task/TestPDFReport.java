@@ -1,5 +1,6 @@
 package org.cafienne.cmmn.test.task;
 
+import akka.actor.ActorSystem;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -11,13 +12,19 @@ import org.cafienne.cmmn.definition.CaseDefinition;
 import org.cafienne.cmmn.instance.State;
 import org.cafienne.cmmn.instance.Path;
 import org.cafienne.cmmn.test.TestScript;
+import org.cafienne.infrastructure.Cafienne;
+import org.cafienne.infrastructure.config.engine.PDFReportConfig;
 import org.cafienne.json.StringValue;
 import org.cafienne.json.ValueMap;
 import org.cafienne.processtask.actorapi.event.ProcessCompleted;
 import org.cafienne.processtask.actorapi.event.ProcessStarted;
+import org.cafienne.processtask.implementation.report.blobstore.BlobStore;
+import org.cafienne.processtask.implementation.report.blobstore.LocalFileBlobStore;
+import org.cafienne.system.CaseSystem;
 import org.junit.Test;
 
 import java.io.*;
+import java.nio.file.Files;
 
 import static org.cafienne.cmmn.test.TestScript.*;
 
@@ -58,6 +65,71 @@ public class TestPDFReport {
         testCase.runTest();
     }
 
+    @Test
+    public void testReportGenerationIntoBlobStore() throws IOException {
+        String caseInstanceId = "PDFReportInBlobStore";
+        java.nio.file.Path location = Files.createTempDirectory("blob-store");
+        BlobStore blobStore = new LocalFileBlobStore(location);
+        PDFReportConfig blobStoreConfig = new PDFReportConfig(Cafienne.config().engine()) {
+            @Override
+            public boolean outputToBlobStore() {
+                return true;
+            }
+
+            @Override
+            public BlobStore blobStore() {
+                return blobStore;
+            }
+        };
+        CaseSystem caseSystem = new CaseSystem(ActorSystem.create("TestPDFReport", Cafienne.config().systemConfig())) {
+            @Override
+            public PDFReportConfig pdfReportConfig() {
+                return blobStoreConfig;
+            }
+        };
+        TestScript testCase = new TestScript("PDFReportInBlobStore", caseSystem);
+
+        ValueMap inputs = new ValueMap();
+        ValueMap request = inputs.with("Request");
+        request.plus("customerJrXml", new String(getFileContent("testdefinition/task/report/CustomersReport.jrxml"), "UTF-8"));
+        request.plus("orderJrXml", new String(getFileContent("testdefinition/task/report/OrdersReport.jrxml"), "UTF-8"));
+        request.plus("jsonData", getCustomerOrders());
+
+        StartCase startCase = createCaseCommand(testUser, caseInstanceId, definitions, inputs);
+        testCase.addStep(startCase, action -> {
+            testCase.getEventListener().awaitPlanItemState("Generate Report", State.Completed);
+
+            testCase.insertStep(testCase.createPingCommand(testUser, caseInstanceId, 0), result -> {
+                // The case file only holds a reference to the document in the blob store of the case
+                ValueMap document = (ValueMap) result.assertCaseFileItem(new Path("Request/pdfReportData")).assertValueType(ValueMap.class).getValue();
+                String reference = document.readString("reference");
+                if (!reference.startsWith(caseInstanceId + "/")) {
+                    throw new AssertionError("Expected the document to be stored under the case, but the reference is " + reference);
+                }
+                try (InputStream content = blobStore.read(reference)) {
+                    byte[] pdf = content.readAllBytes();
+                    if (pdf.length != document.readLong("size") || !new String(pdf, 0, 4, "US-ASCII").equals("%PDF")) {
+                        throw new AssertionError("Expected the blob store to hold the pdf document of " + document.readLong("size") + " bytes");
+                    }
+                } catch (IOException e) {
+                    throw new AssertionError("Could not read the document from the blob store", e);
+                }
+
+                // Removing the blobs of the case, as the storage deletion does, removes the document
+                try {
+                    blobStore.delete(caseInstanceId);
+                    blobStore.read(reference).close();
+                    throw new AssertionError("Expected the document to be removed from the blob store");
+                } catch (IOException expected) {
+                    // Document is gone
+                }
+            });
+        });
+
+        testCase.runTest();
+        caseSystem.system().terminate();
+    }
+
     private static String getCustomerOrders() {
         byte[] customerBytes = getFileContent("testdefinition/task/report/Customers.json");
         byte[] orderBytes = getFileContent("testdefinition/task/report/Orders.json");
@@ -0,0 +1,79 @@
+package org.cafienne.actormodel
+
+import akka.actor.{ActorRef, ActorSystem, Props}
+import akka.testkit.{ImplicitSender, TestKit}
+import org.cafienne.cmmn.actorapi.command.plan.GetDiscretionaryItems
+import org.cafienne.cmmn.actorapi.response.{CaseStartedResponse, GetDiscretionaryItemsResponse}
+import org.cafienne.cmmn.definition.CaseDefinition
+import org.cafienne.cmmn.test.TestScript
+import org.cafienne.cmmn.test.TestScript.{loadCaseDefinition, testUser}
+import org.cafienne.infrastructure.Cafienne
+import org.cafienne.system.CaseSystem
+import org.cafienne.system.router.LocalRouter
+import org.cafienne.util.Guid
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import java.time.Duration
+import scala.collection.mutable
+import scala.concurrent.duration._
+
+class PassivationSweeperTest
+  extends TestKit(ActorSystem("passivation-sweeper-test", Cafienne.config.systemConfig))
+    with ImplicitSender
+    with AnyWordSpecLike
+    with Matchers
+    with BeforeAndAfterAll {
+
+  val caseSystem: CaseSystem = new CaseSystem(system) {
+    override lazy val passivationSweeper: PassivationSweeper = new PassivationSweeper(this.system, Duration.ofSeconds(1), Duration.ofMillis(100))
+  }
+  val caseDefinition: CaseDefinition = loadCaseDefinition("testdefinition/helloworld.xml")
+
+  override def afterAll(): Unit = {
+    TestKit.shutdownActorSystem(system)
+  }
+
+  /**
+    * Starts a case through a local router and returns the case actor
+    */
+  def startCase(caseInstanceId: String): ActorRef = {
+    val actors = collection.concurrent.TrieMap[String, ActorRef]()
+    val router = system.actorOf(Props.create(classOf[LocalRouter], caseSystem, actors, mutable.Map[String, ActorRef](), "Case", Int.box(0)))
+    router ! TestScript.createCaseCommand(testUser, caseInstanceId, caseDefinition)
+    expectMsgType[CaseStartedResponse](10.seconds)
+    watch(actors(caseInstanceId))
+  }
+
+  "The passivation sweeper" must {
+    "remove an idle actor from memory" in {
+      val actor = startCase(new Guid().toString)
+      expectTerminated(actor, 5.seconds)
+    }
+
+    "keep an actor that stays active longer than the idle period" in {
+      val caseInstanceId = new Guid().toString
+      val actor = startCase(caseInstanceId)
+      (1 to 10).foreach(_ => {
+        actor ! new GetDiscretionaryItems(testUser, caseInstanceId)
+        expectMsgType[GetDiscretionaryItemsResponse]
+        expectNoMessage(200.millis)
+      })
+      expectTerminated(actor, 5.seconds)
+    }
+
+    "keep an actor that handles a command after the sweeper found it idle" in {
+      val caseInstanceId = new Guid().toString
+      val actor = startCase(caseInstanceId)
+      // The command arrives in between the sweeper taking the actor out of its registration and the idle check
+      actor ! new GetDiscretionaryItems(testUser, caseInstanceId)
+      actor ! PassivationSweeper.IdleCheck.INSTANCE
+      expectMsgType[GetDiscretionaryItemsResponse]
+      expectNoMessage(500.millis)
+
+      // The actor must have registered again, so that it is removed once it really is idle
+      expectTerminated(actor, 5.seconds)
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package org.cafienne.infrastructure.akkahttp
+
+import akka.http.scaladsl.model.{ContentTypes, StatusCodes}
+import akka.http.scaladsl.server.Directives._
+import akka.http.scaladsl.server.Route
+import akka.http.scaladsl.testkit.ScalatestRouteTest
+import akka.util.ByteString
+import org.cafienne.infrastructure.akkahttp.ValueMarshallers._
+import org.cafienne.infrastructure.akkahttp.route.CaseServiceRoute
+import org.cafienne.json.{CafienneJson, JSONReader, Value, ValueList, ValueMap}
+import org.cafienne.system.CaseSystem
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import java.nio.charset.StandardCharsets
+import scala.jdk.CollectionConverters._
+
+class JsonEntityRouteTest extends AnyWordSpecLike with Matchers with ScalatestRouteTest {
+
+  val service: CaseServiceRoute = new CaseServiceRoute {
+    override val caseSystem: CaseSystem = new CaseSystem(system)
+  }
+
+  def address(street: String, city: String): ValueMap = new ValueMap("Street", street, "City", city, "Geo", new ValueList(java.lang.Double.valueOf(52.09), java.lang.Double.valueOf(5.12)))
+
+  val customer: ValueMap = new ValueMap(
+    "Name", "Zoë Ångström-Müller",
+    "Greeting", "こんにちは, привет, 👋",
+    "Quote", "She said \"hi\"\n\tand left \\ again",
+    "Age", java.lang.Long.valueOf(42),
+    "Active", java.lang.Boolean.TRUE,
+    "Nothing", Value.NULL,
+    "Empty", new ValueMap(),
+    "NoLines", new ValueList(),
+    "Addresses", new ValueList(address("Straße 1", "Zürich"), address("Rue de l'Église", "Montréal")),
+    "Matrix", new ValueList(new ValueList("a", "ä"), new ValueList(), new ValueList(new ValueMap("Deep", new ValueList("€")))))
+
+  val customers: ValueList = new ValueList(customer, address("Plaza Mayor", "León"), "just a string", new ValueList("nested", new ValueMap()))
+
+  case class Item(value: Value[_]) extends CafienneJson {
+    override def toValue: Value[_] = value
+  }
+
+  val route: Route = concat(
+    path("value") { service.completeJsonValue(customer) },
+    path("list") { service.completeJsonValue(customers) },
+    path("empty") { service.completeJsonValue(new ValueList()) },
+    path("seq") { service.completeCafienneJSONSeq(customers.getValue.asScala.toSeq.map(Item)) },
+    path("marshalled-map") { complete(customer) },
+    path("marshalled-list") { complete(customers) }
+  )
+
+  def checkEntity(uri: String, expected: Value[_], chunked: Boolean): Unit = {
+    Get(uri) ~> route ~> check {
+      status shouldBe StatusCodes.OK
+      contentType shouldBe ContentTypes.`application/json`
+      response.entity.isChunked shouldBe chunked
+      responseAs[ByteString] shouldBe ByteString(expected.toString.getBytes(StandardCharsets.UTF_8))
+      responseAs[String] shouldBe expected.toString
+      JSONReader.parse[Value[_]](responseAs[String]) shouldBe expected
+    }
+  }
+
+  "A JSON response entity" must {
+    "print a single value with nested maps, lists and non-ASCII strings exactly as Value.toString" in {
+      checkEntity("/value", customer, chunked = false)
+    }
+
+    "stream a list of values exactly as Value.toString" in {
+      checkEntity("/list", customers, chunked = true)
+    }
+
+    "print an empty list exactly as Value.toString" in {
+      checkEntity("/empty", new ValueList(), chunked = false)
+    }
+
+    "stream a sequence of CafienneJson objects as the list of their values" in {
+      checkEntity("/seq", customers, chunked = true)
+    }
+
+    "be the same when written by the ValueMap and ValueList marshallers" in {
+      checkEntity("/marshalled-map", customer, chunked = false)
+      checkEntity("/marshalled-list", customers, chunked = true)
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package org.cafienne.infrastructure.serialization
+
+import org.cafienne.cmmn.actorapi.event.file.CaseFileItemCreated
+import org.cafienne.cmmn.definition.CaseDefinition
+import org.cafienne.cmmn.instance.casefile.CaseFileItemTransition
+import org.cafienne.cmmn.test.TestScript.loadCaseDefinition
+import org.cafienne.identity.TestIdentityFactory
+import org.cafienne.json.{JSONReader, ValueList, ValueMap}
+import org.cafienne.querydb.materializer.EventFactory
+import org.cafienne.util.Guid
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+class CBORSerializationTest extends AnyWordSpecLike with Matchers {
+
+  val caseDefinition: CaseDefinition = loadCaseDefinition("testdefinition/helloworld.xml")
+  val eventFactory = new EventFactory(new Guid().toString, caseDefinition, TestIdentityFactory.createTenantUser("test"))
+
+  val jsonSerializer = new CafienneSerializer(false)
+  val cborSerializer = new CafienneSerializer(true)
+
+  def createEvent(message: String): CaseFileItemCreated = {
+    val value = new ValueMap("Message", message, "Count", java.lang.Long.valueOf(3), "Urgent", java.lang.Boolean.TRUE, "Lines", new ValueList("first", "second"))
+    eventFactory.createCaseFileEvent("Greeting", value, CaseFileItemTransition.Create).asInstanceOf[CaseFileItemCreated]
+  }
+
+  def json(serializable: Any): ValueMap = JSONReader.parse(serializable.asInstanceOf[CafienneSerializable].toBytes)
+
+  "The CafienneSerializer" must {
+    "write and read back an event in binary CBOR format" in {
+      val event = createEvent("hello")
+      val manifest = cborSerializer.manifest(event)
+      val bytes = cborSerializer.toBinary(event)
+
+      manifest shouldBe CafienneSerializer.CBOR_MARKER + jsonSerializer.manifest(event)
+      bytes.length should be < jsonSerializer.toBinary(event).length
+
+      val restored = cborSerializer.fromBinary(bytes, manifest)
+      restored shouldBe a[CaseFileItemCreated]
+      json(restored) shouldBe json(event)
+      restored.asInstanceOf[CaseFileItemCreated].getSerializedSize shouldBe bytes.length
+    }
+
+    "read a journal with both JSON and CBOR events, regardless of the format it writes" in {
+      val jsonEvent = createEvent("written as json")
+      val cborEvent = createEvent("written as cbor")
+      val journal = Seq(
+        (jsonSerializer.toBinary(jsonEvent), jsonSerializer.manifest(jsonEvent)),
+        (cborSerializer.toBinary(cborEvent), cborSerializer.manifest(cborEvent)))
+
+      Seq(jsonSerializer, cborSerializer).foreach(serializer => {
+        val events = journal.map(entry => serializer.fromBinary(entry._1, entry._2))
+        events.foreach(_ shouldBe a[CaseFileItemCreated])
+        events.map(json) shouldBe Seq(json(jsonEvent), json(cborEvent))
+      })
+    }
+  }
+}
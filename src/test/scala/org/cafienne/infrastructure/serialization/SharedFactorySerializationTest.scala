@@ -0,0 +1,94 @@
+package org.cafienne.infrastructure.serialization
+
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter
+import com.fasterxml.jackson.core.{JsonFactory, JsonGenerator}
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory
+import org.cafienne.cmmn.actorapi.event.file.CaseFileItemCreated
+import org.cafienne.cmmn.definition.CaseDefinition
+import org.cafienne.cmmn.instance.casefile.CaseFileItemTransition
+import org.cafienne.cmmn.test.TestScript.loadCaseDefinition
+import org.cafienne.identity.TestIdentityFactory
+import org.cafienne.json.{JSONReader, Value, ValueList, ValueMap}
+import org.cafienne.querydb.materializer.EventFactory
+import org.cafienne.util.Guid
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import java.io.{ByteArrayOutputStream, StringWriter}
+import java.nio.charset.StandardCharsets
+import scala.concurrent.duration._
+import scala.concurrent.{Await, ExecutionContext, Future}
+
+class SharedFactorySerializationTest extends AnyWordSpecLike with Matchers {
+
+  val caseDefinition: CaseDefinition = loadCaseDefinition("testdefinition/helloworld.xml")
+  val eventFactory = new EventFactory(new Guid().toString, caseDefinition, TestIdentityFactory.createTenantUser("test"))
+
+  val jsonSerializer = new CafienneSerializer(false)
+  val cborSerializer = new CafienneSerializer(true)
+
+  def createEvent(message: String): CaseFileItemCreated = {
+    val value = new ValueMap("Message", message, "Count", java.lang.Long.valueOf(3), "Urgent", java.lang.Boolean.TRUE, "Lines", new ValueList("first", "second", new ValueMap("Nested", "ünïcødé ✓")))
+    eventFactory.createCaseFileEvent("Greeting", value, CaseFileItemTransition.Create).asInstanceOf[CaseFileItemCreated]
+  }
+
+  /**
+    * Writes the object with a new factory into a plain output stream, without any buffer recycling,
+    * as reference for the output of the shared factories.
+    */
+  def reference(factory: JsonFactory, pretty: Boolean)(write: JsonGenerator => Unit): Array[Byte] = {
+    val output = new ByteArrayOutputStream()
+    val generator = factory.createGenerator(output)
+    if (pretty) generator.setPrettyPrinter(new DefaultPrettyPrinter())
+    write(generator)
+    generator.close()
+    output.toByteArray
+  }
+
+  "The shared JSON and CBOR factories" must {
+    "write the same bytes as a new factory without recycled buffers" in {
+      val event = createEvent("hello")
+      event.toBytes shouldBe reference(new JsonFactory(), pretty = true)(event.writeThisObject)
+      event.toCBOR shouldBe reference(new CBORFactory(), pretty = false)(event.writeThisObject)
+      event.asString shouldBe new String(event.toBytes, StandardCharsets.UTF_8)
+    }
+
+    "write the same bytes after a round trip through the serializer" in {
+      Seq(jsonSerializer, cborSerializer).foreach(serializer => {
+        val event = createEvent("round trip")
+        val bytes = serializer.toBinary(event)
+        val restored = serializer.fromBinary(bytes, serializer.manifest(event))
+        serializer.toBinary(restored) shouldBe bytes
+        restored.asInstanceOf[CafienneSerializable].toBytes shouldBe event.toBytes
+      })
+    }
+
+    "write the same bytes when the recycled buffers are reused, also from multiple threads" in {
+      val event = createEvent("reused " * 2000) // Large enough to span multiple buffer segments
+      val json = event.toBytes
+      val cbor = event.toCBOR
+      (1 to 10).foreach(_ => {
+        event.toBytes shouldBe json
+        event.toCBOR shouldBe cbor
+      })
+
+      implicit val ec: ExecutionContext = ExecutionContext.global
+      val results = Await.result(Future.sequence((1 to 20).map(_ => Future((event.toBytes, event.toCBOR)))), 10.seconds)
+      results.foreach(result => {
+        result._1 shouldBe json
+        result._2 shouldBe cbor
+      })
+    }
+
+    "print a value the same as a plain string writer" in {
+      val value: Value[_] = createEvent("printed").getValue
+      val writer = new StringWriter()
+      val generator = new JsonFactory().createGenerator(writer)
+      generator.setPrettyPrinter(new DefaultPrettyPrinter())
+      value.print(generator)
+      generator.close()
+      value.toString shouldBe writer.toString
+      JSONReader.parse[Value[_]](value.toString) shouldBe value
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package org.cafienne.processtask.implementation.http
+
+import akka.actor.ActorSystem
+import akka.testkit.TestKit
+import com.github.tomakehurst.wiremock.WireMockServer
+import com.github.tomakehurst.wiremock.client.WireMock._
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration.options
+import com.typesafe.config.{Config, ConfigFactory}
+import org.cafienne.infrastructure.Cafienne
+import org.cafienne.infrastructure.config.engine.HttpClientConfig
+import org.cafienne.json.ValueMap
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.{Seconds, Span}
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import java.net.URL
+import scala.jdk.CollectionConverters._
+import scala.jdk.FutureConverters._
+
+class AsyncHTTPClientTest extends AnyWordSpecLike with Matchers with ScalaFutures with BeforeAndAfterAll {
+
+  implicit override val patienceConfig: PatienceConfig = PatienceConfig(timeout = scaled(Span(10, Seconds)))
+
+  val system: ActorSystem = ActorSystem("async-http-client-test", Cafienne.config.systemConfig)
+  val server = new WireMockServer(options().dynamicPort())
+
+  val clientConfig: HttpClientConfig = new HttpClientConfig(Cafienne.config.engine) {
+    override def config: Config = ConfigFactory.parseString(
+      """
+        |request-timeout = 1s
+        |max-response-size = 1k
+        |""".stripMargin)
+  }
+
+  override def beforeAll(): Unit = {
+    server.start()
+  }
+
+  override def afterAll(): Unit = {
+    server.stop()
+    TestKit.shutdownActorSystem(system)
+  }
+
+  def url(path: String) = new URL(s"http://localhost:${server.port()}$path")
+
+  def send(method: String, path: String, payload: String = null, headers: Map[String, String] = Map()): ValueMap = {
+    AsyncHTTPClient.send(system, method, url(path), headers.asJava, payload, clientConfig).asScala.futureValue
+  }
+
+  "The async http client" must {
+    "return the status, headers and body of a successful call" in {
+      server.stubFor(post(urlEqualTo("/success"))
+        .withHeader("Accept", equalTo("application/json"))
+        .withRequestBody(equalToJson("""{"name":"test"}"""))
+        .willReturn(aResponse().withStatus(201).withHeader("Content-Type", "application/json").withBody("""{"id":"1"}""")))
+
+      val response = send("POST", "/success", """{"name":"test"}""", Map("Accept" -> "application/json", "Content-Type" -> "application/json"))
+      response.has(AsyncHTTPClient.ERROR) shouldBe false
+      response.readLong(AsyncHTTPClient.CODE).longValue shouldBe 201L
+      response.readString(AsyncHTTPClient.PAYLOAD) shouldBe """{"id":"1"}"""
+      response.readMap(AsyncHTTPClient.HEADERS).has("Content-Type") shouldBe true
+    }
+
+    "return the status and body of a call that is answered outside the 2xx range" in {
+      server.stubFor(get(urlEqualTo("/failure")).willReturn(aResponse().withStatus(503).withBody("try again later")))
+
+      val response = send("GET", "/failure")
+      response.has(AsyncHTTPClient.ERROR) shouldBe false
+      response.readLong(AsyncHTTPClient.CODE).longValue shouldBe 503L
+      response.readString(AsyncHTTPClient.PAYLOAD) shouldBe "try again later"
+    }
+
+    "report a failure if no response comes within the request timeout" in {
+      server.stubFor(get(urlEqualTo("/slow")).willReturn(aResponse().withFixedDelay(3000).withBody("too late")))
+
+      val response = send("GET", "/slow")
+      response.has(AsyncHTTPClient.CODE) shouldBe false
+      response.readString(AsyncHTTPClient.ERROR) should include("No response")
+    }
+
+    "report a failure if the response body exceeds the maximum size" in {
+      server.stubFor(get(urlEqualTo("/large")).willReturn(aResponse().withBody("x" * 4096)))
+
+      val response = send("GET", "/large")
+      response.has(AsyncHTTPClient.CODE) shouldBe false
+      response.has(AsyncHTTPClient.ERROR) shouldBe true
+      response.has(AsyncHTTPClient.EXCEPTION) shouldBe true
+    }
+  }
+}
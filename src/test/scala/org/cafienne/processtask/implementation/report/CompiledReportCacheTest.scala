@@ -0,0 +1,42 @@
+package org.cafienne.processtask.implementation.report
+
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import scala.io.Source
+
+class CompiledReportCacheTest extends AnyWordSpecLike with Matchers {
+
+  val ordersReport: String = Source.fromResource("testdefinition/task/report/OrdersReport.jrxml", getClass.getClassLoader).mkString
+  val customersReport: String = Source.fromResource("testdefinition/task/report/CustomersReport.jrxml", getClass.getClassLoader).mkString
+
+  "The compiled report cache" must {
+    "compile the same report xml only once" in {
+      val cache = new CompiledReportCache(10)
+      val report = cache.compile(ordersReport)
+      cache.compile(new String(ordersReport)) should be theSameInstanceAs report
+      cache.getMisses shouldBe 1L
+      cache.getHits shouldBe 1L
+      cache.size shouldBe 1
+    }
+
+    "compile a report again when the xml differs" in {
+      val cache = new CompiledReportCache(10)
+      val report = cache.compile(ordersReport)
+      // A comment after the root element does not change the report, but it does change the xml
+      cache.compile(ordersReport + "\n<!-- changed -->") should not be theSameInstanceAs(report)
+      cache.getMisses shouldBe 2L
+      cache.getHits shouldBe 0L
+    }
+
+    "evict the least recently used report when it is full" in {
+      val cache = new CompiledReportCache(1)
+      val orders = cache.compile(ordersReport)
+      cache.compile(customersReport)
+      cache.size shouldBe 1
+      cache.compile(ordersReport) should not be theSameInstanceAs(orders)
+      cache.getMisses shouldBe 3L
+      cache.getHits shouldBe 0L
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package org.cafienne.processtask.implementation.report.blobstore
+
+import org.cafienne.util.ContentHash
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import java.io.IOException
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, Path}
+import scala.util.Using
+
+class LocalFileBlobStoreTest extends AnyWordSpecLike with Matchers {
+
+  val content: Array[Byte] = "%PDF-1.4 Pooled documents are cool".getBytes(StandardCharsets.US_ASCII)
+
+  def newStore(): (LocalFileBlobStore, Path) = {
+    val location = Files.createTempDirectory("blob-store")
+    (new LocalFileBlobStore(location), location)
+  }
+
+  def write(store: BlobStore, owner: String, bytes: Array[Byte] = content): BlobReference = store.write(owner, "application/pdf", output => output.write(bytes))
+
+  def read(store: BlobStore, reference: String): Array[Byte] = Using.resource(store.read(reference))(_.readAllBytes())
+
+  "The local file blob store" must {
+    "read back the content that is written, under a reference of the owner" in {
+      val (store, location) = newStore()
+      val blob = write(store, "case-1")
+      blob.getReference shouldBe s"case-1/${ContentHash.of(content)}.pdf"
+      blob.getHash shouldBe ContentHash.of(content)
+      blob.getSize shouldBe content.length.toLong
+      blob.getContentType shouldBe "application/pdf"
+      read(store, blob.getReference) shouldBe content
+
+      // Writing the same content again gives the same reference, and leaves no temporary files behind
+      write(store, "case-1").getReference shouldBe blob.getReference
+      Files.list(location.resolve("case-1")).count() shouldBe 1L
+    }
+
+    "not read or write outside of the directory of an owner" in {
+      val (store, location) = newStore()
+      val blob = write(store, "case-1")
+      Files.write(location.resolve("secret.pdf"), content)
+      Files.write(location.getParent.resolve(s"${location.getFileName}-secret.pdf"), content)
+
+      Seq("secret.pdf", "case-1", "case-1/../secret.pdf", s"../${location.getFileName}-secret.pdf", s"case-1/../../${location.getFileName}-secret.pdf", "case-1/x/../../secret.pdf")
+        .foreach(reference => assertThrows[IOException](read(store, reference)))
+      Seq("", ".", "..", "case-1/sub", "../case-1").foreach(owner => {
+        assertThrows[IOException](write(store, owner))
+        assertThrows[IOException](store.delete(owner))
+      })
+      read(store, blob.getReference) shouldBe content
+    }
+
+    "delete all blobs of an owner, and only those" in {
+      val (store, location) = newStore()
+      val first = write(store, "case-1")
+      val second = write(store, "case-1", "other document".getBytes(StandardCharsets.UTF_8))
+      val other = write(store, "case-2")
+
+      store.delete("case-1")
+      Files.exists(location.resolve("case-1")) shouldBe false
+      assertThrows[IOException](read(store, first.getReference))
+      assertThrows[IOException](read(store, second.getReference))
+      read(store, other.getReference) shouldBe content
+
+      // Deleting again, or deleting an owner without blobs, is fine
+      store.delete("case-1")
+      store.delete("case-3")
+    }
+  }
+}
@@ -2,7 +2,7 @@ package org.cafienne.querydb.materializer
 
 import org.cafienne.actormodel.identity.TenantUser
 import org.cafienne.cmmn.actorapi.event._
-import org.cafienne.cmmn.actorapi.event.file.{CaseFileItemCreated, CaseFileItemTransitioned}
+import org.cafienne.cmmn.actorapi.event.file.{CaseFileItemChildRemoved, CaseFileItemCreated, CaseFileItemTransitioned}
 import org.cafienne.cmmn.actorapi.event.plan.{PlanItemCreated, PlanItemTransitioned}
 import org.cafienne.cmmn.definition.CaseDefinition
 import org.cafienne.cmmn.instance.casefile.CaseFileItemTransition
@@ -93,9 +93,20 @@ class EventFactory(actorId: String, caseDefinition: CaseDefinition, user: Tenant
     new CaseFileItemCreated(json)
   }
 
+  def createCaseFileChildRemoved(path: String, childPath: String, user: TenantUser = user): CaseFileItemChildRemoved = {
+    val json = new ValueMap(
+      Fields.path, path
+      ,Fields.childPath, childPath
+      ,Fields.transition, CaseFileItemTransition.RemoveChild.toString
+      ,Fields.modelEvent, getModelEvent(user)
+    )
+    new CaseFileItemChildRemoved(json)
+  }
+
   private def getModelEvent(user: TenantUser) : ValueMap = {
     new ValueMap(
       Fields.actorId, actorId
+      ,Fields.tenant, user.tenant
       ,Fields.user, user
     )
   }
@@ -0,0 +1,128 @@
+package org.cafienne.querydb.materializer
+
+import akka.Done
+import akka.actor.ActorSystem
+import akka.persistence.query.{EventEnvelope, Offset, Sequence}
+import org.cafienne.actormodel.event.CommitEvent
+import org.cafienne.infrastructure.cqrs.ModelEventEnvelope
+import org.cafienne.infrastructure.cqrs.offset.OffsetRecord
+import org.cafienne.querydb.materializer.cases.CaseStorageTransaction
+import org.cafienne.querydb.materializer.consentgroup.ConsentGroupStorageTransaction
+import org.cafienne.querydb.materializer.tenant.TenantStorageTransaction
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.{Seconds, Span}
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import scala.collection.mutable.ListBuffer
+import scala.concurrent.{Future, Promise}
+
+class GroupCommitTest extends AnyWordSpecLike with Matchers with ScalaFutures {
+
+  implicit override val patienceConfig: PatienceConfig = PatienceConfig(timeout = scaled(Span(2, Seconds)))
+
+  "A group commit" must {
+    "write the batches of the group in a single flush" in {
+      val sink = new GroupCommitSink
+      val handled = ListBuffer[String]()
+      val batches = Seq("case-1", "case-2", "case-3").map(new GroupMemberBatch(_, handled))
+
+      sink.consumeGroup(batches).futureValue shouldBe batches
+      handled shouldBe ListBuffer("case-1", "case-2", "case-3")
+      sink.groups.size shouldBe 1
+      sink.groups.head.flushes shouldBe 1
+      batches.foreach(_.dBTransaction.group shouldBe Some(sink.groups.head))
+    }
+
+    "fail instead of waiting for a batch that fails before handing over its statements" in {
+      val sink = new GroupCommitSink
+      val handled = ListBuffer[String]()
+      val failure = new Exception("Cannot handle event")
+      val batches = Seq(
+        new GroupMemberBatch("case-1", handled),
+        new GroupMemberBatch("case-2", handled, Some(failure)),
+        new GroupMemberBatch("case-3", handled))
+
+      sink.consumeGroup(batches).failed.futureValue shouldBe failure
+      handled shouldBe ListBuffer("case-1")
+      sink.groups.head.flushes shouldBe 0
+    }
+  }
+}
+
+class GroupCommitSink extends QueryDBEventSink with QueryDBStorage {
+  val groups = ListBuffer[TestCommitGroup]()
+
+  override val storage: QueryDBStorage = this
+  override val tag: String = "group-commit-test"
+
+  override def system: ActorSystem = null
+
+  override def createBatch(persistenceId: String): QueryDBEventBatch = ???
+
+  override def getOffset: Future[Offset] = Future.successful(Offset.noOffset)
+
+  override def getOffset(offsetName: String): Future[Offset] = getOffset
+
+  override def createCommitGroup(): CommitGroup = {
+    groups += new TestCommitGroup
+    groups.last
+  }
+
+  override def createCaseTransaction(caseInstanceId: String): CaseStorageTransaction = ???
+
+  override def createConsentGroupTransaction(groupId: String): ConsentGroupStorageTransaction = ???
+
+  override def createTenantTransaction(tenant: String): TenantStorageTransaction = ???
+}
+
+class TestCommitGroup extends CommitGroup {
+  private val result = Promise[Done]()
+  private var nextCommitted = Promise[Done]()
+  var flushes = 0
+
+  override def nextCommit(): Future[Done] = synchronized {
+    nextCommitted = Promise[Done]()
+    nextCommitted.future
+  }
+
+  def committed(): Future[Done] = synchronized {
+    nextCommitted.trySuccess(Done)
+    result.future
+  }
+
+  override def flush(): Future[Done] = {
+    flushes += 1
+    result.trySuccess(Done)
+    result.future
+  }
+
+  override def fail(cause: Throwable): Unit = result.tryFailure(cause)
+}
+
+class GroupMemberTransaction extends QueryDBTransaction {
+  var group: Option[TestCommitGroup] = None
+
+  override def upsert(record: OffsetRecord): Unit = {}
+
+  override def join(group: CommitGroup): Unit = this.group = Some(group.asInstanceOf[TestCommitGroup])
+
+  override def commit(): Future[Done] = group.map(_.committed()).getOrElse(Future.successful(Done))
+}
+
+class GroupMemberBatch(val persistenceId: String, handled: ListBuffer[String], failure: Option[Throwable] = None) extends QueryDBEventBatch {
+  addEvent(ModelEventEnvelope(EventEnvelope(Sequence(1), persistenceId, 1, null, 0L)))
+
+  override val dBTransaction: GroupMemberTransaction = new GroupMemberTransaction
+
+  override def groupable: Boolean = true
+
+  override def handleEvent(envelope: ModelEventEnvelope): Future[Done] = failure match {
+    case Some(cause) => Future.failed(cause)
+    case None =>
+      handled += persistenceId
+      Future.successful(Done)
+  }
+
+  override def commit(envelope: ModelEventEnvelope, transactionEvent: CommitEvent): Future[Done] = dBTransaction.commit()
+}
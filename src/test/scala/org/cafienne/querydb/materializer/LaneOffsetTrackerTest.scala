@@ -0,0 +1,52 @@
+package org.cafienne.querydb.materializer
+
+import akka.Done
+import akka.persistence.query.{EventEnvelope, Sequence}
+import org.cafienne.actormodel.event.CommitEvent
+import org.cafienne.infrastructure.cqrs.ModelEventEnvelope
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import scala.concurrent.Future
+
+class LaneOffsetTrackerTest extends AnyWordSpecLike with Matchers {
+
+  "LaneOffsetTracker" must {
+    "not commit an offset beyond a batch that is still running in another lane" in {
+      val tracker = new LaneOffsetTracker(Sequence(0))
+      val first = tracker.register(new OffsetBatch("case-1", 1))
+      val second = tracker.register(new OffsetBatch("case-2", 2))
+      val third = tracker.register(new OffsetBatch("case-3", 3))
+
+      // The later batches commit first, while the first one is still busy; they may only store the start offset
+      second.offsetToCommit shouldBe Sequence(0)
+      tracker.completed(second)
+      third.offsetToCommit shouldBe Sequence(0)
+      tracker.completed(third)
+      tracker.inFlight shouldBe 3
+
+      // A new batch in the lane of the second one may also not go beyond the first batch
+      val fourth = tracker.register(new OffsetBatch("case-2", 4))
+      tracker.inFlight shouldBe 4
+      fourth.offsetToCommit shouldBe Sequence(0)
+
+      // When the first batch commits, it covers the batches that committed before it
+      first.offsetToCommit shouldBe Sequence(3)
+      tracker.completed(first)
+      tracker.inFlight shouldBe 1
+      fourth.offsetToCommit shouldBe Sequence(4)
+      tracker.completed(fourth)
+      tracker.inFlight shouldBe 0
+    }
+  }
+}
+
+class OffsetBatch(val persistenceId: String, offset: Long) extends QueryDBEventBatch {
+  addEvent(ModelEventEnvelope(EventEnvelope(Sequence(offset), persistenceId, offset, null, 0L)))
+
+  override def dBTransaction: QueryDBTransaction = null
+
+  override def handleEvent(envelope: ModelEventEnvelope): Future[Done] = Future.successful(Done)
+
+  override def commit(envelope: ModelEventEnvelope, transactionEvent: CommitEvent): Future[Done] = Future.successful(Done)
+}
@@ -33,5 +33,7 @@ object TestQueryDB extends QueryDBStorage {
 
   override def createTenantTransaction(tenant: String): TenantStorageTransaction = ???
 
+  override def createCommitGroup(): CommitGroup = ???
+
   override def getOffset(offsetName: String): Future[Offset] = Future.successful(Offset.noOffset)
 }
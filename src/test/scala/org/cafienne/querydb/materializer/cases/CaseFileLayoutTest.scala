@@ -0,0 +1,109 @@
+package org.cafienne.querydb.materializer.cases
+
+import akka.persistence.query.{EventEnvelope, Sequence}
+import org.cafienne.actormodel.identity.TenantUser
+import org.cafienne.cmmn.actorapi.event.file.CaseFileItemTransitioned
+import org.cafienne.cmmn.definition.CaseDefinition
+import org.cafienne.cmmn.instance.casefile.CaseFileItemTransition
+import org.cafienne.cmmn.test.TestScript.loadCaseDefinition
+import org.cafienne.identity.TestIdentityFactory
+import org.cafienne.infrastructure.cqrs.ModelEventEnvelope
+import org.cafienne.json.{JSONReader, ValueMap}
+import org.cafienne.querydb.materializer.EventFactory
+import org.cafienne.querydb.materializer.cases.file.CaseFileProjection
+import org.cafienne.querydb.materializer.slick.{SlickCaseTransaction, SlickQueryDB}
+import org.cafienne.querydb.query.CaseQueriesImpl
+import org.cafienne.querydb.schema.QueryDB
+import org.cafienne.util.Guid
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.{Seconds, Span}
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import scala.concurrent.ExecutionContext.Implicits.global
+
+class CaseFileLayoutTest extends AnyWordSpecLike with Matchers with ScalaFutures with BeforeAndAfterAll {
+
+  implicit override val patienceConfig: PatienceConfig = PatienceConfig(timeout = scaled(Span(5, Seconds)))
+
+  override def beforeAll(): Unit = {
+    QueryDB.verifyConnectivity()
+  }
+
+  val user: TenantUser = TestIdentityFactory.createTenantUser("test")
+  val caseDefinition: CaseDefinition = loadCaseDefinition("testdefinition/helloworld.xml")
+
+  /**
+    * Each sequence of events is materialized in its own batch, so that later batches have to read the case file
+    * (or the case file items) back from the database.
+    */
+  def batches(events: EventFactory): Seq[Seq[CaseFileItemTransitioned]] = Seq(
+    Seq(
+      events.createCaseFileEvent("Greeting", new ValueMap("Message", "hello"), CaseFileItemTransition.Create),
+      events.createCaseFileEvent("Items[0]", new ValueMap("Name", "first"), CaseFileItemTransition.Create),
+      events.createCaseFileEvent("Items[1]", new ValueMap("Name", "second"), CaseFileItemTransition.Create),
+      events.createCaseFileEvent("Obsolete", new ValueMap("Flag", java.lang.Boolean.TRUE), CaseFileItemTransition.Create)),
+    Seq(
+      events.createCaseFileEvent("Items[1]", new ValueMap("Name", "second", "Done", java.lang.Boolean.TRUE), CaseFileItemTransition.Update),
+      events.createCaseFileChildRemoved("", "Items[0]"),
+      events.createCaseFileChildRemoved("", "Obsolete")),
+    Seq(
+      events.createCaseFileEvent("Items[1]", new ValueMap("Name", "third"), CaseFileItemTransition.Create))
+  )
+
+  val expectedCaseFile: ValueMap = JSONReader.parse(
+    """{
+      |  "Greeting" : { "Message" : "hello" },
+      |  "Items" : [ { "Name" : "second", "Done" : true }, { "Name" : "third" } ]
+      |}""".stripMargin)
+
+  /**
+    * Materializes the events of the batches with the given case file layout, and returns the case file record as it is stored.
+    */
+  def materialize(caseInstanceId: String, itemizedLayout: Boolean): ValueMap = {
+    val eventFactory = new EventFactory(caseInstanceId, caseDefinition, user)
+    batches(eventFactory).zipWithIndex.foreach { case (events, number) =>
+      val batch = new CaseEventBatch(null, caseInstanceId, SlickQueryDB)
+      events.foreach(event => batch.addEvent(ModelEventEnvelope(EventEnvelope(Sequence(number), caseInstanceId, number, event, 0L))))
+      val projection = new CaseFileProjection(batch, itemizedLayout)
+      if (number == 0) projection.handleCaseCreation()
+      events.foreach(event => projection.handleCaseFileEvent(event).futureValue)
+      projection.prepareCommit()
+      batch.dBTransaction.commit().futureValue
+    }
+    new SlickCaseTransaction().getCaseFile(caseInstanceId).futureValue.map(_.toValueMap).orNull
+  }
+
+  /**
+    * Reads the case file the way the case queries do, i.e., including the case file items in the items layout
+    */
+  def readCaseFile(caseInstanceId: String, itemizedLayout: Boolean): ValueMap = {
+    val queries = new CaseQueriesImpl {
+      override def itemizedCaseFile: Boolean = itemizedLayout
+    }
+    new SlickCaseTransaction().getCaseFile(caseInstanceId).flatMap(queries.withCaseFileItems).futureValue.map(_.toValueMap).orNull
+  }
+
+  "The case file layouts" must {
+    "result in the same case file for the document and the items layout" in {
+      val documentCase = new Guid().toString
+      val itemsCase = new Guid().toString
+
+      materialize(documentCase, itemizedLayout = false) shouldBe expectedCaseFile
+      // In the items layout, the case file record itself stays empty
+      materialize(itemsCase, itemizedLayout = true).getValue.isEmpty shouldBe true
+
+      readCaseFile(documentCase, itemizedLayout = false) shouldBe expectedCaseFile
+      readCaseFile(itemsCase, itemizedLayout = true) shouldBe expectedCaseFile
+    }
+
+    "no longer hold case file items that are removed through the root of the case file" in {
+      val itemsCase = new Guid().toString
+      materialize(itemsCase, itemizedLayout = true)
+
+      new SlickCaseTransaction().getCaseFileItem(itemsCase, "Obsolete").futureValue shouldBe None
+      new SlickCaseTransaction().getCaseFileItem(itemsCase, "Items").futureValue.map(_.toValue) shouldBe Some(expectedCaseFile.get("Items"))
+    }
+  }
+}
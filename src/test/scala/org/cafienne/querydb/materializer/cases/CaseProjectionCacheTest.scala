@@ -0,0 +1,82 @@
+package org.cafienne.querydb.materializer.cases
+
+import akka.Done
+import org.cafienne.querydb.record.{PlanItemRecord, TaskRecord}
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import java.time.Instant
+import scala.concurrent.Future
+
+class CaseProjectionCacheTest extends AnyWordSpecLike with Matchers with ScalaFutures {
+
+  val caseInstanceId = "cached-case"
+
+  def planItem(state: String): PlanItemRecord = PlanItemRecord(id = "plan-item", definitionId = "definition", stageId = "", name = "Task",
+    index = 0, caseInstanceId = caseInstanceId, tenant = "tenant", currentState = state, planItemType = "HumanTask",
+    lastModified = Instant.now, modifiedBy = "user", createdOn = Instant.now)
+
+  val task: TaskRecord = TaskRecord(id = "plan-item", caseInstanceId = caseInstanceId, tenant = "tenant", createdOn = Instant.now, lastModified = Instant.now)
+
+  /**
+    * Storage transaction that holds the plan item in state Available in the "database", and that can fail to commit
+    */
+  class DatabaseTransaction(commitFailure: Option[Throwable] = None) extends TestCaseStorageTransaction(caseInstanceId) {
+    override def getPlanItem(planItemId: String): Future[Option[PlanItemRecord]] = Future.successful(Some(planItem("Available")))
+
+    override def deletePlanItemRecord(planItemId: String): Unit = {}
+
+    override def deleteTaskRecord(taskId: String): Unit = {}
+
+    override def commit(): Future[Done] = commitFailure.fold(super.commit())(Future.failed)
+  }
+
+  "CaseProjectionCache" must {
+    "drop the records of a case when its transaction fails to commit" in {
+      val cache = new CaseProjectionCache(1024 * 1024)
+      val transaction = new CachingCaseTransaction(caseInstanceId, new DatabaseTransaction(Some(new Exception("Database is down"))), cache)
+      transaction.upsert(planItem("Active"))
+      cache.getPlanItem(caseInstanceId, "plan-item").map(_.currentState) shouldBe Some("Active")
+
+      transaction.commit().failed.futureValue.getMessage shouldBe "Database is down"
+      cache.getPlanItem(caseInstanceId, "plan-item") shouldBe None
+
+      // The next transaction must read the plan item from the database again
+      val next = new CachingCaseTransaction(caseInstanceId, new DatabaseTransaction(), cache)
+      next.getPlanItem("plan-item").futureValue.map(_.currentState) shouldBe Some("Available")
+    }
+
+    "keep the records of a case when its transaction commits" in {
+      val cache = new CaseProjectionCache(1024 * 1024)
+      val transaction = new CachingCaseTransaction(caseInstanceId, new DatabaseTransaction(), cache)
+      transaction.upsert(planItem("Active"))
+      transaction.commit().futureValue shouldBe Done
+
+      val next = new CachingCaseTransaction(caseInstanceId, new DatabaseTransaction(), cache)
+      next.getPlanItem("plan-item").futureValue.map(_.currentState) shouldBe Some("Active")
+    }
+
+    "drop deleted records" in {
+      val cache = new CaseProjectionCache(1024 * 1024)
+      val transaction = new CachingCaseTransaction(caseInstanceId, new DatabaseTransaction(), cache)
+      transaction.upsert(planItem("Active"))
+      transaction.upsert(task)
+
+      transaction.deletePlanItemRecord("plan-item")
+      transaction.deleteTaskRecord("plan-item")
+      cache.getPlanItem(caseInstanceId, "plan-item") shouldBe None
+      cache.getTask(caseInstanceId, "plan-item") shouldBe None
+    }
+
+    "drop all records of a case when it is invalidated, e.g. upon deletion of the case" in {
+      val cache = new CaseProjectionCache(1024 * 1024)
+      cache.put(planItem("Active"))
+      cache.put(task)
+
+      cache.invalidate(caseInstanceId)
+      cache.getPlanItem(caseInstanceId, "plan-item") shouldBe None
+      cache.getTask(caseInstanceId, "plan-item") shouldBe None
+    }
+  }
+}
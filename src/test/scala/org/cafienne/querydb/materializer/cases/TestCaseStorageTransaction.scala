@@ -24,6 +24,8 @@ class TestCaseStorageTransaction(caseInstanceId: String) extends TestQueryDBTran
 
   override def upsert(record: CaseFileRecord): Unit = addRecord(record)
 
+  override def upsert(record: CaseFileItemRecord): Unit = addRecord(record)
+
   override def upsert(record: CaseBusinessIdentifierRecord): Unit = addRecord(record)
 
   override def upsert(record: CaseRoleRecord): Unit = addRecord(record)
@@ -46,12 +48,16 @@ class TestCaseStorageTransaction(caseInstanceId: String) extends TestQueryDBTran
 
   override def deletePlanItemRecord(planItemId: String): Unit = ???
 
+  override def deleteCaseFileItem(caseInstanceId: String, name: String): Unit = ???
+
   override def removeCaseRoles(caseInstanceId: String): Unit = {}
 
   override def getPlanItem(planItemId: String): Future[Option[PlanItemRecord]] = Future.successful(None)
 
   override def getCaseFile(caseInstanceId: String): Future[Option[CaseFileRecord]] = Future.successful(None)
 
+  override def getCaseFileItem(caseInstanceId: String, name: String): Future[Option[CaseFileItemRecord]] = Future.successful(None)
+
   override def getCaseInstance(id: String): Future[Option[CaseRecord]] = Future.successful(None)
 
   override def getTask(taskId: String): Future[Option[TaskRecord]] = Future.successful(Some(TaskRecord(id = "1", caseInstanceId = "1", tenant = "tenant", createdOn = Instant.now, lastModified = Instant.now)))
@@ -0,0 +1,53 @@
+package org.cafienne.querydb.materializer.slick
+
+import org.cafienne.querydb.record.PlanItemRecord
+import org.cafienne.querydb.schema.QueryDB
+import org.cafienne.util.Guid
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.{Seconds, Span}
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import java.time.Instant
+
+class SlickBulkUpsertTest extends AnyWordSpecLike with Matchers with ScalaFutures with BeforeAndAfterAll {
+
+  implicit override val patienceConfig: PatienceConfig = PatienceConfig(timeout = scaled(Span(5, Seconds)))
+
+  override def beforeAll(): Unit = {
+    QueryDB.verifyConnectivity()
+  }
+
+  private val caseInstanceId = new Guid().toString
+
+  private def planItem(id: String, state: String) = PlanItemRecord(id = s"$caseInstanceId-$id", definitionId = "definition", stageId = "", name = s"Item $id",
+    index = 0, caseInstanceId = caseInstanceId, tenant = "tenant", currentState = state, planItemType = "HumanTask",
+    lastModified = Instant.now, modifiedBy = "user", createdOn = Instant.now)
+
+  private def readState(id: String): Option[String] = new SlickCaseTransaction().getPlanItem(s"$caseInstanceId-$id").futureValue.map(_.currentState)
+
+  "A bulk upsert of plan items" must {
+    "insert new and update existing records in one transaction" in {
+      val first = new SlickCaseTransaction
+      first.upsert(planItem("bulk-1", "Available"))
+      first.upsert(planItem("bulk-2", "Available"))
+      first.upsert(planItem("bulk-1", "Active"))
+      first.commit().futureValue
+
+      readState("bulk-1") shouldBe Some("Active")
+      readState("bulk-2") shouldBe Some("Available")
+
+      // A next transaction updates existing records and inserts a new one in the same bulk statement
+      val second = new SlickCaseTransaction
+      second.upsert(planItem("bulk-2", "Active"))
+      second.upsert(planItem("bulk-1", "Completed"))
+      second.upsert(planItem("bulk-3", "Available"))
+      second.commit().futureValue
+
+      readState("bulk-1") shouldBe Some("Completed")
+      readState("bulk-2") shouldBe Some("Active")
+      readState("bulk-3") shouldBe Some("Available")
+    }
+  }
+}
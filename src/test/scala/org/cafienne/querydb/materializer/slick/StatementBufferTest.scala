@@ -0,0 +1,85 @@
+package org.cafienne.querydb.materializer.slick
+
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+import slick.dbio.DBIO
+
+import scala.collection.mutable.ListBuffer
+import scala.concurrent.Future
+
+class StatementBufferTest extends AnyWordSpecLike with Matchers with ScalaFutures {
+
+  case class Record(id: String, value: String)
+
+  /**
+    * Bulk upsert that keeps track of the records it is asked to write
+    */
+  class RecordingUpsert(val table: String) extends BulkUpsert[Record] {
+    val written = ListBuffer[Seq[Record]]()
+
+    override def upsertAll(records: Seq[Record]): DBIO[_] = {
+      written += records
+      DBIO.successful(records)
+    }
+  }
+
+  "StatementBuffer" must {
+    "merge repeated upserts of the same record" in {
+      val buffer = new StatementBuffer
+      val planItems = new RecordingUpsert("plan_item")
+      val offsets = new RecordingUpsert("offset_storage")
+
+      buffer.upsert(planItems, "1", Record("1", "Available"))
+      buffer.upsert(offsets, "offset", Record("offset", "10"))
+      buffer.upsert(planItems, "2", Record("2", "Available"))
+      buffer.upsert(planItems, "1", Record("1", "Active"))
+      buffer.upsert(offsets, "offset", Record("offset", "11"))
+
+      buffer.flush().size shouldBe 2
+      planItems.written shouldBe ListBuffer(Seq(Record("1", "Active"), Record("2", "Available")))
+      offsets.written shouldBe ListBuffer(Seq(Record("offset", "11")))
+      buffer.isEmpty shouldBe true
+    }
+
+    "not merge upserts across other statements" in {
+      val buffer = new StatementBuffer
+      val planItems = new RecordingUpsert("plan_item")
+
+      buffer.upsert(planItems, "1", Record("1", "Available"))
+      buffer.delete("1", DBIO.successful(0))
+      buffer.upsert(planItems, "1", Record("1", "Active"))
+
+      buffer.flush().size shouldBe 3
+      planItems.written shouldBe ListBuffer(Seq(Record("1", "Available")), Seq(Record("1", "Active")))
+    }
+
+    "keep the latest version of the records until it is flushed" in {
+      val buffer = new StatementBuffer
+      val planItems = new RecordingUpsert("plan_item")
+
+      buffer.pending[Record]("1") shouldBe None
+      buffer.upsert(planItems, "1", Record("1", "Available"))
+      buffer.pending[Record]("1") shouldBe Some(Some(Record("1", "Available")))
+      buffer.delete("1", DBIO.successful(0))
+      buffer.pending[Record]("1") shouldBe Some(None)
+      buffer.flush()
+      buffer.pending[Record]("1") shouldBe None
+    }
+  }
+
+  "SlickQueryDBTransaction" must {
+    "serve records that changed in the transaction from the buffer" in {
+      val transaction = new SlickQueryDBTransaction
+      val planItems = new RecordingUpsert("plan_item")
+      val fromDatabase = Record("2", "Completed")
+
+      transaction.addUpsert(planItems, "1", Record("1", "Active"))
+      transaction.readRecord[Record]("1", Future.failed(new AssertionError("Plan item 1 must not be read from the database"))).futureValue shouldBe Some(Record("1", "Active"))
+      transaction.readRecord[Record]("2", Future.successful(Some(fromDatabase))).futureValue shouldBe Some(fromDatabase)
+
+      transaction.addDelete("1", DBIO.successful(0))
+      transaction.readRecord[Record]("1", Future.failed(new AssertionError("Plan item 1 must not be read from the database"))).futureValue shouldBe None
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package org.cafienne.storage
+
+import akka.actor.{ActorRef, ActorSystem, Props}
+import akka.persistence.{PersistentActor, RecoveryCompleted, SnapshotOffer}
+import akka.testkit.{ImplicitSender, TestKit}
+import org.cafienne.cmmn.actorapi.command.StartCase
+import org.cafienne.cmmn.definition.CaseDefinition
+import org.cafienne.cmmn.test.TestScript
+import org.cafienne.cmmn.test.TestScript.{loadCaseDefinition, testUser}
+import org.cafienne.infrastructure.Cafienne
+import org.cafienne.infrastructure.cqrs.batch.TestCaseSystem
+import org.cafienne.querydb.schema.QueryDB
+import org.cafienne.storage.actormodel.message.StorageActionInitiated
+import org.cafienne.storage.actormodel.{ActorMetadata, ActorType}
+import org.cafienne.storage.archival.command.ArchiveActorData
+import org.cafienne.storage.deletion.command.RemoveActorData
+import org.cafienne.util.Guid
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.{Eventually, ScalaFutures}
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.{Seconds, Span}
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import scala.concurrent.duration._
+
+/**
+  * Cases store snapshots (the test configuration has cafienne.actor.snapshot.every-events = 10).
+  * Deleting or archiving a case must also remove those snapshots, otherwise the case would come back upon the next command.
+  */
+class CaseSnapshotStorageTest
+  extends TestKit(ActorSystem("case-snapshot-storage-test", Cafienne.config.systemConfig))
+    with ImplicitSender
+    with ScalaFutures
+    with AnyWordSpecLike
+    with Matchers
+    with BeforeAndAfterAll
+    with Eventually {
+
+  val caseSystem: TestCaseSystem = new TestCaseSystem(system)
+  val coordinator: ActorRef = system.actorOf(Props(classOf[StorageCoordinator], caseSystem.caseSystem))
+  val caseDefinition: CaseDefinition = loadCaseDefinition("testdefinition/helloworld.xml")
+
+  implicit override val patienceConfig: PatienceConfig = PatienceConfig(
+    timeout = scaled(Span(10, Seconds)),
+    interval = scaled(Span(1, Seconds)))
+
+  override def beforeAll(): Unit = {
+    QueryDB.verifyConnectivity()
+  }
+
+  override def afterAll(): Unit = {
+    TestKit.shutdownActorSystem(system)
+  }
+
+  "Removing a case with a snapshot" must {
+    "delete both events and snapshots" in {
+      val metadata = startCaseWithSnapshot()
+      coordinator ! RemoveActorData(metadata)
+      expectMsgType[StorageActionInitiated](10.seconds)
+      eventually {
+        readPersistence(metadata.actorId) shouldBe PersistenceState(hasSnapshot = false, lastSequenceNr = 0)
+      }
+    }
+  }
+
+  "Archiving a case with a snapshot" must {
+    "delete both events and snapshots" in {
+      val metadata = startCaseWithSnapshot()
+      coordinator ! ArchiveActorData(metadata)
+      expectMsgType[StorageActionInitiated](10.seconds)
+      eventually {
+        readPersistence(metadata.actorId) shouldBe PersistenceState(hasSnapshot = false, lastSequenceNr = 0)
+      }
+    }
+  }
+
+  private def startCaseWithSnapshot(): ActorMetadata = {
+    val caseInstanceId = new Guid().toString
+    val startCase: StartCase = TestScript.createCaseCommand(testUser, caseInstanceId, caseDefinition)
+    whenReady(caseSystem.sendCommand(startCase))(_ => {})
+    // Snapshots are stored asynchronously after the events are persisted
+    eventually {
+      readPersistence(caseInstanceId).hasSnapshot shouldBe true
+    }
+    ActorMetadata(user = StorageUser(testUser.id), actorType = ActorType.Case, tenant = startCase.tenant, actorId = caseInstanceId)
+  }
+
+  /**
+    * Recover a separate PersistentActor on the persistence id, to see what is left in the snapshot store and the journal
+    */
+  private def readPersistence(persistenceId: String): PersistenceState = {
+    system.actorOf(Props(classOf[PersistenceReader], persistenceId, self))
+    expectMsgType[PersistenceState](5.seconds)
+  }
+}
+
+case class PersistenceState(hasSnapshot: Boolean, lastSequenceNr: Long)
+
+class PersistenceReader(override val persistenceId: String, replyTo: ActorRef) extends PersistentActor {
+  private var hasSnapshot = false
+
+  override def receiveRecover: Receive = {
+    case _: SnapshotOffer => hasSnapshot = true
+    case RecoveryCompleted =>
+      replyTo ! PersistenceState(hasSnapshot, lastSequenceNr)
+      context.stop(self)
+    case _ => // Events are not relevant
+  }
+
+  override def receiveCommand: Receive = {
+    case _ => // We only recover
+  }
+}
@@ -0,0 +1,126 @@
+package org.cafienne.system.router
+
+import akka.actor.{ActorRef, ActorSystem, Props, Terminated}
+import akka.testkit.{ImplicitSender, TestKit}
+import org.cafienne.actormodel.command.TerminateModelActor
+import org.cafienne.actormodel.response.ActorTerminated
+import org.cafienne.cmmn.actorapi.command.plan.GetDiscretionaryItems
+import org.cafienne.cmmn.actorapi.response.{CaseStartedResponse, GetDiscretionaryItemsResponse}
+import org.cafienne.cmmn.definition.CaseDefinition
+import org.cafienne.cmmn.test.TestScript
+import org.cafienne.cmmn.test.TestScript.{loadCaseDefinition, testUser}
+import org.cafienne.infrastructure.Cafienne
+import org.cafienne.system.CaseSystem
+import org.cafienne.util.Guid
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.Eventually
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.{Millis, Seconds, Span}
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import scala.collection.mutable
+import scala.concurrent.duration._
+
+class LocalRouterTest
+  extends TestKit(ActorSystem("local-router-test", Cafienne.config.systemConfig))
+    with ImplicitSender
+    with AnyWordSpecLike
+    with Matchers
+    with BeforeAndAfterAll
+    with Eventually {
+
+  implicit override val patienceConfig: PatienceConfig = PatienceConfig(
+    timeout = scaled(Span(5, Seconds)),
+    interval = scaled(Span(50, Millis)))
+
+  val caseSystem = new CaseSystem(system)
+  val caseDefinition: CaseDefinition = loadCaseDefinition("testdefinition/helloworld.xml")
+
+  override def afterAll(): Unit = {
+    TestKit.shutdownActorSystem(system)
+  }
+
+  "A local router with a maximum number of residents" must {
+    "deliver the commands that arrive during passivation to a new incarnation of the evicted actor" in {
+      val actors = collection.concurrent.TrieMap[String, ActorRef]()
+      val router = system.actorOf(Props.create(classOf[LocalRouter], caseSystem, actors, mutable.Map[String, ActorRef](), "Case", Int.box(1)))
+
+      val firstCase = new Guid().toString
+      val secondCase = new Guid().toString
+      router ! TestScript.createCaseCommand(testUser, firstCase, caseDefinition)
+      expectMsgType[CaseStartedResponse](10.seconds)
+      val firstIncarnation = actors(firstCase)
+      watch(firstIncarnation)
+
+      // Starting the second case evicts the first one; the command for the first case is held until it has stopped
+      router ! TestScript.createCaseCommand(testUser, secondCase, caseDefinition)
+      router ! new GetDiscretionaryItems(testUser, firstCase)
+
+      val messages = receiveN(3, 10.seconds)
+      messages.count(_.isInstanceOf[CaseStartedResponse]) shouldBe 1
+      messages.count(_.isInstanceOf[GetDiscretionaryItemsResponse]) shouldBe 1
+      messages.collect { case terminated: Terminated => terminated.actor } shouldBe Seq(firstIncarnation)
+
+      // The first case is recovered, and in turn evicts the second case
+      eventually {
+        actors.keySet shouldBe Set(firstCase)
+      }
+      actors(firstCase) should not be firstIncarnation
+    }
+  }
+
+  "Partitioned local routers" must {
+    "select the same partition for an actor id every time, and spread actor ids over all partitions" in {
+      val actorIds = (1 to 1000).map(_ => new Guid().toString)
+      actorIds.foreach(id => CafienneGateway.partitionOf(id, 1) shouldBe 0)
+      Seq(2, 3, 8).foreach(partitions => {
+        val selected = actorIds.map(id => CafienneGateway.partitionOf(id, partitions))
+        actorIds.map(id => CafienneGateway.partitionOf(id, partitions)) shouldBe selected
+        selected.foreach(partition => partition should (be >= 0 and be < partitions))
+        selected.toSet shouldBe (0 until partitions).toSet
+      })
+    }
+
+    "deliver commands that arrive during termination to a new incarnation" in {
+      val actors = collection.concurrent.TrieMap[String, ActorRef]()
+      val router = system.actorOf(Props.create(classOf[LocalRouter], caseSystem, actors, mutable.Map[String, ActorRef](), "Case", Int.box(0)))
+
+      val caseId = new Guid().toString
+      router ! TestScript.createCaseCommand(testUser, caseId, caseDefinition)
+      expectMsgType[CaseStartedResponse](10.seconds)
+      val firstIncarnation = actors(caseId)
+
+      // Terminate and immediately send a command, without waiting for the termination to complete
+      router ! new TerminateModelActor(testUser, caseId, "Case", true)
+      router ! new GetDiscretionaryItems(testUser, caseId)
+      expectMsg(10.seconds, ActorTerminated(caseId))
+      expectMsgType[GetDiscretionaryItemsResponse](10.seconds)
+      actors(caseId) should not be firstIncarnation
+    }
+
+    "let the router that created an actor terminate it when the type of the actor is not known" in {
+      val actors = collection.concurrent.TrieMap[String, ActorRef]()
+      val terminationRequests = collection.concurrent.TrieMap[String, ActorRef]()
+      val owner = system.actorOf(Props.create(classOf[LocalRouter], caseSystem, actors, terminationRequests, "Case", Int.box(0)))
+      val defaultRouter = system.actorOf(Props.create(classOf[LocalRouter], caseSystem, actors, terminationRequests, "default", Int.box(0)))
+
+      val caseId = new Guid().toString
+      owner ! TestScript.createCaseCommand(testUser, caseId, caseDefinition)
+      expectMsgType[CaseStartedResponse](10.seconds)
+      val firstIncarnation = actors(caseId)
+      firstIncarnation.path.parent shouldBe owner.path
+      watch(firstIncarnation)
+
+      // The default router hands the request to the owner, which holds the commands that arrive in the meantime
+      defaultRouter ! new TerminateModelActor(testUser, caseId, false)
+      expectTerminated(firstIncarnation, 10.seconds)
+      owner ! new GetDiscretionaryItems(testUser, caseId)
+      expectMsgType[GetDiscretionaryItemsResponse](10.seconds)
+      actors(caseId).path.parent shouldBe owner.path
+
+      // Without a type and without the actor in memory, the request is answered right away
+      defaultRouter ! new TerminateModelActor(testUser, new Guid().toString, true)
+      expectMsgType[ActorTerminated](10.seconds)
+    }
+  }
+}
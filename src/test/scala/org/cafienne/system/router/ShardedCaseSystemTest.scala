@@ -0,0 +1,92 @@
+package org.cafienne.system.router
+
+import akka.actor.ActorSystem
+import akka.cluster.{Cluster, MemberStatus}
+import akka.testkit.TestKit
+import com.typesafe.config.{Config, ConfigFactory}
+import org.cafienne.actormodel.command.TerminateModelActor
+import org.cafienne.actormodel.response.ActorTerminated
+import org.cafienne.cmmn.actorapi.command.plan.GetDiscretionaryItems
+import org.cafienne.cmmn.actorapi.response.{CaseStartedResponse, GetDiscretionaryItemsResponse}
+import org.cafienne.cmmn.definition.CaseDefinition
+import org.cafienne.cmmn.test.TestScript
+import org.cafienne.cmmn.test.TestScript.{loadCaseDefinition, testUser}
+import org.cafienne.infrastructure.Cafienne
+import org.cafienne.storage.actormodel.ActorType
+import org.cafienne.system.CaseSystem
+import org.cafienne.util.Guid
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.{Eventually, ScalaFutures}
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.{Millis, Seconds, Span}
+import org.scalatest.wordspec.AnyWordSpecLike
+
+/**
+  * Runs two cluster nodes in one JVM, each with a case system in sharded mode.
+  * Every node has its own in-memory journal, so a command only finds an existing case if it is routed
+  * to the node that hosts the case.
+  */
+class ShardedCaseSystemTest extends AnyWordSpecLike with Matchers with ScalaFutures with Eventually with BeforeAndAfterAll {
+
+  implicit override val patienceConfig: PatienceConfig = PatienceConfig(
+    timeout = scaled(Span(20, Seconds)),
+    interval = scaled(Span(200, Millis)))
+
+  val clusterConfig: Config = ConfigFactory.parseString(
+    """
+      |akka.actor.provider = cluster
+      |akka.remote.artery.canonical.hostname = "127.0.0.1"
+      |akka.remote.artery.canonical.port = 0
+      |akka.cluster.jmx.multi-mbeans-in-same-jvm = on
+      |""".stripMargin).withFallback(Cafienne.config.systemConfig)
+
+  val node1: ActorSystem = ActorSystem("sharded-case-system", clusterConfig)
+  val node2: ActorSystem = ActorSystem("sharded-case-system", clusterConfig)
+  lazy val caseSystem1: CaseSystem = new CaseSystem(node1, sharded = true)
+  lazy val caseSystem2: CaseSystem = new CaseSystem(node2, sharded = true)
+
+  val caseDefinition: CaseDefinition = loadCaseDefinition("testdefinition/helloworld.xml")
+
+  override def beforeAll(): Unit = {
+    val seed = Cluster(node1).selfAddress
+    Cluster(node1).join(seed)
+    Cluster(node2).join(seed)
+    eventually {
+      Cluster(node1).state.members.count(_.status == MemberStatus.Up) shouldBe 2
+      Cluster(node2).state.members.count(_.status == MemberStatus.Up) shouldBe 2
+    }
+    // Open the shard regions on both nodes
+    Seq(caseSystem1, caseSystem2).foreach(_.gateway)
+  }
+
+  override def afterAll(): Unit = {
+    TestKit.shutdownActorSystem(node2)
+    TestKit.shutdownActorSystem(node1)
+  }
+
+  "A sharded case system" must {
+    "route the commands for a case from both nodes to the same case" in {
+      val caseInstanceId = new Guid().toString
+      caseSystem1.gateway.request(TestScript.createCaseCommand(testUser, caseInstanceId, caseDefinition)).futureValue shouldBe a[CaseStartedResponse]
+
+      caseSystem2.gateway.request(new GetDiscretionaryItems(testUser, caseInstanceId)).futureValue shouldBe a[GetDiscretionaryItemsResponse]
+      caseSystem1.gateway.request(new GetDiscretionaryItems(testUser, caseInstanceId)).futureValue shouldBe a[GetDiscretionaryItemsResponse]
+    }
+
+    "terminate a case through the shard region of its type" in {
+      val caseInstanceId = new Guid().toString
+      caseSystem2.gateway.request(TestScript.createCaseCommand(testUser, caseInstanceId, caseDefinition)).futureValue shouldBe a[CaseStartedResponse]
+
+      caseSystem1.gateway.request(new TerminateModelActor(testUser, caseInstanceId, ActorType.Case, true)).futureValue shouldBe ActorTerminated(caseInstanceId)
+
+      // The case is recovered by the shard region upon the next command
+      caseSystem1.gateway.request(new GetDiscretionaryItems(testUser, caseInstanceId)).futureValue shouldBe a[GetDiscretionaryItemsResponse]
+    }
+
+    "refuse to terminate an actor without knowing its type" in {
+      val caseInstanceId = new Guid().toString
+      an[IllegalArgumentException] should be thrownBy caseSystem1.gateway.request(new TerminateModelActor(testUser, caseInstanceId, null, true))
+      an[IllegalArgumentException] should be thrownBy caseSystem2.gateway.inform(new TerminateModelActor(testUser, caseInstanceId, null, false))
+    }
+  }
+}
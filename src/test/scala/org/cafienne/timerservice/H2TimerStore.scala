@@ -0,0 +1,37 @@
+package org.cafienne.timerservice
+
+import com.typesafe.config.ConfigFactory
+import org.cafienne.journal.jdbc.FlywayEventDB
+import org.cafienne.timerservice.persistence.jdbc.JDBCTimerStore
+import slick.basic.DatabaseConfig
+import slick.jdbc.JdbcProfile
+
+import java.util.UUID
+
+/**
+  * JDBCTimerStore on an in-memory H2 database, with the schema of the event database migrations
+  */
+class H2TimerStore(partition: TimerPartition, database: DatabaseConfig[JdbcProfile]) extends JDBCTimerStore(partition) {
+  override lazy val dbConfig: DatabaseConfig[JdbcProfile] = database
+}
+
+object H2TimerStore {
+  /**
+    * Creates a new, empty in-memory database with the timer tables
+    */
+  def database(): DatabaseConfig[JdbcProfile] = {
+    val config = ConfigFactory.parseString(
+      s"""profile = "slick.jdbc.H2Profile$$"
+         |db {
+         |  driver = "org.h2.Driver"
+         |  url = "jdbc:h2:mem:timers-${UUID.randomUUID()};DB_CLOSE_DELAY=-1"
+         |  connectionPool = disabled
+         |}
+         |""".stripMargin)
+    val database = DatabaseConfig.forConfig[JdbcProfile]("", config)
+    FlywayEventDB.validateSchema(database.db, database.profile)
+    database
+  }
+
+  def apply(partition: TimerPartition = TimerPartition(0, 1)): H2TimerStore = new H2TimerStore(partition, database())
+}
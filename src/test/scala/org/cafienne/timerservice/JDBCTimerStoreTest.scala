@@ -0,0 +1,107 @@
+package org.cafienne.timerservice
+
+import akka.actor.ActorSystem
+import akka.persistence.query.Sequence
+import akka.stream.scaladsl.Sink
+import akka.testkit.TestKit
+import org.cafienne.timerservice.persistence.TimerBatch
+import org.cafienne.timerservice.persistence.jdbc.JDBCTimerStore
+import org.cafienne.util.Guid
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.{Seconds, Span}
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import java.time.Instant
+import java.time.temporal.ChronoUnit
+
+class JDBCTimerStoreTest extends TestKit(ActorSystem("jdbc-timer-store-test")) with AnyWordSpecLike with Matchers with ScalaFutures with BeforeAndAfterAll {
+
+  implicit override val patienceConfig: PatienceConfig = PatienceConfig(timeout = scaled(Span(10, Seconds)))
+
+  override def afterAll(): Unit = {
+    TestKit.shutdownActorSystem(system)
+  }
+
+  // Moments are stored with millisecond precision at most
+  val now: Instant = Instant.now.truncatedTo(ChronoUnit.MILLIS)
+  val window: Instant = now.plusSeconds(60)
+
+  def timer(moment: Instant, caseInstanceId: String = new Guid().toString): Timer = Timer(caseInstanceId, new Guid().toString, moment, "user")
+
+  def ordered(timers: Seq[Timer]): Seq[Timer] = timers.sortBy(timer => (timer.moment, timer.timerId))
+
+  def stream(store: JDBCTimerStore, pageSize: Int): Seq[Timer] = store.streamTimers(window, pageSize).runWith(Sink.seq).futureValue
+
+  "Streaming the timers of a window" must {
+    "return every timer once, in order of moment and timer id, when timers with the same moment span a page boundary" in {
+      val store = H2TimerStore()
+      // With a page size of 3, the timers at now + 1s are on the first, second and third page
+      val timers = Seq.fill(2)(timer(now.minusSeconds(1))) ++ Seq.fill(5)(timer(now.plusSeconds(1))) ++ Seq(timer(now.plusSeconds(2)))
+      store.importTimers(timers :+ timer(window.plusSeconds(1)))
+
+      stream(store, 3) shouldBe ordered(timers)
+      // Also when all timers have the same moment
+      val sameMoment = Seq.fill(7)(timer(now))
+      val other = H2TimerStore()
+      other.importTimers(sameMoment)
+      Seq(1, 2, 3, 6, 7, 8).foreach(pageSize => stream(other, pageSize) shouldBe ordered(sameMoment))
+    }
+
+    "complete when the page size exactly divides the number of timers in the window" in {
+      val store = H2TimerStore()
+      val timers = (1 to 6).map(second => timer(now.plusSeconds(second)))
+      store.importTimers(timers)
+
+      Seq(1, 2, 3, 6).foreach(pageSize => stream(store, pageSize) shouldBe ordered(timers))
+      stream(H2TimerStore(), 3) shouldBe empty
+    }
+
+    "only return the timers of its own partition" in {
+      val database = H2TimerStore.database()
+      val partitions = TimerPartition.all(3)
+      val stores = partitions.map(partition => new H2TimerStore(partition, database))
+      val timers = (1 to 30).map(_ => timer(now))
+      stores.head.importTimers(timers)
+
+      partitions.zip(stores).foreach(pair => stream(pair._2, 4) shouldBe ordered(timers.filter(pair._1.contains)))
+    }
+  }
+
+  "Importing timers" must {
+    "insert timers in chunks, and update the timers that already exist" in {
+      val store = H2TimerStore()
+      val timers = (1 to JDBCTimerStore.importBatchSize * 2 + 500).map(_ => timer(now))
+      store.importTimers(timers)
+      store.getTimers(window).futureValue should contain theSameElementsAs timers
+
+      // Importing again overwrites the existing timers and adds the new ones
+      val updated = timers.take(JDBCTimerStore.importBatchSize + 10).map(_.copy(moment = now.plusSeconds(30), userId = "other user"))
+      val added = Seq(timer(now))
+      store.importTimers(updated ++ added)
+      store.getTimers(window).futureValue should contain theSameElementsAs updated ++ timers.drop(updated.size) ++ added
+    }
+  }
+
+  "Storing a batch of timers" must {
+    "upsert the timers that are set, remove the timers that are cleared and store the offset" in {
+      val store = H2TimerStore()
+      val timers = Seq.fill(4)(timer(now))
+      store.importTimers(timers)
+
+      val moved = timers.head.copy(moment = now.plusSeconds(10))
+      val added = timer(now.plusSeconds(20))
+      store.storeTimers(TimerBatch(Seq(moved, added), timers.slice(1, 3).map(_.timerId), Some(Sequence(7)))).futureValue
+
+      store.getTimers(window).futureValue should contain theSameElementsAs Seq(moved, timers(3), added)
+      store.getOffset.futureValue shouldBe Sequence(7)
+
+      // A batch with only removals, or without any timers at all, only needs to move the offset
+      store.storeTimers(TimerBatch(Seq(), Seq(moved.timerId), Some(Sequence(8)))).futureValue
+      store.storeTimers(TimerBatch(Seq(), Seq(), Some(Sequence(9)))).futureValue
+      store.getTimers(window).futureValue should contain theSameElementsAs Seq(timers(3), added)
+      store.getOffset.futureValue shouldBe Sequence(9)
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package org.cafienne.timerservice
+
+import akka.persistence.query.{Offset, Sequence, TimeBasedUUID}
+import com.datastax.oss.driver.api.core.uuid.Uuids
+import org.cafienne.infrastructure.cqrs.offset.OffsetRecord
+import org.cafienne.timerservice.persistence.inmemory.InMemoryStore
+import org.cafienne.util.Guid
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import java.time.Instant
+
+class TimerPartitionTest extends AnyWordSpecLike with Matchers with ScalaFutures {
+
+  val caseInstanceIds: Seq[String] = (1 to 1000).map(_ => new Guid().toString)
+
+  def timer(caseInstanceId: String): Timer = Timer(caseInstanceId, new Guid().toString, Instant.now.plusSeconds(60), "user")
+
+  "Timer partitions" must {
+    "hold every case in exactly one partition" in {
+      Seq(1, 2, 3, 7).foreach(count => {
+        val partitions = TimerPartition.all(count)
+        caseInstanceIds.foreach(id => partitions.count(_.contains(id)) shouldBe 1)
+        // Each partition gets a fair share of the cases
+        partitions.foreach(partition => caseInstanceIds.count(partition.contains) should be > caseInstanceIds.size / count / 2)
+      })
+    }
+
+    "keep the names from before partitioning when there is only one partition" in {
+      val single = TimerPartition(0, 1)
+      single.name shouldBe TimerService.CAFIENNE_TIMER_SERVICE
+      single.offsetName shouldBe TimerPartition.offsetPrefix
+      TimerPartition.all(2).map(_.offsetName).toSet should have size 2
+    }
+
+    "only read the timers of its own partition from the store" in {
+      val partitions = TimerPartition.all(3)
+      val timers = caseInstanceIds.map(timer)
+      val stores = partitions.map(partition => new InMemoryStore(partition))
+      // Import all timers in every store, as happens when timers are migrated from another storage
+      stores.foreach(_.importTimers(timers))
+
+      val partitionTimers = stores.map(_.getTimers(Instant.now.plusSeconds(120)).futureValue)
+      partitionTimers.flatten should contain theSameElementsAs timers
+      partitions.zip(partitionTimers).foreach(pair => pair._2.foreach(timer => pair._1.contains(timer) shouldBe true))
+    }
+  }
+
+  "The offset of a timer partition" must {
+    val store = new InMemoryStore(TimerPartition(1, 3))
+    val otherRecords = Seq(
+      OffsetRecord("Timer Service Offset 1 of 2", Sequence(40)),
+      OffsetRecord("Timer Service Offset 2 of 2", Sequence(25)),
+      OffsetRecord("QueryDB Cases", Sequence(3)))
+
+    "be read from its own offset record" in {
+      store.partitionOffset(otherRecords :+ OffsetRecord(store.storageName, Sequence(50))) shouldBe Sequence(50)
+    }
+
+    "fall back to the lowest offset of the other timer partitions when it has no record" in {
+      store.partitionOffset(otherRecords) shouldBe Sequence(25)
+      store.partitionOffset(Seq(OffsetRecord(TimerPartition.offsetPrefix, Sequence(60)), OffsetRecord("QueryDB Cases", Sequence(3)))) shouldBe Sequence(60)
+
+      val earlier = TimeBasedUUID(Uuids.startOf(1000))
+      val later = TimeBasedUUID(Uuids.startOf(2000))
+      store.partitionOffset(Seq(OffsetRecord("Timer Service Offset 1 of 2", later), OffsetRecord("Timer Service Offset 2 of 2", earlier))) shouldBe earlier
+    }
+
+    "start from the beginning when there is no timer offset at all, or when offsets cannot be compared" in {
+      store.partitionOffset(Seq()) shouldBe Offset.noOffset
+      store.partitionOffset(Seq(OffsetRecord("QueryDB Cases", Sequence(3)))) shouldBe Offset.noOffset
+      store.partitionOffset(Seq(OffsetRecord("Timer Service Offset 1 of 2", Sequence(40)), OffsetRecord("Timer Service Offset 2 of 2", TimeBasedUUID(Uuids.startOf(1000))))) shouldBe Offset.noOffset
+    }
+  }
+}
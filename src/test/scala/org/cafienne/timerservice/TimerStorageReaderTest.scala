@@ -0,0 +1,150 @@
+package org.cafienne.timerservice
+
+import akka.{Done, NotUsed}
+import akka.actor.ActorSystem
+import akka.pattern.after
+import akka.stream.scaladsl.Source
+import akka.testkit.TestKit
+import org.cafienne.util.Guid
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.{Eventually, ScalaFutures}
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.{Millis, Seconds, Span}
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import java.time.Instant
+import java.time.temporal.ChronoUnit
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+import scala.concurrent.duration._
+import scala.concurrent.{Future, Promise}
+import scala.jdk.CollectionConverters._
+
+class TimerStorageReaderTest extends TestKit(ActorSystem("timer-storage-reader-test")) with AnyWordSpecLike with Matchers with ScalaFutures with Eventually with BeforeAndAfterAll {
+
+  implicit override val patienceConfig: PatienceConfig = PatienceConfig(
+    timeout = scaled(Span(10, Seconds)),
+    interval = scaled(Span(20, Millis)))
+
+  override def afterAll(): Unit = {
+    TestKit.shutdownActorSystem(system)
+  }
+
+  def overdueTimers(count: Int): Seq[Timer] = {
+    val moment = Instant.now.truncatedTo(ChronoUnit.MILLIS).minusSeconds(60)
+    (1 to count).map(_ => Timer(new Guid().toString, new Guid().toString, moment, "user"))
+  }
+
+  /**
+    * Stands in for TimerMonitor.loadTimer, which completes when the case has handled an overdue timer.
+    * Here each load completes when the test completes its promise.
+    */
+  class PendingLoads {
+    val loads = new ConcurrentLinkedQueue[(Timer, Promise[Done])]()
+
+    def load(timer: Timer): Future[Done] = {
+      val promise = Promise[Done]()
+      loads.add((timer, promise))
+      promise.future
+    }
+
+    def timers: Seq[Timer] = loads.asScala.map(_._1).toSeq
+
+    def completeAll(): Unit = loads.asScala.foreach(_._2.trySuccess(Done))
+  }
+
+  "Loading a window of timers" must {
+    "load at most max-in-flight overdue timers at the same time, and eventually all of them" in {
+      val store = H2TimerStore()
+      val timers = overdueTimers(50)
+      store.importTimers(timers)
+
+      val inFlight = new AtomicInteger()
+      val maxInFlight = new AtomicInteger()
+      val loaded = new ConcurrentLinkedQueue[Timer]()
+      val reader = new TimerStorageReader(store, timer => {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), (max, current) => Math.max(max, current))
+        after(5.millis, system.scheduler)(Future.successful {
+          loaded.add(timer)
+          inFlight.decrementAndGet()
+          Done
+        })(system.dispatcher)
+      }, window = 1.minute, pageSize = 7, maxInFlight = 4)
+
+      reader.loadNextWindow.futureValue
+      maxInFlight.get shouldBe 4
+      loaded.asScala.toSeq should contain theSameElementsAs timers
+    }
+
+    "read no further while max-in-flight timers are still being loaded" in {
+      val store = H2TimerStore()
+      val timers = overdueTimers(10)
+      store.importTimers(timers)
+
+      val pending = new PendingLoads
+      val reader = new TimerStorageReader(store, pending.load, window = 1.minute, pageSize = 2, maxInFlight = 3)
+      val load = reader.loadNextWindow
+      eventually {
+        pending.timers should have size 3
+      }
+      Thread.sleep(200)
+      pending.timers should have size 3
+      load.isCompleted shouldBe false
+
+      // Each completed timer makes room for the next ones
+      eventually {
+        pending.completeAll()
+        pending.timers should have size 10
+      }
+      pending.completeAll()
+      load.futureValue
+      pending.timers should contain theSameElementsAs timers
+    }
+
+    "chain at most one load to a load that is still running, and never run two loads at the same time" in {
+      val reads = new AtomicInteger()
+      val store = new H2TimerStore(TimerPartition(0, 1), H2TimerStore.database()) {
+        override def streamTimers(window: Instant, pageSize: Int): Source[Timer, NotUsed] = {
+          reads.incrementAndGet()
+          super.streamTimers(window, pageSize)
+        }
+      }
+      val timers = overdueTimers(1)
+      store.importTimers(timers)
+
+      val pending = new PendingLoads
+      val reader = new TimerStorageReader(store, pending.load, window = 1.minute, pageSize = 10, maxInFlight = 2)
+      val first = reader.loadNextWindow
+      eventually {
+        pending.timers should have size 1
+      }
+
+      // The first load waits for its timer; two more requests lead to one more load, that only starts when the first one is done
+      val second = reader.loadNextWindow
+      val third = reader.loadNextWindow
+      third should be theSameInstanceAs second
+      Thread.sleep(200)
+      reads.get shouldBe 1
+      first.isCompleted shouldBe false
+
+      pending.completeAll()
+      first.futureValue
+      eventually {
+        pending.timers should have size 2
+      }
+      reads.get shouldBe 2
+      second.isCompleted shouldBe false
+
+      pending.completeAll()
+      second.futureValue
+      reads.get shouldBe 2
+
+      // Without a running load, the next window is read right away
+      reader.loadNextWindow
+      eventually {
+        reads.get shouldBe 3
+      }
+      pending.completeAll()
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package org.cafienne.timerservice
+
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import java.time.Instant
+import scala.collection.mutable
+import scala.util.Random
+
+class TimingWheelTest extends AnyWordSpecLike with Matchers {
+
+  // With 4 buckets of 10 ms, the levels cover 40 ms, 160 ms, 640 ms and 2560 ms
+  val tick = 10L
+  val wheelSize = 4
+  val start = 1000003L
+
+  def job(millis: Long): TimerJob = new TimerJob(null, Timer("case", s"timer-$millis", Instant.ofEpochMilli(millis), "user"))
+
+  /**
+    * Advances the wheel millisecond by millisecond until the end, and returns the moment on which each job fired
+    */
+  def fireTimes(wheel: TimingWheel, from: Long, until: Long): Map[TimerJob, Long] = {
+    val fired = mutable.Map[TimerJob, Long]()
+    (from to until).foreach(now => wheel.advance(now).foreach(job => {
+      fired.contains(job) shouldBe false
+      fired.put(job, now)
+    }))
+    fired.toMap
+  }
+
+  "A timing wheel" must {
+    "fire jobs never early and at most one tick late, across all levels" in {
+      val wheel = new TimingWheel(tick, wheelSize, start)
+      val random = new Random(42)
+      // Include the moments right on and around the boundaries of the levels
+      val boundaries = Seq(40L, 160L, 640L, 2560L).flatMap(range => Seq(range - 1, range, range + 1)).map(start - start % tick + _)
+      val jobs = boundaries.map(job) ++ (1 to 500).map(_ => job(start + random.nextInt(6000)))
+      jobs.foreach(wheel.add(_) shouldBe true)
+      wheel.size shouldBe jobs.size
+
+      val fired = fireTimes(wheel, start, start + 6100)
+      fired.keySet shouldBe jobs.toSet
+      jobs.foreach(job => {
+        val firedAt = fired(job)
+        withClue(s"Job for ${job.millis} fired at $firedAt: ") {
+          firedAt should be >= job.millis
+          firedAt - job.millis should be <= tick
+        }
+      })
+      wheel.size shouldBe 0
+    }
+
+    "not add jobs of which the moment has passed" in {
+      val wheel = new TimingWheel(tick, wheelSize, start)
+      wheel.add(job(start - 2 * tick)) shouldBe false
+      wheel.size shouldBe 0
+    }
+
+    "cancel jobs that are held in the overflow levels" in {
+      val wheel = new TimingWheel(tick, wheelSize, start)
+      // Jobs in the second, third and fourth level, each with a neighbour in the same bucket that stays
+      val cancelled = Seq(start + 100, start + 400, start + 2000).map(job)
+      val kept = Seq(start + 101, start + 401, start + 2001).map(job)
+      (cancelled ++ kept).foreach(wheel.add)
+
+      cancelled.foreach(wheel.cancel(_) shouldBe true)
+      cancelled.foreach(wheel.cancel(_) shouldBe false)
+      wheel.size shouldBe kept.size
+
+      fireTimes(wheel, start, start + 2100).keySet shouldBe kept.toSet
+      wheel.size shouldBe 0
+    }
+
+    "fire all expired jobs in one batch after a long gap" in {
+      val wheel = new TimingWheel(tick, wheelSize, start)
+      val jobs = Seq(start + 5, start + 50, start + 500, start + 5000).map(job)
+      jobs.foreach(wheel.add)
+
+      wheel.advance(start + 100000).toSet shouldBe jobs.toSet
+      wheel.size shouldBe 0
+
+      // The wheel continues from the new moment
+      val now = start + 100000
+      wheel.add(job(now - 2 * tick)) shouldBe false
+      val later = Seq(now + 15, now + 700).map(job)
+      later.foreach(wheel.add(_) shouldBe true)
+      val fired = fireTimes(wheel, now, now + 800)
+      fired.keySet shouldBe later.toSet
+      later.foreach(job => fired(job) - job.millis should (be >= 0L and be <= tick))
+    }
+
+    "jump ahead when it is empty, and still fire jobs added afterwards on time" in {
+      val wheel = new TimingWheel(tick, wheelSize, start)
+      wheel.add(job(start + 3000))
+      wheel.advance(start + 3100).size shouldBe 1
+
+      wheel.advance(start + 50000) shouldBe empty
+      val next = job(start + 50000 + 900)
+      wheel.add(next) shouldBe true
+      val fired = fireTimes(wheel, start + 50000, start + 51000)
+      fired.keySet shouldBe Set(next)
+      fired(next) - next.millis should (be >= 0L and be <= tick)
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package org.cafienne.timerservice.persistence
+
+import akka.persistence.query.Sequence
+import org.cafienne.timerservice.persistence.inmemory.InMemoryStore
+import org.cafienne.timerservice.{Timer, TimerPartition}
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import java.time.Instant
+
+class TimerBatchTest extends AnyWordSpecLike with Matchers {
+
+  def timer(timerId: String, seconds: Long = 60): Timer = Timer("case", timerId, Instant.now.plusSeconds(seconds), "user")
+
+  "A timer batch" must {
+    "only remove a timer that is set and then cleared" in {
+      val batch = TimerBatch.from(Seq("A" -> Some(timer("A")), "A" -> None), Some(Sequence(2)))
+      batch.timers shouldBe empty
+      batch.removals shouldBe Seq("A")
+      batch.offset shouldBe Some(Sequence(2))
+    }
+
+    "only store a timer that is cleared and then set again" in {
+      val again = timer("A", 120)
+      val batch = TimerBatch.from(Seq("A" -> Some(timer("A")), "A" -> None, "A" -> Some(again)), None)
+      batch.timers shouldBe Seq(again)
+      batch.removals shouldBe empty
+    }
+
+    "never hold a timer in both the timers to store and the timers to remove" in {
+      val b = timer("B")
+      val c = timer("C")
+      val batch = TimerBatch.from(Seq("A" -> Some(timer("A")), "B" -> None, "B" -> Some(b), "C" -> Some(c), "A" -> None, "D" -> None), None)
+      batch.timers shouldBe Seq(b, c)
+      batch.removals shouldBe Seq("A", "D")
+      batch.timers.map(_.timerId).intersect(batch.removals) shouldBe empty
+    }
+
+    "remove a stored timer that is set again and then cleared in a later batch" in {
+      val store = new InMemoryStore(TimerPartition(0, 1))
+      store.storeTimer(timer("A"), None)
+      store.storeTimer(timer("B"), None)
+
+      store.storeTimers(TimerBatch.from(Seq("A" -> Some(timer("A", 120)), "A" -> None, "C" -> Some(timer("C"))), None))
+      store.timers.keySet shouldBe Set("B", "C")
+    }
+  }
+}